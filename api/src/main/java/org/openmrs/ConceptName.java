@@ -26,11 +26,15 @@ import org.hibernate.search.annotations.AnalyzerDef;
 import org.hibernate.search.annotations.DocumentId;
 import org.hibernate.search.annotations.Field;
 import org.hibernate.search.annotations.FieldBridge;
+import org.hibernate.search.annotations.Fields;
 import org.hibernate.search.annotations.Indexed;
 import org.hibernate.search.annotations.IndexedEmbedded;
+import org.hibernate.search.annotations.Store;
 import org.hibernate.search.annotations.TokenFilterDef;
 import org.hibernate.search.annotations.TokenizerDef;
 import org.openmrs.api.ConceptNameType;
+import org.openmrs.api.db.hibernate.search.ConceptTypeaheadQuery;
+import org.openmrs.api.db.hibernate.search.LuceneAnalyzers;
 import org.openmrs.api.db.hibernate.search.bridge.LocaleFieldBridge;
 
 /**
@@ -55,7 +59,10 @@ public class ConceptName extends BaseOpenmrsObject implements Auditable, Voidabl
 	@IndexedEmbedded(includeEmbeddedObjectId = true)
 	private Concept concept;
 	
-	@Field
+	@Fields({
+			@Field,
+			@Field(name = ConceptTypeaheadQuery.NAME_FIELD, analyzer = @Analyzer(definition = LuceneAnalyzers.TYPEAHEAD_ANALYZER), store = Store.YES)
+	})
 	private String name;
 	
 	@Field(analyze = Analyze.NO)
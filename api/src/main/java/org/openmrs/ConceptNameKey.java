@@ -0,0 +1,176 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * The normalized default name of a non retired concept in one locale, maintained when concepts are
+ * saved so that a duplicate concept name can be found with a single indexed lookup instead of
+ * loading the candidate names and their concepts.
+ *
+ * @see org.openmrs.api.ConceptService#isConceptNameDuplicate(ConceptName)
+ * @since 2.7.0
+ */
+@Entity
+@Table(name = "concept_name_key")
+public class ConceptNameKey implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "concept_name_key_id")
+	private Integer conceptNameKeyId;
+
+	@Column(name = "concept_id", nullable = false)
+	private Integer conceptId;
+
+	@Column(name = "locale", length = 50, nullable = false)
+	private String locale;
+
+	@Column(name = "name_key", nullable = false)
+	private String nameKey;
+
+	@Column(name = "name", nullable = false)
+	private String name;
+
+	public ConceptNameKey() {
+	}
+
+	/**
+	 * @param conceptId the id of the concept
+	 * @param locale the locale of the name
+	 * @param name the default name of the concept in the locale
+	 */
+	public ConceptNameKey(Integer conceptId, Locale locale, String name) {
+		this.conceptId = conceptId;
+		this.locale = locale.toString();
+		this.nameKey = normalize(name);
+		this.name = name;
+	}
+
+	/**
+	 * @param name a concept name
+	 * @return the key two names that are duplicates of each other share
+	 */
+	public static String normalize(String name) {
+		return name.toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Gets the keys of the default names of a concept, a concept has a key for each locale in which
+	 * {@link Concept#getName(Locale, boolean)} returns a name of that very locale.
+	 *
+	 * @param concept the concept
+	 * @return the keys, none if the concept is retired or not saved yet
+	 * <strong>Should</strong> return a key for the default name of each locale
+	 * <strong>Should</strong> return no keys for a retired concept
+	 */
+	public static List<ConceptNameKey> forConcept(Concept concept) {
+		List<ConceptNameKey> keys = new ArrayList<>();
+		if (concept.getConceptId() == null || concept.getRetired()) {
+			return keys;
+		}
+		for (ConceptName defaultName : getDefaultNames(concept)) {
+			keys.add(new ConceptNameKey(concept.getConceptId(), defaultName.getLocale(), defaultName.getName()));
+		}
+		return keys;
+	}
+
+	/**
+	 * Gets the names of a concept that get a key, whether or not the concept is saved or retired
+	 *
+	 * @param concept the concept
+	 * @return the default names of the concept, one per locale at most
+	 * @see #forConcept(Concept)
+	 */
+	public static List<ConceptName> getDefaultNames(Concept concept) {
+		Set<Locale> locales = new LinkedHashSet<>();
+		for (ConceptName name : concept.getNames()) {
+			if (name.getLocale() != null) {
+				locales.add(name.getLocale());
+			}
+		}
+		List<ConceptName> defaultNames = new ArrayList<>();
+		for (Locale locale : locales) {
+			ConceptName defaultName = concept.getName(locale, true);
+			if (defaultName != null && locale.equals(defaultName.getLocale()) && defaultName.getName() != null) {
+				defaultNames.add(defaultName);
+			}
+		}
+		return defaultNames;
+	}
+
+	public Integer getConceptNameKeyId() {
+		return conceptNameKeyId;
+	}
+
+	public void setConceptNameKeyId(Integer conceptNameKeyId) {
+		this.conceptNameKeyId = conceptNameKeyId;
+	}
+
+	/**
+	 * @return the id of the concept
+	 */
+	public Integer getConceptId() {
+		return conceptId;
+	}
+
+	public void setConceptId(Integer conceptId) {
+		this.conceptId = conceptId;
+	}
+
+	/**
+	 * @return the locale of the name, as returned by {@link Locale#toString()}
+	 */
+	public String getLocale() {
+		return locale;
+	}
+
+	public void setLocale(String locale) {
+		this.locale = locale;
+	}
+
+	/**
+	 * @return the normalized name
+	 * @see #normalize(String)
+	 */
+	public String getNameKey() {
+		return nameKey;
+	}
+
+	public void setNameKey(String nameKey) {
+		this.nameKey = nameKey;
+	}
+
+	/**
+	 * @return the name as it was saved, used when string comparisons are case sensitive
+	 */
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+}
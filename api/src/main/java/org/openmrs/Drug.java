@@ -16,15 +16,20 @@ import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
 import org.codehaus.jackson.annotate.JsonIgnore;
+import org.hibernate.search.annotations.AnalyzerDiscriminator;
+import org.hibernate.search.annotations.ClassBridge;
 import org.hibernate.search.annotations.DocumentId;
 import org.hibernate.search.annotations.Indexed;
 import org.hibernate.search.annotations.IndexedEmbedded;
 import org.openmrs.api.context.Context;
+import org.openmrs.api.db.hibernate.search.bridge.DrugConceptNameFieldBridge;
 
 /**
  * Drug
  */
 @Indexed
+@ClassBridge(name = DrugConceptNameFieldBridge.FIELD, impl = DrugConceptNameFieldBridge.class)
+@AnalyzerDiscriminator(impl = DrugConceptNameFieldBridge.ConceptNameDiscriminator.class)
 public class Drug extends BaseChangeableOpenmrsMetadata {
 	
 	public static final long serialVersionUID = 285L;
@@ -37,9 +37,21 @@ import javax.persistence.Table;
 
 import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cascade;
+import org.hibernate.search.annotations.Analyze;
+import org.hibernate.search.annotations.Analyzer;
+import org.hibernate.search.annotations.ClassBridge;
+import org.hibernate.search.annotations.ClassBridges;
+import org.hibernate.search.annotations.DocumentId;
+import org.hibernate.search.annotations.Field;
+import org.hibernate.search.annotations.FieldBridge;
+import org.hibernate.search.annotations.Indexed;
 import org.openmrs.annotation.AllowDirectAccess;
 import org.openmrs.annotation.DisableHandlers;
 import org.openmrs.api.context.Context;
+import org.openmrs.api.db.hibernate.search.LuceneAnalyzers;
+import org.openmrs.api.db.hibernate.search.bridge.EncounterMetadataFieldBridge;
+import org.openmrs.api.db.hibernate.search.bridge.EncounterProviderNameFieldBridge;
+import org.openmrs.api.db.hibernate.search.bridge.OpenmrsObjectFieldBridge;
 import org.openmrs.api.handler.VoidHandler;
 
 /**
@@ -54,6 +66,13 @@ import org.openmrs.api.handler.VoidHandler;
 @Entity
 @Table(name = "encounter")
 @BatchSize(size = 25)
+@Indexed
+@ClassBridges({
+        @ClassBridge(name = "metadataExact", analyzer = @Analyzer(definition = LuceneAnalyzers.EXACT_ANALYZER), impl = EncounterMetadataFieldBridge.class),
+        @ClassBridge(name = "metadataAnywhere", analyzer = @Analyzer(definition = LuceneAnalyzers.ANYWHERE_ANALYZER), impl = EncounterMetadataFieldBridge.class),
+        @ClassBridge(name = "providerNameExact", analyzer = @Analyzer(definition = LuceneAnalyzers.EXACT_ANALYZER), impl = EncounterProviderNameFieldBridge.class),
+        @ClassBridge(name = "providerNameAnywhere", analyzer = @Analyzer(definition = LuceneAnalyzers.ANYWHERE_ANALYZER), impl = EncounterProviderNameFieldBridge.class)
+})
 public class Encounter extends BaseChangeableOpenmrsData {
 	
 	public static final long serialVersionUID = 2L;
@@ -62,6 +81,7 @@ public class Encounter extends BaseChangeableOpenmrsData {
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	@Column(name = "encounter_id")
+	@DocumentId
 	private Integer encounterId;
 	
 	@Column(name = "encounter_datetime", nullable = false, length = 19)
@@ -69,6 +89,8 @@ public class Encounter extends BaseChangeableOpenmrsData {
 	
 	@ManyToOne(optional = false)
 	@JoinColumn(name = "patient_id")
+	@Field(name = "patientId", analyze = Analyze.NO)
+	@FieldBridge(impl = OpenmrsObjectFieldBridge.class)
 	private Patient patient;
 	
 	@ManyToOne
@@ -0,0 +1,148 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+/**
+ * A pair of patients that the duplicate detection engine considers likely to be the same person,
+ * stored so that it can be reviewed and either merged or dismissed. The pair is always stored with
+ * the lower patient id first so that a pair is only recorded once.
+ *
+ * @see org.openmrs.patient.duplicate.DuplicatePatientDetector
+ * @since 2.7.0
+ */
+@Entity
+@Table(name = "patient_duplicate_candidate")
+public class PatientDuplicateCandidate extends BaseOpenmrsData {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The review state of a candidate pair
+	 */
+	public enum Status {
+		PENDING,
+		MERGED,
+		NOT_DUPLICATE
+	}
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "patient_duplicate_candidate_id")
+	private Integer patientDuplicateCandidateId;
+
+	@ManyToOne(optional = false)
+	@JoinColumn(name = "patient_id")
+	private Patient patient;
+
+	@ManyToOne(optional = false)
+	@JoinColumn(name = "duplicate_patient_id")
+	private Patient duplicatePatient;
+
+	@Column(name = "score", nullable = false)
+	private Double score;
+
+	@Column(name = "blocking_key", length = 255)
+	private String blockingKey;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "status", nullable = false, length = 50)
+	private Status status = Status.PENDING;
+
+	public PatientDuplicateCandidate() {
+	}
+
+	/**
+	 * @param patient one of the patients, the one with the lower patient id
+	 * @param duplicatePatient the other patient
+	 * @param score the weighted similarity of the two patients, between 0 and 1
+	 * @param blockingKey the blocking key that brought the two patients together
+	 */
+	public PatientDuplicateCandidate(Patient patient, Patient duplicatePatient, Double score, String blockingKey) {
+		this.patient = patient;
+		this.duplicatePatient = duplicatePatient;
+		this.score = score;
+		this.blockingKey = blockingKey;
+	}
+
+	/**
+	 * @see org.openmrs.OpenmrsObject#getId()
+	 */
+	@Override
+	public Integer getId() {
+		return getPatientDuplicateCandidateId();
+	}
+
+	/**
+	 * @see org.openmrs.OpenmrsObject#setId(java.lang.Integer)
+	 */
+	@Override
+	public void setId(Integer id) {
+		setPatientDuplicateCandidateId(id);
+	}
+
+	public Integer getPatientDuplicateCandidateId() {
+		return patientDuplicateCandidateId;
+	}
+
+	public void setPatientDuplicateCandidateId(Integer patientDuplicateCandidateId) {
+		this.patientDuplicateCandidateId = patientDuplicateCandidateId;
+	}
+
+	public Patient getPatient() {
+		return patient;
+	}
+
+	public void setPatient(Patient patient) {
+		this.patient = patient;
+	}
+
+	public Patient getDuplicatePatient() {
+		return duplicatePatient;
+	}
+
+	public void setDuplicatePatient(Patient duplicatePatient) {
+		this.duplicatePatient = duplicatePatient;
+	}
+
+	public Double getScore() {
+		return score;
+	}
+
+	public void setScore(Double score) {
+		this.score = score;
+	}
+
+	public String getBlockingKey() {
+		return blockingKey;
+	}
+
+	public void setBlockingKey(String blockingKey) {
+		this.blockingKey = blockingKey;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+}
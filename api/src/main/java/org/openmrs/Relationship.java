@@ -9,6 +9,7 @@
  */
 package org.openmrs;
 
+import java.sql.Timestamp;
 import java.util.Date;
 
 /**
@@ -18,6 +19,10 @@ public class Relationship extends BaseChangeableOpenmrsData {
 	
 	public static final long serialVersionUID = 323423L;
 	
+	private static final long OPEN_START_DATE = Timestamp.valueOf("1800-01-01 00:00:00").getTime();
+	
+	private static final long OPEN_END_DATE = Timestamp.valueOf("9999-12-31 00:00:00").getTime();
+	
 	// Fields
 	
 	private Integer relationshipId;
@@ -32,6 +37,10 @@ public class Relationship extends BaseChangeableOpenmrsData {
 	
 	private Date endDate;
 	
+	private Date effectiveStartDate;
+	
+	private Date effectiveEndDate;
+	
 	// Constructors
 	
 	/** default constructor */
@@ -170,6 +179,63 @@ public class Relationship extends BaseChangeableOpenmrsData {
 		this.endDate = endDate;
 	}
 	
+	/**
+	 * Gets the start of the interval in which the relationship is effective, which unlike the start
+	 * date is never null once the relationship is saved, so that it can be indexed and compared to a
+	 * date without a null check. It is set from the start date by
+	 * {@link org.openmrs.api.handler.RelationshipSaveHandler}.
+	 * 
+	 * @return the start date, or {@link #getOpenStartDate()} if there is none
+	 * @since 2.7.0
+	 */
+	public Date getEffectiveStartDate() {
+		return effectiveStartDate;
+	}
+	
+	/**
+	 * @param effectiveStartDate the effective start date to set
+	 * @since 2.7.0
+	 */
+	public void setEffectiveStartDate(Date effectiveStartDate) {
+		this.effectiveStartDate = effectiveStartDate;
+	}
+	
+	/**
+	 * Gets the end of the interval in which the relationship is effective, which unlike the end date
+	 * is never null once the relationship is saved. It is set from the end date by
+	 * {@link org.openmrs.api.handler.RelationshipSaveHandler}.
+	 * 
+	 * @return the end date, or {@link #getOpenEndDate()} if there is none
+	 * @since 2.7.0
+	 */
+	public Date getEffectiveEndDate() {
+		return effectiveEndDate;
+	}
+	
+	/**
+	 * @param effectiveEndDate the effective end date to set
+	 * @since 2.7.0
+	 */
+	public void setEffectiveEndDate(Date effectiveEndDate) {
+		this.effectiveEndDate = effectiveEndDate;
+	}
+	
+	/**
+	 * @return the effective start date of relationships without a start date
+	 * @since 2.7.0
+	 */
+	public static Date getOpenStartDate() {
+		return new Date(OPEN_START_DATE);
+	}
+	
+	/**
+	 * @return the effective end date of relationships without an end date
+	 * @since 2.7.0
+	 */
+	public static Date getOpenEndDate() {
+		return new Date(OPEN_END_DATE);
+	}
+	
 	@Override
 	public String toString() {
 		String relType = getRelationshipType() == null ? "NULL" : getRelationshipType().getaIsToB();
@@ -0,0 +1,106 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs;
+
+import java.util.Date;
+
+/**
+ * An entry of the visit and encounter timeline of a patient, either an encounter or a visit without
+ * any encounter. Entries are ordered by the start of their visit, or the encounter datetime for
+ * encounters outside of a visit, then by visit id, encounter datetime and encounter id, all
+ * descending. <br>
+ * <br>
+ * The last entry of a page can be passed to
+ * {@link org.openmrs.api.EncounterService#getEncounterTimeline(Patient, boolean, String, TimelineEntry, Integer)}
+ * to get the next page.
+ *
+ * @since 2.7.0
+ */
+public class TimelineEntry {
+
+	private final Date sortDatetime;
+
+	private final Integer visitId;
+
+	private final Date encounterDatetime;
+
+	private final Integer encounterId;
+
+	private Encounter encounter;
+
+	/**
+	 * @param sortDatetime the start of the visit, or the encounter datetime if there is no visit
+	 * @param visitId the id of the visit, null for an encounter outside of a visit
+	 * @param encounterDatetime the encounter datetime, null for a visit without encounters
+	 * @param encounterId the id of the encounter, null for a visit without encounters
+	 */
+	public TimelineEntry(Date sortDatetime, Integer visitId, Date encounterDatetime, Integer encounterId) {
+		this.sortDatetime = sortDatetime;
+		this.visitId = visitId;
+		this.encounterDatetime = encounterDatetime;
+		this.encounterId = encounterId;
+	}
+
+	/**
+	 * @return the start of the visit, or the encounter datetime if there is no visit
+	 */
+	public Date getSortDatetime() {
+		return sortDatetime;
+	}
+
+	/**
+	 * @return the id of the visit, null for an encounter outside of a visit
+	 */
+	public Integer getVisitId() {
+		return visitId;
+	}
+
+	/**
+	 * @return the encounter datetime, null for a visit without encounters
+	 */
+	public Date getEncounterDatetime() {
+		return encounterDatetime;
+	}
+
+	/**
+	 * @return the id of the encounter, null for a visit without encounters
+	 */
+	public Integer getEncounterId() {
+		return encounterId;
+	}
+
+	/**
+	 * @return true if the entry is a visit without encounters
+	 */
+	public boolean isEmptyVisit() {
+		return encounterId == null;
+	}
+
+	/**
+	 * @return the encounter of the entry, for a visit without encounters an empty encounter with
+	 *         only the visit set
+	 */
+	public Encounter getEncounter() {
+		return encounter;
+	}
+
+	/**
+	 * @param encounter the encounter to set
+	 */
+	public void setEncounter(Encounter encounter) {
+		this.encounter = encounter;
+	}
+
+	@Override
+	public String toString() {
+		return "TimelineEntry[visitId=" + visitId + ", encounterId=" + encounterId + ", sortDatetime=" + sortDatetime
+		        + "]";
+	}
+}
@@ -43,7 +43,19 @@ import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.LazyCollection;
 import org.hibernate.annotations.LazyCollectionOption;
 import org.hibernate.annotations.Parameter;
+import org.hibernate.search.annotations.Analyze;
+import org.hibernate.search.annotations.Analyzer;
+import org.hibernate.search.annotations.Boost;
+import org.hibernate.search.annotations.ClassBridge;
+import org.hibernate.search.annotations.ClassBridges;
+import org.hibernate.search.annotations.DocumentId;
+import org.hibernate.search.annotations.Field;
+import org.hibernate.search.annotations.Fields;
+import org.hibernate.search.annotations.Indexed;
 import org.openmrs.api.context.Context;
+import org.openmrs.api.db.hibernate.search.LuceneAnalyzers;
+import org.openmrs.api.db.hibernate.search.bridge.UserNameFieldBridge;
+import org.openmrs.api.db.hibernate.search.bridge.UserRoleFieldBridge;
 import org.openmrs.util.LocaleUtility;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
@@ -62,6 +74,12 @@ import org.slf4j.LoggerFactory;
 @Entity
 @Table(name = "users")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Indexed
+@ClassBridges({
+        @ClassBridge(name = "nameExact", analyzer = @Analyzer(definition = LuceneAnalyzers.EXACT_ANALYZER), boost = @Boost(8f), impl = UserNameFieldBridge.class),
+        @ClassBridge(name = "nameStart", analyzer = @Analyzer(definition = LuceneAnalyzers.START_ANALYZER), boost = @Boost(4f), impl = UserNameFieldBridge.class),
+        @ClassBridge(name = "roles", analyze = Analyze.NO, impl = UserRoleFieldBridge.class)
+})
 public class User extends BaseOpenmrsObject implements java.io.Serializable, Attributable<User>, Auditable, Retireable {
 	
 	public static final long serialVersionUID = 2L ;
@@ -77,6 +95,7 @@ public class User extends BaseOpenmrsObject implements java.io.Serializable, Att
 		parameters = @Parameter(name = "sequence", value = "users_user_id_seq")
 	)
 	@Column(name = "user_id")
+	@DocumentId
 	private Integer userId;
 
 	@ManyToOne
@@ -86,9 +105,17 @@ public class User extends BaseOpenmrsObject implements java.io.Serializable, Att
 	private Person person;
 
 	@Column(name = "system_id", nullable = false, length = 50)
+	@Fields({
+	        @Field(name = "systemIdExact", analyzer = @Analyzer(definition = LuceneAnalyzers.EXACT_ANALYZER), boost = @Boost(8f)),
+	        @Field(name = "systemIdStart", analyzer = @Analyzer(definition = LuceneAnalyzers.START_ANALYZER), boost = @Boost(4f))
+	})
 	private String systemId;
 
 	@Column(name = "username", length = 50)
+	@Fields({
+	        @Field(name = "usernameExact", analyzer = @Analyzer(definition = LuceneAnalyzers.EXACT_ANALYZER), boost = @Boost(8f)),
+	        @Field(name = "usernameStart", analyzer = @Analyzer(definition = LuceneAnalyzers.START_ANALYZER), boost = @Boost(4f))
+	})
 	private String username;
 
 	@Column(name = "email", length = 255, unique = true)
@@ -129,6 +156,7 @@ public class User extends BaseOpenmrsObject implements java.io.Serializable, Att
 	private Date dateChanged;
 
 	@Column(name = "retired", nullable = false, length = 1)
+	@Field
 	private boolean retired;
 
 	@ManyToOne
@@ -0,0 +1,128 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.aop;
+
+/**
+ * A snapshot of the calls of a single service method recorded by the {@link ServiceMetricsAdvice}.
+ * Latencies are in microseconds, percentiles are taken from a histogram and are accurate to about
+ * 25% of their value.
+ *
+ * @since 2.7.0
+ */
+public class ServiceMethodMetrics {
+
+	private final String service;
+
+	private final String method;
+
+	private final long callCount;
+
+	private final long errorCount;
+
+	private final long totalTime;
+
+	private final long maxTime;
+
+	private final long medianTime;
+
+	private final long percentile95Time;
+
+	private final long percentile99Time;
+
+	public ServiceMethodMetrics(String service, String method, long callCount, long errorCount, long totalTime,
+	    long maxTime, long medianTime, long percentile95Time, long percentile99Time) {
+		this.service = service;
+		this.method = method;
+		this.callCount = callCount;
+		this.errorCount = errorCount;
+		this.totalTime = totalTime;
+		this.maxTime = maxTime;
+		this.medianTime = medianTime;
+		this.percentile95Time = percentile95Time;
+		this.percentile99Time = percentile99Time;
+	}
+
+	/**
+	 * @return the simple name of the service interface declaring the method
+	 */
+	public String getService() {
+		return service;
+	}
+
+	/**
+	 * @return the name of the method followed by the simple names of its parameter types
+	 */
+	public String getMethod() {
+		return method;
+	}
+
+	/**
+	 * @return the number of calls, including the ones that failed
+	 */
+	public long getCallCount() {
+		return callCount;
+	}
+
+	/**
+	 * @return the number of calls that threw an exception
+	 */
+	public long getErrorCount() {
+		return errorCount;
+	}
+
+	/**
+	 * @return the sum of the latencies of all calls
+	 */
+	public long getTotalTime() {
+		return totalTime;
+	}
+
+	/**
+	 * @return the mean latency of the calls, 0 if there were none
+	 */
+	public long getMeanTime() {
+		return callCount == 0 ? 0 : totalTime / callCount;
+	}
+
+	/**
+	 * @return the highest latency of a call
+	 */
+	public long getMaxTime() {
+		return maxTime;
+	}
+
+	/**
+	 * @return the latency half of the calls were faster than
+	 */
+	public long getMedianTime() {
+		return medianTime;
+	}
+
+	/**
+	 * @return the latency 95% of the calls were faster than
+	 */
+	public long getPercentile95Time() {
+		return percentile95Time;
+	}
+
+	/**
+	 * @return the latency 99% of the calls were faster than
+	 */
+	public long getPercentile99Time() {
+		return percentile99Time;
+	}
+
+	@Override
+	public String toString() {
+		return "ServiceMethodMetrics[" + service + "." + method + ", calls=" + callCount + ", errors=" + errorCount
+		        + ", mean=" + getMeanTime() + "us, p50=" + medianTime + "us, p95=" + percentile95Time + "us, p99="
+		        + percentile99Time + "us, max=" + maxTime + "us]";
+	}
+}
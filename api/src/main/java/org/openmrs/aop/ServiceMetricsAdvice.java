@@ -0,0 +1,294 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.aop;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.apache.commons.lang3.StringUtils;
+import org.openmrs.GlobalProperty;
+import org.openmrs.api.AdministrationService;
+import org.openmrs.api.GlobalPropertyListener;
+import org.openmrs.api.context.Context;
+import org.openmrs.util.OpenmrsConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class provides the aop around advice recording the number of calls, errors and latencies of
+ * each service method. It is placed on all services via the spring application context, see
+ * /metadata/api/spring/applicationContext-service.xml, and does nothing unless the
+ * {@link OpenmrsConstants#GLOBAL_PROPERTY_SERVICE_METRICS_ENABLED} global property is true. <br>
+ * <br>
+ * Counters are {@link LongAdder}s and the latency histogram an {@link AtomicLongArray} with
+ * exponentially growing buckets, so recording a call takes no lock. Calls slower than
+ * {@link OpenmrsConstants#GLOBAL_PROPERTY_SERVICE_METRICS_SLOW_CALL_THRESHOLD} are logged at warn
+ * level.
+ *
+ * @see org.openmrs.api.AdministrationService#getServiceMetrics()
+ * @since 2.7.0
+ */
+public class ServiceMetricsAdvice implements MethodInterceptor, GlobalPropertyListener {
+
+	private static final Logger log = LoggerFactory.getLogger(ServiceMetricsAdvice.class);
+
+	private static final long DEFAULT_SLOW_CALL_THRESHOLD = 1000;
+
+	private final ConcurrentMap<Method, MethodRecorder> recorders = new ConcurrentHashMap<>();
+
+	private volatile boolean initialized = false;
+
+	private volatile boolean enabled = false;
+
+	/**
+	 * In microseconds, 0 if slow calls are not logged
+	 */
+	private volatile long slowCallThreshold = DEFAULT_SLOW_CALL_THRESHOLD * 1000;
+
+	/**
+	 * @see org.aopalliance.intercept.MethodInterceptor#invoke(org.aopalliance.intercept.MethodInvocation)
+	 */
+	@Override
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		if (!initialized) {
+			initialize();
+		}
+		if (!enabled) {
+			return invocation.proceed();
+		}
+
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			Object result = invocation.proceed();
+			failed = false;
+			return result;
+		}
+		finally {
+			record(invocation.getMethod(), (System.nanoTime() - start) / 1000, failed);
+		}
+	}
+
+	private void record(Method method, long time, boolean failed) {
+		MethodRecorder recorder = recorders.get(method);
+		if (recorder == null) {
+			recorder = recorders.computeIfAbsent(method, MethodRecorder::new);
+		}
+		recorder.record(time, failed);
+
+		long threshold = slowCallThreshold;
+		if (threshold > 0 && time >= threshold) {
+			log.warn("Slow service call {}.{} took {} ms", recorder.service, recorder.method, time / 1000);
+		}
+	}
+
+	/**
+	 * Reads the global properties the first time a service is called in a thread with an open
+	 * session, the call made to read them is not recorded.
+	 */
+	private void initialize() {
+		if (!Context.isSessionOpen()) {
+			return;
+		}
+		synchronized (this) {
+			if (initialized) {
+				return;
+			}
+			initialized = true;
+		}
+		try {
+			AdministrationService administrationService = Context.getAdministrationService();
+			enabled = Boolean.parseBoolean(administrationService
+			        .getGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_SERVICE_METRICS_ENABLED));
+			setSlowCallThreshold(administrationService
+			        .getGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_SERVICE_METRICS_SLOW_CALL_THRESHOLD));
+		}
+		catch (RuntimeException e) {
+			log.debug("Unable to read the service metrics global properties, trying again on the next call", e);
+			initialized = false;
+		}
+	}
+
+	private void setSlowCallThreshold(String value) {
+		long threshold = DEFAULT_SLOW_CALL_THRESHOLD;
+		if (StringUtils.isNotBlank(value)) {
+			try {
+				threshold = Long.parseLong(value.trim());
+			}
+			catch (NumberFormatException e) {
+				log.warn("Invalid value for the global property {}: {}",
+				    OpenmrsConstants.GLOBAL_PROPERTY_SERVICE_METRICS_SLOW_CALL_THRESHOLD, value);
+			}
+		}
+		slowCallThreshold = Math.max(0, threshold) * 1000;
+	}
+
+	/**
+	 * @return whether calls are currently recorded
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @return snapshots of the metrics of all methods called since the metrics were last reset,
+	 *         ordered by total time spent in the method, highest first
+	 */
+	public List<ServiceMethodMetrics> getMetrics() {
+		List<ServiceMethodMetrics> metrics = new ArrayList<>(recorders.size());
+		for (MethodRecorder recorder : recorders.values()) {
+			metrics.add(recorder.snapshot());
+		}
+		metrics.sort(Comparator.comparingLong(ServiceMethodMetrics::getTotalTime).reversed());
+		return metrics;
+	}
+
+	/**
+	 * Discards the metrics recorded so far
+	 */
+	public void reset() {
+		recorders.clear();
+	}
+
+	/**
+	 * @see org.openmrs.api.GlobalPropertyListener#supportsPropertyName(String)
+	 */
+	@Override
+	public boolean supportsPropertyName(String propertyName) {
+		return OpenmrsConstants.GLOBAL_PROPERTY_SERVICE_METRICS_ENABLED.equals(propertyName)
+		        || OpenmrsConstants.GLOBAL_PROPERTY_SERVICE_METRICS_SLOW_CALL_THRESHOLD.equals(propertyName);
+	}
+
+	/**
+	 * @see org.openmrs.api.GlobalPropertyListener#globalPropertyChanged(GlobalProperty)
+	 */
+	@Override
+	public void globalPropertyChanged(GlobalProperty newValue) {
+		if (OpenmrsConstants.GLOBAL_PROPERTY_SERVICE_METRICS_ENABLED.equals(newValue.getProperty())) {
+			enabled = Boolean.parseBoolean(newValue.getPropertyValue());
+		} else {
+			setSlowCallThreshold(newValue.getPropertyValue());
+		}
+	}
+
+	/**
+	 * @see org.openmrs.api.GlobalPropertyListener#globalPropertyDeleted(String)
+	 */
+	@Override
+	public void globalPropertyDeleted(String propertyName) {
+		if (OpenmrsConstants.GLOBAL_PROPERTY_SERVICE_METRICS_ENABLED.equals(propertyName)) {
+			enabled = false;
+		} else {
+			setSlowCallThreshold(null);
+		}
+	}
+
+	/**
+	 * The counters of a single method. Latencies below 4 microseconds get a bucket each, above that
+	 * each power of two is split into 4 buckets.
+	 */
+	private static class MethodRecorder {
+
+		private static final int MAX_EXPONENT = 35;
+
+		private static final int BUCKET_COUNT = 4 + (MAX_EXPONENT - 1) * 4;
+
+		private final String service;
+
+		private final String method;
+
+		private final LongAdder calls = new LongAdder();
+
+		private final LongAdder errors = new LongAdder();
+
+		private final LongAdder totalTime = new LongAdder();
+
+		private final LongAccumulator maxTime = new LongAccumulator(Math::max, 0);
+
+		private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+		MethodRecorder(Method method) {
+			this.service = method.getDeclaringClass().getSimpleName();
+			StringBuilder name = new StringBuilder(method.getName()).append('(');
+			Class<?>[] types = method.getParameterTypes();
+			for (int i = 0; i < types.length; i++) {
+				if (i > 0) {
+					name.append(", ");
+				}
+				name.append(types[i].getSimpleName());
+			}
+			this.method = name.append(')').toString();
+		}
+
+		void record(long time, boolean failed) {
+			calls.increment();
+			if (failed) {
+				errors.increment();
+			}
+			totalTime.add(time);
+			maxTime.accumulate(time);
+			buckets.incrementAndGet(bucketOf(time));
+		}
+
+		static int bucketOf(long time) {
+			if (time < 4) {
+				return (int) Math.max(0, time);
+			}
+			int exponent = 63 - Long.numberOfLeadingZeros(time);
+			if (exponent > MAX_EXPONENT) {
+				return BUCKET_COUNT - 1;
+			}
+			return 4 + (exponent - 2) * 4 + (int) ((time >>> (exponent - 2)) & 3);
+		}
+
+		static long upperBoundOf(int bucket) {
+			if (bucket < 4) {
+				return bucket;
+			}
+			int exponent = (bucket - 4) / 4 + 2;
+			int subBucket = (bucket - 4) % 4;
+			return ((5L + subBucket) << (exponent - 2)) - 1;
+		}
+
+		ServiceMethodMetrics snapshot() {
+			long[] counts = new long[BUCKET_COUNT];
+			long count = 0;
+			for (int i = 0; i < BUCKET_COUNT; i++) {
+				counts[i] = buckets.get(i);
+				count += counts[i];
+			}
+			long max = maxTime.get();
+			return new ServiceMethodMetrics(service, method, calls.sum(), errors.sum(), totalTime.sum(), max,
+			        percentile(counts, count, 0.5, max), percentile(counts, count, 0.95, max), percentile(counts, count,
+			            0.99, max));
+		}
+
+		private static long percentile(long[] counts, long count, double percentile, long max) {
+			long rank = (long) Math.ceil(count * percentile);
+			long seen = 0;
+			for (int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= rank && seen > 0) {
+					return Math.min(upperBoundOf(i), max);
+				}
+			}
+			return 0;
+		}
+	}
+}
@@ -20,6 +20,7 @@ import org.openmrs.ImplementationId;
 import org.openmrs.OpenmrsObject;
 import org.openmrs.User;
 import org.openmrs.annotation.Authorized;
+import org.openmrs.aop.ServiceMethodMetrics;
 import org.openmrs.api.db.AdministrationDAO;
 import org.openmrs.util.HttpClient;
 import org.openmrs.util.OpenmrsConstants;
@@ -392,4 +393,26 @@ public interface AdministrationService extends OpenmrsService {
 	 * @since 2.4
 	 */
 	public void updatePostgresSequence();
+	
+	/**
+	 * Gets the call counts, error counts and latencies recorded for each service method since the
+	 * metrics were last reset. Nothing is recorded unless the
+	 * {@link OpenmrsConstants#GLOBAL_PROPERTY_SERVICE_METRICS_ENABLED} global property is true.
+	 * 
+	 * @return the metrics of all called service methods, the most time consuming first
+	 * @since 2.7.0
+	 * <strong>Should</strong> record calls to service methods when enabled
+	 * <strong>Should</strong> not record calls when disabled
+	 */
+	@Authorized(PrivilegeConstants.VIEW_ADMIN_FUNCTIONS)
+	public List<ServiceMethodMetrics> getServiceMetrics();
+	
+	/**
+	 * Discards the service metrics recorded so far
+	 * 
+	 * @since 2.7.0
+	 * <strong>Should</strong> discard recorded metrics
+	 */
+	@Authorized(PrivilegeConstants.VIEW_ADMIN_FUNCTIONS)
+	public void resetServiceMetrics();
 }
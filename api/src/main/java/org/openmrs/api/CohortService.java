@@ -9,8 +9,10 @@
  */
 package org.openmrs.api;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import org.openmrs.Cohort;
 import org.openmrs.CohortMembership;
@@ -168,6 +170,26 @@ public interface CohortService extends OpenmrsService {
 	@Authorized({ PrivilegeConstants.GET_PATIENT_COHORTS })
 	public List<Cohort> getCohortsContainingPatientId(Integer patientId) throws APIException;
 	
+	/**
+	 * Finds the Cohorts that contain each of the given patients on a date, in a single call. (Not
+	 * including voided Cohorts, or memberships that ended by the date)
+	 *
+	 * @param patientIds ids of the patients used to find the cohorts
+	 * @param asOfDate the date, null for right now
+	 * @return the non-voided Cohorts containing each patient ordered by id, by patient id in the order
+	 *         of the given patients
+	 * @throws APIException
+	 * @since 2.7.0
+	 * <strong>Should</strong> return the cohorts containing each patient on the given date
+	 * <strong>Should</strong> not return voided cohorts
+	 * <strong>Should</strong> return an empty list for a patient in no cohort
+	 * <strong>Should</strong> include changes to cohorts not saved yet
+	 * <strong>Should</strong> not return purged cohorts
+	 */
+	@Authorized({ PrivilegeConstants.GET_PATIENT_COHORTS })
+	public Map<Integer, List<Cohort>> getCohortsContainingPatientIds(Collection<Integer> patientIds, Date asOfDate)
+	        throws APIException;
+	
 	/**
 	 * Adds a new patient to a Cohort. If the patient is not already in the Cohort, then they are
 	 * added, and the Cohort is saved, marking it as changed.
@@ -0,0 +1,82 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api;
+
+import java.io.Serializable;
+
+/**
+ * The progress of a bulk concept import, updated each time a batch of concepts is imported. The
+ * checkpoint is the number of concepts from the start of the imported stream that are done with, an
+ * import that failed can be resumed by passing the same progress along with the same stream of
+ * concepts again.
+ *
+ * @see ConceptService#importConcepts(java.util.Iterator, int, ConceptImportProgress)
+ * @since 2.7.0
+ */
+public class ConceptImportProgress implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private int checkpoint;
+
+	private int imported;
+
+	private int skipped;
+
+	public ConceptImportProgress() {
+	}
+
+	/**
+	 * @param checkpoint the number of concepts from the start of the stream to skip
+	 */
+	public ConceptImportProgress(int checkpoint) {
+		this.checkpoint = checkpoint;
+	}
+
+	/**
+	 * Records a batch of concepts that was imported
+	 *
+	 * @param size the number of concepts in the batch
+	 * @param importedInBatch the number of concepts of the batch that were imported, the others
+	 *            were already in the database
+	 */
+	public synchronized void addBatch(int size, int importedInBatch) {
+		checkpoint += size;
+		imported += importedInBatch;
+		skipped += size - importedInBatch;
+	}
+
+	/**
+	 * @return the number of concepts from the start of the stream that are done with
+	 */
+	public synchronized int getCheckpoint() {
+		return checkpoint;
+	}
+
+	/**
+	 * @return the number of concepts imported
+	 */
+	public synchronized int getImported() {
+		return imported;
+	}
+
+	/**
+	 * @return the number of concepts skipped because they were already in the database
+	 */
+	public synchronized int getSkipped() {
+		return skipped;
+	}
+
+	@Override
+	public String toString() {
+		return "ConceptImportProgress[checkpoint=" + getCheckpoint() + ", imported=" + getImported() + ", skipped="
+		        + getSkipped() + "]";
+	}
+}
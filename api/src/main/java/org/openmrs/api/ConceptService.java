@@ -130,6 +130,51 @@ public interface ConceptService extends OpenmrsService {
 	@Authorized({ PrivilegeConstants.MANAGE_CONCEPTS })
 	public Concept saveConcept(Concept concept) throws APIException;
 	
+	/**
+	 * Imports new concepts in batches, for loading a whole concept dictionary. A batch is validated
+	 * as a whole and written with JDBC batching instead of going through
+	 * {@link #saveConcept(Concept)} one concept at a time, and the search index of concept names is
+	 * rebuilt once at the end. <br>
+	 * <br>
+	 * Called outside of a transaction, each batch is imported in a transaction of its own and the
+	 * progress is updated after it is committed. Concepts whose uuid is already in the database are
+	 * skipped, so an import that failed can be restarted from the beginning of the stream, or
+	 * resumed from the checkpoint of its progress. <br>
+	 * <br>
+	 * The answers and set members of a concept must be saved concepts, concepts earlier in the
+	 * stream or concepts of the same batch. New reference terms of concept mappings are saved with
+	 * the batch of the first concept mapping to them. Concept attributes and concept name tags are not imported.
+	 * 
+	 * @param concepts the new concepts to import
+	 * @param batchSize the number of concepts per batch
+	 * @param progress the progress of the import, its checkpoint is the number of concepts at the
+	 *            start of the stream to skip
+	 * @return the progress
+	 * @throws APIException if a batch fails to validate, the batches before it are imported
+	 * @since 2.7.0
+	 * <strong>Should</strong> import concepts with their names, answers, set members and mappings
+	 * <strong>Should</strong> resolve answers and set members within the stream
+	 * <strong>Should</strong> save new reference terms of concept mappings
+	 * <strong>Should</strong> skip concepts that are already in the database
+	 * <strong>Should</strong> resume from the checkpoint of the progress
+	 * <strong>Should</strong> fail for a batch with duplicate names
+	 */
+	@Authorized({ PrivilegeConstants.MANAGE_CONCEPTS })
+	public ConceptImportProgress importConcepts(Iterator<Concept> concepts, int batchSize, ConceptImportProgress progress)
+	        throws APIException;
+	
+	/**
+	 * Imports one batch of new concepts, see {@link #importConcepts(Iterator, int, ConceptImportProgress)}.
+	 * The search index is not updated.
+	 * 
+	 * @param concepts the concepts to import
+	 * @return the number of concepts imported, the others were already in the database
+	 * @throws APIException if any concept of the batch is invalid
+	 * @since 2.7.0
+	 */
+	@Authorized({ PrivilegeConstants.MANAGE_CONCEPTS })
+	public int importConceptBatch(List<Concept> concepts) throws APIException;
+	
 	/**
 	 * Save or update the given <code>Drug</code> in the database. If this is a new drug, the
 	 * returned drug object will have a new {@link Drug#getDrugId()} inserted into it that was
@@ -1288,6 +1333,33 @@ public interface ConceptService extends OpenmrsService {
 	public Integer getCountOfConcepts(String phrase, List<Locale> locales, boolean includeRetired,
 	        List<ConceptClass> requireClasses, List<ConceptClass> excludeClasses, List<ConceptDatatype> requireDatatypes,
 	        List<ConceptDatatype> excludeDatatypes, Concept answersToConcept);
+	
+	/**
+	 * Looks up the concepts having a name with a word starting with each word typed so far, for
+	 * autocomplete. Unlike {@link #getConcepts(String, List, boolean, List, List, List, List, Concept,
+	 * Integer, Integer)} the matches are read in a single pass over an index of the prefixes of the
+	 * words of the names, no concept is loaded, and words are neither stemmed nor fuzzily matched.
+	 * Names in a locale with the same country as a requested one rank above names sharing its
+	 * language only, and preferred names rank above the others.
+	 * 
+	 * @param text the text typed so far
+	 * @param locales the locales to search in, the user's locale if null
+	 * @param includeRetired whether to include retired concepts
+	 * @param limit the maximum number of concepts to return
+	 * @param includeCount whether to return the number of matching names, which is at least the
+	 *            number of matching concepts
+	 * @return the best matching concepts with their best matching name
+	 * @throws APIException
+	 * @since 2.7.0
+	 * <strong>Should</strong> return concepts with a name starting with each typed word
+	 * <strong>Should</strong> return each concept once with its best matching name
+	 * <strong>Should</strong> return at most the limit and count all matching names
+	 * <strong>Should</strong> not match voided names or names in other locales
+	 * <strong>Should</strong> fail if the limit is not positive
+	 */
+	@Authorized(PrivilegeConstants.GET_CONCEPTS)
+	public ConceptTypeahead getConceptTypeahead(String text, List<Locale> locales, boolean includeRetired, int limit,
+	        boolean includeCount) throws APIException;
 			
 	/**
 	 * Return the number of drugs with matching names or concept drug names
@@ -1326,6 +1398,7 @@ public interface ConceptService extends OpenmrsService {
 	 * @throws APIException
 	 * @since 1.8
 	 * <strong>Should</strong> return a list of matching drugs
+	 * <strong>Should</strong> find drugs by the names of their concept added when the concept is saved
 	 */
 	@Authorized(PrivilegeConstants.GET_CONCEPTS)
 	public List<Drug> getDrugs(String drugName, Concept concept, boolean searchKeywords, boolean searchDrugConceptNames,
@@ -1742,13 +1815,30 @@ public interface ConceptService extends OpenmrsService {
 	 * <li>non-retired and different concept</li>
 	 * <li>default name for concept</li>
 	 * </ol>
+	 * The other names are looked up in the {@link org.openmrs.ConceptNameKey}s maintained when
+	 * concepts are saved, concepts written without the API are only found once the keys are rebuilt
+	 * with {@link #updateConceptNameKeys()}.
 	 * 
 	 * @param name
 	 * @return true if it is a duplicate name
 	 * @since 1.11
+	 * <strong>Should</strong> find the default name of a concept saved in the same transaction
+	 * <strong>Should</strong> not find the names of a concept after it is retired or renamed
 	 */
 	public boolean isConceptNameDuplicate(ConceptName name);
 	
+	/**
+	 * Rebuilds the {@link org.openmrs.ConceptNameKey}s of all non retired concepts from their names,
+	 * e.g. after concepts were written to the database without the API
+	 * 
+	 * @return the number of keys
+	 * @throws APIException
+	 * @since 2.7.0
+	 * <strong>Should</strong> add the keys of concepts written without the API
+	 */
+	@Authorized(PrivilegeConstants.MANAGE_CONCEPTS)
+	public int updateConceptNameKeys() throws APIException;
+	
 	/**
 	 * Fetches un retired drugs that match the specified search phrase. The logic matches on drug
 	 * names, concept names of the associated concepts or the concept reference term codes of the
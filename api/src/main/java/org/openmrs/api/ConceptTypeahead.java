@@ -0,0 +1,110 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The concepts whose names start with what has been typed so far, best match first. Only ids and
+ * names are held, read from the search index without loading the concepts.
+ *
+ * @see ConceptService#getConceptTypeahead(String, java.util.List, boolean, int, boolean)
+ * @since 2.7.0
+ */
+public class ConceptTypeahead implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final List<Match> matches;
+
+	private final Long approximateCount;
+
+	/**
+	 * @param matches the matching concepts, best match first
+	 * @param approximateCount the number of matching names, null if it was not asked for
+	 */
+	public ConceptTypeahead(List<Match> matches, Long approximateCount) {
+		this.matches = Collections.unmodifiableList(matches);
+		this.approximateCount = approximateCount;
+	}
+
+	/**
+	 * @return the matching concepts, best match first, one per concept
+	 */
+	public List<Match> getMatches() {
+		return matches;
+	}
+
+	/**
+	 * @return the number of concept names matching, which is at least the number of concepts
+	 *         matching, or null if it was not asked for
+	 */
+	public Long getApproximateCount() {
+		return approximateCount;
+	}
+
+	/**
+	 * A concept and the best matching of its names
+	 */
+	public static class Match implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Integer conceptId;
+
+		private final Integer conceptNameId;
+
+		private final String name;
+
+		private final float score;
+
+		public Match(Integer conceptId, Integer conceptNameId, String name, float score) {
+			this.conceptId = conceptId;
+			this.conceptNameId = conceptNameId;
+			this.name = name;
+			this.score = score;
+		}
+
+		/**
+		 * @return the id of the concept
+		 */
+		public Integer getConceptId() {
+			return conceptId;
+		}
+
+		/**
+		 * @return the id of the matched name
+		 */
+		public Integer getConceptNameId() {
+			return conceptNameId;
+		}
+
+		/**
+		 * @return the matched name
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the relevance of the match, only comparable within the same typeahead
+		 */
+		public float getScore() {
+			return score;
+		}
+
+		@Override
+		public String toString() {
+			return "Match[conceptId=" + conceptId + ", name=" + name + "]";
+		}
+	}
+}
@@ -21,6 +21,7 @@ import org.openmrs.EncounterType;
 import org.openmrs.Form;
 import org.openmrs.Location;
 import org.openmrs.Patient;
+import org.openmrs.TimelineEntry;
 import org.openmrs.Provider;
 import org.openmrs.User;
 import org.openmrs.Visit;
@@ -89,6 +90,34 @@ public interface EncounterService extends OpenmrsService {
 	@Authorized( { PrivilegeConstants.GET_ENCOUNTERS })
 	public Encounter getEncounter(Integer encounterId) throws APIException;
 	
+	/**
+	 * Get encounter by internal identifier with all of its obs and their group members loaded, see
+	 * {@link #loadObsTrees(Collection)}
+	 * 
+	 * @param encounterId encounter id
+	 * @return encounter with given internal identifier
+	 * @throws APIException
+	 * @since 2.7.0
+	 * <strong>Should</strong> load the obs trees of the encounter with a single query
+	 * <strong>Should</strong> fail if user is not allowed to view encounter by given id
+	 */
+	@Authorized( { PrivilegeConstants.GET_ENCOUNTERS })
+	public Encounter getEncounterWithObs(Integer encounterId) throws APIException;
+	
+	/**
+	 * Loads the obs of the given encounters together with the group members of the obs at every
+	 * level of the obs groups, with one query for many encounters instead of one query per obs
+	 * group. Use this before walking the obs of encounters, e.g. with
+	 * {@link Encounter#getObs()} or {@link Encounter#getAllFlattenedObs(boolean)}.
+	 * 
+	 * @param encounters the encounters to load the obs of
+	 * @throws APIException
+	 * @since 2.7.0
+	 * <strong>Should</strong> load the obs trees of many encounters with a single query
+	 */
+	@Authorized( { PrivilegeConstants.GET_ENCOUNTERS, PrivilegeConstants.GET_OBS })
+	public void loadObsTrees(Collection<Encounter> encounters) throws APIException;
+	
 	/**
 	 * Get Encounter by its UUID
 	 * 
@@ -632,6 +661,30 @@ public interface EncounterService extends OpenmrsService {
 	public Integer getEncountersByVisitsAndPatientCount(Patient patient, boolean includeVoided, String query)
 	        throws APIException;
 	
+	/**
+	 * Gets a page of the visit and encounter timeline of the given patient, that is the encounters
+	 * and the visits without encounters ordered like
+	 * {@link #getEncountersByVisitsAndPatient(Patient, boolean, String, Integer, Integer)}. Pages
+	 * are fetched by key rather than by index, pass the last entry of a page to get the next one.
+	 * Only the encounters and visits of the returned entries are loaded.
+	 * 
+	 * @param patient the patient to match
+	 * @param includeVoided if voided encounters or visits should be included
+	 * @param query filters results (defaults to return all results if <code>null</code>)
+	 * @param after the last entry of the previous page, <code>null</code> for the first page
+	 * @param length maximum number of entries to return (defaults to return all entries if
+	 *            <code>null</code>)
+	 * @return the entries, with their encounters set
+	 * @throws APIException
+	 * @since 2.7.0
+	 * <strong>Should</strong> return encounters and empty visits in timeline order
+	 * <strong>Should</strong> return the entries after the given entry
+	 * <strong>Should</strong> return the same entries as get encounters by visits and patient
+	 */
+	@Authorized( { PrivilegeConstants.GET_VISITS })
+	public List<TimelineEntry> getEncounterTimeline(Patient patient, boolean includeVoided, String query,
+	        TimelineEntry after, Integer length) throws APIException;
+	
 	/**
 	 * Filters out all encounters to which given user does not have access. If user is not specified
 	 * then implementations should treat authenticated user from context as given user by default
@@ -21,6 +21,7 @@ import org.openmrs.Form;
 import org.openmrs.FormField;
 import org.openmrs.FormResource;
 import org.openmrs.annotation.Authorized;
+import org.openmrs.util.CompiledFormStructure;
 import org.openmrs.util.PrivilegeConstants;
 
 /**
@@ -504,11 +505,30 @@ public interface FormService extends OpenmrsService {
 	 * <strong>Should</strong> simply return null for nonexistent concepts
 	 * <strong>Should</strong> simply return null for nonexistent forms
 	 * <strong>Should</strong> ignore formFields passed to ignoreFormFields
+	 * <strong>Should</strong> not query the database once the form structure is compiled
+	 * <strong>Should</strong> find form fields saved after the form structure was compiled
+	 * <strong>Should</strong> not find form fields purged after the form structure was compiled
 	 */
 	@Authorized(PrivilegeConstants.GET_FORMS)
 	public FormField getFormField(Form form, Concept concept, Collection<FormField> ignoreFormFields, boolean force)
 	        throws APIException;
 	
+	/**
+	 * Gets the compiled structure of the saved form fields of the given form, mapping concepts to
+	 * the form fields asking for them and form fields to their children. The structure is cached
+	 * until the form changes or one of its form fields is saved or purged, and is used by
+	 * {@link #getFormField(Form, Concept, Collection, boolean)} to look form fields up.
+	 * 
+	 * @param form the form to get the structure of
+	 * @return the compiled structure, null if the form is null or not saved
+	 * @throws APIException
+	 * @since 2.7.0
+	 * <strong>Should</strong> map concepts and parents to form fields
+	 * <strong>Should</strong> return the cached structure until the form changes
+	 */
+	@Authorized(PrivilegeConstants.GET_FORMS)
+	public CompiledFormStructure getFormStructure(Form form) throws APIException;
+	
 	/**
 	 * Creates or updates the given FormField
 	 * 
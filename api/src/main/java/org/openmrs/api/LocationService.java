@@ -19,6 +19,7 @@ import org.openmrs.LocationAttributeType;
 import org.openmrs.LocationTag;
 import org.openmrs.annotation.Authorized;
 import org.openmrs.api.db.LocationDAO;
+import org.openmrs.util.LocationTagIndex;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.PrivilegeConstants;
 
@@ -201,6 +202,36 @@ public interface LocationService extends OpenmrsService {
 	@Authorized( { PrivilegeConstants.GET_LOCATIONS })
 	public List<Location> getLocationsHavingAnyTag(List<LocationTag> tags) throws APIException;
 	
+	/**
+	 * Returns the unretired locations that are mapped to none of the given tags. Like the other tag
+	 * lookups, when called in a read only transaction the result may be shared with other read only
+	 * transactions for a few seconds, and so miss location changes committed in the meantime.
+	 * 
+	 * @param tags Set of LocationTag criteria
+	 * @return the locations, ordered by name
+	 * <strong>Should</strong> get locations having none of the tags
+	 * <strong>Should</strong> return all unretired locations given an empty tag list
+	 * @since 2.7.0
+	 */
+	@Authorized( { PrivilegeConstants.GET_LOCATIONS })
+	public List<Location> getLocationsHavingNoneOfTags(List<LocationTag> tags) throws APIException;
+	
+	/**
+	 * Gets a snapshot of the tags of the unretired locations, holding a bitmap of location ids per
+	 * tag, so that callers looking up several combinations of tags need a single query. The snapshot
+	 * is read from the database on each call, including the changes of the current transaction, and
+	 * does not change afterwards.
+	 * 
+	 * @return the index, which is immutable
+	 * @throws APIException
+	 * @since 2.7.0
+	 * <strong>Should</strong> map tags to the unretired locations having them
+	 * <strong>Should</strong> include the changes of the current transaction
+	 * <strong>Should</strong> remove retired locations
+	 */
+	@Authorized( { PrivilegeConstants.GET_LOCATIONS })
+	public LocationTagIndex getLocationTagIndex() throws APIException;
+	
 	/**
 	 * Retires the given location. This effectively removes the location from circulation or use.
 	 * 
@@ -9,6 +9,7 @@
  */
 package org.openmrs.api;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -127,6 +128,26 @@ public interface ObsService extends OpenmrsService {
 	@Authorized( { PrivilegeConstants.ADD_OBS, PrivilegeConstants.EDIT_OBS })
 	public Obs saveObs(Obs obs, String changeMessage) throws APIException;
 	
+	/**
+	 * Saves many obs at once, e.g. when back-loading data. Each obs is saved with the same semantics
+	 * as {@link #saveObs(Obs, String)}, edited obs get a new revision and the original is voided with
+	 * the change message, but validation and save handlers run once for the whole batch instead of
+	 * once per call. The obs are saved in chunks, the hibernate session is flushed and cleared after
+	 * each chunk so the passed in obs and all other objects of the session are detached once this
+	 * method returns.
+	 * 
+	 * @param obs the obs to save
+	 * @param changeMessage the reason for changing existing obs, required if any obs has an obsId
+	 * @return the saved obs in the order they were passed, for edited obs the new revision
+	 * @throws APIException
+	 * @since 2.7.0
+	 * <strong>Should</strong> save new obs
+	 * <strong>Should</strong> create a new revision for edited obs and void the original
+	 * <strong>Should</strong> fail if an existing obs is passed without a change message
+	 */
+	@Authorized( { PrivilegeConstants.ADD_OBS, PrivilegeConstants.EDIT_OBS })
+	public List<Obs> saveObsBatch(Collection<Obs> obs, String changeMessage) throws APIException;
+	
 	/**
 	 * Equivalent to deleting an observation
 	 * 
@@ -18,6 +18,7 @@ import org.openmrs.Allergy;
 import org.openmrs.Concept;
 import org.openmrs.Location;
 import org.openmrs.Patient;
+import org.openmrs.PatientDuplicateCandidate;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
 import org.openmrs.PatientProgram;
@@ -25,6 +26,9 @@ import org.openmrs.annotation.Authorized;
 import org.openmrs.api.db.PatientDAO;
 import org.openmrs.comparator.PatientIdentifierTypeDefaultComparator;
 import org.openmrs.patient.IdentifierValidator;
+import org.openmrs.patient.duplicate.DuplicatePatientBlockingKey;
+import org.openmrs.patient.duplicate.DuplicatePatientMatch;
+import org.openmrs.patient.duplicate.DuplicatePatientRecord;
 import org.openmrs.person.PersonMergeLogData;
 import org.openmrs.serialization.SerializationException;
 import org.openmrs.util.PrivilegeConstants;
@@ -500,6 +504,13 @@ public interface PatientService extends OpenmrsService {
 	 * <code>preferred</code> IFF the data is missing or null in <code>preferred</code></li>
 	 * <li><code>notPreferred</code> is marked as voided</li>
 	 * </ol>
+	 * When the {@link org.openmrs.util.OpenmrsConstants#GLOBAL_PROPERTY_PATIENT_MERGE_BULK_MODE} global
+	 * property is true, visits, encounters, the data recorded in them, program enrollments and obs
+	 * not contained in encounters are moved with bulk updates instead of being saved one by one. The
+	 * search index of the moved rows is updated in the background once the merge is committed. No
+	 * per-entity events are published for the moved rows: their save handlers, hibernate
+	 * interceptors and event listeners are not called, only their changed by and date changed are set
+	 * and their uuids are listed in the merge log.
 	 * 
 	 * @param preferred The Patient to merge to
 	 * @param notPreferred The Patient to merge from (and then void)
@@ -527,6 +538,9 @@ public interface PatientService extends OpenmrsService {
 	 * <strong>Should</strong> merge other non voided orders from non preferred to preferred patient
 	 * <strong>Should</strong> merge non preferred death date when preferred death date is not null or empty
 	 * <strong>Should</strong> merge non preferred death cause when preferred death cause is not null or empty
+	 * <strong>Should</strong> move visits encounters and their obs in bulk mode
+	 * <strong>Should</strong> move independent obs in place in bulk mode
+	 * <strong>Should</strong> move non voided program enrollments in bulk mode
 	 * <strong>Should</strong> void non preferred person object
 	 * <strong>Should</strong> change user records of non preferred person to preferred person
 	 * <strong>Should</strong> void non preferred patient
@@ -854,4 +868,127 @@ public interface PatientService extends OpenmrsService {
 	 */
 	@Authorized({PrivilegeConstants.GET_PATIENT_IDENTIFIERS})
 	public List<PatientIdentifier> getPatientIdentifiersByPatientProgram(PatientProgram patientProgram);
+
+	/**
+	 * Reads a page of the lightweight patient records that the duplicate detection engine works on,
+	 * in patient id order. Voided patients are left out.
+	 * 
+	 * @param afterPatientId only return patients with a greater patient id, null to start from the
+	 *            first patient
+	 * @param maxResults the maximum number of records to return
+	 * @return the records, an empty list once all patients have been read
+	 * @since 2.7.0
+	 * @see org.openmrs.patient.duplicate.DuplicatePatientDetector
+	 * <strong>Should</strong> return records in patient id order after the given patient id
+	 */
+	@Authorized( { PrivilegeConstants.GET_PATIENTS })
+	public List<DuplicatePatientRecord> getDuplicatePatientRecords(Integer afterPatientId, int maxResults);
+	
+	/**
+	 * Reads the lightweight patient records of the given patients for the duplicate detection engine.
+	 * Voided patients are left out.
+	 * 
+	 * @param patientIds the ids of the patients to read
+	 * @return the records, in no particular order
+	 * @since 2.7.0
+	 * @see org.openmrs.patient.duplicate.DuplicatePatientDetector
+	 * <strong>Should</strong> return the records of the given patients
+	 */
+	@Authorized( { PrivilegeConstants.GET_PATIENTS })
+	public List<DuplicatePatientRecord> getDuplicatePatientRecords(Collection<Integer> patientIds);
+	
+	/**
+	 * Deletes all blocking keys stored by the duplicate detection engine
+	 * 
+	 * @since 2.7.0
+	 * @see org.openmrs.patient.duplicate.DuplicatePatientDetector
+	 */
+	@Authorized( { PrivilegeConstants.EDIT_PATIENTS })
+	public void deleteDuplicatePatientBlockingKeys();
+	
+	/**
+	 * Stores blocking keys of patients for the duplicate detection engine
+	 * 
+	 * @param keys the keys to store
+	 * @since 2.7.0
+	 * @see org.openmrs.patient.duplicate.DuplicatePatientDetector
+	 */
+	@Authorized( { PrivilegeConstants.EDIT_PATIENTS })
+	public void saveDuplicatePatientBlockingKeys(List<DuplicatePatientBlockingKey> keys);
+	
+	/**
+	 * Reads a page of the blocking keys stored by the duplicate detection engine, ordered by key and
+	 * patient id
+	 * 
+	 * @param afterKey only return keys after this one, null to start from the first key
+	 * @param afterPatientId only return the patients of afterKey with a greater patient id, null to
+	 *            skip all patients of afterKey
+	 * @param maxResults the maximum number of keys to return
+	 * @return the keys, an empty list once all keys have been read
+	 * @since 2.7.0
+	 * @see org.openmrs.patient.duplicate.DuplicatePatientDetector
+	 * <strong>Should</strong> return the keys ordered by key and patient id after the given key and patient
+	 */
+	@Authorized( { PrivilegeConstants.GET_PATIENTS })
+	public List<DuplicatePatientBlockingKey> getDuplicatePatientBlockingKeys(String afterKey, Integer afterPatientId,
+	        int maxResults);
+	
+	/**
+	 * Stores the pairs found by the duplicate detection engine for review. A pair that has already been
+	 * recorded is not stored again, a pending pair gets the higher of the two scores.
+	 * 
+	 * @param matches the pairs to store
+	 * @return the number of pairs that were not recorded before
+	 * @since 2.7.0
+	 * <strong>Should</strong> not store a pair twice
+	 */
+	@Authorized( { PrivilegeConstants.EDIT_PATIENTS })
+	public int saveDuplicatePatientMatches(List<DuplicatePatientMatch> matches);
+	
+	/**
+	 * Saves a duplicate candidate, e.g. after it has been reviewed
+	 * 
+	 * @param candidate the candidate to save
+	 * @return the saved candidate
+	 * @since 2.7.0
+	 */
+	@Authorized( { PrivilegeConstants.EDIT_PATIENTS })
+	public PatientDuplicateCandidate savePatientDuplicateCandidate(PatientDuplicateCandidate candidate);
+	
+	/**
+	 * @param uuid the uuid of the candidate
+	 * @return the candidate or null if none exists with the uuid
+	 * @since 2.7.0
+	 */
+	@Authorized( { PrivilegeConstants.GET_PATIENTS })
+	public PatientDuplicateCandidate getPatientDuplicateCandidateByUuid(String uuid);
+	
+	/**
+	 * Gets the non voided duplicate candidates, best match first
+	 * 
+	 * @param status only return candidates in this state, null for all
+	 * @param start the index of the first candidate to return, null to start from the first
+	 * @param length the maximum number of candidates to return, null for all
+	 * @return the candidates
+	 * @since 2.7.0
+	 */
+	@Authorized( { PrivilegeConstants.GET_PATIENTS })
+	public List<PatientDuplicateCandidate> getPatientDuplicateCandidates(PatientDuplicateCandidate.Status status,
+	        Integer start, Integer length);
+	
+	/**
+	 * Merges the two patients of a reviewed duplicate candidate with
+	 * {@link #mergePatients(Patient, Patient)} and marks the candidate as merged
+	 * 
+	 * @param candidate the candidate to merge
+	 * @param preferred the patient of the candidate to keep
+	 * @throws APIException if the preferred patient is not one of the patients of the candidate
+	 * @throws SerializationException
+	 * @since 2.7.0
+	 * <strong>Should</strong> merge the patients and mark the candidate as merged
+	 * <strong>Should</strong> fail if the preferred patient is not part of the candidate
+	 */
+	@Authorized( { PrivilegeConstants.EDIT_PATIENTS })
+	public void mergePatientDuplicateCandidate(PatientDuplicateCandidate candidate, Patient preferred)
+	        throws APIException, SerializationException;
 }
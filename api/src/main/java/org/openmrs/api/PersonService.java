@@ -9,6 +9,7 @@
  */
 package org.openmrs.api;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -24,6 +25,7 @@ import org.openmrs.RelationshipType;
 import org.openmrs.annotation.Authorized;
 import org.openmrs.api.db.PersonDAO;
 import org.openmrs.person.PersonMergeLog;
+import org.openmrs.person.RelationshipGraph;
 import org.openmrs.serialization.SerializationException;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsConstants.PERSON_TYPE;
@@ -425,6 +427,30 @@ public interface PersonService extends OpenmrsService {
 	public List<Relationship> getRelationships(Person fromPerson, Person toPerson, RelationshipType relType,
 	        Date startEffectiveDate, Date endEffectiveDate) throws APIException;
 	
+	/**
+	 * Gets the persons that can be reached from a person by following at most the given number of non
+	 * voided relationships in either direction. The relationships of all the persons at the same
+	 * distance are fetched together, so the graph takes a bounded number of queries per hop however
+	 * many persons it contains.
+	 * 
+	 * @param person the person at the centre of the graph
+	 * @param hops the maximum number of relationships to follow
+	 * @param effectiveDate (optional) only follow relationships that were effective on this date
+	 * @param relationshipTypes (optional) only follow relationships of these types, all types if
+	 *            null or empty
+	 * @return the graph of the persons and the relationships that were followed
+	 * @throws APIException
+	 * @since 2.7.0
+	 * <strong>Should</strong> return the persons reachable within the given number of hops
+	 * <strong>Should</strong> match the relationships fetched hop by hop per person
+	 * <strong>Should</strong> only follow relationships that were effective on the given date
+	 * <strong>Should</strong> only follow relationships of the given types
+	 * <strong>Should</strong> fail if hops is negative
+	 */
+	@Authorized( { PrivilegeConstants.GET_RELATIONSHIPS })
+	public RelationshipGraph getRelationshipGraph(Person person, int hops, Date effectiveDate,
+	        Collection<RelationshipType> relationshipTypes) throws APIException;
+	
 	/**
 	 * Get all relationshipTypes Includes retired relationship types
 	 * 
@@ -168,6 +168,7 @@ public interface ProviderService extends OpenmrsService {
 	 * <strong>Should</strong> not find any visits if none have given attribute values
 	 * <strong>Should</strong> return all providers if query is empty
 	 * <strong>Should</strong> return retired providers
+	 * <strong>Should</strong> match attribute values before paging
 	 */
 	@Authorized( { PrivilegeConstants.GET_PROVIDERS })
 	public List<Provider> getProviders(String query, Integer start, Integer length,
@@ -177,6 +178,7 @@ public interface ProviderService extends OpenmrsService {
 	 * @param query
 	 * @return Count-Integer
 	 * <strong>Should</strong> exclude retired providers
+	 * <strong>Should</strong> match identifiers by the current match mode
 	 */
 	@Authorized( { PrivilegeConstants.GET_PROVIDERS })
 	public Integer getCountOfProviders(String query);
@@ -501,7 +501,9 @@ public interface UserService extends OpenmrsService {
 	 * the user has one at least one of the given <code>roles</code> assigned to them. If start and
 	 * length are not specified, then all matches are returned, If name is empty or null, then all
 	 * all users will be returned taking into consideration the values of start and length
-	 * arguments.
+	 * arguments. Users are sorted by their preferred name in the database before the batch is taken,
+	 * ties are broken by user id. A saved user is found right away, a user whose person is renamed
+	 * is found by the new name once the renaming transaction is committed.
 	 * 
 	 * @param name string to compare to the beginning of user's given/middle/family/family2 names
 	 * @param roles all the Roles the user must contain
@@ -511,6 +513,9 @@ public interface UserService extends OpenmrsService {
 	 * @return list of matching users of a size based on the specified arguments
 	 * @since 1.8
 	 * <strong>Should</strong> return users whose roles inherit requested roles
+	 * <strong>Should</strong> sort users by name before taking the batch
+	 * <strong>Should</strong> match the new name of a renamed person once committed
+	 * <strong>Should</strong> find a saved user right away and not once rolled back
 	 */
 	@Authorized( { PrivilegeConstants.GET_USERS })
 	public List<User> getUsers(String name, List<Role> roles, boolean includeRetired, Integer start, Integer length)
@@ -525,6 +530,7 @@ public interface UserService extends OpenmrsService {
 	 * @param includeRetired Specifies whether voided users should be included
 	 * @return the number of users matching the given attributes
 	 * @since 1.8
+	 * <strong>Should</strong> count users matching all fragments of the name
 	 */
 	@Authorized( { PrivilegeConstants.GET_USERS })
 	public Integer getCountOfUsers(String name, List<Role> roles, boolean includeRetired);
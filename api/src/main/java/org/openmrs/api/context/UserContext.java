@@ -221,6 +221,20 @@ public class UserContext implements Serializable {
 		proxies.clear();
 	}
 	
+	/**
+	 * Returns this context to the state of a newly created one. Unlike {@link #logout()} the user
+	 * session listeners are not notified, it is meant for contexts that are reused between requests
+	 * made without a session.
+	 *
+	 * @since 2.7.0
+	 */
+	public void reset() {
+		user = null;
+		locationId = null;
+		locale = null;
+		proxies.clear();
+	}
+	
 	/**
 	 * Gives the given privilege to all calls to hasPrivilege. This method was visualized as being
 	 * used as follows (try/finally is important):
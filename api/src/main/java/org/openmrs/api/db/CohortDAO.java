@@ -9,8 +9,10 @@
  */
 package org.openmrs.api.db;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import org.openmrs.Cohort;
 import org.openmrs.CohortMembership;
@@ -61,6 +63,19 @@ public interface CohortDAO {
 	 */
 	List<Cohort> getCohortsContainingPatientId(Integer patientId, boolean includeVoided, Date asOfDate);
 
+	/**
+	 * Finds the cohorts that contain each of the given patients, as
+	 * {@link #getCohortsContainingPatientId(Integer, boolean, Date)} does for one patient
+	 *
+	 * @param patientIds ids of the patients to get the cohorts containing them
+	 * @param includeVoided whether or not to include voided cohorts
+	 * @param asOfDate the date the patients are members on, null for any date
+	 * @return the matching cohorts ordered by id, by patient id in the order of the given patients
+	 * @since 2.7.0
+	 */
+	Map<Integer, List<Cohort>> getCohortsContainingPatientIds(Collection<Integer> patientIds, boolean includeVoided,
+	        Date asOfDate);
+
 	/**
 	 * Saves a Cohort to the database
 	 * 
@@ -27,6 +27,7 @@ import org.openmrs.ConceptDescription;
 import org.openmrs.ConceptMap;
 import org.openmrs.ConceptMapType;
 import org.openmrs.ConceptName;
+import org.openmrs.ConceptNameKey;
 import org.openmrs.ConceptNameTag;
 import org.openmrs.ConceptNumeric;
 import org.openmrs.ConceptProposal;
@@ -40,6 +41,7 @@ import org.openmrs.Drug;
 import org.openmrs.DrugIngredient;
 import org.openmrs.api.APIException;
 import org.openmrs.api.ConceptService;
+import org.openmrs.api.ConceptTypeahead;
 
 /**
  * Concept-related database functions
@@ -124,6 +126,13 @@ public interface ConceptDAO {
 	        List<ConceptClass> requireClasses, List<ConceptClass> excludeClasses, List<ConceptDatatype> requireDatatypes,
 	        List<ConceptDatatype> excludeDatatypes, Concept answersToConcept) throws DAOException;
 	
+	/**
+	 * @see ConceptService#getConceptTypeahead(String, List, boolean, int, boolean)
+	 * @since 2.7.0
+	 */
+	public ConceptTypeahead getConceptTypeahead(String text, List<Locale> locales, boolean includeRetired, int limit,
+	        boolean includeCount) throws DAOException;
+	
 	/**
 	 * @see org.openmrs.api.ConceptService#getConceptAnswer(java.lang.Integer)
 	 */
@@ -664,4 +673,40 @@ public interface ConceptDAO {
 	public long getConceptAttributeCount(ConceptAttributeType conceptAttributeType);
 
 	List<Concept> getConceptsByClass(ConceptClass conceptClass);
+
+	/**
+	 * Gets the ids of the concepts with the given uuids
+	 *
+	 * @param uuids the uuids to look up
+	 * @return the concept ids by uuid, uuids that are not in the database are left out
+	 * @since 2.7.0
+	 */
+	Map<String, Integer> getConceptIdsByUuid(Collection<String> uuids) throws DAOException;
+
+	/**
+	 * Gets the name keys of non retired concepts with any of the given normalized names
+	 *
+	 * @param nameKeys the normalized names, see {@link ConceptNameKey#normalize(String)}
+	 * @return the matching keys
+	 * @since 2.7.0
+	 */
+	List<ConceptNameKey> getConceptNameKeys(Collection<String> nameKeys) throws DAOException;
+	
+	/**
+	 * @see ConceptService#updateConceptNameKeys()
+	 */
+	int updateConceptNameKeys() throws DAOException;
+
+	/**
+	 * Inserts new concepts with their names, descriptions, answers, set members, mappings and name
+	 * keys using JDBC batches, without going through the hibernate session. The generated ids are set
+	 * on the concepts.
+	 *
+	 * @param concepts the validated concepts to insert
+	 * @param conceptIds the ids by uuid of the answers and set members that are not set on them, the
+	 *            ids of the inserted concepts are added to it
+	 * @see ConceptService#importConceptBatch(List)
+	 * @since 2.7.0
+	 */
+	void insertConcepts(List<Concept> concepts, Map<String, Integer> conceptIds) throws DAOException;
 }
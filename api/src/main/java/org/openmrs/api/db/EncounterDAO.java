@@ -9,6 +9,7 @@
  */
 package org.openmrs.api.db;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -19,6 +20,7 @@ import org.openmrs.EncounterRole;
 import org.openmrs.EncounterType;
 import org.openmrs.Location;
 import org.openmrs.Patient;
+import org.openmrs.TimelineEntry;
 import org.openmrs.Visit;
 import org.openmrs.api.EncounterService;
 import org.openmrs.parameter.EncounterSearchCriteria;
@@ -52,6 +54,17 @@ public interface EncounterDAO {
 	 */
 	public Encounter getEncounter(Integer encounterId) throws DAOException;
 	
+	/**
+	 * Loads the obs of the given encounters and the group members of these obs with a single query
+	 * per batch of encounters and initializes the lazy obs collections with them, so walking the obs
+	 * trees of the encounters does not hit the database again
+	 * 
+	 * @param encounters the encounters to load the obs of
+	 * @throws DAOException
+	 * @since 2.7.0
+	 */
+	public void loadObsTrees(Collection<Encounter> encounters) throws DAOException;
+	
 	/**
 	 * @param patientId
 	 * @return all encounters for the given patient identifier
@@ -247,6 +260,13 @@ public interface EncounterDAO {
 	 */
 	Integer getEncountersByVisitsAndPatientCount(Patient patient, boolean includeVoided, String query);
 	
+	/**
+	 * @param start index of the first entry to return after the given entry, null for 0
+	 * @see EncounterService#getEncounterTimeline(Patient, boolean, String, TimelineEntry, Integer)
+	 */
+	List<TimelineEntry> getEncounterTimeline(Patient patient, boolean includeVoided, String query, TimelineEntry after,
+	        Integer start, Integer length);
+	
 	/**
 	 * Get encounter roles by name
 	 * 
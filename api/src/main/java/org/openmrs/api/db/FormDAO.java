@@ -21,6 +21,7 @@ import org.openmrs.Form;
 import org.openmrs.FormField;
 import org.openmrs.FormResource;
 import org.openmrs.api.FormService;
+import org.openmrs.util.CompiledFormStructure;
 
 /**
  * Database access functions for the Form, FormField, and Field objects
@@ -125,6 +126,11 @@ public interface FormDAO {
 	public FormField getFormField(Form form, Concept concept, Collection<FormField> ignoreFormFields, boolean force)
 	        throws DAOException;
 	
+	/**
+	 * @see org.openmrs.api.FormService#getFormStructure(Form)
+	 */
+	public CompiledFormStructure getFormStructure(Form form) throws DAOException;
+	
 	/**
 	 * @param search String phrase to search for
 	 * @return list of fields in the database matching search phrase
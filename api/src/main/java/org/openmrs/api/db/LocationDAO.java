@@ -9,6 +9,7 @@
  */
 package org.openmrs.api.db;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -18,6 +19,7 @@ import org.openmrs.LocationAttribute;
 import org.openmrs.LocationAttributeType;
 import org.openmrs.LocationTag;
 import org.openmrs.api.LocationService;
+import org.openmrs.util.LocationTagIndex;
 
 /**
  * Location-related database functions
@@ -201,4 +203,31 @@ public interface LocationDAO {
 	 * <strong>Should</strong> ignore null values in location tag list
 	 */
 	List<Location> getLocationsHavingAllTags(List<LocationTag> locationTagIdList);
+	
+	/**
+	 * @see LocationService#getLocationsHavingAnyTag(List)
+	 * @since 2.7.0
+	 */
+	List<Location> getLocationsHavingAnyTag(List<LocationTag> tags);
+	
+	/**
+	 * @see LocationService#getLocationsHavingNoneOfTags(List)
+	 * @since 2.7.0
+	 */
+	List<Location> getLocationsHavingNoneOfTags(List<LocationTag> tags);
+	
+	/**
+	 * Gets the locations with the given ids
+	 * 
+	 * @param locationIds the ids of the locations
+	 * @return the locations that exist, ordered by name
+	 * @since 2.7.0
+	 */
+	List<Location> getLocations(Collection<Integer> locationIds);
+	
+	/**
+	 * @see LocationService#getLocationTagIndex()
+	 * @since 2.7.0
+	 */
+	LocationTagIndex getLocationTagIndex();
 }
@@ -9,8 +9,10 @@
  */
 package org.openmrs.api.db;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import org.openmrs.Concept;
 import org.openmrs.ConceptName;
@@ -87,4 +89,25 @@ public interface ObsDAO {
 	 */
 	public Obs.Status getSavedStatus(Obs obs);
 	
+	/**
+	 * Gets the statuses currently saved in the database for the given obs ids with a single query,
+	 * bypassing any caches
+	 * 
+	 * @param obsIds the ids of the obs to look up
+	 * @return the saved status of each obs, ids that do not exist are left out
+	 * @since 2.7.0
+	 * @see #getSavedStatus(Obs)
+	 */
+	public Map<Integer, Obs.Status> getSavedStatuses(Collection<Integer> obsIds);
+	
+	/**
+	 * Loads the obs with the given ids, reading the ones that are not in the session with a single
+	 * query
+	 * 
+	 * @param obsIds the ids of the obs to load
+	 * @return the obs that exist
+	 * @since 2.7.0
+	 */
+	public List<Obs> getObs(Collection<Integer> obsIds);
+	
 }
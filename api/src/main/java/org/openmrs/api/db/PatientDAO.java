@@ -9,16 +9,21 @@
  */
 package org.openmrs.api.db;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.openmrs.Allergies;
 import org.openmrs.Allergy;
 import org.openmrs.Location;
+import org.openmrs.OpenmrsData;
 import org.openmrs.Patient;
+import org.openmrs.PatientDuplicateCandidate;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
 import org.openmrs.PatientProgram;
 import org.openmrs.api.PatientService;
+import org.openmrs.patient.duplicate.DuplicatePatientBlockingKey;
+import org.openmrs.patient.duplicate.DuplicatePatientRecord;
 
 /**
  * Database methods for the PatientService
@@ -305,4 +310,119 @@ public interface PatientDAO {
 	 */
 	public List getPatientIdentifierByProgram(PatientProgram patientProgram);
 	
+	/**
+	 * @see org.openmrs.api.PatientService#getDuplicatePatientRecords(Integer, int)
+	 */
+	public List<DuplicatePatientRecord> getDuplicatePatientRecords(Integer afterPatientId, int maxResults);
+	
+	/**
+	 * @see org.openmrs.api.PatientService#getDuplicatePatientRecords(Collection)
+	 */
+	public List<DuplicatePatientRecord> getDuplicatePatientRecords(Collection<Integer> patientIds);
+	
+	/**
+	 * @see org.openmrs.api.PatientService#deleteDuplicatePatientBlockingKeys()
+	 */
+	public void deleteDuplicatePatientBlockingKeys();
+	
+	/**
+	 * @see org.openmrs.api.PatientService#saveDuplicatePatientBlockingKeys(List)
+	 */
+	public void saveDuplicatePatientBlockingKeys(List<DuplicatePatientBlockingKey> keys);
+	
+	/**
+	 * @see org.openmrs.api.PatientService#getDuplicatePatientBlockingKeys(String, Integer, int)
+	 */
+	public List<DuplicatePatientBlockingKey> getDuplicatePatientBlockingKeys(String afterKey, Integer afterPatientId,
+	        int maxResults);
+	
+	/**
+	 * @see org.openmrs.api.PatientService#savePatientDuplicateCandidate(PatientDuplicateCandidate)
+	 */
+	public PatientDuplicateCandidate savePatientDuplicateCandidate(PatientDuplicateCandidate candidate);
+	
+	/**
+	 * @see org.openmrs.api.PatientService#getPatientDuplicateCandidateByUuid(String)
+	 */
+	public PatientDuplicateCandidate getPatientDuplicateCandidateByUuid(String uuid);
+	
+	/**
+	 * Gets the stored candidate for a pair of patients
+	 * 
+	 * @param patient the patient with the lower patient id
+	 * @param duplicatePatient the patient with the higher patient id
+	 * @return the candidate or null if the pair has not been recorded
+	 */
+	public PatientDuplicateCandidate getPatientDuplicateCandidate(Patient patient, Patient duplicatePatient);
+	
+	/**
+	 * @see org.openmrs.api.PatientService#getPatientDuplicateCandidates(PatientDuplicateCandidate.Status,
+	 *      Integer, Integer)
+	 */
+	public List<PatientDuplicateCandidate> getPatientDuplicateCandidates(PatientDuplicateCandidate.Status status,
+	        Integer start, Integer length);
+	
+	/**
+	 * Moves all visits of a patient, including voided ones, to another patient with set based
+	 * updates instead of saving each visit
+	 * 
+	 * @param from the patient to move the visits from
+	 * @param to the patient to move the visits to
+	 * @param chunkSize the maximum number of rows changed by one update statement
+	 * @return the uuids of the moved visits
+	 * @since 2.7.0
+	 */
+	public List<String> moveVisits(Patient from, Patient to, int chunkSize);
+	
+	/**
+	 * Moves all encounters of a patient, including voided ones, to another patient with set based
+	 * updates. The data recorded in the encounters is not moved, see
+	 * {@link #moveEncounterData(Class, Patient, Patient, int)}
+	 * 
+	 * @param from the patient to move the encounters from
+	 * @param to the patient to move the encounters to
+	 * @param chunkSize the maximum number of rows changed by one update statement
+	 * @return the uuids of the moved encounters
+	 * @since 2.7.0
+	 */
+	public List<String> moveEncounters(Patient from, Patient to, int chunkSize);
+	
+	/**
+	 * Moves the obs, orders, diagnoses, conditions or allergies recorded in the encounters of a
+	 * patient to another patient with set based updates, including voided ones. This must be called
+	 * before the encounters themselves are moved.
+	 * 
+	 * @param type the type of the data to move, one of Obs, Order, Diagnosis, Condition or Allergy
+	 * @param from the patient to move the data from
+	 * @param to the patient to move the data to
+	 * @param chunkSize the maximum number of rows changed by one update statement
+	 * @return the uuids of the moved rows
+	 * @since 2.7.0
+	 */
+	public List<String> moveEncounterData(Class<? extends OpenmrsData> type, Patient from, Patient to, int chunkSize);
+	
+	/**
+	 * Moves the non voided obs of a patient that are not contained in an encounter to another
+	 * patient with set based updates, the obs are changed in place instead of being revised
+	 * 
+	 * @param from the patient to move the obs from
+	 * @param to the patient to move the obs to
+	 * @param chunkSize the maximum number of rows changed by one update statement
+	 * @return the uuids of the moved obs
+	 * @since 2.7.0
+	 */
+	public List<String> moveObsNotContainedInEncounters(Patient from, Patient to, int chunkSize);
+	
+	/**
+	 * Moves the non voided program enrollments of a patient, together with their states, to another
+	 * patient with set based updates
+	 * 
+	 * @param from the patient to move the enrollments from
+	 * @param to the patient to move the enrollments to
+	 * @param chunkSize the maximum number of rows changed by one update statement
+	 * @return the uuids of the moved enrollments
+	 * @since 2.7.0
+	 */
+	public List<String> movePatientPrograms(Patient from, Patient to, int chunkSize);
+	
 }
@@ -19,6 +19,7 @@ import org.openmrs.RelationshipType;
 import org.openmrs.person.PersonMergeLog;
 import org.openmrs.util.OpenmrsConstants;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
@@ -145,6 +146,20 @@ public interface PersonDAO {
 	public List<Relationship> getRelationships(Person fromPerson, Person toPerson, RelationshipType relType,
 	        Date startEffectiveDate, Date endEffectiveDate) throws DAOException;
 	
+	/**
+	 * Gets the non voided relationships that have any of the given persons on either side
+	 * 
+	 * @param personIds the ids of the persons
+	 * @param effectiveDate (optional) the date on which the relationships were effective
+	 * @param relationshipTypes (optional) the types of the relationships, all types if null or empty
+	 * @return the relationships ordered by id within each side, without duplicates
+	 * @see org.openmrs.api.PersonService#getRelationshipGraph(org.openmrs.Person, int, java.util.Date,
+	 *      java.util.Collection)
+	 * @since 2.7.0
+	 */
+	public List<Relationship> getRelationships(Collection<Integer> personIds, Date effectiveDate,
+	        Collection<RelationshipType> relationshipTypes) throws DAOException;
+	
 	/**
 	 * @see org.openmrs.api.PersonService#saveRelationshipType(org.openmrs.RelationshipType)
 	 */
@@ -0,0 +1,86 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db;
+
+/**
+ * A snapshot of the statistics of the cache of deserialized objects kept by the
+ * {@link SerializedObjectDAO}
+ *
+ * @since 2.7.0
+ */
+public class SerializedObjectCacheStatistics {
+
+	private final long hitCount;
+
+	private final long missCount;
+
+	private final long size;
+
+	private final long xmlSize;
+
+	private final long copySize;
+
+	public SerializedObjectCacheStatistics(long hitCount, long missCount, long size, long xmlSize, long copySize) {
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.size = size;
+		this.xmlSize = xmlSize;
+		this.copySize = copySize;
+	}
+
+	/**
+	 * @return the number of objects that were copied from the cache instead of being deserialized
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return the number of objects that had to be deserialized
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * @return the ratio of hits to all lookups, 1.0 if there were no lookups yet
+	 */
+	public double getHitRate() {
+		long total = hitCount + missCount;
+		return total == 0 ? 1.0 : (double) hitCount / total;
+	}
+
+	/**
+	 * @return the number of objects currently cached
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * @return the total length in characters of the serialized data of the cached objects
+	 */
+	public long getXmlSize() {
+		return xmlSize;
+	}
+
+	/**
+	 * @return the total size in bytes of the copies held by the cache
+	 */
+	public long getCopySize() {
+		return copySize;
+	}
+
+	@Override
+	public String toString() {
+		return "SerializedObjectCacheStatistics[hits=" + hitCount + ", misses=" + missCount + ", size=" + size
+		        + ", xmlSize=" + xmlSize + ", copySize=" + copySize + "]";
+	}
+}
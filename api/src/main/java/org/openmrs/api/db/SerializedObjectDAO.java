@@ -203,6 +203,17 @@ public interface SerializedObjectDAO {
 	 */
 	public void purgeObject(Integer id) throws DAOException;
 	
+	/**
+	 * Deserialized objects are cached so that repeated reads of the same serialized object do not
+	 * parse its serialized data again, callers always get their own copy. An entry is only used while
+	 * the date changed and the serialized data of the stored object are unchanged, saving or purging
+	 * an object evicts it.
+	 * 
+	 * @return the current statistics of the cache of deserialized objects
+	 * @since 2.7.0
+	 */
+	public SerializedObjectCacheStatistics getCacheStatistics();
+	
 	/**
 	 * Returns the registered class for the passed object, or null if none found For example, if the
 	 * supportedTypes property contains the CohortDefinition.class interface, and a particular
@@ -0,0 +1,198 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.search.FullTextSession;
+import org.hibernate.type.Type;
+import org.openmrs.Encounter;
+import org.openmrs.EncounterProvider;
+import org.openmrs.EncounterType;
+import org.openmrs.Form;
+import org.openmrs.Location;
+import org.openmrs.PersonName;
+import org.openmrs.Provider;
+import org.openmrs.api.context.Context;
+import org.openmrs.util.OpenmrsUtil;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Reindexes the encounters whose location, encounter type, form or providers are renamed. The
+ * encounter index holds the names of its metadata, see
+ * {@link org.openmrs.api.db.hibernate.search.bridge.EncounterMetadataFieldBridge}, but hibernate
+ * search only updates the index of an entity when the entity itself changes. <br>
+ * <br>
+ * The changes are collected as entities are flushed. Once the transaction is committed, the
+ * affected encounters are found and reindexed in the background by the {@link SearchIndexUpdater},
+ * in batches so that renaming metadata used by many encounters does not fill the session. Changes
+ * that are rolled back are not indexed.
+ *
+ * @since 2.7.0
+ */
+@Component
+public class EncounterSearchIndexInterceptor extends EmptyInterceptor {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int BATCH_SIZE = 1000;
+
+	private static final String LOCATION_QUERY = "select e.encounterId from Encounter e where e.location.locationId in (:ids)";
+
+	private static final String ENCOUNTER_TYPE_QUERY = "select e.encounterId from Encounter e where e.encounterType.encounterTypeId in (:ids)";
+
+	private static final String FORM_QUERY = "select e.encounterId from Encounter e where e.form.formId in (:ids)";
+
+	private static final String PROVIDER_QUERY = "select distinct ep.encounter.encounterId from EncounterProvider ep where ep.provider.providerId in (:ids)";
+
+	private static final String PERSON_QUERY = "select distinct ep.encounter.encounterId from EncounterProvider ep where ep.provider.person.personId in (:ids)";
+
+	private static final String ENCOUNTER_QUERY = "select e.encounterId from Encounter e where e.encounterId in (:ids)";
+
+	private static final List<String> PROVIDER_PROPERTIES = Arrays.asList("name", "identifier", "person");
+
+	private static final List<String> PERSON_NAME_PROPERTIES = Arrays.asList("givenName", "middleName", "familyName",
+	    "familyName2", "voided");
+
+	// the ids of the changed entities by the query that finds their encounters
+	private final ThreadLocal<Map<String, Set<Integer>>> changes = new ThreadLocal<>();
+
+	/**
+	 * @see org.hibernate.EmptyInterceptor#onFlushDirty(Object, Serializable, Object[], Object[],
+	 *      String[], Type[])
+	 */
+	@Override
+	public boolean onFlushDirty(Object entity, Serializable id, Object[] currentState, Object[] previousState,
+	        String[] propertyNames, Type[] types) {
+		if (entity instanceof Location) {
+			addChangeIfModified(LOCATION_QUERY, id, currentState, previousState, propertyNames, Arrays.asList("name"));
+		} else if (entity instanceof EncounterType) {
+			addChangeIfModified(ENCOUNTER_TYPE_QUERY, id, currentState, previousState, propertyNames, Arrays
+			        .asList("name"));
+		} else if (entity instanceof Form) {
+			addChangeIfModified(FORM_QUERY, id, currentState, previousState, propertyNames, Arrays.asList("name"));
+		} else if (entity instanceof Provider) {
+			addChangeIfModified(PROVIDER_QUERY, id, currentState, previousState, propertyNames, PROVIDER_PROPERTIES);
+		} else if (entity instanceof PersonName) {
+			PersonName personName = (PersonName) entity;
+			if (personName.getPerson() != null) {
+				addChangeIfModified(PERSON_QUERY, personName.getPerson().getPersonId(), currentState, previousState,
+				    propertyNames, PERSON_NAME_PROPERTIES);
+			}
+		} else if (entity instanceof EncounterProvider) {
+			EncounterProvider encounterProvider = (EncounterProvider) entity;
+			if (encounterProvider.getEncounter() != null) {
+				addChangeIfModified(ENCOUNTER_QUERY, encounterProvider.getEncounter().getEncounterId(), currentState,
+				    previousState, propertyNames, Arrays.asList("provider"));
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * A name added to the person of a provider changes the names of the encounters of the provider
+	 *
+	 * @see org.hibernate.EmptyInterceptor#onSave(Object, Serializable, Object[], String[], Type[])
+	 */
+	@Override
+	public boolean onSave(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+		if (entity instanceof PersonName) {
+			PersonName personName = (PersonName) entity;
+			if (personName.getPerson() != null && personName.getPerson().getPersonId() != null) {
+				addChange(PERSON_QUERY, personName.getPerson().getPersonId());
+			}
+		}
+		return false;
+	}
+
+	private void addChangeIfModified(String query, Serializable id, Object[] currentState, Object[] previousState,
+	        String[] propertyNames, List<String> properties) {
+		if (id == null) {
+			return;
+		}
+		for (int i = 0; i < propertyNames.length; i++) {
+			if (properties.contains(propertyNames[i])
+			        && (previousState == null || !OpenmrsUtil.nullSafeEquals(currentState[i], previousState[i]))) {
+				addChange(query, (Integer) id);
+				return;
+			}
+		}
+	}
+
+	private void addChange(String query, Integer id) {
+		Map<String, Set<Integer>> pending = changes.get();
+		if (pending == null) {
+			pending = new LinkedHashMap<>();
+			changes.set(pending);
+			if (TransactionSynchronizationManager.isSynchronizationActive()) {
+				// the changes of all the flushes of the transaction are reindexed once it is committed
+				SearchIndexUpdater.updateAfterCommit(getSessionFactory(), reindex(pending));
+			}
+		}
+		pending.computeIfAbsent(query, q -> new LinkedHashSet<>()).add(id);
+	}
+	
+	/**
+	 * Changes flushed outside of a transaction are reindexed right away
+	 *
+	 * @see org.hibernate.EmptyInterceptor#postFlush(Iterator)
+	 */
+	@Override
+	public void postFlush(Iterator entities) {
+		Map<String, Set<Integer>> pending = changes.get();
+		if (pending != null && !TransactionSynchronizationManager.isSynchronizationActive()) {
+			changes.remove();
+			SearchIndexUpdater.updateAfterCommit(getSessionFactory(), reindex(pending));
+		}
+	}
+	
+	private SessionFactory getSessionFactory() {
+		return Context.getRegisteredComponent("sessionFactory", SessionFactory.class);
+	}
+	
+	/**
+	 * Finds the encounters of the changed entities and reindexes them, in the session of the
+	 * {@link SearchIndexUpdater}
+	 */
+	private static Consumer<FullTextSession> reindex(Map<String, Set<Integer>> pending) {
+		return session -> {
+			Set<Integer> encounterIds = new LinkedHashSet<>();
+			for (Map.Entry<String, Set<Integer>> entry : pending.entrySet()) {
+				List<Integer> ids = new ArrayList<>(entry.getValue());
+				for (int start = 0; start < ids.size(); start += BATCH_SIZE) {
+					encounterIds.addAll(session.createQuery(entry.getKey(), Integer.class).setParameterList("ids",
+					    ids.subList(start, Math.min(start + BATCH_SIZE, ids.size()))).list());
+				}
+			}
+			HibernateUtil.updateSearchIndex(session, Encounter.class, new ArrayList<>(encounterIds));
+		};
+	}
+	
+	/**
+	 * @see org.hibernate.EmptyInterceptor#afterTransactionCompletion(Transaction)
+	 */
+	@Override
+	public void afterTransactionCompletion(Transaction tx) {
+		changes.remove();
+	}
+}
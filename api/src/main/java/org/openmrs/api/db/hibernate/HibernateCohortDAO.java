@@ -15,8 +15,11 @@ import javax.persistence.criteria.Join;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
@@ -35,6 +38,12 @@ import org.openmrs.api.db.DAOException;
 public class HibernateCohortDAO implements CohortDAO {
 	
 	private static final String VOIDED = "voided";
+	
+	/**
+	 * The maximum number of patient ids passed to one in clause
+	 */
+	private static final int BATCH_SIZE = 1000;
+	
 	private SessionFactory sessionFactory;
 	
 	/**
@@ -206,4 +215,51 @@ public class HibernateCohortDAO implements CohortDAO {
 		sessionFactory.getCurrentSession().saveOrUpdate(cohortMembership);
 		return cohortMembership;
 	}
+	
+	/**
+	 * Finds the cohorts of the patients with one query per {@link #BATCH_SIZE} patients, which uses
+	 * the index on the patient and dates of cohort_member.
+	 *
+	 * @see org.openmrs.api.db.CohortDAO#getCohortsContainingPatientIds(Collection, boolean, Date)
+	 */
+	@Override
+	public Map<Integer, List<Cohort>> getCohortsContainingPatientIds(Collection<Integer> patientIds,
+	        boolean includeVoided, Date asOfDate) throws DAOException {
+		Map<Integer, List<Cohort>> cohortsByPatient = new LinkedHashMap<>();
+		for (Integer patientId : patientIds) {
+			cohortsByPatient.put(patientId, new ArrayList<>());
+		}
+		List<Integer> distinctPatientIds = new ArrayList<>(cohortsByPatient.keySet());
+		
+		Session session = sessionFactory.getCurrentSession();
+		CriteriaBuilder cb = session.getCriteriaBuilder();
+		for (int i = 0; i < distinctPatientIds.size(); i += BATCH_SIZE) {
+			CriteriaQuery<Object[]> cq = cb.createQuery(Object[].class);
+			Root<Cohort> root = cq.from(Cohort.class);
+			Join<Cohort, CohortMembership> membershipJoin = root.join("memberships");
+			
+			List<Predicate> predicates = new ArrayList<>();
+			predicates.add(membershipJoin.get("patientId").in(distinctPatientIds.subList(i, Math.min(i + BATCH_SIZE,
+			    distinctPatientIds.size()))));
+			if (asOfDate != null) {
+				predicates.add(cb.lessThanOrEqualTo(membershipJoin.get("startDate"), asOfDate));
+				predicates.add(cb.or(cb.isNull(membershipJoin.get("endDate")), cb.greaterThan(membershipJoin
+				        .get("endDate"), asOfDate)));
+			}
+			if (!includeVoided) {
+				predicates.add(cb.equal(root.get(VOIDED), false));
+			}
+			cq.multiselect(membershipJoin.get("patientId"), root).where(predicates.toArray(new Predicate[] {}))
+			        .orderBy(cb.asc(root.get("cohortId")));
+			
+			for (Object[] row : session.createQuery(cq).getResultList()) {
+				List<Cohort> cohorts = cohortsByPatient.get((Integer) row[0]);
+				// a patient may have several memberships in a cohort
+				if (!cohorts.contains(row[1])) {
+					cohorts.add((Cohort) row[1]);
+				}
+			}
+		}
+		return cohortsByPatient;
+	}
 }
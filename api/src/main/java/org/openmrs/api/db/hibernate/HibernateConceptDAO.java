@@ -16,13 +16,21 @@ import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Join;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
@@ -30,11 +38,14 @@ import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import org.apache.commons.collections.CollectionUtils;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.FlushMode;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.search.FullTextQuery;
+import org.hibernate.search.FullTextSession;
 import org.openmrs.Concept;
 import org.openmrs.ConceptAnswer;
 import org.openmrs.ConceptAttribute;
@@ -46,6 +57,7 @@ import org.openmrs.ConceptDescription;
 import org.openmrs.ConceptMap;
 import org.openmrs.ConceptMapType;
 import org.openmrs.ConceptName;
+import org.openmrs.ConceptNameKey;
 import org.openmrs.ConceptNameTag;
 import org.openmrs.ConceptNumeric;
 import org.openmrs.ConceptProposal;
@@ -61,15 +73,24 @@ import org.openmrs.DrugReferenceMap;
 import org.openmrs.OpenmrsObject;
 import org.openmrs.api.APIException;
 import org.openmrs.api.ConceptService;
+import org.openmrs.api.ConceptTypeahead;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.ConceptDAO;
 import org.openmrs.api.db.DAOException;
+import org.openmrs.api.db.FullTextSessionFactory;
+import org.openmrs.api.db.hibernate.search.ConceptNameQuery;
+import org.openmrs.api.db.hibernate.search.ConceptTypeaheadQuery;
+import org.openmrs.api.db.hibernate.search.LuceneAnalyzers;
 import org.openmrs.api.db.hibernate.search.LuceneQuery;
+import org.openmrs.api.db.hibernate.search.bridge.DrugConceptNameFieldBridge;
 import org.openmrs.collection.ListPart;
 import org.openmrs.util.ConceptMapTypeComparator;
 import org.openmrs.util.OpenmrsConstants;
+import org.openmrs.util.databasechange.ConceptNameKeyChangeSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * The Hibernate class for Concepts, Drugs, and related classes. <br>
@@ -82,8 +103,33 @@ public class HibernateConceptDAO implements ConceptDAO {
 	
 	private static final Logger log = LoggerFactory.getLogger(HibernateConceptDAO.class);
 	
+	private static final int TYPEAHEAD_NAMES_PER_CONCEPT = 4;
+	
+	private static final int IN_CLAUSE_SIZE = 1000;
+	
+	private static final int MAX_CACHED_CONCEPT_NAME_QUERIES = 1000;
+	
 	private SessionFactory sessionFactory;
 	
+	/**
+	 * Upper case concept stop words by locale
+	 */
+	private final Cache<Locale, Set<String>> conceptStopWords = CacheBuilder.newBuilder().build();
+	
+	/**
+	 * Queries matching concept names by phrase, whether keywords are searched, locales and whether
+	 * only the exact locales are searched
+	 */
+	private final Cache<List<Object>, org.apache.lucene.search.Query> conceptNameQueries = CacheBuilder.newBuilder()
+	        .maximumSize(MAX_CACHED_CONCEPT_NAME_QUERIES).build();
+	
+	/**
+	 * The number of times the stop words and the queries built from them were discarded, guarded by
+	 * this. Stop words read, or queries built, before a discard are not cached since they may be as
+	 * old as the discarded ones.
+	 */
+	private long conceptStopWordsVersion;
+	
 	/**
 	 * Sets the session factory
 	 * 
@@ -127,6 +173,7 @@ public class HibernateConceptDAO implements ConceptDAO {
 	 */
 	@Override
 	public Concept saveConcept(Concept concept) throws DAOException {
+		boolean existing = concept.getConceptId() != null;
 		if ((concept.getConceptId() != null) && (concept.getConceptId() > 0)) {
 			// this method checks the concept_numeric, concept_derived, etc tables
 			// to see if a row exists there or not.  This is needed because hibernate
@@ -136,9 +183,50 @@ public class HibernateConceptDAO implements ConceptDAO {
 		}
 		
 		sessionFactory.getCurrentSession().saveOrUpdate(concept);
+		updateConceptNameKeys(concept, existing);
+		
+		// drugs are indexed with the names of their concept, which hibernate search does not know about
+		if (existing) {
+			List<Drug> drugs = sessionFactory.getCurrentSession()
+			        .createQuery("from Drug d where d.concept = :concept", Drug.class).setParameter("concept", concept)
+			        .setHibernateFlushMode(FlushMode.MANUAL).list();
+			for (Drug drug : drugs) {
+				Context.updateSearchIndexForObject(drug);
+			}
+		}
 		return concept;
 	}
 	
+	/**
+	 * Brings the {@link ConceptNameKey}s of a concept in line with its current default names, keys
+	 * that did not change are left alone
+	 */
+	private void updateConceptNameKeys(Concept concept, boolean existing) {
+		Session session = sessionFactory.getCurrentSession();
+		Map<String, ConceptNameKey> keysToSave = new HashMap<>();
+		for (ConceptNameKey key : ConceptNameKey.forConcept(concept)) {
+			keysToSave.put(key.getLocale() + "|" + key.getName(), key);
+		}
+		
+		if (existing) {
+			List<ConceptNameKey> savedKeys = session
+			        .createQuery("from ConceptNameKey k where k.conceptId = :conceptId", ConceptNameKey.class)
+			        .setParameter("conceptId", concept.getConceptId()).setHibernateFlushMode(FlushMode.MANUAL).list();
+			for (ConceptNameKey savedKey : savedKeys) {
+				// keys deleted by an earlier save in this session are not flushed yet
+				if (!session.contains(savedKey)) {
+					continue;
+				}
+				if (keysToSave.remove(savedKey.getLocale() + "|" + savedKey.getName()) == null) {
+					session.delete(savedKey);
+				}
+			}
+		}
+		for (ConceptNameKey key : keysToSave.values()) {
+			session.save(key);
+		}
+	}
+	
 	/**
 	 * Convenience method that will check this concept for subtype values (ConceptNumeric,
 	 * ConceptDerived, etc) and insert a line into that subtable if needed. This prevents a
@@ -238,6 +326,8 @@ public class HibernateConceptDAO implements ConceptDAO {
 	 */
 	@Override
 	public void purgeConcept(Concept concept) throws DAOException {
+		sessionFactory.getCurrentSession().createQuery("delete from ConceptNameKey k where k.conceptId = :conceptId")
+		        .setParameter("conceptId", concept.getConceptId()).executeUpdate();
 		sessionFactory.getCurrentSession().delete(concept);
 	}
 	
@@ -603,60 +693,43 @@ public class HibernateConceptDAO implements ConceptDAO {
 		return concepts;
 	}
 	
-	private String newConceptNameQuery(final String name, final boolean searchKeywords, final Set<Locale> locales,
-	        final boolean searchExactLocale) {
-		final String escapedName = LuceneQuery.escapeQuery(name).replace("AND", "and").replace("OR", "or").replace("NOT", "not");
-		final List<String> tokenizedName = tokenizeConceptName(escapedName, locales);
-		
-		final StringBuilder query = new StringBuilder();
-		
-		query.append("(concept.conceptMappings.conceptReferenceTerm.code:(").append(escapedName).append(")^0.4 OR (");
-		final StringBuilder nameQuery = newNameQuery(tokenizedName, escapedName, searchKeywords);
-		query.append(nameQuery);
-		query.append(" localePreferred:true)^0.4 OR (");
-		query.append(nameQuery);
-		query.append(")^0.2)");
-		
-		List<String> localeQueries = new ArrayList<>();
-		for (Locale locale : locales) {
-			if (searchExactLocale) {
-				localeQueries.add(locale.toString());
-			} else {
-				String localeQuery = locale.getLanguage() + "* ";
-				if (!StringUtils.isBlank(locale.getCountry())) {
-					localeQuery += " OR " + locale + "^2 ";
-				}
-				localeQueries.add(localeQuery);
-			}
+	/**
+	 * Gets the query matching concept names to a phrase, it is built once for repeated searches of
+	 * the same phrase until stop words change.
+	 */
+	private org.apache.lucene.search.Query getConceptNameQuery(final String phrase, final boolean searchKeywords,
+	        final Set<Locale> locales, final boolean searchExactLocale) {
+		List<Object> key = Arrays.asList(phrase, searchKeywords, locales, searchExactLocale);
+		org.apache.lucene.search.Query query = conceptNameQueries.getIfPresent(key);
+		if (query == null) {
+			long version = getConceptStopWordsVersion();
+			query = ConceptNameQuery.build(getFullTextSession().getSearchFactory().getAnalyzer(ConceptName.class),
+			    phrase, searchKeywords, locales, searchExactLocale, getConceptStopWords(locales));
+			putIfCurrent(conceptNameQueries, version, key, query);
 		}
-		query.append(" locale:(");
-		query.append(StringUtils.join(localeQueries, " OR "));
-		query.append(")");
-		query.append(" voided:false");
-		
-		return query.toString();
+		return query;
 	}
 	
-	private StringBuilder newNameQuery(final List<String> tokenizedName, final String escapedName,
-	        final boolean searchKeywords) {
+	private StringBuilder newNameQuery(final String field, final List<String> tokenizedName,
+	        final String escapedName, final boolean searchKeywords) {
 		final StringBuilder query = new StringBuilder();
 		query.append("(");
 		if (searchKeywords) {
 			//Put exact phrase higher
-			query.append(" name:(\"").append(escapedName).append("\")^0.7");
+			query.append(" ").append(field).append(":(\"").append(escapedName).append("\")^0.7");
 			
 			if (!tokenizedName.isEmpty()) {
 				query.append(" OR (");
 				for (String token : tokenizedName) {
-					query.append(" (name:(");
+					query.append(" (").append(field).append(":(");
 					
 					//Include exact
 					query.append(token);
-					query.append(")^0.6 OR name:(");
+					query.append(")^0.6 OR ").append(field).append(":(");
 					
 					//Include partial
 					query.append(token);
-					query.append("*)^0.3 OR name:(");
+					query.append("*)^0.3 OR ").append(field).append(":(");
 					
 					//Include similar
 					query.append(token);
@@ -665,31 +738,22 @@ public class HibernateConceptDAO implements ConceptDAO {
 				query.append(")^0.3");
 			}
 		} else {
-			query.append(" name:\"").append(escapedName).append("\"");
+			query.append(" ").append(field).append(":\"").append(escapedName).append("\"");
 		}
 		query.append(")");
 		return query;
 	}
 	
 	private List<String> tokenizeConceptName(final String escapedName, final Set<Locale> locales) {
-		List<String> words = new ArrayList<>(Arrays.asList(escapedName.trim().split(" ")));
-		
+		return ConceptNameQuery.getKeywords(escapedName, getConceptStopWords(locales));
+	}
+	
+	private Set<String> getConceptStopWords(Collection<Locale> locales) {
 		Set<String> stopWords = new HashSet<>();
 		for (Locale locale : locales) {
-			stopWords.addAll(Context.getConceptService().getConceptStopWords(locale));
-		}
-		
-		List<String> tokenizedName = new ArrayList<>();
-		
-		for (String word : words) {
-			word = word.trim();
-			
-			if (!word.isEmpty() && !stopWords.contains(word.toUpperCase())) {
-				tokenizedName.add(word);
-			}
+			stopWords.addAll(getCachedConceptStopWords(locale));
 		}
-		
-		return tokenizedName;
+		return stopWords;
 	}
 	
 	/**
@@ -1348,17 +1412,112 @@ public class HibernateConceptDAO implements ConceptDAO {
 	@Override
 	public List<String> getConceptStopWords(Locale locale) throws DAOException {
 
-		locale = (locale == null ? Context.getLocale() : locale);
-
-		Session session = sessionFactory.getCurrentSession();
-		CriteriaBuilder cb = session.getCriteriaBuilder();
-		CriteriaQuery<String> cq = cb.createQuery(String.class);
-		Root<ConceptStopWord> root = cq.from(ConceptStopWord.class);
-
-		cq.select(root.get("value"));
-		cq.where(cb.equal(root.get("locale"), locale));
-
-		return session.createQuery(cq).getResultList();
+		return new ArrayList<>(getCachedConceptStopWords(locale == null ? Context.getLocale() : locale));
+	}
+	
+	/**
+	 * Gets the stop words of a locale, they are read once until they change
+	 */
+	private Set<String> getCachedConceptStopWords(Locale locale) {
+		Set<String> stopWords = conceptStopWords.getIfPresent(locale);
+		if (stopWords == null) {
+			long version = getConceptStopWordsVersion();
+			Session session = sessionFactory.getCurrentSession();
+			CriteriaBuilder cb = session.getCriteriaBuilder();
+			CriteriaQuery<String> cq = cb.createQuery(String.class);
+			Root<ConceptStopWord> root = cq.from(ConceptStopWord.class);
+			
+			cq.select(root.get("value"));
+			cq.where(cb.equal(root.get("locale"), locale));
+			
+			stopWords = Collections.unmodifiableSet(new LinkedHashSet<>(session.createQuery(cq).getResultList()));
+			if (putIfCurrent(conceptStopWords, version, locale, stopWords)) {
+				evictConceptStopWordsOnRollback();
+			}
+		}
+		return stopWords;
+	}
+	
+	private synchronized long getConceptStopWordsVersion() {
+		return conceptStopWordsVersion;
+	}
+	
+	/**
+	 * Caches stop words, or a query built from them, unless the cache was discarded since they were
+	 * read or the current transaction changed stop words, which are not committed yet.
+	 * 
+	 * @return true if the value was cached
+	 */
+	private synchronized <K, V> boolean putIfCurrent(Cache<K, V> cache, long version, K key, V value) {
+		if (version != conceptStopWordsVersion || getConceptStopWordsSynchronization() != null) {
+			return false;
+		}
+		cache.put(key, value);
+		return true;
+	}
+	
+	/**
+	 * The stop words may have been read from changes of the current transaction, they are discarded
+	 * along with the queries built from them if they are rolled back.
+	 */
+	private void evictConceptStopWordsOnRollback() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				
+				@Override
+				public void afterCompletion(int status) {
+					if (status != STATUS_COMMITTED) {
+						evictConceptStopWords();
+					}
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Discards the cached stop words and the queries built from them, right away and again when the
+	 * current transaction completes, so that stop words read by another transaction before the
+	 * changes are committed are not kept either.
+	 */
+	private void evictConceptStopWordsOnCompletion() {
+		evictConceptStopWords();
+		if (TransactionSynchronizationManager.isSynchronizationActive() && getConceptStopWordsSynchronization() == null) {
+			TransactionSynchronizationManager.registerSynchronization(new ConceptStopWordsSynchronization());
+		}
+	}
+	
+	private synchronized void evictConceptStopWords() {
+		conceptStopWordsVersion++;
+		conceptStopWords.invalidateAll();
+		conceptNameQueries.invalidateAll();
+	}
+	
+	private ConceptStopWordsSynchronization getConceptStopWordsSynchronization() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return null;
+		}
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			if (synchronization instanceof ConceptStopWordsSynchronization
+			        && ((ConceptStopWordsSynchronization) synchronization).getDAO() == this) {
+				return (ConceptStopWordsSynchronization) synchronization;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Discards the cached stop words once a transaction that changed them completes
+	 */
+	private class ConceptStopWordsSynchronization implements TransactionSynchronization {
+		
+		private HibernateConceptDAO getDAO() {
+			return HibernateConceptDAO.this;
+		}
+		
+		@Override
+		public void afterCompletion(int status) {
+			evictConceptStopWords();
+		}
 	}
 
 	/**
@@ -1382,6 +1541,7 @@ public class HibernateConceptDAO implements ConceptDAO {
 				throw new DAOException("Duplicate ConceptStopWord Entry");
 			}
 			session.saveOrUpdate(conceptStopWord);
+			evictConceptStopWordsOnCompletion();
 		}
 		return conceptStopWord;
 	}
@@ -1407,6 +1567,7 @@ public class HibernateConceptDAO implements ConceptDAO {
 			throw new DAOException("Concept Stop Word not found or already deleted");
 		}
 		session.delete(csw);
+		evictConceptStopWordsOnCompletion();
 	}
 
 	/**
@@ -1470,37 +1631,61 @@ public class HibernateConceptDAO implements ConceptDAO {
 		}
 		
 		StringBuilder query = new StringBuilder();
+		Map<String, String> analyzersByField = new HashMap<>();
 		if (!StringUtils.isBlank(drugName)) {
 			String escapedName = LuceneQuery.escapeQuery(drugName);
 			List<String> tokenizedName = Arrays.asList(escapedName.trim().split("\\+"));
 			query.append("(");
-			query.append(newNameQuery(tokenizedName, escapedName, searchKeywords));
+			query.append(newNameQuery("name", tokenizedName, escapedName, searchKeywords));
 			query.append(")^0.3 OR drugReferenceMaps.conceptReferenceTerm.code:(\"").append(escapedName).append("\")^0.6");
+			
+			if (concept == null && searchDrugConceptNames) {
+				analyzersByField.put(DrugConceptNameFieldBridge.getLocaleField(DrugConceptNameFieldBridge.FIELD, locale),
+				    DrugConceptNameFieldBridge.ANALYZER);
+				analyzersByField.put(DrugConceptNameFieldBridge.getLanguageField(DrugConceptNameFieldBridge.FIELD, locale),
+				    DrugConceptNameFieldBridge.ANALYZER);
+				query.append(" OR (").append(newDrugConceptNameQuery(escapedName, searchKeywords, locale, exactLocale));
+				if (!includeRetired) {
+					query.append(" AND concept.retired:false");
+				}
+				query.append(")^0.1");
+			}
 		}
 		
 		if (concept != null) {
 			query.append(" OR concept.conceptId:(").append(concept.getConceptId()).append(")^0.1");
-		} else if (searchDrugConceptNames) {
-			LuceneQuery<ConceptName> conceptNameQuery = newConceptNameLuceneQuery(drugName, searchKeywords,
-					Collections.singletonList(locale), exactLocale, includeRetired, null, null, null, null, null);
-			List<Object[]> conceptIds = conceptNameQuery.listProjection("concept.conceptId");
-			if (!conceptIds.isEmpty()) {
-				CollectionUtils.transform(conceptIds, input -> ((Object[]) input)[0].toString());
-				//The default Lucene clauses limit is 1024. We arbitrarily chose to use 512 here as it does not make sense to return more hits by concept name anyway.
-				int maxSize = (conceptIds.size() < 512) ? conceptIds.size() : 512;
-				query.append(" OR concept.conceptId:(").append(StringUtils.join(conceptIds.subList(0, maxSize), " OR "))
-				        .append(")^0.1");
-			}
 		}
 		
-		LuceneQuery<Drug> drugsQuery = LuceneQuery
-		        .newQuery(Drug.class, sessionFactory.getCurrentSession(), query.toString());
+		LuceneQuery<Drug> drugsQuery = LuceneQuery.newQuery(Drug.class, sessionFactory.getCurrentSession(), query
+		        .toString(), analyzersByField);
 		if (!includeRetired) {
 			drugsQuery.include("retired", false);
 		}
 		return drugsQuery;
 	}
 	
+	/**
+	 * Matches the names of the concepts of drugs as indexed by {@link DrugConceptNameFieldBridge},
+	 * names in the exact locale rank higher unless only the exact locale is searched
+	 */
+	private String newDrugConceptNameQuery(String escapedName, boolean searchKeywords, Locale locale,
+	        boolean exactLocale) {
+		List<String> tokenizedName = tokenizeConceptName(escapedName, Collections.singleton(locale));
+		String localeField = DrugConceptNameFieldBridge.getLocaleField(DrugConceptNameFieldBridge.FIELD, locale);
+		if (exactLocale) {
+			return newNameQuery(localeField, tokenizedName, escapedName, searchKeywords).toString();
+		}
+		
+		StringBuilder query = new StringBuilder("(");
+		query.append(newNameQuery(DrugConceptNameFieldBridge.getLanguageField(DrugConceptNameFieldBridge.FIELD, locale),
+		    tokenizedName, escapedName, searchKeywords));
+		if (StringUtils.isNotBlank(locale.getCountry())) {
+			query.append(" OR ").append(newNameQuery(localeField, tokenizedName, escapedName, searchKeywords)).append(
+			    "^2");
+		}
+		return query.append(")").toString();
+	}
+	
 	/**
 	 * @see ConceptDAO#getConcepts(String, List, boolean, List, List, List, List, Concept, Integer,
 	 *      Integer)
@@ -1537,11 +1722,52 @@ public class HibernateConceptDAO implements ConceptDAO {
 		return size.intValue();
 	}
 	
+	/**
+	 * The names are read from the index ordered by relevance, a page holding a few names per
+	 * concept asked for, so that a single page usually holds enough distinct concepts.
+	 * 
+	 * @see ConceptDAO#getConceptTypeahead(String, List, boolean, int, boolean)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public ConceptTypeahead getConceptTypeahead(String text, List<Locale> locales, boolean includeRetired, int limit,
+	        boolean includeCount) throws DAOException {
+		FullTextSession session = getFullTextSession();
+		org.apache.lucene.search.Query query = ConceptTypeaheadQuery.build(session.getSearchFactory().getAnalyzer(
+		    LuceneAnalyzers.EXACT_ANALYZER), text, locales == null ? Collections.singletonList(Context.getLocale())
+		        : locales, includeRetired);
+		if (query == null) {
+			return new ConceptTypeahead(new ArrayList<>(), includeCount ? 0L : null);
+		}
+		
+		FullTextQuery fullTextQuery = session.createFullTextQuery(query, ConceptName.class);
+		fullTextQuery.setProjection(FullTextQuery.ID, "concept.conceptId", ConceptTypeaheadQuery.NAME_FIELD,
+		    FullTextQuery.SCORE);
+		int pageSize = limit * TYPEAHEAD_NAMES_PER_CONCEPT;
+		Map<Integer, ConceptTypeahead.Match> matches = new LinkedHashMap<>();
+		for (int first = 0; matches.size() < limit; first += pageSize) {
+			List<Object[]> rows = fullTextQuery.setFirstResult(first).setMaxResults(pageSize).list();
+			for (Object[] row : rows) {
+				Integer conceptId = (Integer) row[1];
+				if (matches.size() < limit && !matches.containsKey(conceptId)) {
+					matches.put(conceptId, new ConceptTypeahead.Match(conceptId, (Integer) row[0], (String) row[2],
+					        (Float) row[3]));
+				}
+			}
+			if (rows.size() < pageSize) {
+				break;
+			}
+		}
+		
+		Long count = includeCount ? (long) fullTextQuery.getResultSize() : null;
+		return new ConceptTypeahead(new ArrayList<>(matches.values()), count);
+	}
+	
 	private LuceneQuery<ConceptName> newConceptNameLuceneQuery(final String phrase, boolean searchKeywords,
 	        List<Locale> locales, boolean searchExactLocale, boolean includeRetired, List<ConceptClass> requireClasses,
 	        List<ConceptClass> excludeClasses, List<ConceptDatatype> requireDatatypes,
 	        List<ConceptDatatype> excludeDatatypes, Concept answersToConcept) {
-		final StringBuilder query = new StringBuilder();
+		org.apache.lucene.search.Query query = null;
 		
 		if (!StringUtils.isBlank(phrase)) {
 			final Set<Locale> searchLocales;
@@ -1552,11 +1778,11 @@ public class HibernateConceptDAO implements ConceptDAO {
 				searchLocales = new HashSet<>(locales);
 			}
 			
-			query.append(newConceptNameQuery(phrase, searchKeywords, searchLocales, searchExactLocale));
+			query = getConceptNameQuery(phrase, searchKeywords, searchLocales, searchExactLocale);
 		}
 		
 		LuceneQuery<ConceptName> luceneQuery = LuceneQuery.newQuery(ConceptName.class, sessionFactory.getCurrentSession(),
-		    query.toString()).include("concept.conceptClass.conceptClassId", transformToIds(requireClasses)).exclude(
+		    query).include("concept.conceptClass.conceptClassId", transformToIds(requireClasses)).exclude(
 		    "concept.conceptClass.conceptClassId", transformToIds(excludeClasses)).include(
 		    "concept.datatype.conceptDatatypeId", transformToIds(requireDatatypes)).exclude(
 		    "concept.datatype.conceptDatatypeId", transformToIds(excludeDatatypes));
@@ -1582,6 +1808,11 @@ public class HibernateConceptDAO implements ConceptDAO {
 		return luceneQuery;
 	}
 	
+	private FullTextSession getFullTextSession() {
+		return Context.getRegisteredComponent("fullTextSessionFactory", FullTextSessionFactory.class)
+		        .getFullTextSession();
+	}
+	
 	private String[] transformToIds(final List<? extends OpenmrsObject> items) {
 		if (items == null || items.isEmpty()) {
 			return new String[0];
@@ -2050,41 +2281,261 @@ public class HibernateConceptDAO implements ConceptDAO {
 			}
 		}
 
-		Session session = sessionFactory.getCurrentSession();
-		CriteriaBuilder cb = session.getCriteriaBuilder();
-		CriteriaQuery<ConceptName> cq = cb.createQuery(ConceptName.class);
-		Root<ConceptName> root = cq.from(ConceptName.class);
-
-		List<Predicate> predicates = new ArrayList<>();
-
-		predicates.add(cb.isFalse(root.get("voided")));
-		predicates.add(cb.or(cb.equal(root.get("locale"), name.getLocale()),
-			cb.equal(root.get("locale"), new Locale(name.getLocale().getLanguage()))));
-
-		if (Context.getAdministrationService().isDatabaseStringComparisonCaseSensitive()) {
-			predicates.add(cb.equal(root.get("name"), name.getName()));
-		} else {
-			predicates.add(cb.equal(cb.lower(root.get("name")), name.getName().toLowerCase()));
+		boolean caseSensitive = Context.getAdministrationService().isDatabaseStringComparisonCaseSensitive();
+		// the keys hold the default names of concepts that were not retired when they were saved, a
+		// concept retired through ConceptService#retireConcept is flushed without being saved again
+		StringBuilder hql = new StringBuilder("select k.name from ConceptNameKey k, Concept c"
+		        + " where c.conceptId = k.conceptId and c.retired = false and k.nameKey = :nameKey"
+		        + " and k.locale in (:locales)");
+		Integer conceptId = name.getConcept() == null ? null : name.getConcept().getConceptId();
+		if (conceptId != null) {
+			hql.append(" and k.conceptId <> :conceptId");
 		}
 
-		cq.where(predicates.toArray(new Predicate[0]));
-
-		List<ConceptName> candidateNames = session.createQuery(cq).getResultList();
+		org.hibernate.query.Query<String> query = sessionFactory.getCurrentSession().createQuery(hql.toString(),
+		    String.class);
+		query.setParameter("nameKey", ConceptNameKey.normalize(name.getName()));
+		query.setParameterList("locales", Arrays.asList(name.getLocale().toString(), name.getLocale().getLanguage()));
+		if (conceptId != null) {
+			query.setParameter("conceptId", conceptId);
+		}
+		// the key is lower cased, names only match in the same case if string comparisons are case sensitive
+		for (String savedName : query.list()) {
+			if (!caseSensitive || savedName.equals(name.getName())) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.ConceptDAO#getConceptIdsByUuid(Collection)
+	 */
+	@Override
+	public Map<String, Integer> getConceptIdsByUuid(Collection<String> uuids) throws DAOException {
+		Map<String, Integer> conceptIds = new HashMap<>();
+		List<String> uuidList = new ArrayList<>(new LinkedHashSet<>(uuids));
+		for (int i = 0; i < uuidList.size(); i += IN_CLAUSE_SIZE) {
+			List<Object[]> rows = sessionFactory.getCurrentSession()
+			        .createQuery("select c.uuid, c.conceptId from Concept c where c.uuid in (:uuids)", Object[].class)
+			        .setParameterList("uuids", uuidList.subList(i, Math.min(i + IN_CLAUSE_SIZE, uuidList.size()))).list();
+			for (Object[] row : rows) {
+				conceptIds.put((String) row[0], (Integer) row[1]);
+			}
+		}
+		return conceptIds;
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.ConceptDAO#getConceptNameKeys(Collection)
+	 */
+	@Override
+	public List<ConceptNameKey> getConceptNameKeys(Collection<String> nameKeys) throws DAOException {
+		List<ConceptNameKey> keys = new ArrayList<>();
+		List<String> nameKeyList = new ArrayList<>(new LinkedHashSet<>(nameKeys));
+		for (int i = 0; i < nameKeyList.size(); i += IN_CLAUSE_SIZE) {
+			keys.addAll(sessionFactory.getCurrentSession()
+			        .createQuery("select k from ConceptNameKey k, Concept c where c.conceptId = k.conceptId"
+			                + " and c.retired = false and k.nameKey in (:nameKeys)", ConceptNameKey.class)
+			        .setParameterList("nameKeys", nameKeyList.subList(i, Math.min(i + IN_CLAUSE_SIZE, nameKeyList.size())))
+			        .list());
+		}
 
-		for (ConceptName candidateName : candidateNames) {
-			if (candidateName.getConcept().getRetired()) {
-				continue;
+		return keys;
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.ConceptDAO#updateConceptNameKeys()
+	 */
+	@Override
+	public int updateConceptNameKeys() throws DAOException {
+		Session session = sessionFactory.getCurrentSession();
+		// the keys are computed from the names in the database
+		session.flush();
+		return session.doReturningWork(connection -> new ConceptNameKeyChangeSet().updateConceptNameKeys(connection));
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.ConceptDAO#insertConcepts(List, Map)
+	 */
+	@Override
+	public void insertConcepts(List<Concept> concepts, Map<String, Integer> conceptIds) throws DAOException {
+		Session session = sessionFactory.getCurrentSession();
+		session.flush();
+		session.doWork(connection -> {
+			try (PreparedStatement insert = connection.prepareStatement("insert into concept (uuid, retired, retired_by,"
+			        + " date_retired, retire_reason, version, is_set, datatype_id, class_id, creator, date_created)"
+			        + " values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+				for (Concept concept : concepts) {
+					insert.setString(1, concept.getUuid());
+					insert.setBoolean(2, concept.getRetired());
+					setId(insert, 3, concept.getRetiredBy());
+					setDate(insert, 4, concept.getDateRetired());
+					insert.setString(5, concept.getRetireReason());
+					insert.setString(6, concept.getVersion());
+					insert.setBoolean(7, concept.getSet());
+					setId(insert, 8, concept.getDatatype());
+					setId(insert, 9, concept.getConceptClass());
+					setId(insert, 10, concept.getCreator());
+					setDate(insert, 11, concept.getDateCreated());
+					insert.addBatch();
+				}
+				insert.executeBatch();
+			}
+			
+			List<String> uuids = concepts.stream().map(Concept::getUuid).collect(Collectors.toList());
+			for (int i = 0; i < uuids.size(); i += IN_CLAUSE_SIZE) {
+				List<String> part = uuids.subList(i, Math.min(i + IN_CLAUSE_SIZE, uuids.size()));
+				String placeholders = String.join(", ", Collections.nCopies(part.size(), "?"));
+				try (PreparedStatement select = connection
+				        .prepareStatement("select uuid, concept_id from concept where uuid in (" + placeholders + ")")) {
+					for (int j = 0; j < part.size(); j++) {
+						select.setString(j + 1, part.get(j));
+					}
+					try (ResultSet rs = select.executeQuery()) {
+						while (rs.next()) {
+							conceptIds.put(rs.getString(1), rs.getInt(2));
+						}
+					}
+				}
 			}
-			if (candidateName.getConcept().equals(name.getConcept())) {
-				continue;
+			for (Concept concept : concepts) {
+				concept.setConceptId(conceptIds.get(concept.getUuid()));
 			}
-			// If it is a default name for a concept
-			if (candidateName.getConcept().getName(candidateName.getLocale()).equals(candidateName)) {
-				return true;
+			
+			insertConceptChildren(connection, concepts, conceptIds);
+		});
+	}
+	
+	private void insertConceptChildren(Connection connection, List<Concept> concepts, Map<String, Integer> conceptIds)
+	        throws SQLException {
+		try (PreparedStatement numeric = connection.prepareStatement("insert into concept_numeric (concept_id,"
+		        + " hi_absolute, hi_critical, hi_normal, low_absolute, low_critical, low_normal, units, allow_decimal,"
+		        + " display_precision) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+		        PreparedStatement complex = connection
+		                .prepareStatement("insert into concept_complex (concept_id, handler) values (?, ?)");
+		        PreparedStatement name = connection.prepareStatement("insert into concept_name (concept_id, name, locale,"
+		                + " locale_preferred, concept_name_type, voided, creator, date_created, uuid)"
+		                + " values (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+		        PreparedStatement description = connection.prepareStatement("insert into concept_description"
+		                + " (concept_id, description, locale, creator, date_created, uuid) values (?, ?, ?, ?, ?, ?)");
+		        PreparedStatement answer = connection.prepareStatement("insert into concept_answer (concept_id,"
+		                + " answer_concept, answer_drug, sort_weight, creator, date_created, uuid)"
+		                + " values (?, ?, ?, ?, ?, ?, ?)");
+		        PreparedStatement member = connection.prepareStatement("insert into concept_set (concept_id, concept_set,"
+		                + " sort_weight, creator, date_created, uuid) values (?, ?, ?, ?, ?, ?)");
+		        PreparedStatement mapping = connection.prepareStatement("insert into concept_reference_map (concept_id,"
+		                + " concept_reference_term_id, concept_map_type_id, creator, date_created, uuid)"
+		                + " values (?, ?, ?, ?, ?, ?)");
+		        PreparedStatement nameKey = connection.prepareStatement(
+		            "insert into concept_name_key (concept_id, locale, name_key, name) values (?, ?, ?, ?)")) {
+			for (Concept concept : concepts) {
+				int conceptId = concept.getConceptId();
+				if (concept instanceof ConceptNumeric) {
+					ConceptNumeric cn = (ConceptNumeric) concept;
+					numeric.setInt(1, conceptId);
+					numeric.setObject(2, cn.getHiAbsolute(), Types.DOUBLE);
+					numeric.setObject(3, cn.getHiCritical(), Types.DOUBLE);
+					numeric.setObject(4, cn.getHiNormal(), Types.DOUBLE);
+					numeric.setObject(5, cn.getLowAbsolute(), Types.DOUBLE);
+					numeric.setObject(6, cn.getLowCritical(), Types.DOUBLE);
+					numeric.setObject(7, cn.getLowNormal(), Types.DOUBLE);
+					numeric.setString(8, cn.getUnits());
+					numeric.setBoolean(9, Boolean.TRUE.equals(cn.getAllowDecimal()));
+					numeric.setObject(10, cn.getDisplayPrecision(), Types.INTEGER);
+					numeric.addBatch();
+				} else if (concept instanceof ConceptComplex) {
+					complex.setInt(1, conceptId);
+					complex.setString(2, ((ConceptComplex) concept).getHandler());
+					complex.addBatch();
+				}
+				
+				for (ConceptName conceptName : concept.getNames()) {
+					name.setInt(1, conceptId);
+					name.setString(2, conceptName.getName());
+					name.setString(3, conceptName.getLocale().toString());
+					name.setBoolean(4, Boolean.TRUE.equals(conceptName.getLocalePreferred()));
+					name.setString(5, conceptName.getConceptNameType() == null ? null : conceptName.getConceptNameType()
+					        .name());
+					name.setBoolean(6, conceptName.getVoided());
+					setId(name, 7, conceptName.getCreator());
+					setDate(name, 8, conceptName.getDateCreated());
+					name.setString(9, conceptName.getUuid());
+					name.addBatch();
+				}
+				for (ConceptDescription conceptDescription : concept.getDescriptions()) {
+					description.setInt(1, conceptId);
+					description.setString(2, conceptDescription.getDescription());
+					description.setString(3, conceptDescription.getLocale().toString());
+					setId(description, 4, conceptDescription.getCreator());
+					setDate(description, 5, conceptDescription.getDateCreated());
+					description.setString(6, conceptDescription.getUuid());
+					description.addBatch();
+				}
+				for (ConceptAnswer conceptAnswer : concept.getAnswers(true)) {
+					answer.setInt(1, conceptId);
+					answer.setInt(2, getConceptId(conceptAnswer.getAnswerConcept(), conceptIds));
+					setId(answer, 3, conceptAnswer.getAnswerDrug());
+					answer.setObject(4, conceptAnswer.getSortWeight(), Types.DOUBLE);
+					setId(answer, 5, conceptAnswer.getCreator());
+					setDate(answer, 6, conceptAnswer.getDateCreated());
+					answer.setString(7, conceptAnswer.getUuid());
+					answer.addBatch();
+				}
+				for (ConceptSet conceptSet : concept.getConceptSets()) {
+					member.setInt(1, getConceptId(conceptSet.getConcept(), conceptIds));
+					member.setInt(2, conceptId);
+					member.setDouble(3, conceptSet.getSortWeight() == null ? 0 : conceptSet.getSortWeight());
+					setId(member, 4, conceptSet.getCreator());
+					setDate(member, 5, conceptSet.getDateCreated());
+					member.setString(6, conceptSet.getUuid());
+					member.addBatch();
+				}
+				for (ConceptMap conceptMap : concept.getConceptMappings()) {
+					mapping.setInt(1, conceptId);
+					setId(mapping, 2, conceptMap.getConceptReferenceTerm());
+					setId(mapping, 3, conceptMap.getConceptMapType());
+					setId(mapping, 4, conceptMap.getCreator());
+					setDate(mapping, 5, conceptMap.getDateCreated());
+					mapping.setString(6, conceptMap.getUuid());
+					mapping.addBatch();
+				}
+				for (ConceptNameKey key : ConceptNameKey.forConcept(concept)) {
+					nameKey.setInt(1, key.getConceptId());
+					nameKey.setString(2, key.getLocale());
+					nameKey.setString(3, key.getNameKey());
+					nameKey.setString(4, key.getName());
+					nameKey.addBatch();
+				}
 			}
+			numeric.executeBatch();
+			complex.executeBatch();
+			name.executeBatch();
+			description.executeBatch();
+			answer.executeBatch();
+			member.executeBatch();
+			mapping.executeBatch();
+			nameKey.executeBatch();
 		}
-
-		return false;
+	}
+	
+	private int getConceptId(Concept concept, Map<String, Integer> conceptIds) {
+		if (concept.getConceptId() != null) {
+			return concept.getConceptId();
+		}
+		Integer conceptId = conceptIds.get(concept.getUuid());
+		if (conceptId == null) {
+			throw new DAOException("Concept with uuid " + concept.getUuid() + " is not in the database");
+		}
+		return conceptId;
+	}
+	
+	private void setId(PreparedStatement statement, int index, OpenmrsObject object) throws SQLException {
+		statement.setObject(index, object == null ? null : object.getId(), Types.INTEGER);
+	}
+	
+	private void setDate(PreparedStatement statement, int index, Date date) throws SQLException {
+		statement.setTimestamp(index, date == null ? null : new Timestamp(date.getTime()));
 	}
 	
 	/**
@@ -10,6 +10,8 @@
 package org.openmrs.api.db.hibernate;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -22,24 +24,24 @@ import org.hibernate.FlushMode;
 import org.hibernate.SQLQuery;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
-import org.hibernate.criterion.Conjunction;
-import org.hibernate.criterion.Disjunction;
 import org.hibernate.criterion.MatchMode;
 import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
-import org.hibernate.sql.JoinType;
+import org.hibernate.type.StandardBasicTypes;
 import org.openmrs.Cohort;
 import org.openmrs.Encounter;
 import org.openmrs.EncounterRole;
 import org.openmrs.EncounterType;
 import org.openmrs.Location;
 import org.openmrs.Patient;
+import org.openmrs.TimelineEntry;
 import org.openmrs.Visit;
 import org.openmrs.api.EncounterService;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.DAOException;
 import org.openmrs.api.db.EncounterDAO;
+import org.openmrs.api.db.hibernate.search.LuceneQuery;
 import org.openmrs.parameter.EncounterSearchCriteria;
 
 /**
@@ -51,6 +53,16 @@ import org.openmrs.parameter.EncounterSearchCriteria;
  */
 public class HibernateEncounterDAO implements EncounterDAO {
 
+	/**
+	 * The number of encounters whose obs trees are loaded with one query
+	 */
+	private static final int OBS_TREE_BATCH_SIZE = 500;
+	
+	/**
+	 * The maximum number of ids passed to one in clause
+	 */
+	private static final int IN_CLAUSE_SIZE = 1000;
+	
 	/**
 	 * Hibernate session factory
 	 */
@@ -90,6 +102,32 @@ public class HibernateEncounterDAO implements EncounterDAO {
 		return (Encounter) sessionFactory.getCurrentSession().get(Encounter.class, encounterId);
 	}
 	
+	/**
+	 * Fetch joins the obs of the encounters and the group members of each of these obs. Encounter.obs
+	 * holds all obs of an encounter, not only the top level ones, so this initializes every level of
+	 * the obs trees. Collections that are already initialized are left as they are.
+	 * 
+	 * @see org.openmrs.api.db.EncounterDAO#loadObsTrees(java.util.Collection)
+	 */
+	@Override
+	public void loadObsTrees(Collection<Encounter> encounters) throws DAOException {
+		List<Integer> encounterIds = new ArrayList<>(encounters.size());
+		for (Encounter encounter : encounters) {
+			if (encounter != null && encounter.getEncounterId() != null) {
+				encounterIds.add(encounter.getEncounterId());
+			}
+		}
+		
+		for (int i = 0; i < encounterIds.size(); i += OBS_TREE_BATCH_SIZE) {
+			sessionFactory.getCurrentSession()
+			        .createQuery("select distinct e from Encounter e left join fetch e.obs o left join fetch o.groupMembers"
+			                + " where e.encounterId in (:encounterIds)", Encounter.class)
+			        .setParameterList("encounterIds",
+			            encounterIds.subList(i, Math.min(i + OBS_TREE_BATCH_SIZE, encounterIds.size())))
+			        .list();
+		}
+	}
+	
 	/**
 	 * @see org.openmrs.api.db.EncounterDAO#getEncountersByPatientId(java.lang.Integer)
 	 */
@@ -274,6 +312,9 @@ public class HibernateEncounterDAO implements EncounterDAO {
 		if (StringUtils.isBlank(query) && patientId == null) {
 			return Collections.emptyList();
 		}
+		if (patientId != null && StringUtils.isNotBlank(query)) {
+			return getEncountersMatchingQuery(query, patientId, start, length, includeVoided);
+		}
 		
 		Criteria criteria = createEncounterByQueryCriteria(query, patientId, includeVoided, true);
 		
@@ -362,6 +403,9 @@ public class HibernateEncounterDAO implements EncounterDAO {
 	 */
 	@Override
 	public Long getCountOfEncounters(String query, Integer patientId, boolean includeVoided) {
+		if (patientId != null && StringUtils.isNotBlank(query)) {
+			return newEncounterQuery(query, patientId, includeVoided).resultSize();
+		}
 		Criteria criteria = createEncounterByQueryCriteria(query, patientId, includeVoided, false);
 		
 		criteria.setProjection(Projections.countDistinct("enc.encounterId"));
@@ -370,7 +414,9 @@ public class HibernateEncounterDAO implements EncounterDAO {
 	
 	/**
 	 * Utility method that returns a criteria for searching for patient encounters that match the
-	 * specified search phrase
+	 * specified search phrase. The encounters of a given patient that match a phrase are looked up in
+	 * the encounter search index instead, see
+	 * {@link #getEncountersMatchingQuery(String, Integer, Integer, Integer, boolean)}.
 	 *
 	 * @param query patient name or identifier
 	 * @param patientId the patient id
@@ -388,51 +434,6 @@ public class HibernateEncounterDAO implements EncounterDAO {
 		criteria = criteria.createCriteria("patient", "pat");
 		if (patientId != null) {
 			criteria.add(Restrictions.eq("pat.patientId", patientId));
-			if (StringUtils.isNotBlank(query)) {
-				criteria.setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY);
-				//match on location.name, encounterType.name, form.name
-				//provider.name, provider.identifier, provider.person.names
-				MatchMode mode = MatchMode.ANYWHERE;
-				criteria.createAlias("enc.location", "loc");
-				criteria.createAlias("enc.encounterType", "encType");
-				criteria.createAlias("enc.form", "form");
-				criteria.createAlias("enc.encounterProviders", "enc_prov");
-				criteria.createAlias("enc_prov.provider", "prov");
-				criteria.createAlias("prov.person", "person", JoinType.LEFT_OUTER_JOIN);
-				criteria.createAlias("person.names", "personName", JoinType.LEFT_OUTER_JOIN);
-				
-				Disjunction or = Restrictions.disjunction();
-				or.add(Restrictions.ilike("loc.name", query, mode));
-				or.add(Restrictions.ilike("encType.name", query, mode));
-				or.add(Restrictions.ilike("form.name", query, mode));
-				or.add(Restrictions.ilike("prov.name", query, mode));
-				or.add(Restrictions.ilike("prov.identifier", query, mode));
-				
-				String[] splitNames = query.split(" ");
-				Disjunction nameOr = Restrictions.disjunction();
-				for (String splitName : splitNames) {
-					nameOr.add(Restrictions.ilike("personName.givenName", splitName, mode));
-					nameOr.add(Restrictions.ilike("personName.middleName", splitName, mode));
-					nameOr.add(Restrictions.ilike("personName.familyName", splitName, mode));
-					nameOr.add(Restrictions.ilike("personName.familyName2", splitName, mode));
-				}
-				//OUTPUT for provider criteria: 
-				//prov.name like '%query%' OR prov.identifier like '%query%'
-				//OR ( personName.voided = false 
-				//		 AND (  personName.givenName like '%query%' 
-				//			OR personName.middleName like '%query%' 
-				//			OR personName.familyName like '%query%'
-				//			OR personName.familyName2 like '%query%'
-				//			)
-				//	 )
-				Conjunction personNameConjuction = Restrictions.conjunction();
-				personNameConjuction.add(Restrictions.eq("personName.voided", false));
-				personNameConjuction.add(nameOr);
-				
-				or.add(personNameConjuction);
-				
-				criteria.add(or);
-			}
 		} else {
 			//As identifier could be all alpha, no heuristic here will work in determining intent of user for querying by name versus identifier
 			//So search by both!
@@ -443,6 +444,78 @@ public class HibernateEncounterDAO implements EncounterDAO {
 		return criteria;
 	}
 	
+	/**
+	 * Gets a page of the encounters of a patient that match a query, ordered by id. Only the ids are
+	 * read from the encounter index, and only the ids of the page are loaded from the database, in
+	 * chunks when no page length is given.
+	 *
+	 * @param query the query
+	 * @param patientId the patient id
+	 * @param start the index of the first encounter of the page, from the first one if null
+	 * @param length the maximum number of encounters of the page, all of them if null or not positive
+	 * @param includeVoided
+	 * @return the matching encounters
+	 */
+	private List<Encounter> getEncountersMatchingQuery(String query, Integer patientId, Integer start, Integer length,
+	        boolean includeVoided) {
+		List<Integer> encounterIds = new ArrayList<>();
+		for (Object[] row : newEncounterQuery(query, patientId, includeVoided).listProjection("encounterId")) {
+			encounterIds.add((Integer) row[0]);
+		}
+		Collections.sort(encounterIds);
+		
+		int from = start != null ? Math.max(0, start) : 0;
+		int to = length != null && length > 0 ? Math.min(encounterIds.size(), from + length) : encounterIds.size();
+		if (from >= to) {
+			return Collections.emptyList();
+		}
+		
+		List<Encounter> encounters = new ArrayList<>();
+		List<Integer> page = encounterIds.subList(from, to);
+		for (int i = 0; i < page.size(); i += IN_CLAUSE_SIZE) {
+			encounters.addAll(sessionFactory.getCurrentSession().createQuery(
+			    "from Encounter e where e.encounterId in (:ids) order by e.encounterId", Encounter.class)
+			        .setParameterList("ids", page.subList(i, Math.min(i + IN_CLAUSE_SIZE, page.size()))).list());
+		}
+		return encounters;
+	}
+	
+	/**
+	 * Creates a query of the encounter index for the encounters of a patient that match a query. All
+	 * words of the query have to match the names of the location, encounter type or form, or the
+	 * names or identifiers of the providers, or any word has to match the name of the person of a
+	 * provider. Words are matched anywhere in the names.
+	 *
+	 * @param query the query
+	 * @param patientId the patient id
+	 * @param includeVoided
+	 * @return the query of the matching encounters
+	 */
+	private LuceneQuery<Encounter> newEncounterQuery(String query, Integer patientId, boolean includeVoided) {
+		StringBuilder metadataQuery = new StringBuilder();
+		StringBuilder providerNameQuery = new StringBuilder();
+		for (String word : query.trim().toLowerCase().split("\\s+")) {
+			String escapedWord = LuceneQuery.escapeQuery(word);
+			if (metadataQuery.length() > 0) {
+				metadataQuery.append(" AND ");
+				providerNameQuery.append(" OR ");
+			}
+			metadataQuery.append("(metadataExact:").append(escapedWord).append(" OR metadataAnywhere:").append(
+			    escapedWord).append(")");
+			providerNameQuery.append("providerNameExact:").append(escapedWord).append(" OR providerNameAnywhere:")
+			        .append(escapedWord);
+		}
+		
+		LuceneQuery<Encounter> luceneQuery = LuceneQuery.newQuery(Encounter.class, sessionFactory.getCurrentSession(),
+		    "(" + metadataQuery + ") OR (" + providerNameQuery + ")", Arrays.asList("metadataExact", "metadataAnywhere",
+		        "providerNameExact", "providerNameAnywhere"));
+		luceneQuery.include("patientId", patientId);
+		if (!includeVoided) {
+			luceneQuery.include("voided", false);
+		}
+		return luceneQuery;
+	}
+	
 	/**
 	 * @see org.openmrs.api.db.EncounterDAO#getEncountersByVisit(Visit, boolean)
 	 */
@@ -539,50 +612,12 @@ public class HibernateEncounterDAO implements EncounterDAO {
 	@Override
 	public List<Encounter> getEncountersByVisitsAndPatient(Patient patient, boolean includeVoided, String query,
 	        Integer start, Integer length) {
-		Criteria criteria = sessionFactory.getCurrentSession().createCriteria(Encounter.class);
-		addEncountersByPatientCriteria(criteria, patient, includeVoided, query);
-		criteria.addOrder(Order.desc("visit.startDatetime"));
-		criteria.addOrder(Order.desc("visit.visitId"));
-		criteria.addOrder(Order.desc("encounterDatetime"));
-		criteria.addOrder(Order.desc("encounterId"));
-		
-		@SuppressWarnings("unchecked")
-		List<Encounter> encounters = criteria.list();
-		
-		criteria = sessionFactory.getCurrentSession().createCriteria(Visit.class);
-		addEmptyVisitsByPatientCriteria(criteria, patient, includeVoided, query);
-		criteria.addOrder(Order.desc("startDatetime"));
-		criteria.addOrder(Order.desc("visitId"));
-		
-		@SuppressWarnings("unchecked")
-		List<Visit> emptyVisits = criteria.list();
-		
-		if (!emptyVisits.isEmpty()) {
-			for (Visit emptyVisit : emptyVisits) {
-				Encounter mockEncounter = new Encounter();
-				mockEncounter.setVisit(emptyVisit);
-				encounters.add(mockEncounter);
-			}
-			
-			encounters.sort((o1, o2) -> {
-				Date o1Date = (o1.getVisit() != null) ? o1.getVisit().getStartDatetime() : o1.getEncounterDatetime();
-				Date o2Date = (o2.getVisit() != null) ? o2.getVisit().getStartDatetime() : o2.getEncounterDatetime();
-				return o2Date.compareTo(o1Date);
-			});
-		}
-		
-		if (start == null) {
-			start = 0;
-		}
-		if (length == null) {
-			length = encounters.size();
+		List<TimelineEntry> entries = getEncounterTimeline(patient, includeVoided, query, null, start, length);
+		List<Encounter> encounters = new ArrayList<>(entries.size());
+		for (TimelineEntry entry : entries) {
+			encounters.add(entry.getEncounter());
 		}
-		int end = start + length;
-		if (end > encounters.size()) {
-			end = encounters.size();
-		}
-		
-		return encounters.subList(start, end);
+		return encounters;
 	}
 	
 	/**
@@ -591,63 +626,170 @@ public class HibernateEncounterDAO implements EncounterDAO {
 	 */
 	@Override
 	public Integer getEncountersByVisitsAndPatientCount(Patient patient, boolean includeVoided, String query) {
-		Criteria criteria = sessionFactory.getCurrentSession().createCriteria(Visit.class);
-		addEmptyVisitsByPatientCriteria(criteria, patient, includeVoided, query);
-		
-		criteria.setProjection(Projections.rowCount());
-		Integer count = ((Number) criteria.uniqueResult()).intValue();
-		
-		criteria = sessionFactory.getCurrentSession().createCriteria(Encounter.class);
-		addEncountersByPatientCriteria(criteria, patient, includeVoided, query);
-		
-		criteria.setProjection(Projections.rowCount());
-		count = count + ((Number) criteria.uniqueResult()).intValue();
+		if (patient == null || patient.getPatientId() == null) {
+			return 0;
+		}
+		SQLQuery sqlQuery = sessionFactory.getCurrentSession().createSQLQuery(
+		    "select count(*) from (" + getTimelineSql(includeVoided, query) + ") timeline");
+		setTimelineParameters(sqlQuery, patient, includeVoided, query);
+		return ((Number) sqlQuery.uniqueResult()).intValue();
+	}
+	
+	/**
+	 * The encounters and the visits without encounters are merged, ordered and paged by the
+	 * database, only the entries of the requested page are loaded.
+	 * 
+	 * @see org.openmrs.api.db.EncounterDAO#getEncounterTimeline(Patient, boolean, String,
+	 *      TimelineEntry, Integer, Integer)
+	 */
+	@Override
+	public List<TimelineEntry> getEncounterTimeline(Patient patient, boolean includeVoided, String query,
+	        TimelineEntry after, Integer start, Integer length) {
+		if (patient == null || patient.getPatientId() == null) {
+			return new ArrayList<>();
+		}
+		
+		StringBuilder sql = new StringBuilder("select sort_date, visit_key, encounter_date, encounter_key from (");
+		sql.append(getTimelineSql(includeVoided, query)).append(") timeline");
+		if (after != null) {
+			sql.append(" where sort_date < :sortDate or (sort_date = :sortDate and (visit_key < :visitKey")
+			        .append(" or (visit_key = :visitKey and (encounter_date < :encounterDate")
+			        .append(" or (encounter_date = :encounterDate and encounter_key < :encounterKey)))))");
+		}
+		sql.append(" order by sort_date desc, visit_key desc, encounter_date desc, encounter_key desc");
+		
+		SQLQuery sqlQuery = sessionFactory.getCurrentSession().createSQLQuery(sql.toString());
+		sqlQuery.addScalar("sort_date", StandardBasicTypes.TIMESTAMP).addScalar("visit_key", StandardBasicTypes.INTEGER)
+		        .addScalar("encounter_date", StandardBasicTypes.TIMESTAMP).addScalar("encounter_key",
+		            StandardBasicTypes.INTEGER);
+		setTimelineParameters(sqlQuery, patient, includeVoided, query);
+		if (after != null) {
+			sqlQuery.setParameter("sortDate", after.getSortDatetime());
+			sqlQuery.setParameter("visitKey", after.getVisitId() == null ? 0 : after.getVisitId());
+			sqlQuery.setParameter("encounterDate", after.isEmptyVisit() ? after.getSortDatetime() : after
+			        .getEncounterDatetime());
+			sqlQuery.setParameter("encounterKey", after.isEmptyVisit() ? 0 : after.getEncounterId());
+		}
+		if (start != null) {
+			sqlQuery.setFirstResult(start);
+		}
+		if (length != null) {
+			sqlQuery.setMaxResults(length);
+		}
 		
-		return count;
+		@SuppressWarnings("unchecked")
+		List<Object[]> rows = sqlQuery.list();
+		List<TimelineEntry> entries = new ArrayList<>(rows.size());
+		for (Object[] row : rows) {
+			Integer visitId = (Integer) row[1];
+			Integer encounterId = (Integer) row[3];
+			if (encounterId == 0) {
+				entries.add(new TimelineEntry((Date) row[0], visitId, null, null));
+			} else {
+				entries.add(new TimelineEntry((Date) row[0], visitId == 0 ? null : visitId, (Date) row[2], encounterId));
+			}
+		}
+		hydrateTimeline(entries);
+		return entries;
 	}
 	
-	private void addEmptyVisitsByPatientCriteria(Criteria criteria, Patient patient, boolean includeVoided, String query) {
-		criteria.add(Restrictions.eq("patient", patient));
-		criteria.add(Restrictions.isEmpty("encounters"));
+	/**
+	 * Builds the union of the encounters of the patient and of the visits of the patient without any
+	 * encounter, as rows of sort_date, visit_key, encounter_date and encounter_key. Keys are zero
+	 * instead of null so that the rows can be compared in a keyset condition.
+	 */
+	private String getTimelineSql(boolean includeVoided, String query) {
+		boolean filter = StringUtils.isNotBlank(query);
 		
+		StringBuilder sql = new StringBuilder();
+		sql.append("select coalesce(v.date_started, e.encounter_datetime) as sort_date,");
+		sql.append(" coalesce(v.visit_id, 0) as visit_key, e.encounter_datetime as encounter_date,");
+		sql.append(" e.encounter_id as encounter_key from encounter e left join visit v on e.visit_id = v.visit_id");
+		if (filter) {
+			sql.append(" left join visit_type vt on v.visit_type_id = vt.visit_type_id");
+			sql.append(" left join location vl on v.location_id = vl.location_id");
+			sql.append(" left join location l on e.location_id = l.location_id");
+			sql.append(" left join encounter_type et on e.encounter_type = et.encounter_type_id");
+		}
+		sql.append(" where e.patient_id = :patientId");
 		if (!includeVoided) {
-			criteria.add(Restrictions.eq("voided", includeVoided));
+			sql.append(" and e.voided = :voided");
 		}
-		
-		if (query != null && !StringUtils.isBlank(query)) {
-			criteria.createAlias("visitType", "visitType", JoinType.LEFT_OUTER_JOIN);
-			criteria.createAlias("location", "location", JoinType.LEFT_OUTER_JOIN);
-			
-			Disjunction or = Restrictions.disjunction();
-			criteria.add(or);
-			or.add(Restrictions.ilike("visitType.name", query, MatchMode.ANYWHERE));
-			or.add(Restrictions.ilike("location.name", query, MatchMode.ANYWHERE));
+		if (filter) {
+			sql.append(" and (lower(vt.name) like :query or lower(vl.name) like :query");
+			sql.append(" or lower(l.name) like :query or lower(et.name) like :query)");
 		}
 		
+		sql.append(" union all select v.date_started as sort_date, v.visit_id as visit_key,");
+		sql.append(" v.date_started as encounter_date, 0 as encounter_key from visit v");
+		if (filter) {
+			sql.append(" left join visit_type vt on v.visit_type_id = vt.visit_type_id");
+			sql.append(" left join location l on v.location_id = l.location_id");
+		}
+		sql.append(" where v.patient_id = :patientId");
+		sql.append(" and not exists (select ve.encounter_id from encounter ve where ve.visit_id = v.visit_id)");
+		if (!includeVoided) {
+			sql.append(" and v.voided = :voided");
+		}
+		if (filter) {
+			sql.append(" and (lower(vt.name) like :query or lower(l.name) like :query)");
+		}
+		return sql.toString();
 	}
 	
-	private void addEncountersByPatientCriteria(Criteria criteria, Patient patient, boolean includeVoided, String query) {
-		criteria.add(Restrictions.eq("patient", patient));
-		criteria.createAlias("visit", "visit", JoinType.LEFT_OUTER_JOIN);
-		
+	private void setTimelineParameters(SQLQuery sqlQuery, Patient patient, boolean includeVoided, String query) {
+		sqlQuery.setParameter("patientId", patient.getPatientId());
 		if (!includeVoided) {
-			criteria.add(Restrictions.eq("voided", includeVoided));
+			sqlQuery.setParameter("voided", false);
+		}
+		if (StringUtils.isNotBlank(query)) {
+			sqlQuery.setParameter("query", "%" + query.toLowerCase() + "%");
+		}
+	}
+	
+	/**
+	 * Sets the encounters of the entries, loading the encounters and the visits without encounters
+	 * with one query each
+	 */
+	private void hydrateTimeline(List<TimelineEntry> entries) {
+		List<Integer> encounterIds = new ArrayList<>();
+		List<Integer> emptyVisitIds = new ArrayList<>();
+		for (TimelineEntry entry : entries) {
+			if (entry.isEmptyVisit()) {
+				emptyVisitIds.add(entry.getVisitId());
+			} else {
+				encounterIds.add(entry.getEncounterId());
+			}
 		}
 		
-		if (query != null && !StringUtils.isBlank(query)) {
-			criteria.createAlias("visit.visitType", "visitType", JoinType.LEFT_OUTER_JOIN);
-			criteria.createAlias("visit.location", "visitLocation", JoinType.LEFT_OUTER_JOIN);
-			criteria.createAlias("location", "location", JoinType.LEFT_OUTER_JOIN);
-			criteria.createAlias("encounterType", "encounterType", JoinType.LEFT_OUTER_JOIN);
-			
-			Disjunction or = Restrictions.disjunction();
-			criteria.add(or);
-			or.add(Restrictions.ilike("visitType.name", query, MatchMode.ANYWHERE));
-			or.add(Restrictions.ilike("visitLocation.name", query, MatchMode.ANYWHERE));
-			or.add(Restrictions.ilike("location.name", query, MatchMode.ANYWHERE));
-			or.add(Restrictions.ilike("encounterType.name", query, MatchMode.ANYWHERE));
+		Map<Integer, Encounter> encounters = new HashMap<>();
+		if (!encounterIds.isEmpty()) {
+			@SuppressWarnings("unchecked")
+			List<Encounter> list = sessionFactory.getCurrentSession().createQuery(
+			    "from Encounter e where e.encounterId in (:ids)").setParameterList("ids", encounterIds).list();
+			for (Encounter encounter : list) {
+				encounters.put(encounter.getEncounterId(), encounter);
+			}
+		}
+		Map<Integer, Visit> visits = new HashMap<>();
+		if (!emptyVisitIds.isEmpty()) {
+			@SuppressWarnings("unchecked")
+			List<Visit> list = sessionFactory.getCurrentSession().createQuery("from Visit v where v.visitId in (:ids)")
+			        .setParameterList("ids", emptyVisitIds).list();
+			for (Visit visit : list) {
+				visits.put(visit.getVisitId(), visit);
+			}
 		}
 		
+		for (TimelineEntry entry : entries) {
+			if (entry.isEmptyVisit()) {
+				Encounter mockEncounter = new Encounter();
+				mockEncounter.setVisit(visits.get(entry.getVisitId()));
+				entry.setEncounter(mockEncounter);
+			} else {
+				entry.setEncounter(encounters.get(entry.getEncounterId()));
+			}
+		}
 	}
 	
 	/**
@@ -10,13 +10,17 @@
 package org.openmrs.api.db.hibernate;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.Criteria;
 import org.hibernate.Query;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.MatchMode;
@@ -25,6 +29,8 @@ import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Property;
 import org.hibernate.criterion.Restrictions;
 import org.hibernate.criterion.Subqueries;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.openmrs.Concept;
 import org.openmrs.EncounterType;
 import org.openmrs.Field;
@@ -36,9 +42,12 @@ import org.openmrs.FormResource;
 import org.openmrs.api.APIException;
 import org.openmrs.api.db.DAOException;
 import org.openmrs.api.db.FormDAO;
+import org.openmrs.util.CompiledFormStructure;
 import org.openmrs.util.OpenmrsUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Hibernate-specific Form-related functions. This class should not be used directly. All calls
@@ -51,11 +60,19 @@ public class HibernateFormDAO implements FormDAO {
 	
 	private static final Logger log = LoggerFactory.getLogger(HibernateFormDAO.class);
 	
+	private static final int MAX_CACHED_FORM_STRUCTURES = 500;
+	
 	/**
 	 * Hibernate session factory
 	 */
 	private SessionFactory sessionFactory;
 	
+	/**
+	 * Compiled form structures by form id
+	 */
+	private final Cache<Integer, CompiledFormStructure> formStructures = CacheBuilder.newBuilder().maximumSize(
+	    MAX_CACHED_FORM_STRUCTURES).build();
+	
 	/**
 	 * Set session factory
 	 *
@@ -73,6 +90,7 @@ public class HibernateFormDAO implements FormDAO {
 	@Override
 	public Form saveForm(Form form) throws DAOException {
 		sessionFactory.getCurrentSession().saveOrUpdate(form);
+		evictFormStructures(form);
 		return form;
 	}
 	
@@ -89,6 +107,7 @@ public class HibernateFormDAO implements FormDAO {
 	 */
 	@Override
 	public void deleteForm(Form form) throws DAOException {
+		evictFormStructures(form);
 		sessionFactory.getCurrentSession().delete(form);
 	}
 	
@@ -198,44 +217,144 @@ public class HibernateFormDAO implements FormDAO {
 	 *      java.util.Collection, boolean)
 	 */
 	@Override
-	@SuppressWarnings("unchecked")
 	public FormField getFormField(Form form, Concept concept, Collection<FormField> ignoreFormFields, boolean force)
 	        throws DAOException {
 		if (form == null) {
 			log.debug("form is null, no fields will be matched");
 			return null;
 		}
-		Criteria crit = sessionFactory.getCurrentSession().createCriteria(FormField.class, "ff").createAlias("field",
-		    "field").add(Restrictions.eq("field.concept", concept)).add(Restrictions.eq("form", form));
 		
-		// get the list of all formfields with this concept for this form
-		List<FormField> formFields = crit.list();
+		// get the ids of all formfields with this concept for this form
+		CompiledFormStructure structure = getFormStructure(form);
+		List<Integer> formFieldIds = structure == null || concept == null ? Collections.emptyList()
+		        : structure.getFormFieldIds(concept.getConceptId());
 		
 		String err = "FormField warning.  No FormField matching concept '" + concept + "' for form '" + form + "'";
 		
-		if (formFields.isEmpty()) {
+		if (formFieldIds.isEmpty()) {
 			log.debug(err);
 			return null;
 		}
 		
 		// save the first formfield in case we're not a in a "force" situation
-		FormField backupPlan = formFields.get(0);
+		Integer backupPlan = formFieldIds.get(0);
 		
-		// remove the formfields we're supposed to ignore from the return list
-		formFields.removeAll(ignoreFormFields);
+		// skip the formfields we're supposed to ignore
+		Set<Integer> ignoreFormFieldIds = new HashSet<>();
+		for (FormField ignoreFormField : ignoreFormFields) {
+			ignoreFormFieldIds.add(ignoreFormField.getFormFieldId());
+		}
+		for (Integer formFieldId : formFieldIds) {
+			if (!ignoreFormFieldIds.contains(formFieldId)) {
+				return getFormFieldOfStructure(structure, formFieldId);
+			}
+		}
 		
-		// if we ended up removing all of the formfields, check to see if we're
+		// if we ended up ignoring all of the formfields, check to see if we're
 		// in a "force" situation
-		if (formFields.isEmpty()) {
-			if (!force) {
-				return backupPlan;
-			} else {
-				log.debug(err);
-				return null;
-			}
+		if (!force) {
+			return getFormFieldOfStructure(structure, backupPlan);
 		} else {
-			// if formFields.size() is still greater than 0
-			return formFields.get(0);
+			log.debug(err);
+			return null;
+		}
+	}
+	
+	/**
+	 * Gets a form field found in the compiled structure of a form. The first time one of them is
+	 * needed in a session, the form fields of the form are loaded along with their fields by a single
+	 * query, so that the following lookups in the session do not query the database.
+	 */
+	private FormField getFormFieldOfStructure(CompiledFormStructure structure, Integer formFieldId) {
+		Session session = sessionFactory.getCurrentSession();
+		SessionImplementor sessionImplementor = session.unwrap(SessionImplementor.class);
+		EntityKey key = sessionImplementor.generateEntityKey(formFieldId, sessionImplementor.getFactory().getMetamodel()
+		        .entityPersister(FormField.class));
+		if (sessionImplementor.getPersistenceContext().getEntity(key) == null) {
+			getFormFields(session, structure.getFormId());
+		}
+		return session.get(FormField.class, formFieldId);
+	}
+	
+	private List<FormField> getFormFields(Session session, Integer formId) {
+		return session.createQuery("select ff from FormField ff join fetch ff.field where ff.form.formId = :formId",
+		    FormField.class).setParameter("formId", formId).list();
+	}
+	
+	/**
+	 * Structures are looked up by form id and compiled from the form fields in the database when
+	 * there is none yet or the form changed since. The form itself is read from the session, so the
+	 * date it changed is the saved one even if the given form is only a stub holding its id.
+	 * 
+	 * @see org.openmrs.api.db.FormDAO#getFormStructure(org.openmrs.Form)
+	 */
+	@Override
+	public CompiledFormStructure getFormStructure(Form form) throws DAOException {
+		if (form == null || form.getFormId() == null) {
+			return null;
+		}
+		Form savedForm = sessionFactory.getCurrentSession().get(Form.class, form.getFormId());
+		if (savedForm == null) {
+			return null;
+		}
+		
+		CompiledFormStructure structure = formStructures.getIfPresent(savedForm.getFormId());
+		if (structure == null || !structure.isCurrent(savedForm)) {
+			List<FormField> formFields = getFormFields(sessionFactory.getCurrentSession(), savedForm.getFormId());
+			structure = CompiledFormStructure.compile(savedForm, formFields);
+			formStructures.put(savedForm.getFormId(), structure);
+			evictOnRollback(savedForm.getFormId());
+		}
+		return structure;
+	}
+	
+	/**
+	 * The structure may have been compiled from changes of the current transaction, it is discarded
+	 * if they are rolled back.
+	 */
+	private void evictOnRollback(Integer formId) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				
+				@Override
+				public void afterCompletion(int status) {
+					if (status != STATUS_COMMITTED) {
+						evict(formId);
+					}
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Discards the compiled structure of a form, right away and again when the current transaction
+	 * completes, so that a structure compiled from changes that are rolled back, or compiled by
+	 * another transaction before they are committed, is not kept either.
+	 * 
+	 * @param form the form whose form fields changed, null to discard the structures of all forms
+	 */
+	private void evictFormStructures(Form form) {
+		Integer formId = form == null ? null : form.getFormId();
+		if (form != null && formId == null) {
+			return;
+		}
+		evict(formId);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				
+				@Override
+				public void afterCompletion(int status) {
+					evict(formId);
+				}
+			});
+		}
+	}
+	
+	private void evict(Integer formId) {
+		if (formId == null) {
+			formStructures.invalidateAll();
+		} else {
+			formStructures.invalidate(formId);
 		}
 	}
 	
@@ -276,6 +395,10 @@ public class HibernateFormDAO implements FormDAO {
 	 */
 	@Override
 	public Field saveField(Field field) throws DAOException {
+		if (field.getFieldId() != null) {
+			// the concept of the field may have changed, on any form using it
+			evictFormStructures(null);
+		}
 		sessionFactory.getCurrentSession().saveOrUpdate(field);
 		return field;
 	}
@@ -286,6 +409,7 @@ public class HibernateFormDAO implements FormDAO {
 	 */
 	@Override
 	public void deleteField(Field field) throws DAOException {
+		evictFormStructures(null);
 		sessionFactory.getCurrentSession().delete(field);
 	}
 	
@@ -295,6 +419,7 @@ public class HibernateFormDAO implements FormDAO {
 	@Override
 	public FormField saveFormField(FormField formField) throws DAOException {
 		sessionFactory.getCurrentSession().saveOrUpdate(formField);
+		evictFormStructures((Form) formField.getForm());
 		return formField;
 	}
 	
@@ -304,6 +429,7 @@ public class HibernateFormDAO implements FormDAO {
 	 */
 	@Override
 	public void deleteFormField(FormField formField) throws DAOException {
+		evictFormStructures((Form) formField.getForm());
 		sessionFactory.getCurrentSession().delete(formField);
 	}
 	
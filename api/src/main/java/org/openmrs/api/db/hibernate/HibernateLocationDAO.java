@@ -12,33 +12,71 @@ package org.openmrs.api.db.hibernate;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
-import javax.persistence.criteria.Join;
 import javax.persistence.criteria.Order;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
-import javax.persistence.criteria.Subquery;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.query.Query;
 import org.openmrs.Location;
 import org.openmrs.LocationAttribute;
 import org.openmrs.LocationAttributeType;
 import org.openmrs.LocationTag;
 import org.openmrs.api.db.DAOException;
 import org.openmrs.api.db.LocationDAO;
+import org.openmrs.util.LocationTagIndex;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Hibernate location-related database functions
  */
 public class HibernateLocationDAO implements LocationDAO {
 	
+	private static final int BATCH_SIZE = 1000;
+	
+	private static final String ANY_TAG_QUERY = "select distinct l.locationId from Location l join l.tags t "
+	        + "where l.retired = false and t.locationTagId in (:tagIds)";
+	
+	private static final String ALL_TAGS_QUERY = "select l.locationId from Location l join l.tags t "
+	        + "where l.retired = false and t.locationTagId in (:tagIds) group by l.locationId "
+	        + "having count(t.locationTagId) = :tagCount";
+	
+	private static final String NONE_OF_TAGS_QUERY = "select l.locationId from Location l where l.retired = false "
+	        + "and l.locationId not in (select m.locationId from Location m join m.tags t where t.locationTagId in (:tagIds))";
+	
+	/**
+	 * The number of seconds the results of the tag queries are shared for
+	 */
+	private static final int LOCATION_TAG_QUERY_CACHE_SECONDS = 5;
+	
 	private SessionFactory sessionFactory;
 	
+	/**
+	 * The location ids found by the tag queries, by query and tag ids. They are only shared between
+	 * read only transactions, which hold no location changes of their own, and they may miss the
+	 * changes committed in the last {@link #LOCATION_TAG_QUERY_CACHE_SECONDS} seconds.
+	 */
+	private final Cache<List<Object>, List<Integer>> locationIdsByTagQuery = CacheBuilder.newBuilder()
+	        .expireAfterWrite(LOCATION_TAG_QUERY_CACHE_SECONDS, TimeUnit.SECONDS).maximumSize(1000).build();
+	
 	/**
 	 * @see org.openmrs.api.db.LocationDAO#setSessionFactory(org.hibernate.SessionFactory)
 	 */
@@ -391,34 +429,109 @@ public class HibernateLocationDAO implements LocationDAO {
 	 */
 	@Override
 	public List<Location> getLocationsHavingAllTags(List<LocationTag> tags) {
-		tags.removeAll(Collections.singleton(null));
-
-		List<Integer> tagIds = getLocationTagIds(tags);
-
-		Session session = sessionFactory.getCurrentSession();
-		CriteriaBuilder cb = session.getCriteriaBuilder();
-
-		CriteriaQuery<Location> mainQuery = cb.createQuery(Location.class);
-		Root<Location> locationRoot = mainQuery.from(Location.class);
-
-		// Create a subquery to count matching tags
-		Subquery<Long> tagCountSubquery = mainQuery.subquery(Long.class);
-		Root<Location> subRoot = tagCountSubquery.from(Location.class);
-		Join<Location, LocationTag> tagsJoin = subRoot.join("tags");
-
-		tagCountSubquery.select(cb.count(subRoot))
-			.where(cb.and(
-				tagsJoin.get("locationTagId").in(tagIds),
-				cb.equal(subRoot.get("locationId"), locationRoot.get("locationId"))
-			));
-
-		mainQuery.select(locationRoot)
-			.where(cb.and(
-				cb.isFalse(locationRoot.get("retired")),
-				cb.equal(cb.literal((long) tags.size()), tagCountSubquery)
-			));
-
-		return session.createQuery(mainQuery).getResultList();
+		List<Integer> tagIds = getLocationTagIds(tags.stream().filter(Objects::nonNull).collect(Collectors.toList()));
+		if (tagIds.contains(null)) {
+			// a tag that was never saved is on no location
+			return new ArrayList<>();
+		}
+		if (tagIds.isEmpty()) {
+			return getAllLocations(false);
+		}
+		return getLocations(getLocationIdsByTags(ALL_TAGS_QUERY, tagIds));
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.LocationDAO#getLocationsHavingAnyTag(java.util.List)
+	 */
+	@Override
+	public List<Location> getLocationsHavingAnyTag(List<LocationTag> tags) {
+		List<Integer> tagIds = getSavedLocationTagIds(tags);
+		if (tagIds.isEmpty()) {
+			return new ArrayList<>();
+		}
+		return getLocations(getLocationIdsByTags(ANY_TAG_QUERY, tagIds));
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.LocationDAO#getLocationsHavingNoneOfTags(java.util.List)
+	 */
+	@Override
+	public List<Location> getLocationsHavingNoneOfTags(List<LocationTag> tags) {
+		List<Integer> tagIds = getSavedLocationTagIds(tags);
+		if (tagIds.isEmpty()) {
+			return getAllLocations(false);
+		}
+		return getLocations(getLocationIdsByTags(NONE_OF_TAGS_QUERY, tagIds));
+	}
+	
+	/**
+	 * Runs a tag query, which uses the indexes of location_tag_map. In a read only transaction the
+	 * result is shared with the other read only transactions for a few seconds.
+	 */
+	private List<Integer> getLocationIdsByTags(String hql, List<Integer> tagIds) {
+		boolean shared = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+		List<Object> key = Arrays.asList(hql, new TreeSet<>(tagIds));
+		if (shared) {
+			List<Integer> locationIds = locationIdsByTagQuery.getIfPresent(key);
+			if (locationIds != null) {
+				return locationIds;
+			}
+		}
+		
+		Set<Integer> distinctTagIds = new HashSet<>(tagIds);
+		Query<Integer> query = sessionFactory.getCurrentSession().createQuery(hql, Integer.class).setParameterList(
+		    "tagIds", distinctTagIds);
+		if (query.getParameterMetadata().getNamedParameterNames().contains("tagCount")) {
+			query.setParameter("tagCount", (long) distinctTagIds.size());
+		}
+		List<Integer> locationIds = Collections.unmodifiableList(query.list());
+		if (shared) {
+			locationIdsByTagQuery.put(key, locationIds);
+		}
+		return locationIds;
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.LocationDAO#getLocations(java.util.Collection)
+	 */
+	@Override
+	public List<Location> getLocations(Collection<Integer> locationIds) {
+		List<Location> locations = new ArrayList<>(sessionFactory.getCurrentSession().byMultipleIds(Location.class)
+		        .withBatchSize(BATCH_SIZE).multiLoad(new ArrayList<>(locationIds)));
+		locations.removeIf(Objects::isNull);
+		locations.sort(Comparator.comparing(Location::getName, String.CASE_INSENSITIVE_ORDER).thenComparing(
+		    Location::getLocationId));
+		return locations;
+	}
+	
+	/**
+	 * The index is compiled from the database with a single query each time, so it holds the
+	 * changes of the current transaction and those committed by other means.
+	 * 
+	 * @see org.openmrs.api.db.LocationDAO#getLocationTagIndex()
+	 */
+	@Override
+	public LocationTagIndex getLocationTagIndex() {
+		List<Object[]> rows = sessionFactory.getCurrentSession().createQuery(
+		    "select l.locationId, t.locationTagId from Location l left join l.tags t where l.retired = false",
+		    Object[].class).list();
+		Map<Integer, Set<Integer>> tagIdsByLocation = new LinkedHashMap<>();
+		for (Object[] row : rows) {
+			Set<Integer> tagIds = tagIdsByLocation.computeIfAbsent((Integer) row[0], id -> new HashSet<>());
+			if (row[1] != null) {
+				tagIds.add((Integer) row[1]);
+			}
+		}
+		return LocationTagIndex.compile(tagIdsByLocation);
+	}
+	
+	/**
+	 * The ids of the given tags, leaving out null tags and tags that were never saved, which are on
+	 * no location
+	 */
+	private static List<Integer> getSavedLocationTagIds(List<LocationTag> tags) {
+		return getLocationTagIds(tags.stream().filter(Objects::nonNull).collect(Collectors.toList())).stream().filter(
+		    Objects::nonNull).collect(Collectors.toList());
 	}
 	
 	/**
@@ -429,7 +542,7 @@ public class HibernateLocationDAO implements LocationDAO {
 	 * @return A List of Integer representing the IDs of the provided LocationTag objects.
 	 *         Returns an empty list if the input list is empty.
 	 */
-	private List<Integer> getLocationTagIds(List<LocationTag> tags) {
+	private static List<Integer> getLocationTagIds(List<LocationTag> tags) {
 		List<Integer> locationTagIds = new ArrayList<>();
 		for (LocationTag tag : tags) {
 			locationTagIds.add(tag.getLocationTagId());
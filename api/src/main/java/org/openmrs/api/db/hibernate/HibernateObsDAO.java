@@ -9,8 +9,13 @@
  */
 package org.openmrs.api.db.hibernate;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -284,4 +289,44 @@ public class HibernateObsDAO implements ObsDAO {
 		}
 	}
 	
+	/**
+	 * @see org.openmrs.api.db.ObsDAO#getSavedStatuses(Collection)
+	 */
+	@Override
+	public Map<Integer, Obs.Status> getSavedStatuses(Collection<Integer> obsIds) {
+		Map<Integer, Obs.Status> statuses = new HashMap<>();
+		if (obsIds.isEmpty()) {
+			return statuses;
+		}
+		// avoid premature flushes when this internal method is called from inside a service method
+		Session session = sessionFactory.getCurrentSession();
+		FlushMode flushMode = session.getHibernateFlushMode();
+		session.setHibernateFlushMode(FlushMode.MANUAL);
+		try {
+			SQLQuery sql = session.createSQLQuery("select obs_id, status from obs where obs_id in (:obsIds)");
+			sql.setParameterList("obsIds", obsIds);
+			for (Object row : sql.list()) {
+				Object[] columns = (Object[]) row;
+				statuses.put(((Number) columns[0]).intValue(), Obs.Status.valueOf((String) columns[1]));
+			}
+			return statuses;
+		}
+		finally {
+			session.setHibernateFlushMode(flushMode);
+		}
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.ObsDAO#getObs(Collection)
+	 */
+	@Override
+	public List<Obs> getObs(Collection<Integer> obsIds) {
+		if (obsIds.isEmpty()) {
+			return new ArrayList<>();
+		}
+		List<Obs> obs = sessionFactory.getCurrentSession().byMultipleIds(Obs.class).multiLoad(new ArrayList<>(obsIds));
+		obs.removeIf(Objects::isNull);
+		return obs;
+	}
+	
 }
@@ -11,10 +11,12 @@ package org.openmrs.api.db.hibernate;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -26,14 +28,21 @@ import org.apache.commons.lang3.StringUtils;
 import org.hibernate.Criteria;
 import org.hibernate.Query;
 import org.hibernate.SQLQuery;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Restrictions;
 import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
 import org.openmrs.Allergies;
 import org.openmrs.Allergy;
+import org.openmrs.Encounter;
 import org.openmrs.Location;
+import org.openmrs.Obs;
+import org.openmrs.OpenmrsData;
 import org.openmrs.Patient;
+import org.openmrs.PatientDuplicateCandidate;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
 import org.openmrs.PatientIdentifierType.UniquenessBehavior;
@@ -41,11 +50,14 @@ import org.openmrs.PatientProgram;
 import org.openmrs.Person;
 import org.openmrs.PersonAttribute;
 import org.openmrs.PersonName;
+import org.openmrs.Visit;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.DAOException;
 import org.openmrs.api.db.PatientDAO;
 import org.openmrs.api.db.hibernate.search.LuceneQuery;
 import org.openmrs.collection.ListPart;
+import org.openmrs.patient.duplicate.DuplicatePatientBlockingKey;
+import org.openmrs.patient.duplicate.DuplicatePatientRecord;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
 import org.slf4j.Logger;
@@ -62,6 +74,11 @@ public class HibernatePatientDAO implements PatientDAO {
 	
 	private static final Logger log = LoggerFactory.getLogger(HibernatePatientDAO.class);
 	
+	/**
+	 * The maximum number of patients read, or parameters bound, by one duplicate detection query
+	 */
+	private static final int DUPLICATE_PATIENT_BATCH_SIZE = 1000;
+	
 	/**
 	 * Hibernate session factory
 	 */
@@ -1006,4 +1023,286 @@ public class HibernatePatientDAO implements PatientDAO {
         criteria.add(Restrictions.eq("patientProgram", patientProgram));
         return criteria.list();
     }
+
+	/**
+	 * Reads the patients with two queries per page, one for the preferred name and demographics and
+	 * one for the identifiers, projecting only the columns that are needed instead of loading
+	 * entities.
+	 * 
+	 * @see org.openmrs.api.db.PatientDAO#getDuplicatePatientRecords(Integer, int)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<DuplicatePatientRecord> getDuplicatePatientRecords(Integer afterPatientId, int maxResults) {
+		List<Integer> patientIds = sessionFactory.getCurrentSession().createQuery(
+		    "select p.patientId from Patient p where p.voided = false and p.patientId > :after order by p.patientId")
+		        .setInteger("after", afterPatientId == null ? 0 : afterPatientId).setMaxResults(maxResults).list();
+		if (patientIds.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return loadDuplicatePatientRecords(patientIds);
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.PatientDAO#getDuplicatePatientRecords(Collection)
+	 */
+	@Override
+	public List<DuplicatePatientRecord> getDuplicatePatientRecords(Collection<Integer> patientIds) {
+		List<Integer> ids = new ArrayList<>(patientIds);
+		List<DuplicatePatientRecord> records = new ArrayList<>(ids.size());
+		for (int i = 0; i < ids.size(); i += DUPLICATE_PATIENT_BATCH_SIZE) {
+			records.addAll(loadDuplicatePatientRecords(ids.subList(i, Math.min(i + DUPLICATE_PATIENT_BATCH_SIZE, ids
+			        .size()))));
+		}
+		return records;
+	}
+	
+	/**
+	 * Reads the records of the given non voided patients, ordered by patient id
+	 */
+	@SuppressWarnings("unchecked")
+	private List<DuplicatePatientRecord> loadDuplicatePatientRecords(List<Integer> patientIds) {
+		Map<Integer, Object[]> demographics = new LinkedHashMap<>();
+		List<Object[]> rows = sessionFactory.getCurrentSession().createQuery(
+		    "select p.patientId, pn.givenName, pn.familyName, p.birthdate, p.gender from Patient p left join p.names pn "
+		            + "on pn.voided = false where p.patientId in (:ids) and p.voided = false "
+		            + "order by p.patientId, pn.preferred desc")
+		        .setParameterList("ids", patientIds).list();
+		for (Object[] row : rows) {
+			// the first row of each patient has its preferred name
+			demographics.putIfAbsent((Integer) row[0], row);
+		}
+		if (demographics.isEmpty()) {
+			return Collections.emptyList();
+		}
+		
+		Map<Integer, List<String>> identifiers = new HashMap<>();
+		List<Object[]> identifierRows = sessionFactory.getCurrentSession().createQuery(
+		    "select pi.patient.patientId, pi.identifier from PatientIdentifier pi where pi.voided = false "
+		            + "and pi.patient.patientId in (:ids)")
+		        .setParameterList("ids", demographics.keySet()).list();
+		for (Object[] row : identifierRows) {
+			identifiers.computeIfAbsent((Integer) row[0], id -> new ArrayList<>()).add((String) row[1]);
+		}
+		
+		List<DuplicatePatientRecord> records = new ArrayList<>(demographics.size());
+		for (Map.Entry<Integer, Object[]> entry : demographics.entrySet()) {
+			Object[] row = entry.getValue();
+			records.add(new DuplicatePatientRecord(entry.getKey(), (String) row[1], (String) row[2], (Date) row[3],
+			        (String) row[4], identifiers.get(entry.getKey())));
+		}
+		return records;
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.PatientDAO#deleteDuplicatePatientBlockingKeys()
+	 */
+	@Override
+	public void deleteDuplicatePatientBlockingKeys() {
+		sessionFactory.getCurrentSession().createQuery("delete from DuplicatePatientBlockingKey").executeUpdate();
+	}
+	
+	/**
+	 * Inserts the keys with multi row insert statements, the keys are never read back as entities so
+	 * they are not added to the session
+	 *
+	 * @see org.openmrs.api.db.PatientDAO#saveDuplicatePatientBlockingKeys(List)
+	 */
+	@Override
+	public void saveDuplicatePatientBlockingKeys(List<DuplicatePatientBlockingKey> keys) {
+		int rowsPerInsert = DUPLICATE_PATIENT_BATCH_SIZE / 2;
+		for (int i = 0; i < keys.size(); i += rowsPerInsert) {
+			List<DuplicatePatientBlockingKey> chunk = keys.subList(i, Math.min(i + rowsPerInsert, keys.size()));
+			StringBuilder insert = new StringBuilder(
+			        "insert into patient_duplicate_blocking_key (blocking_key, patient_id) values ");
+			for (int j = 0; j < chunk.size(); j++) {
+				insert.append(j == 0 ? "" : ", ").append("(:key").append(j).append(", :patient").append(j).append(")");
+			}
+			SQLQuery query = sessionFactory.getCurrentSession().createSQLQuery(insert.toString());
+			for (int j = 0; j < chunk.size(); j++) {
+				query.setParameter("key" + j, chunk.get(j).getBlockingKey());
+				query.setParameter("patient" + j, chunk.get(j).getPatientId());
+			}
+			query.executeUpdate();
+		}
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.PatientDAO#getDuplicatePatientBlockingKeys(String, Integer, int)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<DuplicatePatientBlockingKey> getDuplicatePatientBlockingKeys(String afterKey, Integer afterPatientId,
+	        int maxResults) {
+		String hql = "select new " + DuplicatePatientBlockingKey.class.getName()
+		        + "(k.blockingKey, k.patientId) from DuplicatePatientBlockingKey k";
+		if (afterKey != null) {
+			hql += afterPatientId == null ? " where k.blockingKey > :key"
+			        : " where k.blockingKey > :key or (k.blockingKey = :key and k.patientId > :patientId)";
+		}
+		Query query = sessionFactory.getCurrentSession().createQuery(hql + " order by k.blockingKey, k.patientId");
+		if (afterKey != null) {
+			query.setParameter("key", afterKey);
+			if (afterPatientId != null) {
+				query.setParameter("patientId", afterPatientId);
+			}
+		}
+		return query.setMaxResults(maxResults).list();
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.PatientDAO#savePatientDuplicateCandidate(org.openmrs.PatientDuplicateCandidate)
+	 */
+	@Override
+	public PatientDuplicateCandidate savePatientDuplicateCandidate(PatientDuplicateCandidate candidate) {
+		sessionFactory.getCurrentSession().saveOrUpdate(candidate);
+		return candidate;
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.PatientDAO#getPatientDuplicateCandidateByUuid(String)
+	 */
+	@Override
+	public PatientDuplicateCandidate getPatientDuplicateCandidateByUuid(String uuid) {
+		return HibernateUtil.getUniqueEntityByUUID(sessionFactory, PatientDuplicateCandidate.class, uuid);
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.PatientDAO#getPatientDuplicateCandidate(org.openmrs.Patient,
+	 *      org.openmrs.Patient)
+	 */
+	@Override
+	public PatientDuplicateCandidate getPatientDuplicateCandidate(Patient patient, Patient duplicatePatient) {
+		return (PatientDuplicateCandidate) sessionFactory.getCurrentSession().createQuery(
+		    "from PatientDuplicateCandidate c where c.patient = :patient and c.duplicatePatient = :duplicatePatient")
+		        .setParameter("patient", patient).setParameter("duplicatePatient", duplicatePatient).uniqueResult();
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.PatientDAO#getPatientDuplicateCandidates(org.openmrs.PatientDuplicateCandidate.Status,
+	 *      Integer, Integer)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<PatientDuplicateCandidate> getPatientDuplicateCandidates(PatientDuplicateCandidate.Status status,
+	        Integer start, Integer length) {
+		Criteria criteria = sessionFactory.getCurrentSession().createCriteria(PatientDuplicateCandidate.class);
+		criteria.add(Restrictions.eq("voided", false));
+		if (status != null) {
+			criteria.add(Restrictions.eq("status", status));
+		}
+		criteria.addOrder(Order.desc("score"));
+		criteria.addOrder(Order.asc("patientDuplicateCandidateId"));
+		if (start != null) {
+			criteria.setFirstResult(start);
+		}
+		if (length != null && length > 0) {
+			criteria.setMaxResults(length);
+		}
+		return criteria.list();
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.PatientDAO#moveVisits(Patient, Patient, int)
+	 */
+	@Override
+	public List<String> moveVisits(Patient from, Patient to, int chunkSize) {
+		return moveToPatient(Visit.class, "patient", null, from, to, chunkSize);
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.PatientDAO#moveEncounters(Patient, Patient, int)
+	 */
+	@Override
+	public List<String> moveEncounters(Patient from, Patient to, int chunkSize) {
+		return moveToPatient(Encounter.class, "patient", null, from, to, chunkSize);
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.PatientDAO#moveEncounterData(Class, Patient, Patient, int)
+	 */
+	@Override
+	public List<String> moveEncounterData(Class<? extends OpenmrsData> type, Patient from, Patient to, int chunkSize) {
+		String patientProperty = Obs.class.equals(type) ? "person" : "patient";
+		return moveToPatient(type, patientProperty, "d.encounter.patient = :from", from, to, chunkSize);
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.PatientDAO#moveObsNotContainedInEncounters(Patient, Patient, int)
+	 */
+	@Override
+	public List<String> moveObsNotContainedInEncounters(Patient from, Patient to, int chunkSize) {
+		return moveToPatient(Obs.class, "person", "d.encounter is null and d.voided = false", from, to, chunkSize);
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.PatientDAO#movePatientPrograms(Patient, Patient, int)
+	 */
+	@Override
+	public List<String> movePatientPrograms(Patient from, Patient to, int chunkSize) {
+		return moveToPatient(PatientProgram.class, "patient", "d.voided = false", from, to, chunkSize);
+	}
+	
+	/**
+	 * Points the rows of the given type that belong to one patient to another one, the ids of the
+	 * rows are looked up first and then updated in chunks so that a single statement never touches
+	 * more than chunkSize rows. Bulk updates bypass the session, so instances of the moved rows that
+	 * are already loaded are refreshed afterwards, and the moved rows of indexed types are reindexed
+	 * once the transaction is committed.
+	 * 
+	 * @param type the mapped type of the rows
+	 * @param patientProperty the name of the property referencing the patient
+	 * @param restriction an additional restriction on the rows to move using the alias d, may only
+	 *            reference the parameter :from
+	 * @param from the patient to move the rows from
+	 * @param to the patient to move the rows to
+	 * @param chunkSize the maximum number of rows changed by one update statement
+	 * @return the uuids of the moved rows
+	 */
+	private List<String> moveToPatient(Class<?> type, String patientProperty, String restriction, Patient from,
+	        Patient to, int chunkSize) {
+		Session session = sessionFactory.getCurrentSession();
+		String entity = type.getName();
+		String hql = "select d.id, d.uuid from " + entity + " d where d." + patientProperty + " = :from";
+		if (restriction != null) {
+			hql += " and " + restriction;
+		}
+		List<Object[]> rows = session.createQuery(hql, Object[].class).setParameter("from", from).list();
+		if (rows.isEmpty()) {
+			return Collections.emptyList();
+		}
+		
+		List<Integer> ids = new ArrayList<>(rows.size());
+		List<String> uuids = new ArrayList<>(rows.size());
+		for (Object[] row : rows) {
+			ids.add((Integer) row[0]);
+			uuids.add((String) row[1]);
+		}
+		
+		SessionImplementor sessionImplementor = session.unwrap(SessionImplementor.class);
+		EntityPersister persister = sessionImplementor.getFactory().getMetamodel().entityPersister(type);
+		boolean changeable = Arrays.asList(persister.getPropertyNames()).contains("changedBy");
+		String update = "update " + entity + " d set d." + patientProperty + " = :to"
+		        + (changeable ? ", d.changedBy = :changedBy, d.dateChanged = :dateChanged" : "") + " where d.id in (:ids)";
+		Date dateChanged = new Date();
+		for (int i = 0; i < ids.size(); i += chunkSize) {
+			List<Integer> chunk = ids.subList(i, Math.min(i + chunkSize, ids.size()));
+			Query query = session.createQuery(update).setParameter("to", to).setParameterList("ids", chunk);
+			if (changeable) {
+				query.setParameter("changedBy", Context.getAuthenticatedUser()).setParameter("dateChanged", dateChanged);
+			}
+			query.executeUpdate();
+		}
+		
+		for (Integer id : ids) {
+			Object loaded = sessionImplementor.getPersistenceContext().getEntity(
+			    sessionImplementor.generateEntityKey(id, persister));
+			if (loaded != null) {
+				session.refresh(loaded);
+			}
+		}
+		SearchIndexUpdater.updateAfterCommit(sessionFactory, fullTextSession -> HibernateUtil.updateSearchIndex(
+		    fullTextSession, type, ids));
+		return uuids;
+	}
 }
@@ -10,6 +10,7 @@
 package org.openmrs.api.db.hibernate;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -20,6 +21,7 @@ import org.hibernate.Criteria;
 import org.hibernate.Query;
 import org.hibernate.SQLQuery;
 import org.hibernate.SessionFactory;
+import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Restrictions;
 import org.hibernate.type.StringType;
@@ -57,6 +59,8 @@ public class HibernatePersonDAO implements PersonDAO {
 	
 	private static final Logger log = LoggerFactory.getLogger(HibernatePersonDAO.class);
 	
+	private static final int IN_CLAUSE_SIZE = 1000;
+	
 	/**
 	 * Hibernate session factory
 	 */
@@ -467,26 +471,70 @@ public class HibernatePersonDAO implements PersonDAO {
 			criteria.add(Restrictions.eq("relationshipType", relType));
 		}
 		if (startEffectiveDate != null) {
-			criteria.add(Restrictions.disjunction().add(
-			    Restrictions.and(Restrictions.le("startDate", startEffectiveDate), Restrictions.ge("endDate",
-			        startEffectiveDate))).add(
-			    Restrictions.and(Restrictions.le("startDate", startEffectiveDate), Restrictions.isNull("endDate"))).add(
-			    Restrictions.and(Restrictions.isNull("startDate"), Restrictions.ge("endDate", startEffectiveDate))).add(
-			    Restrictions.and(Restrictions.isNull("startDate"), Restrictions.isNull("endDate"))));
+			criteria.add(effectiveOn(startEffectiveDate));
 		}
 		if (endEffectiveDate != null) {
-			criteria.add(Restrictions.disjunction().add(
-			    Restrictions.and(Restrictions.le("startDate", endEffectiveDate), Restrictions
-			            .ge("endDate", endEffectiveDate))).add(
-			    Restrictions.and(Restrictions.le("startDate", endEffectiveDate), Restrictions.isNull("endDate"))).add(
-			    Restrictions.and(Restrictions.isNull("startDate"), Restrictions.ge("endDate", endEffectiveDate))).add(
-			    Restrictions.and(Restrictions.isNull("startDate"), Restrictions.isNull("endDate"))));
+			criteria.add(effectiveOn(endEffectiveDate));
 		}
 		criteria.add(Restrictions.eq("voided", false));
 		
 		return criteria.list();
 	}
 	
+	/**
+	 * The effective dates are never null, so that the condition is a range on the indexed columns
+	 */
+	private static Criterion effectiveOn(Date date) {
+		return Restrictions.and(Restrictions.le("effectiveStartDate", date), Restrictions.ge("effectiveEndDate", date));
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.PersonDAO#getRelationships(java.util.Collection, java.util.Date,
+	 *      java.util.Collection)
+	 */
+	@Override
+	public List<Relationship> getRelationships(Collection<Integer> personIds, Date effectiveDate,
+	        Collection<RelationshipType> relationshipTypes) {
+		Set<Relationship> relationships = new LinkedHashSet<>();
+		if (personIds.isEmpty()) {
+			return new ArrayList<>(relationships);
+		}
+		
+		List<Integer> ids = new ArrayList<>(personIds);
+		for (int start = 0; start < ids.size(); start += IN_CLAUSE_SIZE) {
+			List<Integer> chunk = ids.subList(start, Math.min(start + IN_CLAUSE_SIZE, ids.size()));
+			// one query per side of the relationship, so that each can use its index on the person and dates
+			relationships.addAll(getRelationships("personA", chunk, effectiveDate, relationshipTypes));
+			relationships.addAll(getRelationships("personB", chunk, effectiveDate, relationshipTypes));
+		}
+		return new ArrayList<>(relationships);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private List<Relationship> getRelationships(String side, List<Integer> personIds, Date effectiveDate,
+	        Collection<RelationshipType> relationshipTypes) {
+		StringBuilder hql = new StringBuilder("from Relationship r where r.").append(side).append(
+		    ".personId in (:personIds) and r.voided = false");
+		if (effectiveDate != null) {
+			// see effectiveOn(Date)
+			hql.append(" and r.effectiveStartDate <= :effectiveDate and r.effectiveEndDate >= :effectiveDate");
+		}
+		if (relationshipTypes != null && !relationshipTypes.isEmpty()) {
+			hql.append(" and r.relationshipType in (:relationshipTypes)");
+		}
+		hql.append(" order by r.relationshipId");
+		
+		Query query = sessionFactory.getCurrentSession().createQuery(hql.toString());
+		query.setParameterList("personIds", personIds);
+		if (effectiveDate != null) {
+			query.setTimestamp("effectiveDate", effectiveDate);
+		}
+		if (relationshipTypes != null && !relationshipTypes.isEmpty()) {
+			query.setParameterList("relationshipTypes", relationshipTypes);
+		}
+		return query.list();
+	}
+	
 	/**
 	 * @see org.openmrs.api.PersonService#getRelationshipType(java.lang.Integer)
 	 * @see org.openmrs.api.db.PersonDAO#getRelationshipType(java.lang.Integer)
@@ -552,6 +600,8 @@ public class HibernatePersonDAO implements PersonDAO {
 	@Override
 	public Person savePerson(Person person) throws DAOException {
 		sessionFactory.getCurrentSession().saveOrUpdate(person);
+		
+		// the users and providers of renamed persons are reindexed by the PersonNameSearchIndexInterceptor
 		return person;
 	}
 	
@@ -9,30 +9,37 @@
  */
 package org.openmrs.api.db.hibernate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
-import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.Criteria;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
-import org.hibernate.criterion.Conjunction;
+import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.Disjunction;
-import org.hibernate.criterion.Junction;
 import org.hibernate.criterion.MatchMode;
 import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Projections;
+import org.hibernate.criterion.Property;
 import org.hibernate.criterion.Restrictions;
-import org.hibernate.sql.JoinType;
+import org.openmrs.GlobalProperty;
 import org.openmrs.Person;
 import org.openmrs.Provider;
 import org.openmrs.ProviderAttribute;
 import org.openmrs.ProviderAttributeType;
+import org.openmrs.api.GlobalPropertyListener;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.DAOException;
 import org.openmrs.api.db.ProviderDAO;
+import org.openmrs.api.db.hibernate.search.LuceneQuery;
 import org.openmrs.util.OpenmrsConstants;
 
 /**
@@ -41,10 +48,17 @@ import org.openmrs.util.OpenmrsConstants;
  *
  * @since 1.9
  */
-public class HibernateProviderDAO implements ProviderDAO {
+public class HibernateProviderDAO implements ProviderDAO, GlobalPropertyListener {
 	
 	private SessionFactory sessionFactory;
 	
+	/**
+	 * The maximum number of ids passed to one in clause
+	 */
+	private static final int IN_CLAUSE_SIZE = 1000;
+	
+	private volatile MatchMode matchMode;
+	
 	public void setSessionFactory(SessionFactory sessionFactory) {
 		this.sessionFactory = sessionFactory;
 	}
@@ -136,7 +150,11 @@ public class HibernateProviderDAO implements ProviderDAO {
 	@Override
 	public List<Provider> getProviders(String name, Map<ProviderAttributeType, String> serializedAttributeValues,
 	        Integer start, Integer length, boolean includeRetired) {
-		Criteria criteria = prepareProviderCriteria(name, includeRetired);
+		if (isNameQuery(name)) {
+			return getProvidersMatchingName(name, serializedAttributeValues, start, length, includeRetired);
+		}
+		
+		Criteria criteria = prepareProviderCriteria(serializedAttributeValues, includeRetired);
 		if (start != null) {
 			criteria.setFirstResult(start);
 		}
@@ -148,19 +166,89 @@ public class HibernateProviderDAO implements ProviderDAO {
 			//push retired Provider to the end of the returned list
 			criteria.addOrder(Order.asc("retired"));
 		}
+		criteria.addOrder(Order.asc("providerId"));
+		
+		return criteria.list();
+	}
+	
+	private boolean isNameQuery(String name) {
+		return StringUtils.isNotBlank(name) && !"%".equals(name.trim());
+	}
+	
+	/**
+	 * Gets a page of the providers matching a name, retired providers last and then ordered by id.
+	 * The ids of the matching providers are read from the provider search index, only those of the
+	 * page are loaded from the database. When attribute values are given, the ids are matched against
+	 * them in chunks, in order, until the page is filled, so that no statement gets more than
+	 * {@link #IN_CLAUSE_SIZE} ids.
+	 *
+	 * @param name the name or identifier to search for
+	 * @param serializedAttributeValues attribute values of which a provider must have at least one,
+	 *            may be null
+	 * @param start the index of the first provider of the page, from the first one if null
+	 * @param length the maximum number of providers of the page, all of them if null
+	 * @param includeRetired
+	 * @return the matching providers
+	 */
+	private List<Provider> getProvidersMatchingName(String name,
+	        Map<ProviderAttributeType, String> serializedAttributeValues, Integer start, Integer length,
+	        boolean includeRetired) {
+		int from = start != null ? Math.max(0, start) : 0;
+		int to = length != null ? from + Math.max(0, length) : Integer.MAX_VALUE;
 		
-		List<Provider> providers = criteria.list();
-		if (serializedAttributeValues != null) {
-			CollectionUtils.filter(providers, new AttributeMatcherPredicate<Provider, ProviderAttributeType>(
-			        serializedAttributeValues));
+		List<Integer> providerIds = getProviderIdsMatchingName(name, includeRetired);
+		List<Integer> pageIds;
+		if (serializedAttributeValues == null || serializedAttributeValues.isEmpty()) {
+			pageIds = providerIds.subList(Math.min(from, providerIds.size()), Math.min(to, providerIds.size()));
+		} else {
+			pageIds = new ArrayList<>();
+			int matched = 0;
+			for (int i = 0; i < providerIds.size() && matched < to; i += IN_CLAUSE_SIZE) {
+				List<Integer> chunk = providerIds.subList(i, Math.min(i + IN_CLAUSE_SIZE, providerIds.size()));
+				Criteria criteria = prepareProviderCriteria(serializedAttributeValues, includeRetired);
+				criteria.add(Restrictions.in("providerId", chunk));
+				criteria.setProjection(Projections.property("providerId"));
+				Set<Integer> matching = new HashSet<>(criteria.list());
+				for (Integer providerId : chunk) {
+					if (matching.contains(providerId)) {
+						if (matched >= from && matched < to) {
+							pageIds.add(providerId);
+						}
+						matched++;
+					}
+				}
+			}
+		}
+		
+		Map<Integer, Provider> providersById = new HashMap<>();
+		for (int i = 0; i < pageIds.size(); i += IN_CLAUSE_SIZE) {
+			Criteria criteria = getSession().createCriteria(Provider.class);
+			criteria.add(Restrictions.in("providerId", pageIds.subList(i, Math.min(i + IN_CLAUSE_SIZE, pageIds.size()))));
+			for (Provider provider : (List<Provider>) criteria.list()) {
+				providersById.put(provider.getProviderId(), provider);
+			}
+		}
+		List<Provider> providers = new ArrayList<>();
+		for (Integer providerId : pageIds) {
+			Provider provider = providersById.get(providerId);
+			if (provider != null) {
+				providers.add(provider);
+			}
 		}
 		return providers;
 	}
 	
 	private MatchMode getMatchMode() {
-		String matchMode = Context.getAdministrationService().getGlobalProperty(
-		    OpenmrsConstants.GLOBAL_PROPERTY_PROVIDER_SEARCH_MATCH_MODE);
-		
+		MatchMode mode = matchMode;
+		if (mode == null) {
+			mode = toMatchMode(Context.getAdministrationService().getGlobalProperty(
+			    OpenmrsConstants.GLOBAL_PROPERTY_PROVIDER_SEARCH_MATCH_MODE));
+			matchMode = mode;
+		}
+		return mode;
+	}
+	
+	private MatchMode toMatchMode(String matchMode) {
 		if (MatchMode.START.toString().equalsIgnoreCase(matchMode)) {
 			return MatchMode.START;
 		}
@@ -174,66 +262,123 @@ public class HibernateProviderDAO implements ProviderDAO {
 	}
 	
 	/**
-	 * Creates a Provider Criteria based on name
+	 * @see org.openmrs.api.GlobalPropertyListener#supportsPropertyName(String)
+	 */
+	@Override
+	public boolean supportsPropertyName(String propertyName) {
+		return OpenmrsConstants.GLOBAL_PROPERTY_PROVIDER_SEARCH_MATCH_MODE.equals(propertyName);
+	}
+	
+	/**
+	 * @see org.openmrs.api.GlobalPropertyListener#globalPropertyChanged(GlobalProperty)
+	 */
+	@Override
+	public void globalPropertyChanged(GlobalProperty newValue) {
+		matchMode = toMatchMode(newValue.getPropertyValue());
+	}
+	
+	/**
+	 * @see org.openmrs.api.GlobalPropertyListener#globalPropertyDeleted(String)
+	 */
+	@Override
+	public void globalPropertyDeleted(String propertyName) {
+		matchMode = MatchMode.EXACT;
+	}
+	
+	/**
+	 * Creates a Provider Criteria based on attribute values, which are matched with subqueries so
+	 * that paging and counting are done by the database on the final result.
 	 *
-	 * @param name represents provider name
+	 * @param serializedAttributeValues attribute values of which a provider must have at least one,
+	 *            may be null
 	 * @param includeRetired
 	 * @return Criteria represents the hibernate criteria to search
 	 */
-	private Criteria prepareProviderCriteria(String name, boolean includeRetired) {
-		if (StringUtils.isBlank(name)) {
-			name = "%";
-		}
-		
-		Criteria criteria = sessionFactory.getCurrentSession().createCriteria(Provider.class).createAlias("person", "p",
-		    JoinType.LEFT_OUTER_JOIN);
+	private Criteria prepareProviderCriteria(Map<ProviderAttributeType, String> serializedAttributeValues,
+	        boolean includeRetired) {
+		Criteria criteria = sessionFactory.getCurrentSession().createCriteria(Provider.class);
 		
 		if (!includeRetired) {
 			criteria.add(Restrictions.eq("retired", false));
 		}
 		
-		criteria.setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY);
-		
-		criteria.createAlias("p.names", "personName", JoinType.LEFT_OUTER_JOIN);
-		
-		Disjunction or = Restrictions.disjunction();
-		or.add(Restrictions.ilike("identifier", name, getMatchMode()));
-		or.add(Restrictions.ilike("name", name, MatchMode.ANYWHERE));
-		
-		Conjunction and = Restrictions.conjunction();
-		or.add(and);
-		
-		String[] splitNames = name.split(" ");
-		for (String splitName : splitNames) {
-			and.add(getNameSearchExpression(splitName));
+		if (serializedAttributeValues != null && !serializedAttributeValues.isEmpty()) {
+			Disjunction or = Restrictions.disjunction();
+			for (Map.Entry<ProviderAttributeType, String> entry : serializedAttributeValues.entrySet()) {
+				DetachedCriteria attributeCriteria = DetachedCriteria.forClass(ProviderAttribute.class, "attribute")
+				        .setProjection(Projections.property("attribute.provider.providerId"));
+				attributeCriteria.add(Restrictions.eq("attribute.attributeType", entry.getKey()));
+				attributeCriteria.add(Restrictions.eq("attribute.valueReference", entry.getValue()));
+				attributeCriteria.add(Restrictions.eq("attribute.voided", false));
+				or.add(Property.forName("providerId").in(attributeCriteria));
+			}
+			criteria.add(or);
 		}
 		
-		criteria.add(or);
-		
 		return criteria;
 	}
 	
 	/**
-	 * Creates or that matches the input name with Provider-Person-Names (not voided)
+	 * Searches the provider index for the ids of the providers matching a name, see
+	 * {@link #newProviderQuery(String)}. Only the ids are read from the index.
 	 *
-	 * @param name
-	 * @return Junction
+	 * @param name the name or identifier to search for
+	 * @param includeRetired
+	 * @return the ids of the matching providers, retired providers last and then ordered by id
 	 */
-	private Junction getNameSearchExpression(String name) {
-		MatchMode mode = MatchMode.ANYWHERE;
-		
-		Conjunction and = Restrictions.conjunction();
-		and.add(Restrictions.eq("personName.voided", false));
-		
-		Disjunction or = Restrictions.disjunction();
-		and.add(or);
-		
-		or.add(Restrictions.ilike("personName.givenName", name, mode));
-		or.add(Restrictions.ilike("personName.middleName", name, mode));
-		or.add(Restrictions.ilike("personName.familyName", name, mode));
-		or.add(Restrictions.ilike("personName.familyName2", name, mode));
+	private List<Integer> getProviderIdsMatchingName(String name, boolean includeRetired) {
+		List<Integer> providerIds = getProviderIds(newProviderQuery(name).include("retired", false));
+		if (includeRetired) {
+			providerIds.addAll(getProviderIds(newProviderQuery(name).include("retired", true)));
+		}
+		return providerIds;
+	}
+	
+	private List<Integer> getProviderIds(LuceneQuery<Provider> query) {
+		List<Integer> providerIds = new ArrayList<>();
+		for (Object[] row : query.listProjection("providerId")) {
+			providerIds.add((Integer) row[0]);
+		}
+		Collections.sort(providerIds);
+		return providerIds;
+	}
+	
+	/**
+	 * Creates a query of the provider index for providers whose identifier, name or any non voided
+	 * name of the linked person matches all words of the given name. Names are matched anywhere, the
+	 * identifier as configured by the provider search match mode. The start and anywhere fields are
+	 * indexed from two characters, single character words are matched as prefixes of the exact
+	 * fields, the identifier only if the match mode is not exact.
+	 *
+	 * @param name the name or identifier to search for
+	 * @return the query of the matching providers
+	 */
+	private LuceneQuery<Provider> newProviderQuery(String name) {
+		List<String> fields = new ArrayList<>(Arrays.asList("nameExact", "nameStart", "nameAnywhere",
+		    "identifierExact"));
+		MatchMode mode = getMatchMode();
+		if (mode != MatchMode.EXACT) {
+			fields.add("identifierStart");
+		}
+		if (mode == MatchMode.ANYWHERE || mode == MatchMode.END) {
+			fields.add("identifierAnywhere");
+		}
 		
-		return and;
+		StringBuilder query = new StringBuilder();
+		for (String word : name.trim().split("\\s+")) {
+			String escaped = LuceneQuery.escapeQuery(word);
+			query.append(query.length() > 0 ? " " : "");
+			if (word.length() == 1) {
+				query.append("(nameExact:").append(escaped).append('*');
+				if (mode != MatchMode.EXACT) {
+					query.append(" OR identifierExact:").append(escaped).append('*');
+				}
+				query.append(')');
+			} else {
+				query.append(escaped);
+			}
+		}
+		return LuceneQuery.newQuery(Provider.class, sessionFactory.getCurrentSession(), query.toString(), fields);
 	}
 	
 	/**
@@ -241,8 +386,16 @@ public class HibernateProviderDAO implements ProviderDAO {
 	 */
 	@Override
 	public Long getCountOfProviders(String name, boolean includeRetired) {
-	  Criteria criteria = prepareProviderCriteria(name, includeRetired);
-	  return (long) criteria.list().size();
+		if (isNameQuery(name)) {
+			LuceneQuery<Provider> query = newProviderQuery(name);
+			if (!includeRetired) {
+				query.include("retired", false);
+			}
+			return query.resultSize();
+		}
+		Criteria criteria = prepareProviderCriteria(null, includeRetired);
+		criteria.setProjection(Projections.rowCount());
+		return (Long) criteria.uniqueResult();
 	}
 	
 	/* (non-Javadoc)
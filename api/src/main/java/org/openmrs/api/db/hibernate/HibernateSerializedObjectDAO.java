@@ -13,12 +13,30 @@ import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
 import org.openmrs.Auditable;
 import org.openmrs.OpenmrsData;
 import org.openmrs.OpenmrsMetadata;
@@ -26,16 +44,32 @@ import org.openmrs.OpenmrsObject;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.DAOException;
 import org.openmrs.api.db.SerializedObject;
+import org.openmrs.api.db.SerializedObjectCacheStatistics;
 import org.openmrs.api.db.SerializedObjectDAO;
 import org.openmrs.serialization.OpenmrsSerializer;
 import org.openmrs.serialization.SerializationException;
 import org.openmrs.util.ExceptionUtil;
+import org.openmrs.util.OpenmrsClassLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Hibernate specific database access methods for serialized objects
+ * Hibernate specific database access methods for serialized objects. <br>
+ * <br>
+ * Deserialized objects are cached by serialized object id. Each entry remembers the date changed and
+ * a fingerprint of the serialized data it was built from and is only used while they still match
+ * the row that was read. The cache holds a java serialized copy of the object rather than the object
+ * itself, every caller gets a fresh copy and can modify it without affecting other callers. Entities
+ * of the current hibernate session that the object refers to are not copied, they are written as
+ * references and loaded from the session of the caller. Objects that cannot be copied this way
+ * are always deserialized from their serialized data.
  */
 public class HibernateSerializedObjectDAO implements SerializedObjectDAO {
 	
+	private static final Logger log = LoggerFactory.getLogger(HibernateSerializedObjectDAO.class);
+	
+	private static final int MAX_CACHED_OBJECTS = 1000;
+	
 	private static HibernateSerializedObjectDAO instance;
 	
 	//********* PROPERTIES **********
@@ -44,6 +78,13 @@ public class HibernateSerializedObjectDAO implements SerializedObjectDAO {
 	
 	private List<Class<? extends OpenmrsObject>> supportedTypes;
 	
+	private final Cache<Integer, CachedObject> cache = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_OBJECTS)
+	        .softValues().build();
+	
+	private final AtomicLong cacheHits = new AtomicLong();
+	
+	private final AtomicLong cacheMisses = new AtomicLong();
+	
 	/**
 	 * Private Constructor to support a singleton instance
 	 */
@@ -269,6 +310,7 @@ public class HibernateSerializedObjectDAO implements SerializedObjectDAO {
 		}
 		
 		sessionFactory.getCurrentSession().saveOrUpdate(serializedObject);
+		cache.invalidate(serializedObject.getId());
 		
 		object.setId(serializedObject.getId());
 		return object;
@@ -281,6 +323,25 @@ public class HibernateSerializedObjectDAO implements SerializedObjectDAO {
 	public void purgeObject(Integer id) throws DAOException {
 		SerializedObject o = getSerializedObject(id);
 		sessionFactory.getCurrentSession().delete(o);
+		cache.invalidate(id);
+	}
+	
+	/**
+	 * @see SerializedObjectDAO#getCacheStatistics()
+	 */
+	@Override
+	public SerializedObjectCacheStatistics getCacheStatistics() {
+		long size = 0;
+		long xmlSize = 0;
+		long copySize = 0;
+		for (CachedObject cached : cache.asMap().values()) {
+			if (cached.copy != null) {
+				size++;
+				xmlSize += cached.dataLength;
+				copySize += cached.copy.length;
+			}
+		}
+		return new SerializedObjectCacheStatistics(cacheHits.get(), cacheMisses.get(), size, xmlSize, copySize);
 	}
 	
 	/**
@@ -324,6 +385,18 @@ public class HibernateSerializedObjectDAO implements SerializedObjectDAO {
 		if (serializedObject == null) {
 			return null;
 		}
+		
+		CachedObject cached = serializedObject.getId() == null ? null : cache.getIfPresent(serializedObject.getId());
+		if (cached != null && cached.copy != null && cached.matches(serializedObject)) {
+			Object copy = readCopy(cached.copy);
+			if (clazz.isInstance(copy)) {
+				cacheHits.incrementAndGet();
+				return (T) copy;
+			}
+			cache.invalidate(serializedObject.getId());
+		}
+		cacheMisses.incrementAndGet();
+		
 		OpenmrsSerializer serializer = getSerializer(serializedObject);
 		T obj;
 		try {
@@ -340,9 +413,54 @@ public class HibernateSerializedObjectDAO implements SerializedObjectDAO {
 		}
 		obj.setId(serializedObject.getId());
 		obj.setUuid(serializedObject.getUuid());
+		
+		if (serializedObject.getId() != null && (cached == null || !cached.matches(serializedObject))) {
+			cache.put(serializedObject.getId(), new CachedObject(serializedObject, writeCopy(obj)));
+		}
 		return obj;
 	}
 	
+	/**
+	 * Java serializes the given object, replacing the entities of the current session it refers to
+	 * by {@link EntityReference}s
+	 * 
+	 * @return the serialized bytes or null if the object cannot be copied
+	 */
+	private byte[] writeCopy(Object obj) {
+		if (!(obj instanceof Serializable)) {
+			return null;
+		}
+		SessionImplementor session = (SessionImplementor) sessionFactory.getCurrentSession();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new CopyOutputStream(bytes, session)) {
+			out.writeObject(obj);
+		}
+		catch (NotSerializableException e) {
+			log.debug("Not caching an object of type {} since {} is not serializable", obj.getClass(), e.getMessage());
+			return null;
+		}
+		catch (IOException | RuntimeException e) {
+			log.debug("Failed to cache an object of type {}", obj.getClass(), e);
+			return null;
+		}
+		return bytes.toByteArray();
+	}
+	
+	/**
+	 * @return a new copy of the object serialized by {@link #writeCopy(Object)} or null if it can no
+	 *         longer be read, e.g. because a module that provides its class was reloaded
+	 */
+	private Object readCopy(byte[] copy) {
+		SessionImplementor session = (SessionImplementor) sessionFactory.getCurrentSession();
+		try (ObjectInputStream in = new CopyInputStream(new ByteArrayInputStream(copy), session)) {
+			return in.readObject();
+		}
+		catch (IOException | ClassNotFoundException | RuntimeException e) {
+			log.debug("Failed to read a cached copy, deserializing the object instead", e);
+			return null;
+		}
+	}
+	
 	/**
 	 * Private method for retrieving the Serializer that should be used for the passed
 	 * SerializedObject, defaulting to the default system serializer if none is explicitly set on
@@ -355,6 +473,121 @@ public class HibernateSerializedObjectDAO implements SerializedObjectDAO {
 		return Context.getSerializationService().getDefaultSerializer();
 	}
 	
+	/**
+	 * A cache entry, the fields of the serialized object it was built from are kept to detect
+	 * outdated entries
+	 */
+	private static class CachedObject {
+		
+		private final Date dateChanged;
+		
+		private final String serializationClass;
+		
+		private final int dataLength;
+		
+		private final int dataHash;
+		
+		/**
+		 * The java serialized object, null if the object can not be copied
+		 */
+		private final byte[] copy;
+		
+		CachedObject(SerializedObject serializedObject, byte[] copy) {
+			this.dateChanged = serializedObject.getDateChanged();
+			this.serializationClass = serializationClassName(serializedObject);
+			String data = serializedObject.getSerializedData();
+			this.dataLength = data == null ? 0 : data.length();
+			this.dataHash = Objects.hashCode(data);
+			this.copy = copy;
+		}
+		
+		boolean matches(SerializedObject serializedObject) {
+			String data = serializedObject.getSerializedData();
+			return Objects.equals(dateChanged == null ? null : dateChanged.getTime(),
+			    serializedObject.getDateChanged() == null ? null : serializedObject.getDateChanged().getTime())
+			        && Objects.equals(serializationClass, serializationClassName(serializedObject))
+			        && dataLength == (data == null ? 0 : data.length()) && dataHash == Objects.hashCode(data);
+		}
+		
+		private static String serializationClassName(SerializedObject serializedObject) {
+			return serializedObject.getSerializationClass() == null ? null
+			        : serializedObject.getSerializationClass().getName();
+		}
+	}
+	
+	/**
+	 * Stands in for an entity of the hibernate session in a cached copy
+	 */
+	private static class EntityReference implements Serializable {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final String entityName;
+		
+		private final Serializable id;
+		
+		EntityReference(String entityName, Serializable id) {
+			this.entityName = entityName;
+			this.id = id;
+		}
+	}
+	
+	private static class CopyOutputStream extends ObjectOutputStream {
+		
+		private final SessionImplementor session;
+		
+		CopyOutputStream(OutputStream out, SessionImplementor session) throws IOException {
+			super(out);
+			this.session = session;
+			enableReplaceObject(true);
+		}
+		
+		@Override
+		protected Object replaceObject(Object obj) {
+			if (obj instanceof HibernateProxy) {
+				LazyInitializer initializer = ((HibernateProxy) obj).getHibernateLazyInitializer();
+				return new EntityReference(initializer.getEntityName(), initializer.getIdentifier());
+			}
+			if (obj instanceof OpenmrsObject) {
+				EntityEntry entry = session.getPersistenceContext().getEntry(obj);
+				if (entry != null && entry.getId() != null) {
+					return new EntityReference(entry.getEntityName(), entry.getId());
+				}
+			}
+			return obj;
+		}
+	}
+	
+	private static class CopyInputStream extends ObjectInputStream {
+		
+		private final SessionImplementor session;
+		
+		CopyInputStream(InputStream in, SessionImplementor session) throws IOException {
+			super(in);
+			this.session = session;
+			enableResolveObject(true);
+		}
+		
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+			try {
+				return Class.forName(desc.getName(), false, OpenmrsClassLoader.getInstance());
+			}
+			catch (ClassNotFoundException e) {
+				return super.resolveClass(desc);
+			}
+		}
+		
+		@Override
+		protected Object resolveObject(Object obj) {
+			if (obj instanceof EntityReference) {
+				EntityReference reference = (EntityReference) obj;
+				return session.load(reference.entityName, reference.id);
+			}
+			return obj;
+		}
+	}
+	
 	//***** Property access *****
 	
 	/**
@@ -16,9 +16,10 @@ import javax.persistence.criteria.Join;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -36,10 +37,10 @@ import org.openmrs.api.context.Daemon;
 import org.openmrs.api.db.DAOException;
 import org.openmrs.api.db.LoginCredential;
 import org.openmrs.api.db.UserDAO;
+import org.openmrs.api.db.hibernate.search.LuceneQuery;
 import org.openmrs.patient.impl.LuhnIdentifierValidator;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.Security;
-import org.openmrs.util.UserByNameComparator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -54,6 +55,24 @@ public class HibernateUserDAO implements UserDAO {
 	
 	private static final Logger log = LoggerFactory.getLogger(HibernateUserDAO.class);
 	
+	/**
+	 * Joins users with the preferred names of their persons, see {@link #FIRST_PREFERRED_NAME}
+	 */
+	private static final String USER_NAME_FROM = "from User as user inner join user.person as person "
+	        + "left join person.names as name with name.preferred = true and name.voided = false ";
+	
+	/**
+	 * Keeps only the first preferred name of a person, so that a user is not returned once per
+	 * preferred name
+	 */
+	private static final String FIRST_PREFERRED_NAME = "not exists (select n.personNameId from PersonName as n "
+	        + "where n.person = person and n.preferred = true and n.voided = false and n.personNameId < name.personNameId)";
+	
+	/**
+	 * The maximum number of ids passed to one in clause
+	 */
+	private static final int IN_CLAUSE_SIZE = 1000;
+	
 	/**
 	 * Hibernate session factory
 	 */
@@ -96,6 +115,19 @@ public class HibernateUserDAO implements UserDAO {
 			        .getUserId());
 		}
 		
+		// users are searched through the index, their document is written right away so that they can be
+		// found in the transaction that saved them, and restored from the database if it is rolled back
+		Context.updateSearchIndexForObject(user);
+		Integer userId = user.getUserId();
+		SearchIndexUpdater.updateAfterRollback(sessionFactory, session -> {
+			User committed = session.get(User.class, userId);
+			if (committed != null) {
+				session.index(committed);
+			} else {
+				session.purge(User.class, userId);
+			}
+		});
+		
 		return user;
 	}
 	
@@ -448,9 +480,12 @@ public class HibernateUserDAO implements UserDAO {
 	@Override
 	@SuppressWarnings("unchecked")
 	public List<User> getUsers(String name, List<Role> roles, boolean includeRetired, Integer start, Integer length) {
+		if (StringUtils.isNotBlank(name)) {
+			return getUsersMatchingName(name, roles, includeRetired, start, length);
+		}
 		
-		String hqlSelectStart = "select distinct user from User as user inner join user.person.names as name ";
-		Query query = createUserSearchQuery(name, roles, includeRetired, hqlSelectStart);
+		Query query = createUserSearchQuery(roles, includeRetired, "select user ", true, " order by lower(name.familyName), "
+		        + "lower(name.familyName2), lower(name.givenName), lower(name.middleName), user.userId");
 		
 		if (start != null) {
 			query.setFirstResult(start);
@@ -459,13 +494,61 @@ public class HibernateUserDAO implements UserDAO {
 			query.setMaxResults(length);
 		}
 		
-		List<User> returnList = query.getResultList();
+		return query.getResultList();
+	}
+	
+	/**
+	 * Gets a page of the users matching a name, ordered by their preferred names and then by id. The
+	 * ids of the matching users are read from the search index, their names are then read in chunks
+	 * of at most {@link #IN_CLAUSE_SIZE} ids to sort them, and only the users of the page are loaded.
+	 * 
+	 * @param name the name to search for
+	 * @param roles the roles to match against
+	 * @param includeRetired Specifies if retired users should be included or not
+	 * @param start the index of the first user of the page, from the first one if null
+	 * @param length the maximum number of users of the page, all of them if null or not positive
+	 * @return the matching users
+	 */
+	@SuppressWarnings("unchecked")
+	private List<User> getUsersMatchingName(String name, List<Role> roles, boolean includeRetired, Integer start,
+	        Integer length) {
+		List<Integer> userIds = new ArrayList<>();
+		for (Object[] row : newUserNameQuery(name, roles, includeRetired).listProjection("userId")) {
+			userIds.add((Integer) row[0]);
+		}
 		
-		if (!CollectionUtils.isEmpty(returnList)) {
-			returnList.sort(new UserByNameComparator());
+		List<Object[]> names = new ArrayList<>();
+		for (int i = 0; i < userIds.size(); i += IN_CLAUSE_SIZE) {
+			names.addAll(sessionFactory.getCurrentSession().createQuery("select user.userId, lower(name.familyName), "
+			        + "lower(name.familyName2), lower(name.givenName), lower(name.middleName) " + USER_NAME_FROM
+			        + "where user.userId in (:userIds) and " + FIRST_PREFERRED_NAME).setParameterList("userIds",
+			    userIds.subList(i, Math.min(i + IN_CLAUSE_SIZE, userIds.size()))).list());
+		}
+		Comparator<String> nullsFirst = Comparator.nullsFirst(Comparator.naturalOrder());
+		names.sort(Comparator.comparing((Object[] row) -> (String) row[1], nullsFirst).thenComparing(
+		    row -> (String) row[2], nullsFirst).thenComparing(row -> (String) row[3], nullsFirst).thenComparing(
+		    row -> (String) row[4], nullsFirst).thenComparing(row -> (Integer) row[0]));
+		
+		int from = start != null ? Math.max(0, start) : 0;
+		int to = length != null && length > 0 ? Math.min(names.size(), from + length) : names.size();
+		List<Integer> pageIds = new ArrayList<>();
+		for (Object[] row : names.subList(Math.min(from, to), to)) {
+			pageIds.add((Integer) row[0]);
 		}
 		
-		return returnList;
+		Map<Integer, User> usersById = new HashMap<>();
+		for (int i = 0; i < pageIds.size(); i += IN_CLAUSE_SIZE) {
+			for (User user : sessionFactory.getCurrentSession().createQuery("from User user where user.userId in (:userIds)",
+			    User.class).setParameterList("userIds", pageIds.subList(i, Math.min(i + IN_CLAUSE_SIZE, pageIds.size())))
+			        .list()) {
+				usersById.put(user.getUserId(), user);
+			}
+		}
+		List<User> users = new ArrayList<>();
+		for (Integer userId : pageIds) {
+			users.add(usersById.get(userId));
+		}
+		return users;
 	}
 	
 	/**
@@ -608,94 +691,47 @@ public class HibernateUserDAO implements UserDAO {
 	 */
 	@Override
 	public Integer getCountOfUsers(String name, List<Role> roles, boolean includeRetired) {
-		String hqlSelectStart = "select count(distinct user) from User as user inner join user.person.names as name ";
-		Query query = createUserSearchQuery(name, roles, includeRetired, hqlSelectStart);
+		if (StringUtils.isNotBlank(name)) {
+			// the index applies the same filters as the database query, so there is no need to load the ids
+			return (int) newUserNameQuery(name, roles, includeRetired).resultSize();
+		}
 		
+		Query query = createUserSearchQuery(roles, includeRetired, "select count(user) ", false, "");
 		return ((Long) JpaUtils.getSingleResultOrNull(query)).intValue();
 	}
 	
 	/**
-	 * Utility methods that creates a hibernate query object from the specified arguments
+	 * Utility methods that creates a hibernate query object from the specified arguments. Names are
+	 * matched with the search index instead, see {@link #newUserNameQuery(String, List, boolean)}.
 	 * 
-	 * @param name The name of the user to search against
 	 * @param roles the roles to match against
 	 * @param includeRetired Specifies if retired users should be included or not
-	 * @param hqlSelectStart The starting phrase of the select statement that includes the joined
-	 *            tables
+	 * @param hqlSelect The select clause of the statement
+	 * @param joinPreferredName Specifies if the preferred name of the person is joined as name
+	 * @param hqlOrderBy the order by clause appended to the query
 	 * @return the created hibernate query object
 	 */
-	private Query createUserSearchQuery(String name, List<Role> roles, boolean includeRetired, String hqlSelectStart) {
-		
-		log.debug("name: " + name);
-		
-		name = HibernateUtil.escapeSqlWildcards(name, sessionFactory);
-		
-		// Create an HQL query like this:
-		// select distinct user
-		// from User as user inner join user.person.names as name inner join user.roles as role
-		// where (user.username like :name1 or ...and for systemId givenName familyName familyName2...)
-		//   and (user.username like :name2 or ...and for systemId givenName familyName familyName2...)
-		//   ...repeat for all name fragments...
-		//	 and role in :roleList 
-		//   and user.retired = false
-		// order by username asc
-		List<String> criteria = new ArrayList<>();
-		int counter = 0;
-		Map<String, String> namesMap = new HashMap<>();
-		if (name != null) {
-			name = name.replace(", ", " ");
-			String[] names = name.split(" ");
-			for (String n : names) {
-				if (n != null && n.length() > 0) {
-					// compare each fragment of the query against username, systemId, given, middle, family, and family2
-					String key = "name" + ++counter;
-					String value = n + "%";
-					namesMap.put(key, value);
-					criteria.add("(user.username like :" + key + " or user.systemId like :" + key
-					        + " or name.givenName like :" + key + " or name.middleName like :" + key
-					        + " or name.familyName like :" + key + " or name.familyName2 like :" + key + ")");
-				}
-			}
-		}
+	private Query createUserSearchQuery(List<Role> roles, boolean includeRetired, String hqlSelect,
+	        boolean joinPreferredName, String hqlOrderBy) {
 		
-		if (!includeRetired) {
-			criteria.add("user.retired = false");
-		}
-		
-		// build the hql query
-		StringBuilder hql = new StringBuilder(hqlSelectStart);
-		boolean searchOnRoles = false;
-		
-		if (CollectionUtils.isNotEmpty(roles)) {
-			hql.append("inner join user.roles as role ");
-			searchOnRoles = true;
-		}
-		hql.append("where user.uuid != :DAEMON_USER_UUID ");
-		
-		if (!criteria.isEmpty() || searchOnRoles) {
-			hql.append("and ");
+		StringBuilder hql = new StringBuilder(hqlSelect);
+		if (joinPreferredName) {
+			hql.append(USER_NAME_FROM).append("where ").append(FIRST_PREFERRED_NAME).append(" and ");
+		} else {
+			hql.append("from User as user where ");
 		}
-		for (Iterator<String> i = criteria.iterator(); i.hasNext();) {
-			hql.append(i.next()).append(" ");
-			if (i.hasNext()) {
-				hql.append("and ");
-			}
+		hql.append("user.uuid != :DAEMON_USER_UUID");
+		if (!includeRetired) {
+			hql.append(" and user.retired = false");
 		}
-		
-		//Match against the specified roles
+		boolean searchOnRoles = CollectionUtils.isNotEmpty(roles);
 		if (searchOnRoles) {
-			if (!criteria.isEmpty()) {
-				hql.append(" and ");
-			}
-			hql.append(" role in (:roleList)");
+			hql.append(" and user.userId in (select u.userId from User as u inner join u.roles as role where role in (:roleList))");
 		}
+		hql.append(hqlOrderBy);
 		
 		Query query = sessionFactory.getCurrentSession().createQuery(hql.toString());
 		query.setParameter("DAEMON_USER_UUID", Daemon.getDaemonUserUuid());
-		for (Map.Entry<String, String> e : namesMap.entrySet()) {
-			query.setParameter(e.getKey(), e.getValue());
-		}
-		
 		if (searchOnRoles) {
 			query.setParameter("roleList", roles);
 		}
@@ -703,6 +739,47 @@ public class HibernateUserDAO implements UserDAO {
 		return query;
 	}
 	
+	/**
+	 * Creates a search index query matching each fragment of the name against the start of the
+	 * username, the systemId or any part of the person names of users. The start fields are indexed
+	 * from two characters, single character fragments are matched as prefixes of the exact fields.
+	 * 
+	 * @param name the name to search for, fragments are separated by spaces or a comma
+	 * @param roles the roles to match against
+	 * @param includeRetired Specifies if retired users should be included or not
+	 * @return the query
+	 */
+	private LuceneQuery<User> newUserNameQuery(String name, List<Role> roles, boolean includeRetired) {
+		StringBuilder query = new StringBuilder();
+		for (String fragment : name.replace(",", " ").trim().split("\\s+")) {
+			query.append(query.length() > 0 ? " " : "").append(LuceneQuery.escapeQuery(fragment));
+			if (fragment.length() == 1) {
+				query.append('*');
+			}
+		}
+		List<String> fields = Arrays.asList("usernameExact", "usernameStart", "systemIdExact", "systemIdStart",
+		    "nameExact", "nameStart");
+		
+		LuceneQuery<User> luceneQuery = LuceneQuery.newQuery(User.class, sessionFactory.getCurrentSession(), query
+		        .toString(), fields);
+		if (!includeRetired) {
+			luceneQuery.include("retired", false);
+		}
+		if (CollectionUtils.isNotEmpty(roles)) {
+			List<String> roleNames = new ArrayList<>();
+			for (Role role : roles) {
+				roleNames.add(role.getRole());
+			}
+			luceneQuery.include("roles", roleNames);
+		}
+		Integer daemonUserId = (Integer) JpaUtils.getSingleResultOrNull(sessionFactory.getCurrentSession().createQuery(
+		    "select user.userId from User as user where user.uuid = :uuid").setParameter("uuid",
+		    Daemon.getDaemonUserUuid()));
+		luceneQuery.exclude("userId", daemonUserId);
+		
+		return luceneQuery;
+	}
+	
 	/**
 	 * @see org.openmrs.api.db.UserDAO#createActivationKey(org.openmrs.User)
 	 */
@@ -15,13 +15,17 @@ import javax.persistence.criteria.Join;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import javax.persistence.criteria.Subquery;
+import java.io.Serializable;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.CacheMode;
 import org.hibernate.Criteria;
 import org.hibernate.Hibernate;
 import org.hibernate.ScrollMode;
@@ -36,8 +40,13 @@ import org.hibernate.criterion.Restrictions;
 import org.hibernate.dialect.Dialect;
 import org.hibernate.dialect.HSQLDialect;
 import org.hibernate.dialect.PostgreSQL82Dialect;
+import org.hibernate.engine.spi.EntityKey;
 import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
 import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.search.FullTextSession;
+import org.hibernate.search.metadata.IndexedTypeDescriptor;
 import org.openmrs.Location;
 import org.openmrs.LocationAttribute;
 import org.openmrs.api.db.DAOException;
@@ -61,6 +70,8 @@ public class HibernateUtil {
 	
 	private static Boolean isPostgreSQLDialect = null;
 	
+	private static final int SEARCH_INDEX_BATCH_SIZE = 1000;
+	
 	/**
 	 * Check and cache whether the currect dialect is HSQL or not. This is needed because some
 	 * queries are different if in the hsql world as opposed to the mysql/postgres world
@@ -269,4 +280,64 @@ public class HibernateUtil {
 			.setFetchSize(fetchSize)
 			.scroll(ScrollMode.FORWARD_ONLY);
 	}
+
+	/**
+	 * Updates the search index of entities changed without the session, e.g. by a bulk update, which
+	 * hibernate search does not see. The entities are loaded with one query per batch, those that
+	 * were not in the session before are evicted once indexed so that large updates do not fill the
+	 * session.
+	 *
+	 * @param session the full text session to load and index the entities with
+	 * @param type the type of the entities, nothing is done if it is not indexed
+	 * @param ids the ids of the entities to index
+	 * @since 2.7.0
+	 */
+	public static void updateSearchIndex(FullTextSession session, Class<?> type, List<? extends Serializable> ids) {
+		IndexedTypeDescriptor descriptor = session.getSearchFactory().getIndexedTypeDescriptor(type);
+		if (ids.isEmpty() || !descriptor.isIndexed()) {
+			return;
+		}
+		
+		SessionImplementor sessionImplementor = session.unwrap(SessionImplementor.class);
+		EntityPersister persister = sessionImplementor.getFactory().getMetamodel().entityPersister(type);
+		CacheMode cacheMode = session.getCacheMode();
+		try {
+			session.setCacheMode(CacheMode.IGNORE);
+			for (int start = 0; start < ids.size(); start += SEARCH_INDEX_BATCH_SIZE) {
+				List<? extends Serializable> batch = ids.subList(start, Math.min(start + SEARCH_INDEX_BATCH_SIZE, ids
+				        .size()));
+				Set<Serializable> inSession = new HashSet<>();
+				for (Serializable id : batch) {
+					EntityKey key = sessionImplementor.generateEntityKey(id, persister);
+					if (sessionImplementor.getPersistenceContext().containsEntity(key)
+					        || sessionImplementor.getPersistenceContext().getProxy(key) != null) {
+						inSession.add(id);
+					}
+				}
+				
+				List<Object> loaded = new ArrayList<>();
+				for (Object entity : session.byMultipleIds(type).withBatchSize(SEARCH_INDEX_BATCH_SIZE).multiLoad(batch)) {
+					if (entity == null) {
+						continue;
+					}
+					session.index(entity);
+					if (!inSession.contains(session.getIdentifier(entity))) {
+						loaded.add(entity);
+					}
+				}
+				evictIndexed(session, loaded);
+			}
+		}
+		finally {
+			session.setCacheMode(cacheMode);
+		}
+	}
+	
+	private static void evictIndexed(FullTextSession session, List<Object> entities) {
+		session.flushToIndexes();
+		for (Object entity : entities) {
+			session.evict(entity);
+		}
+		entities.clear();
+	}
 }
@@ -0,0 +1,159 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.search.FullTextSession;
+import org.hibernate.type.Type;
+import org.openmrs.PersonName;
+import org.openmrs.Provider;
+import org.openmrs.User;
+import org.openmrs.api.context.Context;
+import org.openmrs.util.OpenmrsUtil;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Reindexes the users and providers of the persons whose names are changed. Users and providers
+ * are indexed with the names of their person, see
+ * {@link org.openmrs.api.db.hibernate.search.bridge.UserNameFieldBridge} and
+ * {@link org.openmrs.api.db.hibernate.search.bridge.ProviderNameFieldBridge}, but hibernate search
+ * only updates the index of an entity when the entity itself changes. <br>
+ * <br>
+ * Only the persons whose names are flushed are collected, saving any other person costs nothing.
+ * Once the transaction is committed, their users and providers are found and reindexed in the
+ * background by the {@link SearchIndexUpdater}. Changes that are rolled back are not indexed.
+ *
+ * @since 2.7.0
+ */
+@Component
+public class PersonNameSearchIndexInterceptor extends EmptyInterceptor {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int BATCH_SIZE = 1000;
+
+	private static final String USER_QUERY = "select u.userId from User u where u.person.personId in (:ids)";
+
+	private static final String PROVIDER_QUERY = "select p.providerId from Provider p where p.person.personId in (:ids)";
+
+	private static final List<String> PERSON_NAME_PROPERTIES = Arrays.asList("givenName", "middleName", "familyName",
+	    "familyName2", "voided");
+
+	// the ids of the persons whose names are changed
+	private final ThreadLocal<Set<Integer>> changes = new ThreadLocal<>();
+
+	/**
+	 * @see org.hibernate.EmptyInterceptor#onFlushDirty(Object, Serializable, Object[], Object[],
+	 *      String[], Type[])
+	 */
+	@Override
+	public boolean onFlushDirty(Object entity, Serializable id, Object[] currentState, Object[] previousState,
+	        String[] propertyNames, Type[] types) {
+		if (entity instanceof PersonName) {
+			PersonName personName = (PersonName) entity;
+			if (personName.getPerson() != null && personName.getPerson().getPersonId() != null) {
+				for (int i = 0; i < propertyNames.length; i++) {
+					if (PERSON_NAME_PROPERTIES.contains(propertyNames[i])
+					        && (previousState == null || !OpenmrsUtil.nullSafeEquals(currentState[i], previousState[i]))) {
+						addChange(personName.getPerson().getPersonId());
+						break;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * A name added to a person changes the names of its users and providers
+	 *
+	 * @see org.hibernate.EmptyInterceptor#onSave(Object, Serializable, Object[], String[], Type[])
+	 */
+	@Override
+	public boolean onSave(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+		if (entity instanceof PersonName) {
+			PersonName personName = (PersonName) entity;
+			if (personName.getPerson() != null && personName.getPerson().getPersonId() != null) {
+				addChange(personName.getPerson().getPersonId());
+			}
+		}
+		return false;
+	}
+
+	private void addChange(Integer personId) {
+		Set<Integer> pending = changes.get();
+		if (pending == null) {
+			pending = new LinkedHashSet<>();
+			changes.set(pending);
+			if (TransactionSynchronizationManager.isSynchronizationActive()) {
+				// the changes of all the flushes of the transaction are reindexed once it is committed
+				SearchIndexUpdater.updateAfterCommit(getSessionFactory(), reindex(pending));
+			}
+		}
+		pending.add(personId);
+	}
+
+	/**
+	 * Changes flushed outside of a transaction are reindexed right away
+	 *
+	 * @see org.hibernate.EmptyInterceptor#postFlush(Iterator)
+	 */
+	@Override
+	public void postFlush(Iterator entities) {
+		Set<Integer> pending = changes.get();
+		if (pending != null && !TransactionSynchronizationManager.isSynchronizationActive()) {
+			changes.remove();
+			SearchIndexUpdater.updateAfterCommit(getSessionFactory(), reindex(pending));
+		}
+	}
+
+	private SessionFactory getSessionFactory() {
+		return Context.getRegisteredComponent("sessionFactory", SessionFactory.class);
+	}
+
+	/**
+	 * Finds the users and providers of the changed persons and reindexes them, in the session of the
+	 * {@link SearchIndexUpdater}
+	 */
+	private static Consumer<FullTextSession> reindex(Set<Integer> pending) {
+		return session -> {
+			List<Integer> personIds = new ArrayList<>(pending);
+			List<Integer> userIds = new ArrayList<>();
+			List<Integer> providerIds = new ArrayList<>();
+			for (int start = 0; start < personIds.size(); start += BATCH_SIZE) {
+				List<Integer> ids = personIds.subList(start, Math.min(start + BATCH_SIZE, personIds.size()));
+				userIds.addAll(session.createQuery(USER_QUERY, Integer.class).setParameterList("ids", ids).list());
+				providerIds.addAll(session.createQuery(PROVIDER_QUERY, Integer.class).setParameterList("ids", ids).list());
+			}
+			HibernateUtil.updateSearchIndex(session, User.class, userIds);
+			HibernateUtil.updateSearchIndex(session, Provider.class, providerIds);
+		};
+	}
+
+	/**
+	 * @see org.hibernate.EmptyInterceptor#afterTransactionCompletion(Transaction)
+	 */
+	@Override
+	public void afterTransactionCompletion(Transaction tx) {
+		changes.remove();
+	}
+}
@@ -0,0 +1,126 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import org.hibernate.CacheMode;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.search.FullTextSession;
+import org.hibernate.search.Search;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs search index updates that hibernate search does not make by itself, e.g. for rows changed by
+ * a bulk update or for entities whose index holds the names of other entities. <br>
+ * <br>
+ * The updates run once the current transaction is committed, one after the other in a background
+ * thread, each in a session and transaction of its own. Changes that are rolled back are therefore
+ * never indexed and the transaction that made the changes does not wait for the index. Documents
+ * written before the end of a transaction can be restored if it is rolled back.
+ *
+ * @since 2.7.0
+ */
+public final class SearchIndexUpdater {
+
+	private static final Logger log = LoggerFactory.getLogger(SearchIndexUpdater.class);
+
+	private static final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "OpenMRS search index updater");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private SearchIndexUpdater() {
+	}
+
+	/**
+	 * Runs the given update after the current transaction is committed, it is discarded if the
+	 * transaction is rolled back. Outside of a transaction it is run right away.
+	 *
+	 * @param sessionFactory the session factory to open the session of the update with
+	 * @param update the update, given a full text session with a transaction begun
+	 */
+	public static void updateAfterCommit(SessionFactory sessionFactory, Consumer<FullTextSession> update) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+				@Override
+				public void afterCommit() {
+					executor.execute(() -> update(sessionFactory, update));
+				}
+			});
+		} else {
+			executor.execute(() -> update(sessionFactory, update));
+		}
+	}
+
+	/**
+	 * Runs the given update right after the current transaction is rolled back, e.g. to restore the
+	 * documents of entities that were written to the index before the transaction ended. Nothing is
+	 * done if the transaction is committed or if there is no transaction.
+	 *
+	 * @param sessionFactory the session factory to open the session of the update with
+	 * @param update the update, given a full text session with a transaction begun
+	 */
+	public static void updateAfterRollback(SessionFactory sessionFactory, Consumer<FullTextSession> update) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+				@Override
+				public void afterCompletion(int status) {
+					if (status != STATUS_COMMITTED) {
+						update(sessionFactory, update);
+					}
+				}
+			});
+		}
+	}
+
+	/**
+	 * Waits for the updates queued so far to be done
+	 *
+	 * @throws InterruptedException if the current thread is interrupted while waiting
+	 */
+	public static void awaitUpdates() throws InterruptedException {
+		try {
+			executor.submit(() -> {
+			}).get();
+		}
+		catch (ExecutionException e) {
+			// the updates log their own failures
+		}
+	}
+
+	private static void update(SessionFactory sessionFactory, Consumer<FullTextSession> update) {
+		try (FullTextSession session = Search.getFullTextSession(sessionFactory.openSession())) {
+			session.setCacheMode(CacheMode.IGNORE);
+			Transaction transaction = session.beginTransaction();
+			try {
+				update.accept(session);
+				transaction.commit();
+			}
+			catch (RuntimeException e) {
+				transaction.rollback();
+				throw e;
+			}
+		}
+		catch (RuntimeException e) {
+			log.error("Failed to update the search index", e);
+		}
+	}
+}
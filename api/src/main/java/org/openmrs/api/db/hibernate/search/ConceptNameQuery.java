@@ -0,0 +1,252 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.openmrs.api.db.DAOException;
+
+/**
+ * Builds the queries matching concept names to a search phrase. The queries are built from terms,
+ * the way the query parser builds them from the query strings concept searches used to be written
+ * as, so that they score the same without the phrase being escaped, concatenated and parsed again
+ * on every search. A query matches:
+ * <ul>
+ * <li>the code of a reference term the concept is mapped to, being each word of the phrase</li>
+ * <li>or the name, preferred names ranking higher: the whole phrase, or each keyword of the phrase
+ * exactly, as the start of a word or approximately</li>
+ * </ul>
+ * in one of the given locales, and only unvoided names.
+ *
+ * @since 2.7.0
+ */
+public final class ConceptNameQuery {
+
+	public static final String CODE_FIELD = "concept.conceptMappings.conceptReferenceTerm.code";
+
+	private static final float FUZZY_SIMILARITY = 0.8f;
+
+	private ConceptNameQuery() {
+	}
+
+	/**
+	 * Splits a search phrase into the keywords to look up
+	 *
+	 * @param phrase the search phrase
+	 * @param stopWords the upper case stop words of the searched locales
+	 * @return the words of the phrase which are not stop words
+	 */
+	public static List<String> getKeywords(String phrase, Collection<String> stopWords) {
+		List<String> keywords = new ArrayList<>();
+		for (String word : phrase.trim().split("\\s+")) {
+			if (!word.isEmpty() && !stopWords.contains(word.toUpperCase())) {
+				keywords.add(word);
+			}
+		}
+		return keywords;
+	}
+
+	/**
+	 * Builds the query matching concept names to a search phrase
+	 *
+	 * @param analyzer the analyzer of concept names, it must analyze each field the way it is indexed
+	 * @param phrase the search phrase
+	 * @param searchKeywords whether to match the keywords of the phrase, or only the whole phrase
+	 * @param locales the locales to search in
+	 * @param exactLocale whether to only search in the given locales, or in any locale of their
+	 *            languages ranking the given ones higher
+	 * @param stopWords the upper case stop words of the locales
+	 * @return the query
+	 */
+	public static Query build(Analyzer analyzer, String phrase, boolean searchKeywords, Collection<Locale> locales,
+	        boolean exactLocale, Collection<String> stopWords) {
+		Query nameQuery = newNameQuery(analyzer, "name", phrase, getKeywords(phrase, stopWords), searchKeywords);
+
+		List<Query> codeQueries = new ArrayList<>();
+		for (String word : phrase.trim().split("\\s+")) {
+			codeQueries.add(newTermQuery(analyzer, CODE_FIELD, word));
+		}
+
+		List<Query> preferredQueries = new ArrayList<>();
+		preferredQueries.add(nameQuery);
+		preferredQueries.add(new TermQuery(new Term("localePreferred", "true")));
+
+		List<Query> matchQueries = new ArrayList<>();
+		matchQueries.add(boost(all(codeQueries), 0.4f));
+		matchQueries.add(boost(all(preferredQueries), 0.4f));
+		matchQueries.add(boost(nameQuery, 0.2f));
+
+		List<Query> localeQueries = new ArrayList<>();
+		for (Locale locale : locales) {
+			if (exactLocale) {
+				localeQueries.add(new TermQuery(new Term("locale", locale.toString())));
+			} else {
+				localeQueries.add(new PrefixQuery(new Term("locale", locale.getLanguage().toLowerCase(Locale
+				        .getDefault()))));
+				if (StringUtils.isNotBlank(locale.getCountry())) {
+					localeQueries.add(boost(new TermQuery(new Term("locale", locale.toString())), 2f));
+				}
+			}
+		}
+
+		List<Query> queries = new ArrayList<>();
+		queries.add(any(matchQueries));
+		queries.add(any(localeQueries));
+		queries.add(new TermQuery(new Term("voided", "false")));
+		return all(queries);
+	}
+
+	/**
+	 * Builds the query matching a name field to a search phrase
+	 *
+	 * @param analyzer the analyzer of the field
+	 * @param field the name field
+	 * @param phrase the search phrase
+	 * @param keywords the keywords of the phrase
+	 * @param searchKeywords whether to match the keywords, or only the whole phrase
+	 * @return the query, null if the phrase has nothing to match
+	 */
+	public static Query newNameQuery(Analyzer analyzer, String field, String phrase, List<String> keywords,
+	        boolean searchKeywords) {
+		Query phraseQuery = newPhraseQuery(analyzer, field, phrase);
+		if (!searchKeywords) {
+			return phraseQuery;
+		}
+
+		List<Query> keywordQueries = new ArrayList<>();
+		for (String keyword : keywords) {
+			String lowerCaseKeyword = keyword.toLowerCase(Locale.getDefault());
+			List<Query> matches = new ArrayList<>();
+			matches.add(boost(newTermQuery(analyzer, field, keyword), 0.6f));
+			matches.add(boost(new PrefixQuery(new Term(field, lowerCaseKeyword)), 0.3f));
+			matches.add(boost(new FuzzyQuery(new Term(field, lowerCaseKeyword), FuzzyQuery.floatToEdits(
+			    FUZZY_SIMILARITY, lowerCaseKeyword.codePointCount(0, lowerCaseKeyword.length())), 0), 0.1f));
+			keywordQueries.add(any(matches));
+		}
+
+		List<Query> queries = new ArrayList<>();
+		queries.add(boost(phraseQuery, 0.7f));
+		if (!keywords.isEmpty()) {
+			queries.add(boost(all(keywordQueries), 0.3f));
+		}
+		return any(queries);
+	}
+
+	/**
+	 * Matches the analyzed text as a phrase
+	 */
+	private static Query newPhraseQuery(Analyzer analyzer, String field, String text) {
+		List<String> terms = new ArrayList<>();
+		List<Integer> positions = new ArrayList<>();
+		analyze(analyzer, field, text, terms, positions);
+		if (terms.size() == 1) {
+			return new TermQuery(new Term(field, terms.get(0)));
+		}
+		if (terms.isEmpty()) {
+			return null;
+		}
+		PhraseQuery.Builder query = new PhraseQuery.Builder();
+		for (int i = 0; i < terms.size(); i++) {
+			query.add(new Term(field, terms.get(i)), positions.get(i));
+		}
+		return query.build();
+	}
+
+	/**
+	 * Matches all the terms of the analyzed text
+	 */
+	private static Query newTermQuery(Analyzer analyzer, String field, String text) {
+		List<String> terms = new ArrayList<>();
+		analyze(analyzer, field, text, terms, new ArrayList<>());
+		if (terms.size() == 1) {
+			return new TermQuery(new Term(field, terms.get(0)));
+		}
+		List<Query> queries = new ArrayList<>();
+		for (String term : terms) {
+			queries.add(new TermQuery(new Term(field, term)));
+		}
+		return all(queries);
+	}
+
+	private static void analyze(Analyzer analyzer, String field, String text, List<String> terms,
+	        List<Integer> positions) {
+		try (TokenStream stream = analyzer.tokenStream(field, text)) {
+			CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+			PositionIncrementAttribute positionIncrement = stream.addAttribute(PositionIncrementAttribute.class);
+			stream.reset();
+			int position = -1;
+			while (stream.incrementToken()) {
+				position += positionIncrement.getPositionIncrement();
+				terms.add(term.toString());
+				positions.add(position);
+			}
+			stream.end();
+		}
+		catch (IOException e) {
+			throw new DAOException("Unable to analyze " + text, e);
+		}
+	}
+
+	private static Query boost(Query query, float boost) {
+		return query == null ? null : new BoostQuery(query, boost);
+	}
+
+	/**
+	 * Matches any of the queries, like a parenthesized group of clauses joined by OR
+	 */
+	private static Query any(List<Query> queries) {
+		return group(queries, Occur.SHOULD);
+	}
+
+	/**
+	 * Matches all of the queries, like a parenthesized group of clauses with the AND operator
+	 */
+	private static Query all(List<Query> queries) {
+		return group(queries, Occur.MUST);
+	}
+
+	/**
+	 * Skips the missing queries, a group left with a single query is that query
+	 */
+	private static Query group(List<Query> queries, Occur occur) {
+		BooleanQuery.Builder group = new BooleanQuery.Builder();
+		int count = 0;
+		Query single = null;
+		for (Query query : queries) {
+			if (query != null) {
+				group.add(query, occur);
+				single = query;
+				count++;
+			}
+		}
+		if (count == 0) {
+			return null;
+		}
+		return count == 1 ? single : group.build();
+	}
+}
@@ -0,0 +1,121 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.openmrs.api.db.DAOException;
+
+/**
+ * Builds the queries looking concept names up by what has been typed so far. Concept names index
+ * the edge n-grams of their words in {@link #NAME_FIELD}, see
+ * {@link LuceneAnalyzers#TYPEAHEAD_ANALYZER}, so each typed word is a single term no matter how
+ * short it is, and the query is built from terms rather than parsed.
+ *
+ * @since 2.7.0
+ */
+public final class ConceptTypeaheadQuery {
+
+	/**
+	 * The field of concept names holding the edge n-grams of their words, it stores the name
+	 */
+	public static final String NAME_FIELD = "nameTypeahead";
+
+	/**
+	 * The length of the longest indexed n-gram, longer words are looked up by their beginning
+	 */
+	public static final int MAX_PREFIX_LENGTH = 20;
+
+	private static final float EXACT_LOCALE_BOOST = 2f;
+
+	private static final float LOCALE_PREFERRED_BOOST = 0.5f;
+
+	private ConceptTypeaheadQuery() {
+	}
+
+	/**
+	 * Splits the typed text into the words to look up
+	 *
+	 * @param analyzer the analyzer to split and normalize the text with, it must not produce n-grams
+	 * @param text the typed text
+	 * @return the normalized words, cut to {@link #MAX_PREFIX_LENGTH}
+	 */
+	public static List<String> getPrefixes(Analyzer analyzer, String text) {
+		List<String> prefixes = new ArrayList<>();
+		try (TokenStream stream = analyzer.tokenStream(NAME_FIELD, text)) {
+			CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+			stream.reset();
+			while (stream.incrementToken()) {
+				prefixes.add(StringUtils.left(term.toString(), MAX_PREFIX_LENGTH));
+			}
+			stream.end();
+		}
+		catch (IOException e) {
+			throw new DAOException("Unable to analyze " + text, e);
+		}
+		return prefixes;
+	}
+
+	/**
+	 * Builds a query matching the unvoided concept names having a word starting with each of the
+	 * typed words, in any of the given locales. Names in a locale with the same country are boosted
+	 * over names in a locale with the same language only, and preferred names are boosted.
+	 *
+	 * @param analyzer the analyzer to split and normalize the text with, it must not produce n-grams
+	 * @param text the typed text
+	 * @param locales the locales to search in
+	 * @param includeRetired whether to include the names of retired concepts
+	 * @return the query, null if there are no words to look up
+	 */
+	public static Query build(Analyzer analyzer, String text, Collection<Locale> locales, boolean includeRetired) {
+		List<String> prefixes = getPrefixes(analyzer, text);
+		if (prefixes.isEmpty()) {
+			return null;
+		}
+
+		BooleanQuery.Builder query = new BooleanQuery.Builder();
+		for (String prefix : prefixes) {
+			query.add(new TermQuery(new Term(NAME_FIELD, prefix)), Occur.MUST);
+		}
+
+		BooleanQuery.Builder localeQuery = new BooleanQuery.Builder();
+		for (Locale locale : locales) {
+			localeQuery.add(new PrefixQuery(new Term("locale", locale.getLanguage())), Occur.SHOULD);
+			if (StringUtils.isNotBlank(locale.getCountry())) {
+				localeQuery.add(new BoostQuery(new TermQuery(new Term("locale", locale.toString())), EXACT_LOCALE_BOOST),
+				    Occur.SHOULD);
+			}
+		}
+		query.add(localeQuery.build(), Occur.MUST);
+		query.add(new BoostQuery(new TermQuery(new Term("localePreferred", "true")), LOCALE_PREFERRED_BOOST),
+		    Occur.SHOULD);
+
+		query.add(new TermQuery(new Term("voided", "false")), Occur.FILTER);
+		if (!includeRetired) {
+			query.add(new TermQuery(new Term("concept.retired", "false")), Occur.FILTER);
+		}
+		return query.build();
+	}
+}
@@ -30,6 +30,7 @@ import org.hibernate.search.cfg.SearchMapping;
  * 	startAnalyzer, which allows searching for tokens that match at the beginning
  * 	exactAnalyzer, which allows searching for tokens that are identical
  * 	anywhereAnalyzer, which allows searching for text within tokens
+ * 	typeaheadAnalyzer, which allows looking up tokens by a prefix of any length with a single term
  *
  * @since 2.4.0
  */
@@ -60,6 +61,13 @@ public class LuceneAnalyzerFactory {
 			.filter(NGramFilterFactory.class)
 			.param("minGramSize", "2")
 			.param("maxGramSize", "20");
+		mapping.analyzerDef(LuceneAnalyzers.TYPEAHEAD_ANALYZER, WhitespaceTokenizerFactory.class)
+			.filter(ClassicFilterFactory.class)
+			.filter(LowerCaseFilterFactory.class)
+			.filter(ASCIIFoldingFilterFactory.class)
+			.filter(EdgeNGramFilterFactory.class)
+			.param("minGramSize", "1")
+			.param("maxGramSize", String.valueOf(ConceptTypeaheadQuery.MAX_PREFIX_LENGTH));
 		mapping.analyzerDef(LuceneAnalyzers.SOUNDEX_ANALYZER, StandardTokenizerFactory.class)
 			.filter(ClassicFilterFactory.class) 
 			.filter(LowerCaseFilterFactory.class)
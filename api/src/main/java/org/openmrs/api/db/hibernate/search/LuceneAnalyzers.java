@@ -28,4 +28,9 @@ public class LuceneAnalyzers {
 	public static final String PHRASE_ANALYZER = "phraseAnalyzer";
 	
 	public static final String SOUNDEX_ANALYZER = "soundexAnalyzer";
+	
+	/**
+	 * @since 2.7.0
+	 */
+	public static final String TYPEAHEAD_ANALYZER = "typeaheadAnalyzer";
 }
@@ -12,11 +12,14 @@ package org.openmrs.api.db.hibernate.search;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queries.TermsFilter;
 import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
@@ -27,11 +30,15 @@ import org.apache.lucene.search.Query;
 import org.hibernate.Session;
 import org.hibernate.search.FullTextQuery;
 import org.hibernate.search.FullTextSession;
+import org.hibernate.search.SearchFactory;
 import org.hibernate.search.query.dsl.QueryBuilder;
 import org.openmrs.api.db.FullTextSessionFactory;
+import org.openmrs.Encounter;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PersonAttribute;
 import org.openmrs.PersonName;
+import org.openmrs.Provider;
+import org.openmrs.User;
 import org.openmrs.api.context.Context;
 import org.openmrs.collection.ListPart;
 
@@ -101,6 +108,53 @@ public abstract class LuceneQuery<T> extends SearchQuery<T> {
 		};
 	}
 	
+	/**
+	 * Creates a Lucene query using the query parser, with other analyzers than the analyzer of the
+	 * type for some fields, e.g. fields whose analyzer is chosen by an analyzer discriminator.
+	 * 
+	 * @param type filters on type
+	 * @param session
+	 * @param query
+	 * @param analyzersByField the names of the analyzer definitions by field
+	 * @return the Lucene query
+	 * @since 2.7.0
+	 */
+	public static <T> LuceneQuery<T> newQuery(final Class<T> type, final Session session, final String query,
+	        final Map<String, String> analyzersByField) {
+		return new LuceneQuery<T>(type, session) {
+			
+			@Override
+			protected Query prepareQuery() throws ParseException {
+				if (query.isEmpty()) {
+					return new MatchAllDocsQuery();
+				}
+				return newQueryParser(analyzersByField).parse(query);
+			}
+			
+		};
+	}
+	
+	/**
+	 * Creates a Lucene query from a query built from terms, which is not parsed. The query is not
+	 * modified so that it may be shared between searches.
+	 *
+	 * @param type filters on type
+	 * @param session
+	 * @param query the query, null to match all
+	 * @return the Lucene query
+	 * @since 2.7.0
+	 */
+	public static <T> LuceneQuery<T> newQuery(final Class<T> type, final Session session, final Query query) {
+		return new LuceneQuery<T>(type, session) {
+
+			@Override
+			protected Query prepareQuery() {
+				return query == null ? new MatchAllDocsQuery() : query;
+			}
+
+		};
+	}
+
 	/**
 	 * Escape any characters that can be interpreted by the query parser.
 	 * 
@@ -244,6 +298,26 @@ public abstract class LuceneQuery<T> extends SearchQuery<T> {
 		setDefaultOperator(queryParser);
 		return queryParser;
 	}
+	
+	/**
+	 * You can use it in {@link #prepareQuery()}.
+	 * 
+	 * @param analyzersByField the names of the analyzer definitions of the fields that are not
+	 *            analyzed with the analyzer of the type
+	 * @return the query parser
+	 * @since 2.7.0
+	 */
+	protected QueryParser newQueryParser(Map<String, String> analyzersByField) {
+		SearchFactory searchFactory = getFullTextSession().getSearchFactory();
+		Map<String, Analyzer> analyzers = new HashMap<>();
+		for (Map.Entry<String, String> analyzer : analyzersByField.entrySet()) {
+			analyzers.put(analyzer.getKey(), searchFactory.getAnalyzer(analyzer.getValue()));
+		}
+		QueryParser queryParser = new QueryParser(null, new PerFieldAnalyzerWrapper(searchFactory.getAnalyzer(getType()),
+		        analyzers));
+		setDefaultOperator(queryParser);
+		return queryParser;
+	}
 
 
 	protected MultiFieldQueryParser newMultipleFieldQueryParser(Collection<String> fields, MatchType matchType) {
@@ -252,7 +326,7 @@ public abstract class LuceneQuery<T> extends SearchQuery<T> {
 		if(matchType == MatchType.SOUNDEX) {
 			analyzer = getFullTextSession().getSearchFactory().getAnalyzer(getType());
 		}
-		else if (getType().isAssignableFrom(PatientIdentifier.class) || getType().isAssignableFrom(PersonName.class) || getType().isAssignableFrom(PersonAttribute.class)) {
+		else if (getType().isAssignableFrom(PatientIdentifier.class) || getType().isAssignableFrom(PersonName.class) || getType().isAssignableFrom(PersonAttribute.class) || getType().isAssignableFrom(Provider.class) || getType().isAssignableFrom(User.class) || getType().isAssignableFrom(Encounter.class)) {
 			analyzer = getFullTextSession().getSearchFactory().getAnalyzer(LuceneAnalyzers.EXACT_ANALYZER);
 		} else {
 			analyzer = getFullTextSession().getSearchFactory().getAnalyzer(getType());
@@ -0,0 +1,103 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search.bridge;
+
+import java.util.Locale;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.document.Document;
+import org.hibernate.search.analyzer.Discriminator;
+import org.hibernate.search.bridge.FieldBridge;
+import org.hibernate.search.bridge.LuceneOptions;
+import org.openmrs.Concept;
+import org.openmrs.ConceptName;
+import org.openmrs.Drug;
+import org.openmrs.api.db.hibernate.HibernateUtil;
+
+/**
+ * Indexes the non voided names of the concept of a drug with the drug, so that drugs can be found
+ * by the names of their concept with a single query. Each name is added to a field for its locale
+ * and to a field for its language, see {@link #getLocaleField(String, Locale)} and
+ * {@link #getLanguageField(String, Locale)}. The fields are analyzed like the names of
+ * {@link ConceptName}, see {@link ConceptNameDiscriminator}. <br>
+ * <br>
+ * Hibernate Search does not know that the drug index depends on concept names, the drugs of a
+ * concept are reindexed when the concept is saved.
+ *
+ * @since 2.7.0
+ */
+public class DrugConceptNameFieldBridge implements FieldBridge {
+
+	/**
+	 * The name of the class bridge on {@link Drug}, the prefix of the fields of the concept names
+	 */
+	public static final String FIELD = "conceptNames";
+
+	/**
+	 * The analyzer of the names of concepts, defined on {@link ConceptName}
+	 */
+	public static final String ANALYZER = "ConceptNameAnalyzer";
+
+	/**
+	 * @see org.hibernate.search.bridge.FieldBridge#set(String, Object, Document, LuceneOptions)
+	 */
+	@Override
+	public void set(String name, Object value, Document document, LuceneOptions luceneOptions) {
+		Drug drug = (Drug) HibernateUtil.getRealObjectFromProxy(value);
+		Concept concept = drug.getConcept();
+		if (concept == null) {
+			return;
+		}
+		for (ConceptName conceptName : concept.getNames()) {
+			if (StringUtils.isBlank(conceptName.getName()) || conceptName.getLocale() == null) {
+				continue;
+			}
+			luceneOptions.addFieldToDocument(getLocaleField(name, conceptName.getLocale()), conceptName.getName(),
+			    document);
+			luceneOptions.addFieldToDocument(getLanguageField(name, conceptName.getLocale()), conceptName.getName(),
+			    document);
+		}
+	}
+
+	/**
+	 * @param name the name of the bridge
+	 * @param locale the locale
+	 * @return the field holding the concept names in exactly the given locale
+	 */
+	public static String getLocaleField(String name, Locale locale) {
+		return name + "." + locale;
+	}
+
+	/**
+	 * @param name the name of the bridge
+	 * @param locale the locale
+	 * @return the field holding the concept names in any locale of the language of the given locale
+	 */
+	public static String getLanguageField(String name, Locale locale) {
+		return name + ".language." + locale.getLanguage();
+	}
+
+	/**
+	 * Selects the {@link #ANALYZER} for the fields of the concept names of a drug, the other fields of
+	 * the drug keep their analyzer. The field names depend on the locales of the names, so the
+	 * analyzer cannot be set on the class bridge.
+	 */
+	public static class ConceptNameDiscriminator implements Discriminator {
+
+		/**
+		 * @see org.hibernate.search.analyzer.Discriminator#getAnalyzerDefinitionName(Object, Object,
+		 *      String)
+		 */
+		@Override
+		public String getAnalyzerDefinitionName(Object value, Object entity, String field) {
+			return field.startsWith(FIELD + ".") ? ANALYZER : null;
+		}
+	}
+}
@@ -0,0 +1,59 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search.bridge;
+
+import org.apache.lucene.document.Document;
+import org.hibernate.search.bridge.FieldBridge;
+import org.hibernate.search.bridge.LuceneOptions;
+import org.openmrs.Encounter;
+import org.openmrs.EncounterProvider;
+import org.openmrs.Provider;
+import org.openmrs.api.db.hibernate.HibernateUtil;
+
+/**
+ * Indexes the names of the location, encounter type and form of an encounter together with the
+ * names and identifiers stored on its providers as values of a single field, so that encounters can
+ * be found by their metadata without joining it. The names of the persons of the providers are
+ * indexed by {@link EncounterProviderNameFieldBridge}. <br>
+ * <br>
+ * Hibernate Search does not know that the encounter index depends on the metadata, the encounters
+ * are reindexed by {@link org.openmrs.api.db.hibernate.EncounterSearchIndexInterceptor} when it is
+ * renamed.
+ * 
+ * @since 2.7.0
+ */
+public class EncounterMetadataFieldBridge implements FieldBridge {
+	
+	/**
+	 * @see org.hibernate.search.bridge.FieldBridge#set(String, Object, Document, LuceneOptions)
+	 */
+	@Override
+	public void set(String name, Object value, Document document, LuceneOptions luceneOptions) {
+		Encounter encounter = (Encounter) HibernateUtil.getRealObjectFromProxy(value);
+		if (encounter.getLocation() != null) {
+			ProviderNameFieldBridge.addValue(name, encounter.getLocation().getName(), document, luceneOptions);
+		}
+		if (encounter.getEncounterType() != null) {
+			ProviderNameFieldBridge.addValue(name, encounter.getEncounterType().getName(), document, luceneOptions);
+		}
+		if (encounter.getForm() != null) {
+			ProviderNameFieldBridge.addValue(name, encounter.getForm().getName(), document, luceneOptions);
+		}
+		for (EncounterProvider encounterProvider : encounter.getEncounterProviders()) {
+			if (encounterProvider.getProvider() == null) {
+				continue;
+			}
+			Provider provider = (Provider) HibernateUtil.getRealObjectFromProxy(encounterProvider.getProvider());
+			ProviderNameFieldBridge.addValue(name, ProviderNameFieldBridge.getStoredName(provider), document,
+			    luceneOptions);
+			ProviderNameFieldBridge.addValue(name, provider.getIdentifier(), document, luceneOptions);
+		}
+	}
+}
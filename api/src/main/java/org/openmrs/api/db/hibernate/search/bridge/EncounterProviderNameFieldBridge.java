@@ -0,0 +1,42 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search.bridge;
+
+import org.apache.lucene.document.Document;
+import org.hibernate.search.bridge.FieldBridge;
+import org.hibernate.search.bridge.LuceneOptions;
+import org.openmrs.Encounter;
+import org.openmrs.EncounterProvider;
+import org.openmrs.api.db.hibernate.HibernateUtil;
+
+/**
+ * Indexes the parts of all non voided names of the persons of the providers of an encounter as
+ * values of a single field. They are kept apart from the other metadata of the encounter, see
+ * {@link EncounterMetadataFieldBridge}, because any word of a query may match a name while all
+ * words have to match the metadata.
+ * 
+ * @since 2.7.0
+ */
+public class EncounterProviderNameFieldBridge implements FieldBridge {
+	
+	/**
+	 * @see org.hibernate.search.bridge.FieldBridge#set(String, Object, Document, LuceneOptions)
+	 */
+	@Override
+	public void set(String name, Object value, Document document, LuceneOptions luceneOptions) {
+		Encounter encounter = (Encounter) HibernateUtil.getRealObjectFromProxy(value);
+		for (EncounterProvider encounterProvider : encounter.getEncounterProviders()) {
+			if (encounterProvider.getProvider() != null) {
+				ProviderNameFieldBridge.addPersonNames(name, encounterProvider.getProvider().getPerson(), document,
+				    luceneOptions);
+			}
+		}
+	}
+}
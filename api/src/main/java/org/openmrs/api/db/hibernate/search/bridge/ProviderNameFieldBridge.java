@@ -0,0 +1,76 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search.bridge;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.apache.lucene.document.Document;
+import org.hibernate.search.bridge.FieldBridge;
+import org.hibernate.search.bridge.LuceneOptions;
+import org.openmrs.Person;
+import org.openmrs.PersonName;
+import org.openmrs.Provider;
+import org.openmrs.api.db.hibernate.HibernateUtil;
+
+/**
+ * Indexes the name stored on a provider together with the parts of all non voided names of its
+ * person as values of a single field, so that providers can be found by any of their names without
+ * joining the person names.
+ * 
+ * @since 2.7.0
+ */
+public class ProviderNameFieldBridge implements FieldBridge {
+	
+	/**
+	 * @see org.hibernate.search.bridge.FieldBridge#set(String, Object, Document, LuceneOptions)
+	 */
+	@Override
+	public void set(String name, Object value, Document document, LuceneOptions luceneOptions) {
+		Provider provider = (Provider) HibernateUtil.getRealObjectFromProxy(value);
+		addValue(name, getStoredName(provider), document, luceneOptions);
+		addPersonNames(name, provider.getPerson(), document, luceneOptions);
+	}
+	
+	/**
+	 * Adds the parts of all non voided names of a person as values of a field
+	 */
+	static void addPersonNames(String name, Person person, Document document, LuceneOptions luceneOptions) {
+		if (person == null) {
+			return;
+		}
+		for (PersonName personName : person.getNames()) {
+			if (!personName.getVoided()) {
+				addValue(name, personName.getGivenName(), document, luceneOptions);
+				addValue(name, personName.getMiddleName(), document, luceneOptions);
+				addValue(name, personName.getFamilyName(), document, luceneOptions);
+				addValue(name, personName.getFamilyName2(), document, luceneOptions);
+			}
+		}
+	}
+	
+	/**
+	 * {@link Provider#getName()} returns the name of the person, the name column is read the way
+	 * hibernate maps it
+	 */
+	static String getStoredName(Provider provider) {
+		try {
+			return (String) FieldUtils.readField(provider, "name", true);
+		}
+		catch (IllegalAccessException e) {
+			throw new IllegalStateException("Unable to read the name of " + provider, e);
+		}
+	}
+	
+	static void addValue(String name, String value, Document document, LuceneOptions luceneOptions) {
+		if (StringUtils.isNotBlank(value)) {
+			luceneOptions.addFieldToDocument(name, value, document);
+		}
+	}
+}
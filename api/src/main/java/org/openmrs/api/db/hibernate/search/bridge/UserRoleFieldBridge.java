@@ -0,0 +1,39 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search.bridge;
+
+import org.apache.lucene.document.Document;
+import org.hibernate.search.bridge.FieldBridge;
+import org.hibernate.search.bridge.LuceneOptions;
+import org.openmrs.Role;
+import org.openmrs.User;
+import org.openmrs.api.db.hibernate.HibernateUtil;
+
+/**
+ * Indexes the names of the roles assigned directly to a user, inherited roles are not included.
+ * 
+ * @since 2.7.0
+ */
+public class UserRoleFieldBridge implements FieldBridge {
+	
+	/**
+	 * @see org.hibernate.search.bridge.FieldBridge#set(String, Object, Document, LuceneOptions)
+	 */
+	@Override
+	public void set(String name, Object value, Document document, LuceneOptions luceneOptions) {
+		User user = (User) HibernateUtil.getRealObjectFromProxy(value);
+		if (user.getRoles() == null) {
+			return;
+		}
+		for (Role role : user.getRoles()) {
+			luceneOptions.addFieldToDocument(name, role.getRole(), document);
+		}
+	}
+}
@@ -0,0 +1,42 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.handler;
+
+import java.util.Date;
+
+import org.openmrs.Relationship;
+import org.openmrs.User;
+import org.openmrs.annotation.Handler;
+
+/**
+ * This is called every time a {@link Relationship} object is saved. It sets the effective start and
+ * end dates from the start and end dates, with {@link Relationship#getOpenStartDate()} and
+ * {@link Relationship#getOpenEndDate()} for missing dates.
+ *
+ * @since 2.7.0
+ */
+@Handler(supports = Relationship.class)
+public class RelationshipSaveHandler implements SaveHandler<Relationship> {
+	
+	/**
+	 * @see org.openmrs.api.handler.SaveHandler#handle(org.openmrs.OpenmrsObject, org.openmrs.User,
+	 *      java.util.Date, java.lang.String)
+	 * <strong>Should</strong> set the effective dates from the start and end dates
+	 * <strong>Should</strong> set open effective dates if there are no start and end dates
+	 */
+	@Override
+	public void handle(Relationship relationship, User creator, Date dateCreated, String other) {
+		relationship.setEffectiveStartDate(relationship.getStartDate() != null ? relationship.getStartDate()
+		        : Relationship.getOpenStartDate());
+		relationship.setEffectiveEndDate(relationship.getEndDate() != null ? relationship.getEndDate()
+		        : Relationship.getOpenEndDate());
+	}
+	
+}
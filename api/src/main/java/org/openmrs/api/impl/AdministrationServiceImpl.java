@@ -36,6 +36,8 @@ import org.openmrs.ImplementationId;
 import org.openmrs.OpenmrsObject;
 import org.openmrs.Privilege;
 import org.openmrs.User;
+import org.openmrs.aop.ServiceMethodMetrics;
+import org.openmrs.aop.ServiceMetricsAdvice;
 import org.openmrs.api.APIException;
 import org.openmrs.api.AdministrationService;
 import org.openmrs.api.EventListeners;
@@ -79,6 +81,8 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 	
 	private HttpClient implementationIdHttpClient;
 	
+	private ServiceMetricsAdvice serviceMetricsAdvice;
+	
 	/**
 	 * Default empty constructor
 	 */
@@ -96,6 +100,16 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 	public void setEventListeners(EventListeners eventListeners) {
 		this.eventListeners = eventListeners;
 	}
+	
+	/**
+	 * Used by Spring to set the advice recording the service metrics
+	 * 
+	 * @param serviceMetricsAdvice the advice placed on all services
+	 * @since 2.7.0
+	 */
+	public void setServiceMetricsAdvice(ServiceMetricsAdvice serviceMetricsAdvice) {
+		this.serviceMetricsAdvice = serviceMetricsAdvice;
+	}
 		
 	/**
 	 * Static-ish variable used to cache the system variables. This is not static so that every time
@@ -942,4 +956,27 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 		dao.updatePostgresSequence();
 	}
 	
+	/**
+	 * @see org.openmrs.api.AdministrationService#getServiceMetrics()
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<ServiceMethodMetrics> getServiceMetrics() {
+		if (serviceMetricsAdvice == null) {
+			return new ArrayList<>();
+		}
+		return serviceMetricsAdvice.getMetrics();
+	}
+	
+	/**
+	 * @see org.openmrs.api.AdministrationService#resetServiceMetrics()
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public void resetServiceMetrics() {
+		if (serviceMetricsAdvice != null) {
+			serviceMetricsAdvice.reset();
+		}
+	}
+	
 }
@@ -11,8 +11,10 @@ package org.openmrs.api.impl;
 
 import static org.openmrs.util.DateUtil.truncateToSeconds;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.openmrs.Cohort;
@@ -149,6 +151,15 @@ public class CohortServiceImpl extends BaseOpenmrsService implements CohortServi
 		return dao.getCohortsContainingPatientId(patientId, false, new Date());
 	}
 	
+	/**
+	 * @see org.openmrs.api.CohortService#getCohortsContainingPatientIds(Collection, Date)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public Map<Integer, List<Cohort>> getCohortsContainingPatientIds(Collection<Integer> patientIds, Date asOfDate) {
+		return dao.getCohortsContainingPatientIds(patientIds, false, asOfDate == null ? new Date() : asOfDate);
+	}
+	
 	/**
 	 * @see org.openmrs.api.CohortService#getCohorts(java.lang.String)
 	 */
@@ -12,23 +12,28 @@ package org.openmrs.api.impl;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.apache.commons.beanutils.BeanUtils;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.hibernate.Hibernate;
+import org.openmrs.Auditable;
 import org.openmrs.Concept;
 import org.openmrs.ConceptAnswer;
 import org.openmrs.ConceptAttribute;
@@ -40,6 +45,7 @@ import org.openmrs.ConceptDescription;
 import org.openmrs.ConceptMap;
 import org.openmrs.ConceptMapType;
 import org.openmrs.ConceptName;
+import org.openmrs.ConceptNameKey;
 import org.openmrs.ConceptNameTag;
 import org.openmrs.ConceptNumeric;
 import org.openmrs.ConceptProposal;
@@ -52,25 +58,37 @@ import org.openmrs.ConceptStopWord;
 import org.openmrs.Drug;
 import org.openmrs.DrugIngredient;
 import org.openmrs.Obs;
+import org.openmrs.User;
+import org.openmrs.aop.RequiredDataAdvice;
 import org.openmrs.api.APIException;
 import org.openmrs.api.AdministrationService;
+import org.openmrs.api.ConceptImportProgress;
 import org.openmrs.api.ConceptInUseException;
 import org.openmrs.api.ConceptNameInUseException;
 import org.openmrs.api.ConceptService;
 import org.openmrs.api.ConceptStopWordException;
+import org.openmrs.api.ConceptTypeahead;
+import org.openmrs.api.DuplicateConceptNameException;
 import org.openmrs.api.ConceptsLockedException;
+import org.openmrs.api.ValidationException;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.ConceptDAO;
 import org.openmrs.api.db.DAOException;
+import org.openmrs.api.handler.SaveHandler;
 import org.openmrs.customdatatype.CustomDatatypeUtil;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
+import org.openmrs.validator.ConceptValidator;
 import org.openmrs.validator.ValidateUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.BindException;
+import org.springframework.validation.Errors;
+import org.springframework.validation.ObjectError;
 
 /**
  * Default Implementation of ConceptService service layer classes
@@ -184,6 +202,214 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 
 		return dao.saveConcept(concept);
 	}
+	
+	/**
+	 * @see org.openmrs.api.ConceptService#importConcepts(Iterator, int, ConceptImportProgress)
+	 */
+	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public ConceptImportProgress importConcepts(Iterator<Concept> concepts, int batchSize, ConceptImportProgress progress)
+	        throws APIException {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("batchSize must be greater than 0");
+		}
+		checkIfLocked();
+		
+		for (int skipped = 0; skipped < progress.getCheckpoint() && concepts.hasNext(); skipped++) {
+			concepts.next();
+		}
+		
+		List<Concept> batch = new ArrayList<>(batchSize);
+		while (concepts.hasNext()) {
+			batch.add(concepts.next());
+			if (batch.size() == batchSize || !concepts.hasNext()) {
+				// through the proxy so that each batch gets a transaction of its own, if there is none yet
+				int imported = Context.getConceptService().importConceptBatch(batch);
+				progress.addBatch(batch.size(), imported);
+				log.debug("Imported concepts, {}", progress);
+				batch = new ArrayList<>(batchSize);
+			}
+		}
+		
+		if (progress.getImported() > 0) {
+			Context.getConceptService().updateConceptIndexes();
+		}
+		return progress;
+	}
+	
+	/**
+	 * @see org.openmrs.api.ConceptService#importConceptBatch(List)
+	 */
+	@Override
+	@CacheEvict(value = CONCEPT_IDS_BY_MAPPING_CACHE_NAME, allEntries = true)
+	public int importConceptBatch(List<Concept> concepts) throws APIException {
+		checkIfLocked();
+		
+		Map<String, Integer> conceptIds = dao.getConceptIdsByUuid(concepts.stream().map(Concept::getUuid).collect(
+		    Collectors.toList()));
+		List<Concept> newConcepts = new ArrayList<>();
+		Set<String> newUuids = new HashSet<>();
+		for (Concept concept : concepts) {
+			if (!conceptIds.containsKey(concept.getUuid()) && newUuids.add(concept.getUuid())) {
+				newConcepts.add(concept);
+			}
+		}
+		if (newConcepts.isEmpty()) {
+			return 0;
+		}
+		
+		User creator = Context.getAuthenticatedUser();
+		Date dateCreated = new Date();
+		for (Concept concept : newConcepts) {
+			ensureConceptMapTypeIsSet(concept);
+			RequiredDataAdvice.recursivelyHandle(SaveHandler.class, concept, null);
+			setCreatorAndDateCreatedIfNull(concept, creator, dateCreated);
+			ensurePreferredNameForLocale(concept);
+			if (!concept.getSet() && !concept.getSetMembers().isEmpty()) {
+				concept.setSet(true);
+			}
+		}
+		validateConceptBatch(newConcepts);
+		conceptIds.putAll(getReferencedConceptIds(newConcepts, newUuids, conceptIds));
+		
+		// new reference terms are inserted by the session, before the concepts that map to them
+		for (Concept concept : newConcepts) {
+			for (ConceptMap conceptMap : concept.getConceptMappings()) {
+				if (conceptMap.getConceptReferenceTerm().getId() == null) {
+					dao.saveConceptReferenceTerm(conceptMap.getConceptReferenceTerm());
+				}
+			}
+		}
+		dao.insertConcepts(newConcepts, conceptIds);
+		return newConcepts.size();
+	}
+	
+	/**
+	 * Sets the audit info the {@link org.openmrs.api.db.hibernate.AuditableInterceptor} sets on
+	 * concepts saved through the hibernate session
+	 */
+	private void setCreatorAndDateCreatedIfNull(Concept concept, User creator, Date dateCreated) {
+		List<Auditable> auditables = new ArrayList<>();
+		auditables.add(concept);
+		auditables.addAll(concept.getNames());
+		auditables.addAll(concept.getDescriptions());
+		auditables.addAll(concept.getAnswers(true));
+		auditables.addAll(concept.getConceptSets());
+		auditables.addAll(concept.getConceptMappings());
+		for (Auditable auditable : auditables) {
+			if (auditable.getCreator() == null) {
+				auditable.setCreator(creator);
+			}
+			if (auditable.getDateCreated() == null) {
+				auditable.setDateCreated(dateCreated);
+			}
+		}
+	}
+	
+	/**
+	 * Validates a batch of new concepts, looking the default names of all of them up in one go
+	 */
+	private void validateConceptBatch(List<Concept> concepts) {
+		Map<ConceptNameKey, Concept> batchKeys = new IdentityHashMap<>();
+		for (Concept concept : concepts) {
+			if (!concept.getRetired()) {
+				for (ConceptName name : ConceptNameKey.getDefaultNames(concept)) {
+					batchKeys.put(new ConceptNameKey(null, name.getLocale(), name.getName()), concept);
+				}
+			}
+		}
+		List<ConceptNameKey> keys = new ArrayList<>(batchKeys.keySet());
+		keys.addAll(dao.getConceptNameKeys(keys.stream().map(ConceptNameKey::getNameKey).collect(Collectors.toList())));
+		ConceptValidator validator = newBatchConceptValidator(keys, batchKeys);
+		
+		List<String> failures = new ArrayList<>();
+		for (Concept concept : concepts) {
+			Errors errors = new BindException(concept, "");
+			try {
+				validator.validate(concept, errors);
+			}
+			catch (DuplicateConceptNameException e) {
+				failures.add("'" + concept + "' failed to validate with reason: " + e.getMessage());
+				continue;
+			}
+			Set<String> reasons = new LinkedHashSet<>();
+			for (ObjectError error : errors.getAllErrors()) {
+				reasons.add(Context.getMessageSourceService().getMessage(error.getCode(), error.getArguments(),
+				    error.getDefaultMessage(), Context.getLocale()));
+			}
+			if (CollectionUtils.isNotEmpty(concept.getAttributes())) {
+				reasons.add(Context.getMessageSourceService().getMessage("Concept.import.attributesNotSupported"));
+			}
+			if (concept.getNames().stream().anyMatch(name -> CollectionUtils.isNotEmpty(name.getTags()))) {
+				reasons.add(Context.getMessageSourceService().getMessage("Concept.import.nameTagsNotSupported"));
+			}
+			if (!reasons.isEmpty()) {
+				failures.add("'" + concept + "' failed to validate with reason: " + StringUtils.join(reasons, ", "));
+			}
+		}
+		if (!failures.isEmpty()) {
+			throw new ValidationException(StringUtils.join(failures, "; "));
+		}
+	}
+	
+	/**
+	 * Gets the ids of the answers and set members of new concepts that are neither saved nor among
+	 * the new concepts
+	 */
+	private Map<String, Integer> getReferencedConceptIds(List<Concept> concepts, Set<String> newUuids,
+	        Map<String, Integer> knownIds) {
+		Set<String> uuids = new LinkedHashSet<>();
+		for (Concept concept : concepts) {
+			List<Concept> referenced = new ArrayList<>();
+			concept.getAnswers(true).forEach(answer -> referenced.add(answer.getAnswerConcept()));
+			concept.getConceptSets().forEach(member -> referenced.add(member.getConcept()));
+			for (Concept reference : referenced) {
+				if (reference.getConceptId() == null && !newUuids.contains(reference.getUuid())
+				        && !knownIds.containsKey(reference.getUuid())) {
+					uuids.add(reference.getUuid());
+				}
+			}
+		}
+		
+		Map<String, Integer> conceptIds = dao.getConceptIdsByUuid(uuids);
+		uuids.removeAll(conceptIds.keySet());
+		if (!uuids.isEmpty()) {
+			throw new APIException("Concept.import.unknownConcepts", new Object[] { StringUtils.join(uuids, ", ") });
+		}
+		return conceptIds;
+	}
+	
+	/**
+	 * Creates a validator that checks concept names against the name keys of a whole batch instead of
+	 * looking each name up, it is anonymous so that it is not picked up as a handler
+	 */
+	private ConceptValidator newBatchConceptValidator(List<ConceptNameKey> keys, Map<ConceptNameKey, Concept> batchKeys) {
+		Map<String, List<ConceptNameKey>> keysByNameKey = new HashMap<>();
+		for (ConceptNameKey key : keys) {
+			keysByNameKey.computeIfAbsent(key.getNameKey(), nameKey -> new ArrayList<>()).add(key);
+		}
+		boolean caseSensitive = Context.getAdministrationService().isDatabaseStringComparisonCaseSensitive();
+		
+		return new ConceptValidator() {
+			
+			@Override
+			protected boolean isConceptNameDuplicate(ConceptName name) {
+				Concept concept = name.getConcept();
+				if (name.getVoided() || concept.getRetired() || !name.equals(concept.getName(name.getLocale()))) {
+					return false;
+				}
+				List<String> locales = Arrays.asList(name.getLocale().toString(), name.getLocale().getLanguage());
+				for (ConceptNameKey key : keysByNameKey.getOrDefault(ConceptNameKey.normalize(name.getName()),
+				    Collections.emptyList())) {
+					if (batchKeys.get(key) != concept && locales.contains(key.getLocale())
+					        && (!caseSensitive || key.getName().equals(name.getName()))) {
+						return true;
+					}
+				}
+				return false;
+			}
+		};
+	}
 
 	private void ensureConceptMapTypeIsSet(Concept concept) {
 		ConceptMapType defaultConceptMapType = null;
@@ -1580,6 +1806,22 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 		    tmpExcludeDatatypes, answersToConcept);
 	}
 	
+	/**
+	 * @see ConceptService#getConceptTypeahead(String, List, boolean, int, boolean)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public ConceptTypeahead getConceptTypeahead(String text, List<Locale> locales, boolean includeRetired, int limit,
+	        boolean includeCount) throws APIException {
+		if (limit < 1) {
+			throw new APIException("Concept.typeahead.invalidLimit", new Object[] { limit });
+		}
+		if (StringUtils.isBlank(text)) {
+			return new ConceptTypeahead(new ArrayList<>(), includeCount ? 0L : null);
+		}
+		return dao.getConceptTypeahead(text, locales, includeRetired, limit, includeCount);
+	}
+	
 	/**
 	 * @see ConceptService#getCountOfDrugs(String, Concept, boolean, boolean, boolean)
 	 */
@@ -1891,6 +2133,14 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 		return dao.isConceptNameDuplicate(name);
 	}
 	
+	/**
+	 * @see org.openmrs.api.ConceptService#updateConceptNameKeys()
+	 */
+	@Override
+	public int updateConceptNameKeys() throws APIException {
+		return dao.updateConceptNameKeys();
+	}
+	
 	/**
 	 * @see ConceptService#getDrugs(String, java.util.Locale, boolean, boolean)
 	 */
@@ -11,6 +11,7 @@ package org.openmrs.api.impl;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
@@ -29,6 +30,7 @@ import org.openmrs.Obs;
 import org.openmrs.Order;
 import org.openmrs.OrderGroup;
 import org.openmrs.Patient;
+import org.openmrs.TimelineEntry;
 import org.openmrs.Privilege;
 import org.openmrs.Provider;
 import org.openmrs.User;
@@ -314,6 +316,28 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 		}
 	}
 	
+	/**
+	 * @see org.openmrs.api.EncounterService#getEncounterWithObs(java.lang.Integer)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public Encounter getEncounterWithObs(Integer encounterId) throws APIException {
+		Encounter encounter = Context.getEncounterService().getEncounter(encounterId);
+		if (encounter != null) {
+			dao.loadObsTrees(Collections.singletonList(encounter));
+		}
+		return encounter;
+	}
+	
+	/**
+	 * @see org.openmrs.api.EncounterService#loadObsTrees(java.util.Collection)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public void loadObsTrees(Collection<Encounter> encounters) throws APIException {
+		dao.loadObsTrees(encounters);
+	}
+	
 	/**
 	 * @see org.openmrs.api.EncounterService#getEncountersByPatient(org.openmrs.Patient)
 	 */
@@ -846,6 +870,23 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 		return dao.getEncountersByVisitsAndPatientCount(patient, includeVoided, query);
 	}
 	
+	/**
+	 * @see org.openmrs.api.EncounterService#getEncounterTimeline(Patient, boolean, String,
+	 *      TimelineEntry, Integer)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<TimelineEntry> getEncounterTimeline(Patient patient, boolean includeVoided, String query,
+	        TimelineEntry after, Integer length) throws APIException {
+		List<TimelineEntry> entries = dao.getEncounterTimeline(patient, includeVoided, query, after, null, length);
+		User user = Context.getAuthenticatedUser();
+		entries.removeIf(entry -> {
+			EncounterType encounterType = entry.getEncounter().getEncounterType();
+			return encounterType != null && !userHasEncounterPrivilege(encounterType.getViewPrivilege(), user);
+		});
+		return entries;
+	}
+	
 	/**
 	 * @see org.openmrs.api.EncounterService#filterEncountersByViewPermissions(java.util.List,
 	 *      org.openmrs.User)
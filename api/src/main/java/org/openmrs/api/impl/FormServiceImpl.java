@@ -41,6 +41,7 @@ import org.openmrs.api.handler.SaveHandler;
 import org.openmrs.customdatatype.CustomDatatypeUtil;
 import org.openmrs.obs.ComplexObsHandler;
 import org.openmrs.obs.SerializableComplexObsHandler;
+import org.openmrs.util.CompiledFormStructure;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
 import org.openmrs.validator.FormValidator;
@@ -216,6 +217,15 @@ public class FormServiceImpl extends BaseOpenmrsService implements FormService {
 		return dao.getFormField(form, concept, tmpIgnoreFormFields, force);
 	}
 	
+	/**
+	 * @see org.openmrs.api.FormService#getFormStructure(org.openmrs.Form)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public CompiledFormStructure getFormStructure(Form form) throws APIException {
+		return dao.getFormStructure(form);
+	}
+	
 	/**
 	 * @see org.openmrs.api.FormService#getFieldByUuid(java.lang.String)
 	 */
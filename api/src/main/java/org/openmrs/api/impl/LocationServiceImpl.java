@@ -10,6 +10,7 @@
 package org.openmrs.api.impl;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -25,6 +26,7 @@ import org.openmrs.api.LocationService;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.LocationDAO;
 import org.openmrs.customdatatype.CustomDatatypeUtil;
+import org.openmrs.util.LocationTagIndex;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
 import org.springframework.transaction.annotation.Transactional;
@@ -204,15 +206,10 @@ public class LocationServiceImpl extends BaseOpenmrsService implements LocationS
 	@Override
 	@Transactional(readOnly = true)
 	public List<Location> getLocationsByTag(LocationTag tag) throws APIException {
-		List<Location> locations = new ArrayList<>();
-		
-		for (Location l : dao.getAllLocations(false)) {
-			if (l.getTags() != null && l.getTags().contains(tag)) {
-				locations.add(l);
-			}
+		if (tag == null) {
+			return new ArrayList<>();
 		}
-		
-		return locations;
+		return dao.getLocationsHavingAnyTag(Collections.singletonList(tag));
 	}
 	
 	/**
@@ -230,17 +227,31 @@ public class LocationServiceImpl extends BaseOpenmrsService implements LocationS
 	@Override
 	@Transactional(readOnly = true)
 	public List<Location> getLocationsHavingAnyTag(List<LocationTag> tags) throws APIException {
-		List<Location> locations = new ArrayList<>();
-		
-		for (Location loc : dao.getAllLocations(false)) {
-			for (LocationTag t : tags) {
-				if (loc.getTags().contains(t) && !locations.contains(loc)) {
-					locations.add(loc);
-				}
-			}
+		if (CollectionUtils.isEmpty(tags)) {
+			return new ArrayList<>();
 		}
-		
-		return locations;
+		return dao.getLocationsHavingAnyTag(tags);
+	}
+	
+	/**
+	 * @see org.openmrs.api.LocationService#getLocationsHavingNoneOfTags(List)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<Location> getLocationsHavingNoneOfTags(List<LocationTag> tags) throws APIException {
+		if (CollectionUtils.isEmpty(tags)) {
+			return getAllLocations(false);
+		}
+		return dao.getLocationsHavingNoneOfTags(tags);
+	}
+	
+	/**
+	 * @see org.openmrs.api.LocationService#getLocationTagIndex()
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public LocationTagIndex getLocationTagIndex() throws APIException {
+		return dao.getLocationTagIndex();
 	}
 	
 	/**
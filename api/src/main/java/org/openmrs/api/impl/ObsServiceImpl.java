@@ -14,15 +14,20 @@ import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.openmrs.Concept;
 import org.openmrs.ConceptName;
 import org.openmrs.Encounter;
 import org.openmrs.Location;
 import org.openmrs.Obs;
+import org.openmrs.OpenmrsObject;
 import org.openmrs.Patient;
 import org.openmrs.Person;
+import org.openmrs.User;
 import org.openmrs.aop.RequiredDataAdvice;
 import org.openmrs.api.APIException;
 import org.openmrs.api.EncounterService;
@@ -31,6 +36,7 @@ import org.openmrs.api.PatientService;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.ObsDAO;
 import org.openmrs.api.handler.SaveHandler;
+import org.openmrs.api.handler.VoidHandler;
 import org.openmrs.obs.ComplexData;
 import org.openmrs.obs.ComplexObsHandler;
 import org.openmrs.obs.handler.AbstractHandler;
@@ -53,6 +59,12 @@ public class ObsServiceImpl extends BaseOpenmrsService implements ObsService {
 	 */
 	protected ObsDAO dao;
 	
+	/**
+	 * The number of obs saved by {@link #saveObsBatch(Collection, String)} between flushing and
+	 * clearing the session
+	 */
+	private static final int OBS_BATCH_CHUNK_SIZE = 500;
+	
 	/**
 	 * Report handlers that have been registered. This is filled via {@link #setHandlers(Map)} and
 	 * spring's applicationContext-service.xml object
@@ -114,6 +126,148 @@ public class ObsServiceImpl extends BaseOpenmrsService implements ObsService {
 		}
 	}
 
+	/**
+	 * @see org.openmrs.api.ObsService#saveObsBatch(Collection, String)
+	 */
+	@Override
+	public List<Obs> saveObsBatch(Collection<Obs> obsToSave, String changeMessage) throws APIException {
+		if (obsToSave == null) {
+			throw new APIException("Obs.error.cannot.be.null", (Object[]) null);
+		}
+		for (Obs obs : obsToSave) {
+			if (obs == null) {
+				throw new APIException("Obs.error.cannot.be.null", (Object[]) null);
+			}
+			if (obs.getId() != null && changeMessage == null) {
+				throw new APIException("Obs.error.ChangeMessage.required", (Object[]) null);
+			}
+			ensureRequirePrivilege(obs);
+		}
+		
+		List<Obs> saved = new ArrayList<>(obsToSave.size());
+		List<Obs> chunk = new ArrayList<>(Math.min(obsToSave.size(), OBS_BATCH_CHUNK_SIZE));
+		for (Obs obs : obsToSave) {
+			chunk.add(obs);
+			if (chunk.size() == OBS_BATCH_CHUNK_SIZE) {
+				saved.addAll(saveObsChunk(chunk, changeMessage));
+				chunk.clear();
+			}
+		}
+		if (!chunk.isEmpty()) {
+			saved.addAll(saveObsChunk(chunk, changeMessage));
+		}
+		return saved;
+	}
+	
+	/**
+	 * Saves a chunk of obs. The revisions of all edited obs are created first and the edited obs are
+	 * evicted before anything is written, so their changes can never be flushed to the original rows.
+	 * The saved statuses of the edited obs and their clean copies for voiding are each read with a
+	 * single query.
+	 */
+	private List<Obs> saveObsChunk(List<Obs> chunk, String changeMessage) {
+		List<Obs> edited = new ArrayList<>();
+		for (Obs obs : chunk) {
+			collectEditedObs(obs, edited);
+		}
+		
+		Map<Integer, Obs> revisions = new LinkedHashMap<>();
+		if (!edited.isEmpty()) {
+			Map<Integer, Obs.Status> statuses = dao.getSavedStatuses(
+			    edited.stream().map(Obs::getObsId).collect(Collectors.toList()));
+			for (Obs obs : edited) {
+				setPersonFromEncounter(obs);
+				Obs newObs = Obs.newInstance(obs);
+				unsetVoidedAndCreationProperties(newObs, obs);
+				updateStatusIfNecessary(newObs, statuses.get(obs.getObsId()));
+				RequiredDataAdvice.recursivelyHandle(SaveHandler.class, newObs, changeMessage);
+				revisions.put(obs.getObsId(), newObs);
+			}
+			for (Obs obs : edited) {
+				evictObsAndChildren(obs);
+			}
+		}
+		
+		List<Obs> saved = new ArrayList<>(chunk.size());
+		for (Obs obs : chunk) {
+			saved.add(saveObsOfChunk(obs, revisions));
+		}
+		voidRevisedObs(revisions, changeMessage);
+		
+		Context.flushSession();
+		Context.clearSession();
+		return saved;
+	}
+	
+	/**
+	 * Runs the complex obs handlers and collects the existing obs that were changed, the same way
+	 * {@link #saveObs(Obs, String)} walks an obs group
+	 */
+	private void collectEditedObs(Obs obs, List<Obs> edited) {
+		handleExistingObsWithComplexConcept(obs);
+		if (obs.getObsId() != null && !obs.getVoided()) {
+			if (obs.isDirty()) {
+				edited.add(obs);
+				return;
+			}
+			setPersonFromEncounter(obs);
+		}
+		if (obs.isObsGrouping()) {
+			for (Obs member : obs.getGroupMembers(true)) {
+				collectEditedObs(member, edited);
+			}
+		}
+	}
+	
+	private Obs saveObsOfChunk(Obs obs, Map<Integer, Obs> revisions) {
+		Obs revision = obs.getObsId() == null ? null : revisions.get(obs.getObsId());
+		if (revision != null) {
+			dao.saveObs(revision);
+			saveRevisionGroupMembers(revision);
+			return revision;
+		}
+		if (obs.getObsId() == null || obs.getVoided()) {
+			dao.saveObs(obs);
+		}
+		if (obs.isObsGrouping()) {
+			for (Obs member : obs.getGroupMembers(true)) {
+				saveObsOfChunk(member, revisions);
+			}
+		}
+		return obs;
+	}
+	
+	private void saveRevisionGroupMembers(Obs revision) {
+		if (revision.isObsGrouping()) {
+			for (Obs member : revision.getGroupMembers(true)) {
+				handleExistingObsWithComplexConcept(member);
+				dao.saveObs(member);
+				saveRevisionGroupMembers(member);
+			}
+		}
+	}
+	
+	/**
+	 * Voids clean copies of the obs that got a new revision, like {@link #voidExistingObs(Obs, String, Obs)}
+	 */
+	private void voidRevisedObs(Map<Integer, Obs> revisions, String changeMessage) {
+		if (revisions.isEmpty()) {
+			return;
+		}
+		User user = Context.getAuthenticatedUser();
+		Date dateVoided = new Date();
+		for (Obs original : dao.getObs(revisions.keySet())) {
+			Obs newObs = revisions.get(original.getObsId());
+			if (newObs.hasPreviousVersion() && newObs.getPreviousVersion().isComplex()) {
+				File previousFile = AbstractHandler.getComplexDataFile(original);
+				previousFile.delete();
+			}
+			RequiredDataAdvice.recursivelyHandle(VoidHandler.class, original, user, dateVoided, changeMessage,
+			    (Set<OpenmrsObject>) null);
+			dao.saveObs(original);
+		}
+	}
+	
 	private void setPersonFromEncounter(Obs obs) {
 		Encounter encounter = obs.getEncounter();
 		if (encounter != null) {
@@ -10,6 +10,7 @@
 package org.openmrs.api.impl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -19,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
@@ -27,11 +29,15 @@ import org.openmrs.Allergies;
 import org.openmrs.Allergy;
 import org.openmrs.BaseOpenmrsMetadata;
 import org.openmrs.Concept;
+import org.openmrs.Condition;
+import org.openmrs.Diagnosis;
 import org.openmrs.Encounter;
 import org.openmrs.Location;
 import org.openmrs.Obs;
+import org.openmrs.OpenmrsData;
 import org.openmrs.Order;
 import org.openmrs.Patient;
+import org.openmrs.PatientDuplicateCandidate;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
 import org.openmrs.PatientProgram;
@@ -62,6 +68,9 @@ import org.openmrs.api.db.hibernate.HibernateUtil;
 import org.openmrs.parameter.EncounterSearchCriteria;
 import org.openmrs.parameter.EncounterSearchCriteriaBuilder;
 import org.openmrs.patient.IdentifierValidator;
+import org.openmrs.patient.duplicate.DuplicatePatientBlockingKey;
+import org.openmrs.patient.duplicate.DuplicatePatientMatch;
+import org.openmrs.patient.duplicate.DuplicatePatientRecord;
 import org.openmrs.patient.impl.LuhnIdentifierValidator;
 import org.openmrs.person.PersonMergeLog;
 import org.openmrs.person.PersonMergeLogData;
@@ -88,6 +97,11 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 	
 	private static final Logger log = LoggerFactory.getLogger(PatientServiceImpl.class);
 	
+	/**
+	 * The maximum number of rows changed by one update statement when merging patients in bulk
+	 */
+	private static final int PATIENT_MERGE_CHUNK_SIZE = 1000;
+	
 	private PatientDAO dao;
 	
 	/**
@@ -573,11 +587,18 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 		}
 		requireNoActiveOrderOfSameType(preferred,notPreferred);
 		PersonMergeLogData mergedData = new PersonMergeLogData();
-		mergeVisits(preferred, notPreferred, mergedData);
-		mergeEncounters(preferred, notPreferred, mergedData);
-		mergeProgramEnrolments(preferred, notPreferred, mergedData);
+		boolean bulkMergeMode = isBulkMergeMode();
+		if (bulkMergeMode) {
+			bulkMergeClinicalData(preferred, notPreferred, mergedData);
+		} else {
+			mergeVisits(preferred, notPreferred, mergedData);
+			mergeEncounters(preferred, notPreferred, mergedData);
+			mergeProgramEnrolments(preferred, notPreferred, mergedData);
+		}
 		mergeRelationships(preferred, notPreferred, mergedData);
-		mergeObservationsNotContainedInEncounters(preferred, notPreferred, mergedData);
+		if (!bulkMergeMode) {
+			mergeObservationsNotContainedInEncounters(preferred, notPreferred, mergedData);
+		}
 		mergeIdentifiers(preferred, notPreferred, mergedData);
 		
 		mergeNames(preferred, notPreferred, mergedData);
@@ -625,6 +646,59 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 		}));
 	}
 
+	private boolean isBulkMergeMode() {
+		return Boolean.parseBoolean(Context.getAdministrationService().getGlobalProperty(
+		    OpenmrsConstants.GLOBAL_PROPERTY_PATIENT_MERGE_BULK_MODE, "false"));
+	}
+	
+	/**
+	 * Moves the visits, encounters, the obs, orders, diagnoses, conditions and allergies recorded in
+	 * them, the program enrollments and the obs not contained in encounters of notPreferred to
+	 * preferred with set based updates instead of saving every row through the services. The rows are
+	 * changed in place, obs are not revised and program enrollments are moved instead of copied, the
+	 * moved enrollments are recorded as moved programs in the merge log. The time spent in each phase
+	 * is logged.
+	 */
+	private void bulkMergeClinicalData(Patient preferred, Patient notPreferred, PersonMergeLogData mergedData) {
+		Map<String, Long> timings = new LinkedHashMap<>();
+		long start = System.nanoTime();
+		
+		for (String uuid : dao.moveVisits(notPreferred, preferred, PATIENT_MERGE_CHUNK_SIZE)) {
+			mergedData.addMovedVisit(uuid);
+		}
+		start = recordTiming(timings, "visits", start);
+		
+		for (Class<? extends OpenmrsData> type : Arrays.asList(Obs.class, Order.class, Diagnosis.class, Condition.class,
+		    Allergy.class)) {
+			dao.moveEncounterData(type, notPreferred, preferred, PATIENT_MERGE_CHUNK_SIZE);
+			start = recordTiming(timings, type.getSimpleName().toLowerCase(), start);
+		}
+		
+		for (String uuid : dao.moveEncounters(notPreferred, preferred, PATIENT_MERGE_CHUNK_SIZE)) {
+			mergedData.addMovedEncounter(uuid);
+		}
+		start = recordTiming(timings, "encounters", start);
+		
+		for (String uuid : dao.movePatientPrograms(notPreferred, preferred, PATIENT_MERGE_CHUNK_SIZE)) {
+			mergedData.addMovedProgram(uuid);
+		}
+		start = recordTiming(timings, "programs", start);
+		
+		for (String uuid : dao.moveObsNotContainedInEncounters(notPreferred, preferred, PATIENT_MERGE_CHUNK_SIZE)) {
+			mergedData.addMovedIndependentObservation(uuid);
+		}
+		recordTiming(timings, "independentObs", start);
+		
+		log.info("Moved data of patient #{} to patient #{} in bulk, time per phase in ms: {}",
+		    notPreferred.getPatientId(), preferred.getPatientId(), timings);
+	}
+	
+	private long recordTiming(Map<String, Long> timings, String phase, long start) {
+		long now = System.nanoTime();
+		timings.put(phase, TimeUnit.NANOSECONDS.toMillis(now - start));
+		return now;
+	}
+	
 	private void mergeProgramEnrolments(Patient preferred, Patient notPreferred, PersonMergeLogData mergedData) {
 		// copy all program enrollments
 		ProgramWorkflowService programService = Context.getProgramWorkflowService();
@@ -1638,4 +1712,128 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 	public List<PatientIdentifier> getPatientIdentifiersByPatientProgram(PatientProgram patientProgram) {
 		return dao.getPatientIdentifierByProgram(patientProgram);
 	}
+
+	/**
+	 * @see org.openmrs.api.PatientService#getDuplicatePatientRecords(Integer, int)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<DuplicatePatientRecord> getDuplicatePatientRecords(Integer afterPatientId, int maxResults) {
+		return dao.getDuplicatePatientRecords(afterPatientId, maxResults);
+	}
+	
+	/**
+	 * @see org.openmrs.api.PatientService#getDuplicatePatientRecords(Collection)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<DuplicatePatientRecord> getDuplicatePatientRecords(Collection<Integer> patientIds) {
+		return dao.getDuplicatePatientRecords(patientIds);
+	}
+	
+	/**
+	 * @see org.openmrs.api.PatientService#deleteDuplicatePatientBlockingKeys()
+	 */
+	@Override
+	public void deleteDuplicatePatientBlockingKeys() {
+		dao.deleteDuplicatePatientBlockingKeys();
+	}
+	
+	/**
+	 * @see org.openmrs.api.PatientService#saveDuplicatePatientBlockingKeys(List)
+	 */
+	@Override
+	public void saveDuplicatePatientBlockingKeys(List<DuplicatePatientBlockingKey> keys) {
+		dao.saveDuplicatePatientBlockingKeys(keys);
+	}
+	
+	/**
+	 * @see org.openmrs.api.PatientService#getDuplicatePatientBlockingKeys(String, Integer, int)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<DuplicatePatientBlockingKey> getDuplicatePatientBlockingKeys(String afterKey, Integer afterPatientId,
+	        int maxResults) {
+		return dao.getDuplicatePatientBlockingKeys(afterKey, afterPatientId, maxResults);
+	}
+	
+	/**
+	 * @see org.openmrs.api.PatientService#saveDuplicatePatientMatches(List)
+	 */
+	@Override
+	public int saveDuplicatePatientMatches(List<DuplicatePatientMatch> matches) {
+		int created = 0;
+		for (DuplicatePatientMatch match : matches) {
+			Patient patient = dao.getPatient(match.getPatientId());
+			Patient duplicatePatient = dao.getPatient(match.getDuplicatePatientId());
+			if (patient == null || duplicatePatient == null) {
+				continue;
+			}
+			
+			PatientDuplicateCandidate candidate = dao.getPatientDuplicateCandidate(patient, duplicatePatient);
+			if (candidate == null) {
+				candidate = new PatientDuplicateCandidate(patient, duplicatePatient, match.getScore(),
+				        match.getBlockingKey());
+				created++;
+			} else if (candidate.getStatus() != PatientDuplicateCandidate.Status.PENDING
+			        || candidate.getScore() >= match.getScore()) {
+				continue;
+			} else {
+				candidate.setScore(match.getScore());
+				candidate.setBlockingKey(match.getBlockingKey());
+			}
+			Context.getPatientService().savePatientDuplicateCandidate(candidate);
+		}
+		return created;
+	}
+	
+	/**
+	 * @see org.openmrs.api.PatientService#savePatientDuplicateCandidate(PatientDuplicateCandidate)
+	 */
+	@Override
+	public PatientDuplicateCandidate savePatientDuplicateCandidate(PatientDuplicateCandidate candidate) {
+		return dao.savePatientDuplicateCandidate(candidate);
+	}
+	
+	/**
+	 * @see org.openmrs.api.PatientService#getPatientDuplicateCandidateByUuid(String)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public PatientDuplicateCandidate getPatientDuplicateCandidateByUuid(String uuid) {
+		return dao.getPatientDuplicateCandidateByUuid(uuid);
+	}
+	
+	/**
+	 * @see org.openmrs.api.PatientService#getPatientDuplicateCandidates(PatientDuplicateCandidate.Status,
+	 *      Integer, Integer)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<PatientDuplicateCandidate> getPatientDuplicateCandidates(PatientDuplicateCandidate.Status status,
+	        Integer start, Integer length) {
+		return dao.getPatientDuplicateCandidates(status, start, length);
+	}
+	
+	/**
+	 * @see org.openmrs.api.PatientService#mergePatientDuplicateCandidate(PatientDuplicateCandidate,
+	 *      Patient)
+	 */
+	@Override
+	public void mergePatientDuplicateCandidate(PatientDuplicateCandidate candidate, Patient preferred)
+	        throws APIException, SerializationException {
+		Patient notPreferred;
+		if (candidate.getPatient().equals(preferred)) {
+			notPreferred = candidate.getDuplicatePatient();
+		} else if (candidate.getDuplicatePatient().equals(preferred)) {
+			notPreferred = candidate.getPatient();
+		} else {
+			throw new APIException("Patient.merge.duplicateCandidate.preferredNotInCandidate", new Object[] {
+			        preferred.getPatientId(), candidate.getUuid() });
+		}
+		
+		Context.getPatientService().mergePatients(preferred, notPreferred);
+		candidate.setStatus(PatientDuplicateCandidate.Status.MERGED);
+		Context.getPatientService().savePatientDuplicateCandidate(candidate);
+	}
 }
@@ -26,6 +26,7 @@ import org.openmrs.api.context.Context;
 import org.openmrs.api.db.PersonDAO;
 import org.openmrs.person.PersonMergeLog;
 import org.openmrs.person.PersonMergeLogData;
+import org.openmrs.person.RelationshipGraph;
 import org.openmrs.serialization.SerializationException;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsConstants.PERSON_TYPE;
@@ -37,8 +38,11 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -431,6 +435,40 @@ public class PersonServiceImpl extends BaseOpenmrsService implements PersonServi
 		return dao.getRelationships(fromPerson, toPerson, relType, startEffectiveDate, endEffectiveDate);
 	}
 	
+	/**
+	 * @see org.openmrs.api.PersonService#getRelationshipGraph(org.openmrs.Person, int, java.util.Date,
+	 *      java.util.Collection)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public RelationshipGraph getRelationshipGraph(Person person, int hops, Date effectiveDate,
+	        Collection<RelationshipType> relationshipTypes) throws APIException {
+		if (hops < 0) {
+			throw new APIException("the number of hops cannot be negative: " + hops);
+		}
+		
+		RelationshipGraph graph = new RelationshipGraph(person);
+		List<Person> frontier = Collections.singletonList(person);
+		for (int distance = 1; distance <= hops && !frontier.isEmpty(); distance++) {
+			Set<Integer> frontierIds = new LinkedHashSet<>();
+			for (Person p : frontier) {
+				frontierIds.add(p.getPersonId());
+			}
+			
+			List<Person> next = new ArrayList<>();
+			for (Relationship relationship : dao.getRelationships(frontierIds, effectiveDate, relationshipTypes)) {
+				graph.addRelationship(relationship);
+				for (Person relative : new Person[] { relationship.getPersonA(), relationship.getPersonB() }) {
+					if (graph.addPerson(relative, distance)) {
+						next.add(relative);
+					}
+				}
+			}
+			frontier = next;
+		}
+		return graph;
+	}
+	
 	/**
 	 * @see org.openmrs.api.PersonService#getRelationshipsByPerson(org.openmrs.Person)
 	 */
@@ -63,6 +63,10 @@ public class SerializationServiceImpl extends BaseOpenmrsService implements Seri
 			try {
 				Class<?> clazz = Context.loadClass(prop);
 				if (clazz != null && OpenmrsSerializer.class.isAssignableFrom(clazz)) {
+					OpenmrsSerializer registered = getSerializer(clazz.asSubclass(OpenmrsSerializer.class));
+					if (registered != null) {
+						return registered;
+					}
 					return (OpenmrsSerializer) clazz.newInstance();
 				}
 			}
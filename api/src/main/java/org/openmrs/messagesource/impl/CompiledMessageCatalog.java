@@ -0,0 +1,151 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.messagesource.impl;
+
+import java.text.MessageFormat;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * An immutable snapshot of the messages known to a {@link MutableResourceBundleMessageSource}.
+ * <br>
+ * <br>
+ * Messages are compiled once per locale, the first time that locale is asked for. The basenames and
+ * the locale fallback chain (e.g. en_GB -&gt; en -&gt; default) are flattened at that point, so a
+ * lookup is a single read from an unmodifiable map. Message patterns are parsed into
+ * {@link MessageFormat} templates at most once per code and locale. <br>
+ * <br>
+ * A catalog is never refreshed in place, the owning message source replaces it as a whole when the
+ * available message bundles change, e.g. when a module is started or stopped.
+ *
+ * @since 2.7.0
+ */
+class CompiledMessageCatalog {
+
+	private final Function<Locale, Properties> loader;
+
+	private final Supplier<Collection<Locale>> localeFinder;
+
+	private final Map<Locale, LocaleMessages> compiled = new ConcurrentHashMap<>();
+
+	private volatile Collection<Locale> locales;
+
+	/**
+	 * @param loader returns the merged properties for a locale, with the most specific definition of
+	 *            each code taking precedence
+	 * @param localeFinder returns the locales for which message bundles exist
+	 */
+	CompiledMessageCatalog(Function<Locale, Properties> loader, Supplier<Collection<Locale>> localeFinder) {
+		this.loader = loader;
+		this.localeFinder = localeFinder;
+	}
+
+	/**
+	 * Gets the unformatted message for the given code
+	 *
+	 * @param code the message code
+	 * @param locale the locale to look in
+	 * @return the message or null if no bundle in the fallback chain of the locale defines the code
+	 */
+	String getMessage(String code, Locale locale) {
+		return getLocaleMessages(locale).messages.get(code);
+	}
+
+	/**
+	 * Gets the parsed template for the given code, the returned {@link MessageFormat} is shared and
+	 * must be synchronized on while formatting it.
+	 *
+	 * @param code the message code
+	 * @param locale the locale to look in
+	 * @return the template or null if no bundle in the fallback chain of the locale defines the code
+	 */
+	MessageFormat getMessageFormat(String code, Locale locale) {
+		LocaleMessages localeMessages = getLocaleMessages(locale);
+		String message = localeMessages.messages.get(code);
+		if (message == null) {
+			return null;
+		}
+
+		MessageFormat messageFormat = localeMessages.formats.get(code);
+		if (messageFormat == null) {
+			messageFormat = localeMessages.formats.computeIfAbsent(code, c -> new MessageFormat(message, locale));
+		}
+		return messageFormat;
+	}
+
+	/**
+	 * Gets all messages compiled for the given locale
+	 *
+	 * @param locale the locale to look in
+	 * @return an unmodifiable map of codes to unformatted messages
+	 */
+	Map<String, String> getMessages(Locale locale) {
+		return getLocaleMessages(locale).messages;
+	}
+
+	/**
+	 * @return the locales for which message bundles exist, looked up once per catalog
+	 */
+	Collection<Locale> getLocales() {
+		Collection<Locale> result = locales;
+		if (result == null) {
+			result = Collections.unmodifiableCollection(localeFinder.get());
+			locales = result;
+		}
+		return result;
+	}
+
+	/**
+	 * @return the number of locales compiled so far
+	 */
+	int getCompiledLocaleCount() {
+		return compiled.size();
+	}
+
+	private LocaleMessages getLocaleMessages(Locale locale) {
+		LocaleMessages localeMessages = compiled.get(locale);
+		if (localeMessages == null) {
+			localeMessages = compiled.computeIfAbsent(locale, this::compile);
+		}
+		return localeMessages;
+	}
+
+	private LocaleMessages compile(Locale locale) {
+		Properties properties = loader.apply(locale);
+		Map<String, String> messages = new HashMap<>();
+		if (properties != null) {
+			for (String code : properties.stringPropertyNames()) {
+				messages.put(code, properties.getProperty(code));
+			}
+		}
+		return new LocaleMessages(messages);
+	}
+
+	/**
+	 * The flattened messages of a single locale together with their lazily parsed templates
+	 */
+	private static class LocaleMessages {
+
+		private final Map<String, String> messages;
+
+		private final Map<String, MessageFormat> formats = new ConcurrentHashMap<>();
+
+		private LocaleMessages(Map<String, String> messages) {
+			this.messages = Collections.unmodifiableMap(messages);
+		}
+	}
+}
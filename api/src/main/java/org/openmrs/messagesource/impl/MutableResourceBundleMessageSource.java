@@ -10,6 +10,7 @@
 package org.openmrs.messagesource.impl;
 
 import java.io.IOException;
+import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -32,6 +33,8 @@ import org.openmrs.util.OpenmrsClassLoader;
 import org.openmrs.util.OpenmrsUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.support.ReloadableResourceBundleMessageSource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
@@ -39,9 +42,13 @@ import org.springframework.core.io.support.ResourcePatternResolver;
 
 /**
  * ResourceBundleMessageSource extends ReloadableResourceBundleMessageSource to provide the
- * additional features of a MutableMessageSource.
+ * additional features of a MutableMessageSource. <br>
+ * <br>
+ * Messages are served from a {@link CompiledMessageCatalog} rather than through the fallback chain
+ * of the parent class, the catalog is replaced whenever the application context is refreshed (which
+ * is what happens when a module is started or stopped) or {@link #clearCache()} is called.
  */
-public class MutableResourceBundleMessageSource extends ReloadableResourceBundleMessageSource implements MutableMessageSource {
+public class MutableResourceBundleMessageSource extends ReloadableResourceBundleMessageSource implements MutableMessageSource, ApplicationListener<ContextRefreshedEvent> {
 
 	private static final Logger log = LoggerFactory.getLogger(MutableResourceBundleMessageSource.class);
 	
@@ -50,31 +57,64 @@ public class MutableResourceBundleMessageSource extends ReloadableResourceBundle
 	 */
 	private String[] basenames = new String[0];
 	
-	private int cacheMilliseconds = -1;
-	
-	private long lastCached = System.currentTimeMillis();
-	
-	/** Cached list of available locales. */
-	private Collection<Locale> locales;
+	private volatile CompiledMessageCatalog catalog = newCatalog();
 	
 	/**
 	 * @see org.openmrs.messagesource.MessageSourceService#getLocales()
 	 */
 	@Override
 	public Collection<Locale> getLocales() {
-		long now = System.currentTimeMillis();
-		if (locales == null || cacheMilliseconds <= 0 || now - cacheMilliseconds > lastCached) {
-			locales = findLocales();
-			lastCached = now;
-		}
-		
-		return locales;
+		return catalog.getLocales();
+	}
+	
+	/**
+	 * Looks up the message in the compiled catalog, the catalog has already applied the basename and
+	 * locale fallbacks so there is no need to delegate to the parent class if it has no match.
+	 *
+	 * @see org.springframework.context.support.ReloadableResourceBundleMessageSource#resolveCodeWithoutArguments(String,
+	 *      Locale)
+	 */
+	@Override
+	protected String resolveCodeWithoutArguments(String code, Locale locale) {
+		return catalog.getMessage(code, locale);
+	}
+	
+	/**
+	 * @see org.springframework.context.support.ReloadableResourceBundleMessageSource#resolveCode(String,
+	 *      Locale)
+	 */
+	@Override
+	protected MessageFormat resolveCode(String code, Locale locale) {
+		return catalog.getMessageFormat(code, locale);
 	}
 	
+	/**
+	 * Discards the properties cached by the parent class and swaps in a new, empty catalog which gets
+	 * compiled again on demand.
+	 *
+	 * @see org.springframework.context.support.ReloadableResourceBundleMessageSource#clearCache()
+	 */
 	@Override
-	public void setCacheSeconds(int cacheSeconds) {
-		this.cacheMilliseconds = cacheSeconds * 1000;
-		super.setCacheSeconds(cacheSeconds);
+	public void clearCache() {
+		super.clearCache();
+		catalog = newCatalog();
+	}
+	
+	/**
+	 * Recomputes the module basenames and rebuilds the catalog, the set of started modules may have
+	 * changed since the last refresh.
+	 *
+	 * @see org.springframework.context.ApplicationListener#onApplicationEvent(org.springframework.context.ApplicationEvent)
+	 */
+	@Override
+	public void onApplicationEvent(ContextRefreshedEvent event) {
+		log.debug("Rebuilding the message catalog after a context refresh");
+		setBasenames(basenames);
+		clearCache();
+	}
+	
+	private CompiledMessageCatalog newCatalog() {
+		return new CompiledMessageCatalog(locale -> getMergedProperties(locale).getProperties(), this::findLocales);
 	}
 	
 	/**
@@ -21,6 +21,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -88,6 +89,18 @@ public class ModuleFactory {
 	
 	private static final Set<String> actualStartupOrder = new LinkedHashSet<>();
 	
+	private static volatile ModuleStartupPlanner startupPlanner;
+	
+	/**
+	 * The sql diffs read by {@link #startModules()} ahead of starting the modules
+	 */
+	private static final Map<Module, SortedMap<String, String>> preparedSqlDiffs = new ConcurrentHashMap<>();
+	
+	/**
+	 * The global properties to save once {@link #startModules()} is done, null outside of it
+	 */
+	private static Map<String, GlobalProperty> deferredGlobalProperties;
+	
 	/**
 	 * Add a module (in the form of a jar file) to the list of openmrs modules Returns null if an error
 	 * occurred and/or module was not successfully loaded
@@ -245,36 +258,106 @@ public class ModuleFactory {
 				modules = (List<Module>) ex.getExtraData();
 			}
 			
-			// try and start the modules that should be started
-			for (Module mod : modules) {
-				
-				if (mod.isStarted()) {
-					// skip over modules that are already started
-					continue;
-				}
-				
-				// Skip module if required ones are not started
-				if (!requiredModulesStarted(mod)) {
-					String message = getFailedToStartModuleMessage(mod);
-					log.error(message);
-					mod.setStartupErrorMessage(message);
-					notifySuperUsersAboutModuleFailure(mod);
-					continue;
-				}
-				
-				try {
-					log.debug("starting module: {}", mod.getModuleId());
-					startModule(mod);
+			ModuleStartupPlanner planner = new ModuleStartupPlanner(modules);
+			startupPlanner = planner;
+			deferredGlobalProperties = new LinkedHashMap<>();
+			try {
+				for (List<Module> layer : planner.getLayers()) {
+					// the modules of a layer don't depend on each other, read their sql diffs in parallel
+					List<Module> toPrepare = new ArrayList<>();
+					for (Module mod : layer) {
+						if (!mod.isStarted()) {
+							toPrepare.add(mod);
+						}
+					}
+					preparedSqlDiffs.putAll(planner.runInParallel(toPrepare, "prepare", SqlDiffFileParser::getSqlDiffs));
+					
+					// try and start the modules that should be started
+					for (Module mod : layer) {
+						startModuleOfPlan(planner, mod);
+					}
 				}
-				catch (Exception e) {
-					log.error("Error while starting module: " + mod.getName(), e);
-					mod.setStartupErrorMessage("Error while starting module", e);
-					notifySuperUsersAboutModuleFailure(mod);
+			}
+			finally {
+				preparedSqlDiffs.clear();
+				saveDeferredGlobalProperties();
+			}
+			log.info(planner.getTimingReport());
+		}
+	}
+	
+	private static void startModuleOfPlan(ModuleStartupPlanner planner, Module mod) {
+		if (mod.isStarted()) {
+			// skip over modules that are already started
+			return;
+		}
+		
+		// Skip module if required ones are not started
+		if (!requiredModulesStarted(mod)) {
+			String message = getFailedToStartModuleMessage(mod);
+			log.error(message);
+			mod.setStartupErrorMessage(message);
+			notifySuperUsersAboutModuleFailure(mod);
+			return;
+		}
+		
+		try {
+			log.debug("starting module: {}", mod.getModuleId());
+			planner.time(mod, "start", ModuleFactory::startModule);
+		}
+		catch (Exception e) {
+			log.error("Error while starting module: " + mod.getName(), e);
+			mod.setStartupErrorMessage("Error while starting module", e);
+			notifySuperUsersAboutModuleFailure(mod);
+		}
+	}
+	
+	/**
+	 * Saves the global properties of the modules started by {@link #startModules()} in one go
+	 */
+	private static void saveDeferredGlobalProperties() {
+		Map<String, GlobalProperty> deferred;
+		synchronized (ModuleFactory.class) {
+			deferred = deferredGlobalProperties;
+			deferredGlobalProperties = null;
+		}
+		if (deferred == null || deferred.isEmpty()) {
+			return;
+		}
+		try {
+			Context.addProxyPrivilege(PrivilegeConstants.GET_GLOBAL_PROPERTIES);
+			Context.addProxyPrivilege(PrivilegeConstants.MANAGE_GLOBAL_PROPERTIES);
+			AdministrationService as = Context.getAdministrationService();
+			List<GlobalProperty> globalProperties = new ArrayList<>(deferred.size());
+			for (GlobalProperty property : deferred.values()) {
+				GlobalProperty gp = as.getGlobalPropertyObject(property.getProperty());
+				if (gp == null) {
+					gp = property;
+				} else {
+					gp.setPropertyValue(property.getPropertyValue());
 				}
+				globalProperties.add(gp);
 			}
+			as.saveGlobalProperties(globalProperties);
+		}
+		catch (Exception e) {
+			log.warn("Unable to save the global properties of the started modules", e);
+		}
+		finally {
+			Context.removeProxyPrivilege(PrivilegeConstants.MANAGE_GLOBAL_PROPERTIES);
+			Context.removeProxyPrivilege(PrivilegeConstants.GET_GLOBAL_PROPERTIES);
 		}
 	}
 	
+	/**
+	 * @return the plan of the last call to {@link #startModules()}, holding the startup times of the
+	 *         modules, null if it was never called
+	 * @since 2.7.0
+	 */
+	public static ModuleStartupPlanner getStartupPlanner() {
+		return startupPlanner;
+	}
+	
 	/**
 	 * Obtain the list of modules that should be started
 	 *
@@ -689,7 +772,10 @@ public class ModuleFactory {
 				// This and the property updates are the only things that can't
 				// be undone at startup, so put these calls after any other
 				// calls that might hinder startup
-				SortedMap<String, String> diffs = SqlDiffFileParser.getSqlDiffs(module);
+				SortedMap<String, String> diffs = preparedSqlDiffs.remove(module);
+				if (diffs == null) {
+					diffs = SqlDiffFileParser.getSqlDiffs(module);
+				}
 				
 				try {
 					// this method must check and run queries against the database.
@@ -1600,6 +1686,12 @@ public class ModuleFactory {
 	 * @see AdministrationService#saveGlobalProperty(GlobalProperty)
 	 */
 	private static void saveGlobalProperty(String key, String value, String desc) {
+		synchronized (ModuleFactory.class) {
+			if (deferredGlobalProperties != null) {
+				deferredGlobalProperties.put(key, new GlobalProperty(key, value, desc));
+				return;
+			}
+		}
 		try {
 			AdministrationService as = Context.getAdministrationService();
 			GlobalProperty gp = as.getGlobalPropertyObject(key);
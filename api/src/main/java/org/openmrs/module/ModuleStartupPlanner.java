@@ -0,0 +1,256 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openmrs.util.OpenmrsClassLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Plans the startup of a set of modules. Modules are grouped into dependency layers, a module is
+ * in the layer after the last layer holding one of the modules it requires or is aware of, so the
+ * modules of a layer do not depend on each other and the work that does not touch shared state can
+ * be done for all of them in parallel, see {@link #runInParallel(Collection, String, ModuleTask)}.
+ * <br>
+ * <br>
+ * The time spent in each phase of the startup of each module is recorded and can be logged with
+ * {@link #getTimingReport()}.
+ *
+ * @see ModuleFactory#startModules()
+ * @since 2.7.0
+ */
+public class ModuleStartupPlanner {
+
+	private static final Logger log = LoggerFactory.getLogger(ModuleStartupPlanner.class);
+
+	private final List<List<Module>> layers;
+
+	private final Map<String, Map<String, Long>> timings = new LinkedHashMap<>();
+
+	/**
+	 * @param modulesInStartupOrder the modules to start, as sorted by
+	 *            {@link ModuleFactory#getModulesInStartupOrder(Collection)}
+	 */
+	public ModuleStartupPlanner(List<Module> modulesInStartupOrder) {
+		this.layers = getStartupLayers(modulesInStartupOrder);
+	}
+
+	/**
+	 * Groups modules into dependency layers. Dependencies on modules that are not in the list, or
+	 * that come after the module in it because of a dependency cycle, are ignored.
+	 *
+	 * @param modulesInStartupOrder the modules, as sorted by
+	 *            {@link ModuleFactory#getModulesInStartupOrder(Collection)}
+	 * @return the layers, each in startup order
+	 * <strong>Should</strong> put independent modules in the same layer
+	 * <strong>Should</strong> put modules after the modules they require or are aware of
+	 */
+	public static List<List<Module>> getStartupLayers(List<Module> modulesInStartupOrder) {
+		Map<String, Integer> layerByPackage = new HashMap<>();
+		List<List<Module>> layers = new ArrayList<>();
+		for (Module module : modulesInStartupOrder) {
+			int layer = 0;
+			for (String dependency : getDependencies(module)) {
+				Integer dependencyLayer = layerByPackage.get(dependency);
+				if (dependencyLayer != null) {
+					layer = Math.max(layer, dependencyLayer + 1);
+				}
+			}
+			layerByPackage.put(module.getPackageName(), layer);
+			while (layers.size() <= layer) {
+				layers.add(new ArrayList<>());
+			}
+			layers.get(layer).add(module);
+		}
+		return layers;
+	}
+
+	private static List<String> getDependencies(Module module) {
+		List<String> dependencies = new ArrayList<>();
+		if (module.getRequiredModules() != null) {
+			dependencies.addAll(module.getRequiredModules());
+		}
+		if (module.getAwareOfModules() != null) {
+			dependencies.addAll(module.getAwareOfModules());
+		}
+		return dependencies;
+	}
+
+	/**
+	 * @return the dependency layers of the modules to start
+	 */
+	public List<List<Module>> getLayers() {
+		return Collections.unmodifiableList(layers);
+	}
+
+	/**
+	 * Runs a task for each of the given modules, in parallel, and records the time it took for each
+	 * module under the given phase. The task must not depend on the other modules being started.
+	 *
+	 * @param modules the modules to run the task for
+	 * @param phase the name of the startup phase
+	 * @param task the task to run
+	 * @return the results of the task by module, modules whose task failed are left out
+	 * <strong>Should</strong> run the task for each module and record its time
+	 * <strong>Should</strong> leave out modules whose task failed
+	 */
+	public <T> Map<Module, T> runInParallel(Collection<Module> modules, String phase, ModuleTask<T> task) {
+		Map<Module, T> results = new LinkedHashMap<>();
+		if (modules.isEmpty()) {
+			return results;
+		}
+
+		int threads = Math.min(modules.size(), Runtime.getRuntime().availableProcessors());
+		ExecutorService executor = Executors.newFixedThreadPool(threads, new StartupThreadFactory(phase));
+		try {
+			Map<Module, Future<T>> futures = new LinkedHashMap<>();
+			for (Module module : modules) {
+				futures.put(module, executor.submit(() -> time(module, phase, task)));
+			}
+			for (Map.Entry<Module, Future<T>> entry : futures.entrySet()) {
+				try {
+					T result = entry.getValue().get();
+					if (result != null) {
+						results.put(entry.getKey(), result);
+					}
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+				catch (Exception e) {
+					log.warn("Unable to run the {} phase of the startup of module {}", phase,
+					    entry.getKey().getModuleId(), e.getCause() != null ? e.getCause() : e);
+				}
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		return results;
+	}
+
+	/**
+	 * Runs a task for a module in the current thread and records the time it took under the given
+	 * phase
+	 *
+	 * @param module the module to run the task for
+	 * @param phase the name of the startup phase
+	 * @param task the task to run
+	 * @return the result of the task
+	 * @throws Exception if the task fails, its time is recorded anyway
+	 */
+	public <T> T time(Module module, String phase, ModuleTask<T> task) throws Exception {
+		long start = System.nanoTime();
+		try {
+			return task.run(module);
+		}
+		finally {
+			recordTiming(module, phase, (System.nanoTime() - start) / 1000000);
+		}
+	}
+
+	/**
+	 * Adds time spent in a phase of the startup of a module
+	 *
+	 * @param module the module
+	 * @param phase the name of the startup phase
+	 * @param millis the time spent, in milliseconds
+	 */
+	public synchronized void recordTiming(Module module, String phase, long millis) {
+		timings.computeIfAbsent(module.getModuleId(), id -> new LinkedHashMap<>()).merge(phase, millis, Long::sum);
+	}
+
+	/**
+	 * @return the time spent in each phase of the startup by module id, in milliseconds
+	 */
+	public synchronized Map<String, Map<String, Long>> getTimings() {
+		Map<String, Map<String, Long>> copy = new LinkedHashMap<>();
+		for (Map.Entry<String, Map<String, Long>> entry : timings.entrySet()) {
+			copy.put(entry.getKey(), new LinkedHashMap<>(entry.getValue()));
+		}
+		return copy;
+	}
+
+	/**
+	 * @return one line per module listing the layer of the module and the time it spent in each
+	 *         startup phase, slowest module first
+	 */
+	public String getTimingReport() {
+		Map<String, Integer> layerById = new HashMap<>();
+		for (int i = 0; i < layers.size(); i++) {
+			for (Module module : layers.get(i)) {
+				layerById.put(module.getModuleId(), i);
+			}
+		}
+
+		List<Map.Entry<String, Map<String, Long>>> entries = new ArrayList<>(getTimings().entrySet());
+		entries.sort((a, b) -> Long.compare(total(b.getValue()), total(a.getValue())));
+		StringBuilder report = new StringBuilder("Module startup times (ms):");
+		for (Map.Entry<String, Map<String, Long>> entry : entries) {
+			report.append(System.lineSeparator()).append("  ").append(entry.getKey()).append(" [layer ").append(
+			    layerById.getOrDefault(entry.getKey(), -1)).append("] total=").append(total(entry.getValue()));
+			for (Map.Entry<String, Long> phase : entry.getValue().entrySet()) {
+				report.append(", ").append(phase.getKey()).append('=').append(phase.getValue());
+			}
+		}
+		return report.toString();
+	}
+
+	private static long total(Map<String, Long> phases) {
+		return phases.values().stream().mapToLong(Long::longValue).sum();
+	}
+
+	/**
+	 * A part of the startup of a module
+	 */
+	@FunctionalInterface
+	public interface ModuleTask<T> {
+
+		/**
+		 * @param module the module being started
+		 * @return the result of the task, null if it has none
+		 * @throws Exception if the task fails
+		 */
+		T run(Module module) throws Exception;
+	}
+
+	private static class StartupThreadFactory implements ThreadFactory {
+
+		private final String phase;
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		StartupThreadFactory(String phase) {
+			this.phase = phase;
+		}
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "Module startup " + phase + " " + count.incrementAndGet());
+			thread.setDaemon(true);
+			thread.setContextClassLoader(OpenmrsClassLoader.getInstance());
+			return thread;
+		}
+	}
+}
@@ -9,6 +9,8 @@
  */
 package org.openmrs.notification;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
 import org.openmrs.User;
@@ -48,4 +50,63 @@ public interface AlertDAO {
 	 */
 	public List<Alert> getAllAlerts(boolean includeExpired);
 	
+	/**
+	 * Gets the unread alerts with the given text that were created at or after the given date
+	 *
+	 * @param text the text of the alerts
+	 * @param since the earliest creation date of the alerts
+	 * @return the matching alerts
+	 * @since 2.7.0
+	 */
+	public List<Alert> getUnreadAlertsByText(String text, Date since) throws DAOException;
+	
+	/**
+	 * @param userId the id of the user
+	 * @return the stored unread alert count of the user, null if there is none
+	 * @since 2.7.0
+	 */
+	public AlertUnreadCount getAlertUnreadCount(Integer userId) throws DAOException;
+	
+	/**
+	 * Gets the stored unread alert count of a user and locks it until the end of the transaction, so
+	 * that concurrent updates of the count are applied one after the other
+	 *
+	 * @param userId the id of the user
+	 * @return the stored unread alert count of the user, null if there is none
+	 * @since 2.7.0
+	 */
+	public AlertUnreadCount getAlertUnreadCountForUpdate(Integer userId) throws DAOException;
+	
+	/**
+	 * @return the stored unread alert counts of all users
+	 * @since 2.7.0
+	 */
+	public List<AlertUnreadCount> getAllAlertUnreadCounts() throws DAOException;
+	
+	/**
+	 * @since 2.7.0
+	 */
+	public AlertUnreadCount saveAlertUnreadCount(AlertUnreadCount alertUnreadCount) throws DAOException;
+	
+	/**
+	 * @since 2.7.0
+	 */
+	public void deleteAlertUnreadCount(AlertUnreadCount alertUnreadCount) throws DAOException;
+	
+	/**
+	 * Counts the unread alerts that are not expired at the given date from the alerts themselves
+	 *
+	 * @param userIds the ids of the users to count the alerts of, null to count them for all users
+	 * @param now the date to check the expiration of the alerts against
+	 * @return new unsaved counts of the users that have unread alerts
+	 * @since 2.7.0
+	 */
+	public List<AlertUnreadCount> countUnreadAlerts(Collection<Integer> userIds, Date now) throws DAOException;
+	
+	/**
+	 * @see org.openmrs.notification.AlertService#getUnreadAlertIds(User, Date)
+	 * @since 2.7.0
+	 */
+	public List<Integer> getUnreadAlertIds(Integer userId, Date since, Date now) throws DAOException;
+	
 }
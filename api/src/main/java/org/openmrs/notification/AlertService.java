@@ -9,6 +9,7 @@
  */
 package org.openmrs.notification;
 
+import java.util.Date;
 import java.util.List;
 
 import org.openmrs.User;
@@ -89,6 +90,49 @@ public interface AlertService extends OpenmrsService {
 	 */
 	public List<Alert> getAlertsByUser(User user) throws APIException;
 	
+	/**
+	 * Gets the number of alerts that are not read and have not expired for a user, the same alerts
+	 * {@link #getAlertsByUser(User)} returns. The count is maintained when alerts are saved or
+	 * purged, so no alerts are queried unless the user has no stored count yet or one of the counted
+	 * alerts expired since it was last calculated. Reading the count never writes it.
+	 * 
+	 * @param user the user to count the alerts of, the authenticated user if null
+	 * @return the number of unread alerts, 0 if no user is authenticated
+	 * @throws APIException
+	 * @since 2.7.0
+	 * <strong>Should</strong> return the number of unread alerts of the user
+	 * <strong>Should</strong> update the count when an alert is saved or marked read
+	 * <strong>Should</strong> update the count when an alert is purged
+	 * <strong>Should</strong> not count expired alerts
+	 * <strong>Should</strong> count the alerts without storing the count if there is none
+	 */
+	public int getUnreadAlertCount(User user) throws APIException;
+	
+	/**
+	 * Gets the ids of the alerts that are not read and have not expired for a user, without loading
+	 * the alerts
+	 * 
+	 * @param user the user to get the alerts of, the authenticated user if null
+	 * @param since only alerts created after this date are returned, all if null
+	 * @return the alert ids, the most recent first
+	 * @throws APIException
+	 * @since 2.7.0
+	 * <strong>Should</strong> return the ids of the unread alerts created after the given date
+	 */
+	public List<Integer> getUnreadAlertIds(User user, Date since) throws APIException;
+	
+	/**
+	 * Recalculates the unread alert counts of all users from the alerts and corrects the ones that
+	 * differ, e.g. because alerts expired or were changed directly in the database
+	 * 
+	 * @return the number of counts that were corrected
+	 * @throws APIException
+	 * @since 2.7.0
+	 * <strong>Should</strong> correct counts that differ from the alerts
+	 */
+	@Authorized(PrivilegeConstants.MANAGE_ALERTS)
+	public int reconcileUnreadAlertCounts() throws APIException;
+	
 	/**
 	 * Finds alerts for the given user with the given status
 	 * 
@@ -118,7 +162,10 @@ public interface AlertService extends OpenmrsService {
 	public List<Alert> getAllAlerts(boolean includeExpired) throws APIException;
 	
 	/**
-	 * Sends an alert to all superusers
+	 * Sends an alert to all superusers. No alert is created if an unread alert with the same text was
+	 * created within the last
+	 * {@link org.openmrs.util.OpenmrsConstants#GLOBAL_PROPERTY_SUPER_USER_ALERT_COALESCE_WINDOW}
+	 * minutes, so that an error that keeps repeating does not flood the superusers with alerts.
 	 * 
 	 * @param messageCode The alert message code from messages.properties
 	 * @param cause The exception that was thrown, method will work if cause is null
@@ -126,6 +173,8 @@ public interface AlertService extends OpenmrsService {
 	 * <strong>Should</strong> add an alert with message of length equals Text Max Length
 	 * <strong>Should</strong> add an alert with message text if cause is null
 	 * <strong>Should</strong> add an alert to the database
+	 * <strong>Should</strong> not add an alert if an unread alert with the same text was recently added
+	 * <strong>Should</strong> add an alert again if coalescing is disabled
 	 */
 	@Authorized(PrivilegeConstants.MANAGE_ALERTS)
 	public void notifySuperUsers(String messageCode, Exception cause, Object... messageArguments);
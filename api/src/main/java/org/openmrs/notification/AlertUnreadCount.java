@@ -0,0 +1,104 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.notification;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * The number of unread and unexpired alerts of a user, maintained by the {@link AlertService} so
+ * that the unread count can be shown without querying the alerts. The date the first of the counted
+ * alerts expires is kept with the count. A count that went stale because an alert expired is
+ * counted from the alerts when it is read, and stored again by the next write or reconciliation.
+ *
+ * @see AlertService#getUnreadAlertCount(org.openmrs.User)
+ * @since 2.7.0
+ */
+@Entity
+@Table(name = "notification_alert_unread_count")
+public class AlertUnreadCount implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	@Column(name = "user_id")
+	private Integer userId;
+
+	@Column(name = "unread_count", nullable = false)
+	private Integer unreadCount = 0;
+
+	@Column(name = "next_expiration")
+	private Date nextExpiration;
+
+	@Column(name = "date_changed", nullable = false)
+	private Date dateChanged;
+
+	public AlertUnreadCount() {
+	}
+
+	/**
+	 * @param userId the id of the user
+	 * @param unreadCount the number of unread and unexpired alerts of the user
+	 * @param nextExpiration the date the first of these alerts expires, null if none of them expires
+	 */
+	public AlertUnreadCount(Integer userId, Integer unreadCount, Date nextExpiration) {
+		this.userId = userId;
+		this.unreadCount = unreadCount;
+		this.nextExpiration = nextExpiration;
+	}
+
+	/**
+	 * @param date the date to check against
+	 * @return true if one of the counted alerts expired at the given date
+	 */
+	public boolean isExpiredAt(Date date) {
+		return nextExpiration != null && !nextExpiration.after(date);
+	}
+
+	public Integer getUserId() {
+		return userId;
+	}
+
+	public void setUserId(Integer userId) {
+		this.userId = userId;
+	}
+
+	public Integer getUnreadCount() {
+		return unreadCount;
+	}
+
+	public void setUnreadCount(Integer unreadCount) {
+		this.unreadCount = unreadCount;
+	}
+
+	public Date getNextExpiration() {
+		return nextExpiration;
+	}
+
+	public void setNextExpiration(Date nextExpiration) {
+		this.nextExpiration = nextExpiration;
+	}
+
+	/**
+	 * @return the date the count was last calculated
+	 */
+	public Date getDateChanged() {
+		return dateChanged;
+	}
+
+	public void setDateChanged(Date dateChanged) {
+		this.dateChanged = dateChanged;
+	}
+}
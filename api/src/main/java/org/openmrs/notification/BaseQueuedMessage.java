@@ -0,0 +1,197 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.notification;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.MappedSuperclass;
+
+import org.openmrs.BaseOpenmrsObject;
+
+/**
+ * The parts of a {@link Message} that are kept while it waits in the outbound message queue, shared
+ * by the {@link QueuedMessage}s that are still to be sent and the {@link DeadLetterMessage}s that
+ * could not be sent.
+ *
+ * @since 2.7.0
+ */
+@MappedSuperclass
+public abstract class BaseQueuedMessage extends BaseOpenmrsObject {
+
+	private static final long serialVersionUID = 1L;
+
+	@Column(name = "recipients", nullable = false, length = 65535)
+	private String recipients;
+
+	@Column(name = "sender", length = 255)
+	private String sender;
+
+	@Column(name = "subject", length = 1024)
+	private String subject;
+
+	@Column(name = "content", length = 16777215)
+	private String content;
+
+	@Column(name = "content_type", length = 255)
+	private String contentType;
+
+	@Column(name = "attachment", length = 16777215)
+	private String attachment;
+
+	@Column(name = "attachment_content_type", length = 255)
+	private String attachmentContentType;
+
+	@Column(name = "attachment_file_name", length = 255)
+	private String attachmentFileName;
+
+	@Column(name = "attempts", nullable = false)
+	private Integer attempts = 0;
+
+	@Column(name = "last_error", length = 65535)
+	private String lastError;
+
+	@Column(name = "date_created", nullable = false)
+	private Date dateCreated;
+
+	/**
+	 * Copies the parts of the given message
+	 *
+	 * @param message the message to copy
+	 */
+	protected void copyFrom(Message message) {
+		setRecipients(message.getRecipients());
+		setSender(message.getSender());
+		setSubject(message.getSubject());
+		setContent(message.getContent());
+		setContentType(message.getContentType());
+		setAttachment(message.getAttachment());
+		setAttachmentContentType(message.getAttachmentContentType());
+		setAttachmentFileName(message.getAttachmentFileName());
+	}
+
+	/**
+	 * Copies the message and the delivery state of another queued message
+	 *
+	 * @param other the queued message to copy
+	 */
+	protected void copyFrom(BaseQueuedMessage other) {
+		copyFrom(other.toMessage());
+		setAttempts(other.getAttempts());
+		setLastError(other.getLastError());
+		setDateCreated(other.getDateCreated());
+	}
+
+	/**
+	 * @return a new message with the parts of this queued message, ready to be handed to a
+	 *         {@link MessageSender}
+	 */
+	public Message toMessage() {
+		return new Message(null, recipients, sender, subject, content, contentType, attachment,
+		        attachmentContentType, attachmentFileName);
+	}
+
+	public String getRecipients() {
+		return recipients;
+	}
+
+	public void setRecipients(String recipients) {
+		this.recipients = recipients;
+	}
+
+	public String getSender() {
+		return sender;
+	}
+
+	public void setSender(String sender) {
+		this.sender = sender;
+	}
+
+	public String getSubject() {
+		return subject;
+	}
+
+	public void setSubject(String subject) {
+		this.subject = subject;
+	}
+
+	public String getContent() {
+		return content;
+	}
+
+	public void setContent(String content) {
+		this.content = content;
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	public void setContentType(String contentType) {
+		this.contentType = contentType;
+	}
+
+	public String getAttachment() {
+		return attachment;
+	}
+
+	public void setAttachment(String attachment) {
+		this.attachment = attachment;
+	}
+
+	public String getAttachmentContentType() {
+		return attachmentContentType;
+	}
+
+	public void setAttachmentContentType(String attachmentContentType) {
+		this.attachmentContentType = attachmentContentType;
+	}
+
+	public String getAttachmentFileName() {
+		return attachmentFileName;
+	}
+
+	public void setAttachmentFileName(String attachmentFileName) {
+		this.attachmentFileName = attachmentFileName;
+	}
+
+	/**
+	 * @return the number of times sending the message failed
+	 */
+	public Integer getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(Integer attempts) {
+		this.attempts = attempts;
+	}
+
+	/**
+	 * @return the error of the last failed attempt to send the message
+	 */
+	public String getLastError() {
+		return lastError;
+	}
+
+	public void setLastError(String lastError) {
+		this.lastError = lastError;
+	}
+
+	/**
+	 * @return the date the message was queued
+	 */
+	public Date getDateCreated() {
+		return dateCreated;
+	}
+
+	public void setDateCreated(Date dateCreated) {
+		this.dateCreated = dateCreated;
+	}
+}
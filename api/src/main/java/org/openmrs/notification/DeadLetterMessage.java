@@ -0,0 +1,88 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.notification;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * A message of the outbound message queue that could not be sent within the allowed number of
+ * attempts. It is kept with the error of the last attempt so that it can be inspected and queued
+ * again.
+ *
+ * @see MessageService#getDeadLetterMessages()
+ * @since 2.7.0
+ */
+@Entity
+@Table(name = "notification_message_dead_letter")
+public class DeadLetterMessage extends BaseQueuedMessage {
+
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "notification_message_dead_letter_id")
+	private Integer deadLetterMessageId;
+
+	@Column(name = "date_failed", nullable = false)
+	private Date dateFailed;
+
+	public DeadLetterMessage() {
+	}
+
+	/**
+	 * @param queuedMessage the message that failed for the last time
+	 */
+	public DeadLetterMessage(QueuedMessage queuedMessage) {
+		copyFrom(queuedMessage);
+		setDateFailed(new Date());
+	}
+
+	/**
+	 * @see org.openmrs.OpenmrsObject#getId()
+	 */
+	@Override
+	public Integer getId() {
+		return getDeadLetterMessageId();
+	}
+
+	/**
+	 * @see org.openmrs.OpenmrsObject#setId(java.lang.Integer)
+	 */
+	@Override
+	public void setId(Integer id) {
+		setDeadLetterMessageId(id);
+	}
+
+	public Integer getDeadLetterMessageId() {
+		return deadLetterMessageId;
+	}
+
+	public void setDeadLetterMessageId(Integer deadLetterMessageId) {
+		this.deadLetterMessageId = deadLetterMessageId;
+	}
+
+	/**
+	 * @return the date of the last failed attempt to send the message
+	 */
+	public Date getDateFailed() {
+		return dateFailed;
+	}
+
+	public void setDateFailed(Date dateFailed) {
+		this.dateFailed = dateFailed;
+	}
+}
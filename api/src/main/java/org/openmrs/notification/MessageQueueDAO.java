@@ -0,0 +1,54 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.notification;
+
+import java.util.Date;
+import java.util.List;
+
+import org.openmrs.api.db.DAOException;
+
+/**
+ * Database methods for the outbound message queue of the MessageService
+ *
+ * @see org.openmrs.notification.MessageService
+ * @since 2.7.0
+ */
+public interface MessageQueueDAO {
+	
+	/**
+	 * @see org.openmrs.notification.MessageService#queueMessage(Message)
+	 */
+	public QueuedMessage saveQueuedMessage(QueuedMessage queuedMessage) throws DAOException;
+	
+	/**
+	 * Gets the queued messages ordered by the date they are due, oldest first
+	 *
+	 * @param dueBy only messages due at or before this date are returned, all if null
+	 * @param maxResults the maximum number of messages to return, all if null
+	 * @return the queued messages
+	 */
+	public List<QueuedMessage> getQueuedMessages(Date dueBy, Integer maxResults) throws DAOException;
+	
+	public void deleteQueuedMessage(QueuedMessage queuedMessage) throws DAOException;
+	
+	public DeadLetterMessage saveDeadLetterMessage(DeadLetterMessage deadLetterMessage) throws DAOException;
+	
+	/**
+	 * @see org.openmrs.notification.MessageService#getDeadLetterMessage(Integer)
+	 */
+	public DeadLetterMessage getDeadLetterMessage(Integer deadLetterMessageId) throws DAOException;
+	
+	/**
+	 * @see org.openmrs.notification.MessageService#getDeadLetterMessages()
+	 */
+	public List<DeadLetterMessage> getDeadLetterMessages() throws DAOException;
+	
+	public void deleteDeadLetterMessage(DeadLetterMessage deadLetterMessage) throws DAOException;
+}
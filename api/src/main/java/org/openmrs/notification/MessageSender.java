@@ -9,7 +9,34 @@
  */
 package org.openmrs.notification;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 public interface MessageSender {
 	
 	public void send(Message message) throws MessageException;
+	
+	/**
+	 * Sends a batch of messages, a failure to send one message does not stop the others from being
+	 * sent. Implementations should override this to reuse a connection for the whole batch, the
+	 * default sends the messages one by one.
+	 *
+	 * @param messages the messages to send
+	 * @return the exceptions of the messages that could not be sent, keyed by the message, empty if
+	 *         all were sent
+	 * @since 2.7.0
+	 */
+	public default Map<Message, MessageException> sendBatch(List<Message> messages) {
+		Map<Message, MessageException> failures = new HashMap<>();
+		for (Message message : messages) {
+			try {
+				send(message);
+			}
+			catch (MessageException e) {
+				failures.put(message, e);
+			}
+		}
+		return failures;
+	}
 }
@@ -31,11 +31,14 @@ public interface MessageService {
 	/* Send Message Methods */
 
 	/**
-	 * TODO Auto generated method comment
+	 * Sends the message, or adds it to the outbound message queue if the
+	 * {@link org.openmrs.util.OpenmrsConstants#GLOBAL_PROPERTY_MESSAGE_QUEUE_ENABLED} global property
+	 * is true.
 	 * 
 	 * @param message
 	 * @throws MessageException
 	 * <strong>Should</strong> send message
+	 * <strong>Should</strong> queue the message if the message queue is enabled
 	 */
 	public void sendMessage(Message message) throws MessageException;
 	
@@ -56,6 +59,71 @@ public interface MessageService {
 	
 	public void sendMessage(String recipients, String sender, String subject, String message) throws MessageException;
 	
+	/* Message queue methods */
+
+	/**
+	 * Adds the message to the outbound message queue, it is sent the next time the queue is
+	 * processed.
+	 *
+	 * @param message the message to send
+	 * @return the queued message
+	 * @throws MessageException if the message has no recipients
+	 * @since 2.7.0
+	 * <strong>Should</strong> save the message to the queue
+	 * <strong>Should</strong> fail if the message has no recipients
+	 */
+	public QueuedMessage queueMessage(Message message) throws MessageException;
+	
+	/**
+	 * Sends the queued messages that are due. The messages are split into batches of
+	 * {@link org.openmrs.util.OpenmrsConstants#GLOBAL_PROPERTY_MESSAGE_QUEUE_BATCH_SIZE} messages that
+	 * are sent in parallel by {@link org.openmrs.util.OpenmrsConstants#GLOBAL_PROPERTY_MESSAGE_QUEUE_THREADS}
+	 * threads, each batch over a single connection. Sent messages are removed from the queue, a
+	 * message that could not be sent is tried again after a delay that doubles with every failure
+	 * and is moved to the dead letter messages once it failed
+	 * {@link org.openmrs.util.OpenmrsConstants#GLOBAL_PROPERTY_MESSAGE_QUEUE_MAX_ATTEMPTS} times. <br>
+	 * <br>
+	 * At most one batch per thread is sent by a call, callers should call this method again as long
+	 * as it returns a number greater than 0.
+	 *
+	 * @return the number of messages that were attempted to be sent
+	 * @since 2.7.0
+	 * <strong>Should</strong> send due messages in batches and remove them from the queue
+	 * <strong>Should</strong> not send messages that are not due yet
+	 * <strong>Should</strong> retry failed messages with an increasing delay
+	 * <strong>Should</strong> move messages that failed too often to the dead letter messages
+	 */
+	public int processMessageQueue();
+	
+	/**
+	 * @return all queued messages ordered by the date they are due
+	 * @since 2.7.0
+	 */
+	public List<QueuedMessage> getQueuedMessages();
+	
+	/**
+	 * @param deadLetterMessageId the id of the dead letter message
+	 * @return the dead letter message with the given id
+	 * @since 2.7.0
+	 */
+	public DeadLetterMessage getDeadLetterMessage(Integer deadLetterMessageId);
+	
+	/**
+	 * @return the messages that could not be sent, the most recently failed first
+	 * @since 2.7.0
+	 */
+	public List<DeadLetterMessage> getDeadLetterMessages();
+	
+	/**
+	 * Moves a dead letter message back to the queue to be sent again
+	 *
+	 * @param deadLetterMessage the dead letter message to send again
+	 * @return the queued message
+	 * @since 2.7.0
+	 * <strong>Should</strong> move the message back to the queue
+	 */
+	public QueuedMessage requeueDeadLetterMessage(DeadLetterMessage deadLetterMessage);
+	
 	// Prepare message methods
 	public Message createMessage(String subject, String message) throws MessageException;
 	
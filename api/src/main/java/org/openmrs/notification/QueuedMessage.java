@@ -0,0 +1,91 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.notification;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * A message waiting in the outbound message queue to be sent by
+ * {@link MessageService#processMessageQueue()}. A message that could not be sent stays in the queue
+ * until its {@link #getNextAttempt()} and is moved to the {@link DeadLetterMessage}s once it failed
+ * too many times.
+ *
+ * @since 2.7.0
+ */
+@Entity
+@Table(name = "notification_message_queue")
+public class QueuedMessage extends BaseQueuedMessage {
+
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "notification_message_queue_id")
+	private Integer queuedMessageId;
+
+	@Column(name = "next_attempt", nullable = false)
+	private Date nextAttempt;
+
+	public QueuedMessage() {
+	}
+
+	/**
+	 * Creates a queued message that is due immediately
+	 *
+	 * @param message the message to queue
+	 */
+	public QueuedMessage(Message message) {
+		copyFrom(message);
+		setDateCreated(new Date());
+		setNextAttempt(getDateCreated());
+	}
+
+	/**
+	 * @see org.openmrs.OpenmrsObject#getId()
+	 */
+	@Override
+	public Integer getId() {
+		return getQueuedMessageId();
+	}
+
+	/**
+	 * @see org.openmrs.OpenmrsObject#setId(java.lang.Integer)
+	 */
+	@Override
+	public void setId(Integer id) {
+		setQueuedMessageId(id);
+	}
+
+	public Integer getQueuedMessageId() {
+		return queuedMessageId;
+	}
+
+	public void setQueuedMessageId(Integer queuedMessageId) {
+		this.queuedMessageId = queuedMessageId;
+	}
+
+	/**
+	 * @return the date from which on the message is due to be sent
+	 */
+	public Date getNextAttempt() {
+		return nextAttempt;
+	}
+
+	public void setNextAttempt(Date nextAttempt) {
+		this.nextAttempt = nextAttempt;
+	}
+}
@@ -9,18 +9,24 @@
  */
 package org.openmrs.notification.db.hibernate;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
+import javax.persistence.LockModeType;
+
 import org.hibernate.Criteria;
 import org.hibernate.SessionFactory;
 import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.query.Query;
 import org.openmrs.User;
 import org.openmrs.api.db.DAOException;
 import org.openmrs.notification.Alert;
 import org.openmrs.notification.AlertDAO;
+import org.openmrs.notification.AlertUnreadCount;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,6 +37,11 @@ public class HibernateAlertDAO implements AlertDAO {
 	
 	private static final Logger log = LoggerFactory.getLogger(HibernateAlertDAO.class);
 	
+	/**
+	 * The maximum number of user ids passed to one in clause
+	 */
+	private static final int IN_CLAUSE_SIZE = 1000;
+	
 	/**
 	 * Hibernate session factory
 	 */
@@ -127,4 +138,108 @@ public class HibernateAlertDAO implements AlertDAO {
 		return crit.list();
 	}
 	
+	/**
+	 * @see AlertDAO#getUnreadAlertsByText(String, Date)
+	 */
+	@Override
+	public List<Alert> getUnreadAlertsByText(String text, Date since) throws DAOException {
+		return sessionFactory.getCurrentSession()
+		        .createQuery("from Alert a where a.text = :text and a.dateCreated >= :since and a.alertRead = false",
+		            Alert.class).setParameter("text", text).setParameter("since", since).list();
+	}
+	
+	/**
+	 * @see AlertDAO#getAlertUnreadCount(Integer)
+	 */
+	@Override
+	public AlertUnreadCount getAlertUnreadCount(Integer userId) throws DAOException {
+		return sessionFactory.getCurrentSession().get(AlertUnreadCount.class, userId);
+	}
+	
+	/**
+	 * @see AlertDAO#getAlertUnreadCountForUpdate(Integer)
+	 */
+	@Override
+	public AlertUnreadCount getAlertUnreadCountForUpdate(Integer userId) throws DAOException {
+		// a query rather than a get, so that a count saved earlier in the session is flushed before it is locked
+		return sessionFactory.getCurrentSession()
+		        .createQuery("from AlertUnreadCount c where c.userId = :userId", AlertUnreadCount.class)
+		        .setParameter("userId", userId).setLockMode(LockModeType.PESSIMISTIC_WRITE).uniqueResult();
+	}
+	
+	/**
+	 * @see AlertDAO#getAllAlertUnreadCounts()
+	 */
+	@Override
+	public List<AlertUnreadCount> getAllAlertUnreadCounts() throws DAOException {
+		return sessionFactory.getCurrentSession().createQuery("from AlertUnreadCount", AlertUnreadCount.class).list();
+	}
+	
+	/**
+	 * @see AlertDAO#saveAlertUnreadCount(AlertUnreadCount)
+	 */
+	@Override
+	public AlertUnreadCount saveAlertUnreadCount(AlertUnreadCount alertUnreadCount) throws DAOException {
+		sessionFactory.getCurrentSession().saveOrUpdate(alertUnreadCount);
+		return alertUnreadCount;
+	}
+	
+	/**
+	 * @see AlertDAO#deleteAlertUnreadCount(AlertUnreadCount)
+	 */
+	@Override
+	public void deleteAlertUnreadCount(AlertUnreadCount alertUnreadCount) throws DAOException {
+		sessionFactory.getCurrentSession().delete(alertUnreadCount);
+	}
+	
+	/**
+	 * @see AlertDAO#countUnreadAlerts(Collection, Date)
+	 */
+	@Override
+	public List<AlertUnreadCount> countUnreadAlerts(Collection<Integer> userIds, Date now) throws DAOException {
+		List<AlertUnreadCount> counts = new ArrayList<>();
+		if (userIds == null) {
+			addUnreadAlertCounts(null, now, counts);
+			return counts;
+		}
+		List<Integer> ids = new ArrayList<>(userIds);
+		for (int i = 0; i < ids.size(); i += IN_CLAUSE_SIZE) {
+			addUnreadAlertCounts(ids.subList(i, Math.min(i + IN_CLAUSE_SIZE, ids.size())), now, counts);
+		}
+		return counts;
+	}
+	
+	private void addUnreadAlertCounts(List<Integer> userIds, Date now, List<AlertUnreadCount> counts) {
+		String hql = "select r.recipientId, count(a.alertId), min(a.dateToExpire) from Alert a join a.recipients r"
+		        + " where a.alertRead = false and r.alertRead = false"
+		        + " and (a.dateToExpire is null or a.dateToExpire > :now)"
+		        + (userIds != null ? " and r.recipientId in (:userIds)" : "") + " group by r.recipientId";
+		Query<Object[]> query = sessionFactory.getCurrentSession().createQuery(hql, Object[].class);
+		query.setParameter("now", now);
+		if (userIds != null) {
+			query.setParameterList("userIds", userIds);
+		}
+		
+		for (Object[] row : query.list()) {
+			counts.add(new AlertUnreadCount((Integer) row[0], ((Number) row[1]).intValue(), (Date) row[2]));
+		}
+	}
+	
+	/**
+	 * @see AlertDAO#getUnreadAlertIds(Integer, Date, Date)
+	 */
+	@Override
+	public List<Integer> getUnreadAlertIds(Integer userId, Date since, Date now) throws DAOException {
+		String hql = "select a.alertId from Alert a join a.recipients r"
+		        + " where r.recipientId = :userId and a.alertRead = false and r.alertRead = false"
+		        + " and (a.dateToExpire is null or a.dateToExpire > :now)"
+		        + (since != null ? " and a.dateCreated > :since" : "") + " order by a.alertId desc";
+		Query<Integer> query = sessionFactory.getCurrentSession().createQuery(hql, Integer.class);
+		query.setParameter("userId", userId);
+		query.setParameter("now", now);
+		if (since != null) {
+			query.setParameter("since", since);
+		}
+		return query.list();
+	}
 }
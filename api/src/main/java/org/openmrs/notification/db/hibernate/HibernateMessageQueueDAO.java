@@ -0,0 +1,108 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.notification.db.hibernate;
+
+import java.util.Date;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.query.Query;
+import org.openmrs.api.db.DAOException;
+import org.openmrs.notification.DeadLetterMessage;
+import org.openmrs.notification.MessageQueueDAO;
+import org.openmrs.notification.QueuedMessage;
+
+/**
+ * Hibernate specific implementation of the {@link MessageQueueDAO}
+ *
+ * @since 2.7.0
+ */
+public class HibernateMessageQueueDAO implements MessageQueueDAO {
+	
+	private SessionFactory sessionFactory;
+	
+	/**
+	 * Set session factory
+	 *
+	 * @param sessionFactory
+	 */
+	public void setSessionFactory(SessionFactory sessionFactory) {
+		this.sessionFactory = sessionFactory;
+	}
+	
+	/**
+	 * @see MessageQueueDAO#saveQueuedMessage(QueuedMessage)
+	 */
+	@Override
+	public QueuedMessage saveQueuedMessage(QueuedMessage queuedMessage) throws DAOException {
+		sessionFactory.getCurrentSession().saveOrUpdate(queuedMessage);
+		return queuedMessage;
+	}
+	
+	/**
+	 * @see MessageQueueDAO#getQueuedMessages(Date, Integer)
+	 */
+	@Override
+	public List<QueuedMessage> getQueuedMessages(Date dueBy, Integer maxResults) throws DAOException {
+		String hql = "from QueuedMessage m" + (dueBy != null ? " where m.nextAttempt <= :dueBy" : "")
+		        + " order by m.nextAttempt, m.queuedMessageId";
+		Query<QueuedMessage> query = sessionFactory.getCurrentSession().createQuery(hql, QueuedMessage.class);
+		if (dueBy != null) {
+			query.setParameter("dueBy", dueBy);
+		}
+		if (maxResults != null) {
+			query.setMaxResults(maxResults);
+		}
+		return query.list();
+	}
+	
+	/**
+	 * @see MessageQueueDAO#deleteQueuedMessage(QueuedMessage)
+	 */
+	@Override
+	public void deleteQueuedMessage(QueuedMessage queuedMessage) throws DAOException {
+		sessionFactory.getCurrentSession().delete(queuedMessage);
+	}
+	
+	/**
+	 * @see MessageQueueDAO#saveDeadLetterMessage(DeadLetterMessage)
+	 */
+	@Override
+	public DeadLetterMessage saveDeadLetterMessage(DeadLetterMessage deadLetterMessage) throws DAOException {
+		sessionFactory.getCurrentSession().saveOrUpdate(deadLetterMessage);
+		return deadLetterMessage;
+	}
+	
+	/**
+	 * @see MessageQueueDAO#getDeadLetterMessage(Integer)
+	 */
+	@Override
+	public DeadLetterMessage getDeadLetterMessage(Integer deadLetterMessageId) throws DAOException {
+		return sessionFactory.getCurrentSession().get(DeadLetterMessage.class, deadLetterMessageId);
+	}
+	
+	/**
+	 * @see MessageQueueDAO#getDeadLetterMessages()
+	 */
+	@Override
+	public List<DeadLetterMessage> getDeadLetterMessages() throws DAOException {
+		return sessionFactory.getCurrentSession()
+		        .createQuery("from DeadLetterMessage m order by m.dateFailed desc, m.deadLetterMessageId desc",
+		            DeadLetterMessage.class).list();
+	}
+	
+	/**
+	 * @see MessageQueueDAO#deleteDeadLetterMessage(DeadLetterMessage)
+	 */
+	@Override
+	public void deleteDeadLetterMessage(DeadLetterMessage deadLetterMessage) throws DAOException {
+		sessionFactory.getCurrentSession().delete(deadLetterMessage);
+	}
+}
@@ -10,9 +10,17 @@
 package org.openmrs.notification.impl;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
+import org.apache.commons.lang3.StringUtils;
 import org.openmrs.Role;
 import org.openmrs.User;
 import org.openmrs.api.APIException;
@@ -23,6 +31,8 @@ import org.openmrs.notification.Alert;
 import org.openmrs.notification.AlertRecipient;
 import org.openmrs.notification.AlertService;
 import org.openmrs.notification.AlertDAO;
+import org.openmrs.notification.AlertUnreadCount;
+import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.RoleConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -84,7 +94,95 @@ public class AlertServiceImpl extends BaseOpenmrsService implements Serializable
 			}
 		}
 		
-		return dao.saveAlert(alert);
+		boolean isNew = alert.getAlertId() == null;
+		Alert savedAlert = dao.saveAlert(alert);
+		if (isNew) {
+			addToUnreadAlertCounts(savedAlert);
+		} else {
+			updateUnreadAlertCounts(getRecipientIds(alert));
+		}
+		return savedAlert;
+	}
+	
+	private Set<Integer> getRecipientIds(Alert alert) {
+		Set<Integer> userIds = new HashSet<>();
+		if (alert.getRecipients() != null) {
+			for (AlertRecipient recipient : alert.getRecipients()) {
+				if (recipient.getRecipient() != null && recipient.getRecipient().getUserId() != null) {
+					userIds.add(recipient.getRecipient().getUserId());
+				}
+			}
+		}
+		return userIds;
+	}
+	
+	/**
+	 * Adds a new alert to the unread alert counts of its recipients, the counts that do not exist yet
+	 * or went stale because an alert expired are recalculated instead
+	 */
+	private void addToUnreadAlertCounts(Alert alert) {
+		Date now = new Date();
+		if (alert.getRecipients() == null || Boolean.TRUE.equals(alert.isAlertRead())
+		        || (alert.getDateToExpire() != null && !alert.getDateToExpire().after(now))) {
+			return;
+		}
+		
+		Set<Integer> userIds = new TreeSet<>();
+		for (AlertRecipient recipient : alert.getRecipients()) {
+			if (!Boolean.TRUE.equals(recipient.isAlertRead()) && recipient.getRecipient() != null
+			        && recipient.getRecipient().getUserId() != null) {
+				userIds.add(recipient.getRecipient().getUserId());
+			}
+		}
+		
+		Set<Integer> recount = new TreeSet<>();
+		for (Integer userId : userIds) {
+			AlertUnreadCount count = dao.getAlertUnreadCountForUpdate(userId);
+			if (count == null || count.isExpiredAt(now)) {
+				recount.add(userId);
+				continue;
+			}
+			count.setUnreadCount(count.getUnreadCount() + 1);
+			if (alert.getDateToExpire() != null
+			        && (count.getNextExpiration() == null || alert.getDateToExpire().before(count.getNextExpiration()))) {
+				count.setNextExpiration(alert.getDateToExpire());
+			}
+			count.setDateChanged(now);
+			dao.saveAlertUnreadCount(count);
+		}
+		updateUnreadAlertCounts(recount);
+	}
+	
+	/**
+	 * Recalculates the unread alert counts of the given users in the current transaction with one
+	 * query, and creates the counts that do not exist yet
+	 */
+	private void updateUnreadAlertCounts(Set<Integer> userIds) {
+		if (userIds.isEmpty()) {
+			return;
+		}
+		Date now = new Date();
+		// the counts are locked in the same order by every transaction so that they cannot deadlock
+		Map<Integer, AlertUnreadCount> stored = new HashMap<>();
+		for (Integer userId : new TreeSet<>(userIds)) {
+			stored.put(userId, dao.getAlertUnreadCountForUpdate(userId));
+		}
+		Map<Integer, AlertUnreadCount> counted = new HashMap<>();
+		for (AlertUnreadCount count : dao.countUnreadAlerts(userIds, now)) {
+			counted.put(count.getUserId(), count);
+		}
+		
+		for (Map.Entry<Integer, AlertUnreadCount> entry : stored.entrySet()) {
+			AlertUnreadCount count = entry.getValue();
+			if (count == null) {
+				count = new AlertUnreadCount(entry.getKey(), 0, null);
+			}
+			AlertUnreadCount actual = counted.get(entry.getKey());
+			count.setUnreadCount(actual != null ? actual.getUnreadCount() : 0);
+			count.setNextExpiration(actual != null ? actual.getNextExpiration() : null);
+			count.setDateChanged(now);
+			dao.saveAlertUnreadCount(count);
+		}
 	}
 
 	/**
@@ -101,7 +199,9 @@ public class AlertServiceImpl extends BaseOpenmrsService implements Serializable
 	 */
 	@Override
 	public void purgeAlert(Alert alert) throws APIException {
+		Set<Integer> userIds = getRecipientIds(alert);
 		dao.deleteAlert(alert);
+		updateUnreadAlertCounts(userIds);
 	}
 	
 	/**
@@ -133,6 +233,92 @@ public class AlertServiceImpl extends BaseOpenmrsService implements Serializable
 		return Context.getAlertService().getAlerts(user, false, false);
 	}
 
+	/**
+	 * @see org.openmrs.notification.AlertService#getUnreadAlertCount(org.openmrs.User)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public int getUnreadAlertCount(User user) throws APIException {
+		Integer userId = getUserId(user);
+		if (userId == null) {
+			return 0;
+		}
+		
+		Date now = new Date();
+		AlertUnreadCount count = dao.getAlertUnreadCount(userId);
+		if (count != null && !count.isExpiredAt(now)) {
+			return count.getUnreadCount();
+		}
+		// the stored count is only written when alerts are saved or reconciled, never when it is read
+		List<AlertUnreadCount> counted = dao.countUnreadAlerts(Collections.singleton(userId), now);
+		return counted.isEmpty() ? 0 : counted.get(0).getUnreadCount();
+	}
+	
+	/**
+	 * @see org.openmrs.notification.AlertService#getUnreadAlertIds(org.openmrs.User, java.util.Date)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<Integer> getUnreadAlertIds(User user, Date since) throws APIException {
+		Integer userId = getUserId(user);
+		if (userId == null) {
+			return new ArrayList<>();
+		}
+		return dao.getUnreadAlertIds(userId, since, new Date());
+	}
+	
+	/**
+	 * @return the id of the given user or of the authenticated user if null, null if there is none
+	 */
+	private Integer getUserId(User user) {
+		if (user == null && Context.isAuthenticated()) {
+			user = Context.getAuthenticatedUser();
+		}
+		return user != null ? user.getUserId() : null;
+	}
+	
+	/**
+	 * @see org.openmrs.notification.AlertService#reconcileUnreadAlertCounts()
+	 */
+	@Override
+	public int reconcileUnreadAlertCounts() throws APIException {
+		Date now = new Date();
+		Map<Integer, AlertUnreadCount> counted = new HashMap<>();
+		for (AlertUnreadCount count : dao.countUnreadAlerts(null, now)) {
+			counted.put(count.getUserId(), count);
+		}
+		
+		int corrected = 0;
+		for (AlertUnreadCount stored : dao.getAllAlertUnreadCounts()) {
+			AlertUnreadCount actual = counted.remove(stored.getUserId());
+			int unread = actual != null ? actual.getUnreadCount() : 0;
+			Date nextExpiration = actual != null ? actual.getNextExpiration() : null;
+			if (stored.getUnreadCount() != unread || !isSameDate(stored.getNextExpiration(), nextExpiration)) {
+				stored.setUnreadCount(unread);
+				stored.setNextExpiration(nextExpiration);
+				stored.setDateChanged(now);
+				dao.saveAlertUnreadCount(stored);
+				corrected++;
+			}
+		}
+		for (AlertUnreadCount missing : counted.values()) {
+			missing.setDateChanged(now);
+			dao.saveAlertUnreadCount(missing);
+			corrected++;
+		}
+		
+		log.debug("Corrected {} unread alert counts", corrected);
+		return corrected;
+	}
+	
+	/**
+	 * Compares the instants of the dates, dates read from the database are timestamps which are never
+	 * equal to a plain date
+	 */
+	private boolean isSameDate(Date date, Date other) {
+		return date == null ? other == null : other != null && date.getTime() == other.getTime();
+	}
+	
 	/**
 	 * @see org.openmrs.notification.AlertService#getAlerts(org.openmrs.User, boolean, boolean)
 	 */
@@ -190,6 +376,12 @@ public class AlertServiceImpl extends BaseOpenmrsService implements Serializable
 			message = message.substring(0, Math.min(message.length(), Alert.TEXT_MAX_LENGTH));
 		}
 		
+		// a repeating error would otherwise create a new alert for every occurrence
+		if (isRecentlyAlerted(message)) {
+			log.debug("Not alerting the super users again about: {}", message);
+			return;
+		}
+		
 		//Send an alert to all administrators
 		Alert alert = new Alert(message, Context.getUserService().getUsersByRole(new Role(RoleConstants.SUPERUSER)));
 		
@@ -205,4 +397,24 @@ public class AlertServiceImpl extends BaseOpenmrsService implements Serializable
 		// save the alert to send it to all administrators
 		Context.getAlertService().saveAlert(alert);
 	}
+	
+	private boolean isRecentlyAlerted(String message) {
+		String window = Context.getAdministrationService().getGlobalProperty(
+		    OpenmrsConstants.GLOBAL_PROPERTY_SUPER_USER_ALERT_COALESCE_WINDOW);
+		long minutes = 0;
+		if (StringUtils.isNotBlank(window)) {
+			try {
+				minutes = Long.parseLong(window.trim());
+			}
+			catch (NumberFormatException e) {
+				log.warn("Invalid value for the global property {}: {}",
+				    OpenmrsConstants.GLOBAL_PROPERTY_SUPER_USER_ALERT_COALESCE_WINDOW, window);
+			}
+		}
+		if (minutes <= 0) {
+			return false;
+		}
+		Date since = new Date(System.currentTimeMillis() - minutes * 60 * 1000);
+		return !dao.getUnreadAlertsByText(message, since).isEmpty();
+	}
 }
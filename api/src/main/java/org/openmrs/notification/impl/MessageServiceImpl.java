@@ -10,19 +10,31 @@
 package org.openmrs.notification.impl;
 
 import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.openmrs.Role;
 import org.openmrs.User;
+import org.openmrs.api.AdministrationService;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.TemplateDAO;
+import org.openmrs.notification.DeadLetterMessage;
 import org.openmrs.notification.Message;
 import org.openmrs.notification.MessageException;
 import org.openmrs.notification.MessagePreparator;
+import org.openmrs.notification.MessageQueueDAO;
 import org.openmrs.notification.MessageSender;
 import org.openmrs.notification.MessageService;
+import org.openmrs.notification.QueuedMessage;
 import org.openmrs.notification.Template;
 import org.openmrs.util.OpenmrsConstants;
 import org.slf4j.Logger;
@@ -34,8 +46,15 @@ public class MessageServiceImpl implements MessageService {
 	
 	private static final Logger log = LoggerFactory.getLogger(MessageServiceImpl.class);
 	
+	/**
+	 * The longest delay before a failed message is sent again, in seconds
+	 */
+	private static final long MAX_RETRY_DELAY = 24 * 60 * 60;
+	
 	private TemplateDAO templateDAO;
 	
+	private MessageQueueDAO messageQueueDAO;
+	
 	private MessageSender messageSender; // Delivers message 
 	
 	private MessagePreparator messagePreparator; // Prepares message for delivery 
@@ -44,6 +63,10 @@ public class MessageServiceImpl implements MessageService {
 		this.templateDAO = dao;
 	}
 	
+	public void setMessageQueueDAO(MessageQueueDAO messageQueueDAO) {
+		this.messageQueueDAO = messageQueueDAO;
+	}
+	
 	/**
 	 * Public constructor Required for use with spring's method injection. Be careful because this
 	 * class requires a DAO Context in order to work properly. Please set the DAO context
@@ -89,6 +112,11 @@ public class MessageServiceImpl implements MessageService {
 	 */
 	@Override
 	public void sendMessage(Message message) throws MessageException {
+		if (Context.getAdministrationService().getGlobalPropertyValue(
+		    OpenmrsConstants.GLOBAL_PROPERTY_MESSAGE_QUEUE_ENABLED, Boolean.FALSE)) {
+			Context.getMessageService().queueMessage(message);
+			return;
+		}
 		try {
 			messageSender.send(message);
 		}
@@ -98,6 +126,182 @@ public class MessageServiceImpl implements MessageService {
 		}
 	}
 	
+	/**
+	 * @see org.openmrs.notification.MessageService#queueMessage(org.openmrs.notification.Message)
+	 */
+	@Override
+	public QueuedMessage queueMessage(Message message) throws MessageException {
+		if (StringUtils.isBlank(message.getRecipients())) {
+			throw new MessageException("Message must contain at least one recipient");
+		}
+		return messageQueueDAO.saveQueuedMessage(new QueuedMessage(message));
+	}
+	
+	/**
+	 * Claims the due messages in the calling thread, hands the batches to a pool of threads that
+	 * only talk to the mail server and records the outcome back in the calling thread, so the
+	 * database is only accessed within the transaction of this method.
+	 *
+	 * @see org.openmrs.notification.MessageService#processMessageQueue()
+	 */
+	@Override
+	public int processMessageQueue() {
+		AdministrationService administrationService = Context.getAdministrationService();
+		int batchSize = Math.max(1, getIntegerGlobalProperty(administrationService,
+		    OpenmrsConstants.GLOBAL_PROPERTY_MESSAGE_QUEUE_BATCH_SIZE, 50));
+		int threads = Math.max(1, getIntegerGlobalProperty(administrationService,
+		    OpenmrsConstants.GLOBAL_PROPERTY_MESSAGE_QUEUE_THREADS, 2));
+		
+		List<QueuedMessage> due = messageQueueDAO.getQueuedMessages(new Date(), batchSize * threads);
+		if (due.isEmpty()) {
+			return 0;
+		}
+		
+		List<List<QueuedMessage>> batches = new ArrayList<>();
+		for (int i = 0; i < due.size(); i += batchSize) {
+			batches.add(due.subList(i, Math.min(i + batchSize, due.size())));
+		}
+		List<List<Message>> batchMessages = new ArrayList<>(batches.size());
+		List<Future<Map<Message, MessageException>>> results = new ArrayList<>(batches.size());
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, batches.size()));
+		try {
+			for (List<QueuedMessage> batch : batches) {
+				List<Message> messages = new ArrayList<>(batch.size());
+				for (QueuedMessage queuedMessage : batch) {
+					messages.add(queuedMessage.toMessage());
+				}
+				batchMessages.add(messages);
+				results.add(executor.submit(() -> sendBatch(messages)));
+			}
+			
+			int maxAttempts = getIntegerGlobalProperty(administrationService,
+			    OpenmrsConstants.GLOBAL_PROPERTY_MESSAGE_QUEUE_MAX_ATTEMPTS, 5);
+			long retryDelay = getIntegerGlobalProperty(administrationService,
+			    OpenmrsConstants.GLOBAL_PROPERTY_MESSAGE_QUEUE_RETRY_DELAY, 60);
+			for (int i = 0; i < batches.size(); i++) {
+				Map<Message, MessageException> failures = waitForBatch(results.get(i), batchMessages.get(i));
+				for (int j = 0; j < batches.get(i).size(); j++) {
+					QueuedMessage queuedMessage = batches.get(i).get(j);
+					MessageException failure = failures.get(batchMessages.get(i).get(j));
+					if (failure == null) {
+						messageQueueDAO.deleteQueuedMessage(queuedMessage);
+					} else {
+						recordFailure(queuedMessage, failure, maxAttempts, retryDelay);
+					}
+				}
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+		
+		return due.size();
+	}
+	
+	/**
+	 * Sends a batch in a worker thread, a session is opened for the message sender to read the mail
+	 * properties
+	 */
+	private Map<Message, MessageException> sendBatch(List<Message> messages) {
+		Context.openSession();
+		try {
+			return messageSender.sendBatch(messages);
+		}
+		finally {
+			Context.closeSession();
+		}
+	}
+	
+	private Map<Message, MessageException> waitForBatch(Future<Map<Message, MessageException>> result,
+	        List<Message> messages) {
+		try {
+			return result.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return failAll(messages, e);
+		}
+		catch (ExecutionException e) {
+			log.error("Unable to send a batch of queued messages", e.getCause());
+			return failAll(messages, e.getCause());
+		}
+	}
+	
+	private Map<Message, MessageException> failAll(List<Message> messages, Throwable cause) {
+		Map<Message, MessageException> failures = new HashMap<>();
+		for (Message message : messages) {
+			failures.put(message, new MessageException(cause));
+		}
+		return failures;
+	}
+	
+	private void recordFailure(QueuedMessage queuedMessage, MessageException failure, int maxAttempts, long retryDelay) {
+		int attempts = queuedMessage.getAttempts() + 1;
+		queuedMessage.setAttempts(attempts);
+		queuedMessage.setLastError(StringUtils.abbreviate(ExceptionUtils.getRootCauseMessage(failure), 65535));
+		if (attempts >= maxAttempts) {
+			log.warn("Moving queued message {} to the dead letter messages after {} failed attempts",
+			    queuedMessage.getQueuedMessageId(), attempts);
+			messageQueueDAO.saveDeadLetterMessage(new DeadLetterMessage(queuedMessage));
+			messageQueueDAO.deleteQueuedMessage(queuedMessage);
+		} else {
+			long delay = Math.min(MAX_RETRY_DELAY, Math.max(0, retryDelay) << Math.min(attempts - 1, 30));
+			queuedMessage.setNextAttempt(new Date(System.currentTimeMillis() + delay * 1000));
+			messageQueueDAO.saveQueuedMessage(queuedMessage);
+		}
+	}
+	
+	private int getIntegerGlobalProperty(AdministrationService administrationService, String name, int defaultValue) {
+		String value = administrationService.getGlobalProperty(name);
+		if (StringUtils.isNotBlank(value)) {
+			try {
+				return Integer.parseInt(value.trim());
+			}
+			catch (NumberFormatException e) {
+				log.warn("Invalid value for the global property {}: {}", name, value);
+			}
+		}
+		return defaultValue;
+	}
+	
+	/**
+	 * @see org.openmrs.notification.MessageService#getQueuedMessages()
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<QueuedMessage> getQueuedMessages() {
+		return messageQueueDAO.getQueuedMessages(null, null);
+	}
+	
+	/**
+	 * @see org.openmrs.notification.MessageService#getDeadLetterMessage(java.lang.Integer)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public DeadLetterMessage getDeadLetterMessage(Integer deadLetterMessageId) {
+		return messageQueueDAO.getDeadLetterMessage(deadLetterMessageId);
+	}
+	
+	/**
+	 * @see org.openmrs.notification.MessageService#getDeadLetterMessages()
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<DeadLetterMessage> getDeadLetterMessages() {
+		return messageQueueDAO.getDeadLetterMessages();
+	}
+	
+	/**
+	 * @see org.openmrs.notification.MessageService#requeueDeadLetterMessage(org.openmrs.notification.DeadLetterMessage)
+	 */
+	@Override
+	public QueuedMessage requeueDeadLetterMessage(DeadLetterMessage deadLetterMessage) {
+		QueuedMessage queuedMessage = new QueuedMessage(deadLetterMessage.toMessage());
+		messageQueueDAO.saveQueuedMessage(queuedMessage);
+		messageQueueDAO.deleteDeadLetterMessage(deadLetterMessage);
+		return queuedMessage;
+	}
+	
 	/**
 	 * Create a message object with the given parts.
 	 *
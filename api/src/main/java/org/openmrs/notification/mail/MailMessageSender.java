@@ -24,6 +24,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.StringUtils;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 public class MailMessageSender implements MessageSender {
@@ -78,6 +81,56 @@ public class MailMessageSender implements MessageSender {
 		}
 	}
 	
+	/**
+	 * Sends the messages over a single connection to the mail server instead of connecting once per
+	 * message. If the connection cannot be opened none of the messages are sent.
+	 *
+	 * @see org.openmrs.notification.MessageSender#sendBatch(List)
+	 */
+	@Override
+	public Map<Message, MessageException> sendBatch(List<Message> messages) {
+		Map<Message, MessageException> failures = new HashMap<>();
+		if (messages.isEmpty()) {
+			return failures;
+		}
+		
+		Transport transport = null;
+		try {
+			transport = session.getTransport();
+			transport.connect();
+		}
+		catch (Exception e) {
+			log.error("failed to connect to the mail server", e);
+			for (Message message : messages) {
+				failures.put(message, new MessageException(e));
+			}
+			return failures;
+		}
+		
+		try {
+			for (Message message : messages) {
+				try {
+					MimeMessage mimeMessage = createMimeMessage(message);
+					mimeMessage.saveChanges();
+					transport.sendMessage(mimeMessage, mimeMessage.getAllRecipients());
+				}
+				catch (Exception e) {
+					log.error("failed to send message", e);
+					failures.put(message, new MessageException(e));
+				}
+			}
+		}
+		finally {
+			try {
+				transport.close();
+			}
+			catch (Exception e) {
+				log.warn("failed to close the connection to the mail server", e);
+			}
+		}
+		return failures;
+	}
+	
 	/**
 	 * Converts the message object to a mime message in order to prepare it to be sent.
 	 *
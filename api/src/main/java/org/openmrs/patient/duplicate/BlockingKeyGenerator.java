@@ -0,0 +1,188 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.patient.duplicate;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Generates the blocking keys of a patient. Only patients that share at least one blocking key are
+ * ever compared with each other, which is what keeps duplicate detection from being quadratic in
+ * the number of patients. A patient gets a key for
+ * <ul>
+ * <li>the phonetic codes of its family and given names plus its gender</li>
+ * <li>the phonetic code of its family name plus its birth year bucket and gender</li>
+ * <li>each of its identifiers, ignoring case and everything but letters and digits</li>
+ * </ul>
+ * so that a typo in any one of these fields does not keep two records apart. Identifiers are used
+ * whole, their prefixes are shared by thousands of patients when identifiers are assigned in
+ * sequence.
+ *
+ * @since 2.7.0
+ */
+public class BlockingKeyGenerator {
+
+	public static final int DEFAULT_BIRTH_YEAR_BUCKET_SIZE = 5;
+
+	private final int birthYearBucketSize;
+
+	public BlockingKeyGenerator() {
+		this(DEFAULT_BIRTH_YEAR_BUCKET_SIZE);
+	}
+
+	/**
+	 * @param birthYearBucketSize the number of birth years that fall into the same bucket
+	 */
+	public BlockingKeyGenerator(int birthYearBucketSize) {
+		if (birthYearBucketSize < 1) {
+			throw new IllegalArgumentException("The birth year bucket size must be positive");
+		}
+		this.birthYearBucketSize = birthYearBucketSize;
+	}
+
+	/**
+	 * Gets the blocking keys of a patient
+	 *
+	 * @param record the patient to generate the keys for
+	 * @return the keys, never null
+	 */
+	public Set<String> getBlockingKeys(DuplicatePatientRecord record) {
+		Set<String> keys = new LinkedHashSet<>();
+		String gender = StringUtils.defaultString(record.getGender()).toUpperCase(Locale.ROOT);
+		String family = soundex(record.getFamilyName());
+		String given = soundex(record.getGivenName());
+
+		if (family != null && given != null) {
+			keys.add("N:" + family + ":" + given + ":" + gender);
+		}
+
+		Integer bucket = getBirthYearBucket(record.getBirthdate());
+		if (family != null && bucket != null) {
+			keys.add("B:" + family + ":" + bucket + ":" + gender);
+		}
+
+		for (String identifier : record.getIdentifiers()) {
+			String normalized = normalizeIdentifier(identifier);
+			if (!normalized.isEmpty()) {
+				keys.add("I:" + normalized);
+			}
+		}
+		return keys;
+	}
+
+	/**
+	 * @param birthdate the birthdate, may be null
+	 * @return the first year of the bucket the birthdate falls into or null if there is no birthdate
+	 */
+	Integer getBirthYearBucket(Date birthdate) {
+		if (birthdate == null) {
+			return null;
+		}
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTime(birthdate);
+		int year = calendar.get(Calendar.YEAR);
+		return year - (year % birthYearBucketSize);
+	}
+
+	/**
+	 * Strips everything but letters and digits from an identifier and upper cases it
+	 *
+	 * @param identifier the identifier to normalize
+	 * @return the normalized identifier, never null
+	 */
+	static String normalizeIdentifier(String identifier) {
+		if (identifier == null) {
+			return "";
+		}
+		StringBuilder sb = new StringBuilder(identifier.length());
+		for (char c : identifier.toCharArray()) {
+			if (Character.isLetterOrDigit(c)) {
+				sb.append(Character.toUpperCase(c));
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * American Soundex code of a name, computed over the ASCII letters of the name only.
+	 *
+	 * @param name the name to encode
+	 * @return the four character code or null if the name has no ASCII letters
+	 */
+	static String soundex(String name) {
+		if (name == null) {
+			return null;
+		}
+		StringBuilder code = new StringBuilder(4);
+		char lastDigit = 0;
+		for (char c : name.toUpperCase(Locale.ROOT).toCharArray()) {
+			if (c < 'A' || c > 'Z') {
+				continue;
+			}
+			char digit = soundexDigit(c);
+			if (code.length() == 0) {
+				code.append(c);
+				lastDigit = digit;
+			} else if (digit != '0' && digit != lastDigit) {
+				code.append(digit);
+				if (code.length() == 4) {
+					break;
+				}
+			}
+			// H and W do not separate letters with the same code, vowels do
+			if (c != 'H' && c != 'W') {
+				lastDigit = digit;
+			}
+		}
+		if (code.length() == 0) {
+			return null;
+		}
+		while (code.length() < 4) {
+			code.append('0');
+		}
+		return code.toString();
+	}
+
+	private static char soundexDigit(char c) {
+		switch (c) {
+			case 'B':
+			case 'F':
+			case 'P':
+			case 'V':
+				return '1';
+			case 'C':
+			case 'G':
+			case 'J':
+			case 'K':
+			case 'Q':
+			case 'S':
+			case 'X':
+			case 'Z':
+				return '2';
+			case 'D':
+			case 'T':
+				return '3';
+			case 'L':
+				return '4';
+			case 'M':
+			case 'N':
+				return '5';
+			case 'R':
+				return '6';
+			default:
+				return '0';
+		}
+	}
+}
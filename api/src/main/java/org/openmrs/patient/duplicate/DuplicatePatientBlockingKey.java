@@ -0,0 +1,87 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.patient.duplicate;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+/**
+ * One blocking key of a patient, stored by the {@link DuplicatePatientDetector} so that the blocks
+ * can be read back one after the other, in key order, instead of being collected in memory. The
+ * stored keys are replaced at the start of every run that does not resume from a checkpoint.
+ *
+ * @since 2.7.0
+ */
+@Entity
+@Table(name = "patient_duplicate_blocking_key", indexes = @Index(name = "patient_duplicate_blocking_key_key",
+        columnList = "blocking_key, patient_id"))
+public class DuplicatePatientBlockingKey implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "patient_duplicate_blocking_key_id")
+	private Integer patientDuplicateBlockingKeyId;
+
+	@Column(name = "blocking_key", nullable = false, length = 255)
+	private String blockingKey;
+
+	@Column(name = "patient_id", nullable = false)
+	private Integer patientId;
+
+	public DuplicatePatientBlockingKey() {
+	}
+
+	/**
+	 * @param blockingKey the blocking key
+	 * @param patientId the id of the patient that has the key
+	 */
+	public DuplicatePatientBlockingKey(String blockingKey, Integer patientId) {
+		this.blockingKey = blockingKey;
+		this.patientId = patientId;
+	}
+
+	public Integer getPatientDuplicateBlockingKeyId() {
+		return patientDuplicateBlockingKeyId;
+	}
+
+	public void setPatientDuplicateBlockingKeyId(Integer patientDuplicateBlockingKeyId) {
+		this.patientDuplicateBlockingKeyId = patientDuplicateBlockingKeyId;
+	}
+
+	public String getBlockingKey() {
+		return blockingKey;
+	}
+
+	public void setBlockingKey(String blockingKey) {
+		this.blockingKey = blockingKey;
+	}
+
+	public Integer getPatientId() {
+		return patientId;
+	}
+
+	public void setPatientId(Integer patientId) {
+		this.patientId = patientId;
+	}
+
+	@Override
+	public String toString() {
+		return "DuplicatePatientBlockingKey[" + blockingKey + ", " + patientId + "]";
+	}
+}
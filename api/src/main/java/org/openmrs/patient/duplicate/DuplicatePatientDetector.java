@@ -0,0 +1,336 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.patient.duplicate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.openmrs.api.APIException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds likely duplicate patients without comparing every patient with every other one.
+ * <ol>
+ * <li>All patients are read page by page from a {@link RecordSource}, the blocking keys generated
+ * for them by the {@link BlockingKeyGenerator} are written to a {@link BlockingKeyStore}</li>
+ * <li>The stored keys are read back page by page, sorted by key, so that the patients of one block
+ * follow each other and only one block is collected at a time</li>
+ * <li>Blocks are processed in key order, in chunks. The records of the patients of a chunk are read
+ * with one call to the source, the blocks of the chunk are then compared in parallel, each pair of
+ * patients within a block is scored by the {@link PatientSimilarityScorer}</li>
+ * <li>After each chunk the pairs that scored at least the threshold are handed to the
+ * {@link MatchListener} together with the last block key of the chunk, which can be passed back in
+ * as a checkpoint to resume an interrupted run from the stored keys without reading all patients
+ * again</li>
+ * </ol>
+ * Blocks larger than the maximum block size (e.g. a very common name) are skipped since comparing
+ * all of their pairs would be as expensive as not blocking at all.
+ *
+ * @since 2.7.0
+ */
+public class DuplicatePatientDetector {
+
+	private static final Logger log = LoggerFactory.getLogger(DuplicatePatientDetector.class);
+
+	public static final double DEFAULT_THRESHOLD = 0.85;
+
+	public static final int DEFAULT_MAX_BLOCK_SIZE = 500;
+
+	public static final int DEFAULT_PAGE_SIZE = 1000;
+
+	public static final int DEFAULT_BLOCKS_PER_CHUNK = 1000;
+
+	/**
+	 * Reads the patients to check
+	 */
+	public interface RecordSource {
+
+		/**
+		 * @param afterPatientId only return patients with a greater id, null to start at the beginning
+		 * @param pageSize the maximum number of records to return
+		 * @return the next page of records ordered by patient id, an empty list once all patients have
+		 *         been read
+		 */
+		List<DuplicatePatientRecord> getRecords(Integer afterPatientId, int pageSize);
+
+		/**
+		 * @param patientIds the ids of the patients to read
+		 * @return the records of the patients that still exist, in any order
+		 */
+		List<DuplicatePatientRecord> getRecords(Collection<Integer> patientIds);
+	}
+
+	/**
+	 * Stores the blocking keys of all patients between the two passes of a run, and across an
+	 * interrupted run and the run resuming it
+	 */
+	public interface BlockingKeyStore {
+
+		/**
+		 * Removes all stored keys
+		 */
+		void deleteBlockingKeys();
+
+		/**
+		 * @param keys the keys to add
+		 */
+		void saveBlockingKeys(List<DuplicatePatientBlockingKey> keys);
+
+		/**
+		 * @param afterKey only return keys after this one, null to start at the first key
+		 * @param afterPatientId only return patients of afterKey with a greater id, null to skip all
+		 *            patients of afterKey
+		 * @param pageSize the maximum number of keys to return
+		 * @return the next page of keys ordered by key and patient id, an empty list once all keys have
+		 *         been read
+		 */
+		List<DuplicatePatientBlockingKey> getBlockingKeys(String afterKey, Integer afterPatientId, int pageSize);
+	}
+
+	/**
+	 * Receives the duplicate candidates of each completed chunk of blocks
+	 */
+	public interface MatchListener {
+
+		/**
+		 * @param matches the pairs found in the chunk, may be empty
+		 * @param checkpoint the last block key of the chunk, all blocks up to and including it are done
+		 */
+		void onChunkCompleted(List<DuplicatePatientMatch> matches, String checkpoint);
+	}
+
+	private final BlockingKeyGenerator keyGenerator;
+
+	private final PatientSimilarityScorer scorer;
+
+	private double threshold = DEFAULT_THRESHOLD;
+
+	private int maxBlockSize = DEFAULT_MAX_BLOCK_SIZE;
+
+	private int pageSize = DEFAULT_PAGE_SIZE;
+
+	private int blocksPerChunk = DEFAULT_BLOCKS_PER_CHUNK;
+
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	public DuplicatePatientDetector() {
+		this(new BlockingKeyGenerator(), new PatientSimilarityScorer());
+	}
+
+	public DuplicatePatientDetector(BlockingKeyGenerator keyGenerator, PatientSimilarityScorer scorer) {
+		this.keyGenerator = keyGenerator;
+		this.scorer = scorer;
+	}
+
+	/**
+	 * Runs the detection
+	 *
+	 * @param source where to read the patients from
+	 * @param keyStore where to keep the blocking keys of the patients
+	 * @param checkpoint the checkpoint of a previous, interrupted run to continue with the keys it
+	 *            stored, or null to store the keys of all patients again and start from the first
+	 *            block
+	 * @param listener receives the matches of each chunk
+	 * @return the number of candidate pairs found
+	 */
+	public int detect(RecordSource source, BlockingKeyStore keyStore, String checkpoint, MatchListener listener) {
+		if (checkpoint == null) {
+			storeBlockingKeys(source, keyStore);
+		}
+
+		int found = 0;
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+		try {
+			List<Block> chunk = new ArrayList<>(blocksPerChunk);
+			Block block = null;
+			String afterKey = checkpoint;
+			Integer afterPatientId = null;
+			List<DuplicatePatientBlockingKey> page;
+			do {
+				page = keyStore.getBlockingKeys(afterKey, afterPatientId, pageSize);
+				for (DuplicatePatientBlockingKey key : page) {
+					if (block == null || !block.key.equals(key.getBlockingKey())) {
+						if (addToChunk(block, chunk) && chunk.size() == blocksPerChunk) {
+							found += processChunk(chunk, source, executor, listener);
+							chunk.clear();
+						}
+						block = new Block(key.getBlockingKey());
+					}
+					block.add(key.getPatientId(), maxBlockSize);
+					afterKey = key.getBlockingKey();
+					afterPatientId = key.getPatientId();
+				}
+			} while (page.size() == pageSize);
+			addToChunk(block, chunk);
+			if (!chunk.isEmpty()) {
+				found += processChunk(chunk, source, executor, listener);
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		return found;
+	}
+
+	/**
+	 * Streams all records from the source and replaces the stored blocking keys with theirs
+	 */
+	void storeBlockingKeys(RecordSource source, BlockingKeyStore keyStore) {
+		keyStore.deleteBlockingKeys();
+		Integer after = null;
+		List<DuplicatePatientRecord> page;
+		int read = 0;
+		int stored = 0;
+		do {
+			page = source.getRecords(after, pageSize);
+			List<DuplicatePatientBlockingKey> keys = new ArrayList<>(page.size() * 3);
+			for (DuplicatePatientRecord record : page) {
+				for (String key : keyGenerator.getBlockingKeys(record)) {
+					keys.add(new DuplicatePatientBlockingKey(key, record.getPatientId()));
+				}
+				after = record.getPatientId();
+			}
+			if (!keys.isEmpty()) {
+				keyStore.saveBlockingKeys(keys);
+			}
+			read += page.size();
+			stored += keys.size();
+		} while (page.size() == pageSize);
+		log.info("Stored {} blocking keys of {} patients", stored, read);
+	}
+
+	/**
+	 * Adds a completed block to the chunk unless it has a single patient or is too large
+	 *
+	 * @return true if the block was added
+	 */
+	private boolean addToChunk(Block block, List<Block> chunk) {
+		if (block == null || block.size < 2) {
+			return false;
+		}
+		if (block.size > maxBlockSize) {
+			log.warn("Skipping blocking key {} with {} patients, it exceeds the maximum block size of {}", block.key,
+			    block.size, maxBlockSize);
+			return false;
+		}
+		chunk.add(block);
+		return true;
+	}
+
+	private int processChunk(List<Block> chunk, RecordSource source, ExecutorService executor, MatchListener listener) {
+		Set<Integer> patientIds = new HashSet<>();
+		for (Block block : chunk) {
+			patientIds.addAll(block.patientIds);
+		}
+		Map<Integer, DuplicatePatientRecord> records = new HashMap<>(patientIds.size() * 2);
+		for (DuplicatePatientRecord record : source.getRecords(patientIds)) {
+			records.put(record.getPatientId(), record);
+		}
+
+		Map<String, DuplicatePatientMatch> matches = new ConcurrentHashMap<>();
+		List<Future<?>> futures = new ArrayList<>(chunk.size());
+		for (Block block : chunk) {
+			List<DuplicatePatientRecord> members = new ArrayList<>(block.patientIds.size());
+			for (Integer patientId : block.patientIds) {
+				// a patient voided or purged since the keys were stored is left out
+				DuplicatePatientRecord record = records.get(patientId);
+				if (record != null) {
+					members.add(record);
+				}
+			}
+			futures.add(executor.submit(() -> compareBlock(block.key, members, matches)));
+		}
+		for (Future<?> future : futures) {
+			try {
+				future.get();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new APIException("Duplicate patient detection was interrupted", e);
+			}
+			catch (ExecutionException e) {
+				throw new APIException("Failed to compare a block of patients", e.getCause());
+			}
+		}
+
+		List<DuplicatePatientMatch> result = new ArrayList<>(matches.values());
+		listener.onChunkCompleted(result, chunk.get(chunk.size() - 1).key);
+		return result.size();
+	}
+
+	private void compareBlock(String key, List<DuplicatePatientRecord> block, Map<String, DuplicatePatientMatch> matches) {
+		for (int i = 0; i < block.size(); i++) {
+			for (int j = i + 1; j < block.size(); j++) {
+				DuplicatePatientRecord a = block.get(i);
+				DuplicatePatientRecord b = block.get(j);
+				double score = scorer.score(a, b);
+				if (score >= threshold) {
+					DuplicatePatientMatch match = new DuplicatePatientMatch(a.getPatientId(), b.getPatientId(), score, key);
+					matches.merge(match.getPairKey(), match, (m1, m2) -> m1.getScore() >= m2.getScore() ? m1 : m2);
+				}
+			}
+		}
+	}
+
+	public void setThreshold(double threshold) {
+		this.threshold = threshold;
+	}
+
+	public void setMaxBlockSize(int maxBlockSize) {
+		this.maxBlockSize = maxBlockSize;
+	}
+
+	public void setPageSize(int pageSize) {
+		this.pageSize = pageSize;
+	}
+
+	public void setBlocksPerChunk(int blocksPerChunk) {
+		this.blocksPerChunk = blocksPerChunk;
+	}
+
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	/**
+	 * The patients sharing a blocking key. Only the ids of the patients up to the maximum block size
+	 * are kept, a larger block is skipped anyway.
+	 */
+	private static class Block {
+
+		private final String key;
+
+		private final List<Integer> patientIds = new ArrayList<>();
+
+		private int size;
+
+		Block(String key) {
+			this.key = key;
+		}
+
+		void add(Integer patientId, int maxBlockSize) {
+			if (size < maxBlockSize) {
+				patientIds.add(patientId);
+			}
+			size++;
+		}
+	}
+}
@@ -0,0 +1,59 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.patient.duplicate;
+
+/**
+ * A pair of patients that scored above the threshold of the {@link DuplicatePatientDetector}. The
+ * lower patient id is always stored first.
+ *
+ * @since 2.7.0
+ */
+public class DuplicatePatientMatch {
+
+	private final Integer patientId;
+
+	private final Integer duplicatePatientId;
+
+	private final double score;
+
+	private final String blockingKey;
+
+	public DuplicatePatientMatch(Integer patientId1, Integer patientId2, double score, String blockingKey) {
+		this.patientId = Math.min(patientId1, patientId2);
+		this.duplicatePatientId = Math.max(patientId1, patientId2);
+		this.score = score;
+		this.blockingKey = blockingKey;
+	}
+
+	public Integer getPatientId() {
+		return patientId;
+	}
+
+	public Integer getDuplicatePatientId() {
+		return duplicatePatientId;
+	}
+
+	public double getScore() {
+		return score;
+	}
+
+	public String getBlockingKey() {
+		return blockingKey;
+	}
+
+	String getPairKey() {
+		return patientId + ":" + duplicatePatientId;
+	}
+
+	@Override
+	public String toString() {
+		return "DuplicatePatientMatch[" + getPairKey() + ", score=" + score + "]";
+	}
+}
@@ -0,0 +1,76 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.patient.duplicate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The few demographic fields of a patient that the duplicate detection engine looks at, read in a
+ * streaming pass instead of loading full {@link org.openmrs.Patient} objects.
+ *
+ * @since 2.7.0
+ */
+public class DuplicatePatientRecord {
+
+	private final Integer patientId;
+
+	private final String givenName;
+
+	private final String familyName;
+
+	private final Date birthdate;
+
+	private final String gender;
+
+	private final List<String> identifiers;
+
+	public DuplicatePatientRecord(Integer patientId, String givenName, String familyName, Date birthdate, String gender,
+	    List<String> identifiers) {
+		this.patientId = patientId;
+		this.givenName = givenName;
+		this.familyName = familyName;
+		this.birthdate = birthdate == null ? null : new Date(birthdate.getTime());
+		this.gender = gender;
+		this.identifiers = identifiers == null ? Collections.emptyList()
+		        : Collections.unmodifiableList(new ArrayList<>(identifiers));
+	}
+
+	public Integer getPatientId() {
+		return patientId;
+	}
+
+	public String getGivenName() {
+		return givenName;
+	}
+
+	public String getFamilyName() {
+		return familyName;
+	}
+
+	public Date getBirthdate() {
+		return birthdate == null ? null : new Date(birthdate.getTime());
+	}
+
+	public String getGender() {
+		return gender;
+	}
+
+	public List<String> getIdentifiers() {
+		return identifiers;
+	}
+
+	@Override
+	public String toString() {
+		return "DuplicatePatientRecord[" + patientId + "]";
+	}
+}
@@ -0,0 +1,206 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.patient.duplicate;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Computes a weighted similarity between two patients. Names are compared with the Jaro-Winkler
+ * similarity, birthdates by how close they are and gender by equality. Fields that are missing on
+ * either patient are left out of the score rather than counting as a mismatch. Identifiers only add
+ * to the score when the two patients share one, patients registered twice usually got a different
+ * identifier each time so a mismatch says little.
+ *
+ * @since 2.7.0
+ */
+public class PatientSimilarityScorer {
+	
+	public static final double DEFAULT_FAMILY_NAME_WEIGHT = 0.3;
+	
+	public static final double DEFAULT_GIVEN_NAME_WEIGHT = 0.25;
+	
+	public static final double DEFAULT_BIRTHDATE_WEIGHT = 0.2;
+	
+	public static final double DEFAULT_GENDER_WEIGHT = 0.1;
+	
+	public static final double DEFAULT_IDENTIFIER_WEIGHT = 0.15;
+	
+	private final double familyNameWeight;
+	
+	private final double givenNameWeight;
+	
+	private final double birthdateWeight;
+	
+	private final double genderWeight;
+	
+	private final double identifierWeight;
+	
+	public PatientSimilarityScorer() {
+		this(DEFAULT_FAMILY_NAME_WEIGHT, DEFAULT_GIVEN_NAME_WEIGHT, DEFAULT_BIRTHDATE_WEIGHT, DEFAULT_GENDER_WEIGHT,
+		        DEFAULT_IDENTIFIER_WEIGHT);
+	}
+	
+	public PatientSimilarityScorer(double familyNameWeight, double givenNameWeight, double birthdateWeight,
+	    double genderWeight, double identifierWeight) {
+		this.familyNameWeight = familyNameWeight;
+		this.givenNameWeight = givenNameWeight;
+		this.birthdateWeight = birthdateWeight;
+		this.genderWeight = genderWeight;
+		this.identifierWeight = identifierWeight;
+	}
+	
+	/**
+	 * Scores how likely it is that two records describe the same patient
+	 *
+	 * @param a one patient
+	 * @param b the other patient
+	 * @return a score between 0 (nothing in common) and 1 (identical on every known field)
+	 */
+	public double score(DuplicatePatientRecord a, DuplicatePatientRecord b) {
+		double total = 0;
+		double weights = 0;
+		
+		if (StringUtils.isNotBlank(a.getFamilyName()) && StringUtils.isNotBlank(b.getFamilyName())) {
+			total += familyNameWeight * jaroWinkler(a.getFamilyName(), b.getFamilyName());
+			weights += familyNameWeight;
+		}
+		if (StringUtils.isNotBlank(a.getGivenName()) && StringUtils.isNotBlank(b.getGivenName())) {
+			total += givenNameWeight * jaroWinkler(a.getGivenName(), b.getGivenName());
+			weights += givenNameWeight;
+		}
+		if (a.getBirthdate() != null && b.getBirthdate() != null) {
+			total += birthdateWeight * birthdateSimilarity(a.getBirthdate(), b.getBirthdate());
+			weights += birthdateWeight;
+		}
+		if (StringUtils.isNotBlank(a.getGender()) && StringUtils.isNotBlank(b.getGender())) {
+			total += genderWeight * (a.getGender().equalsIgnoreCase(b.getGender()) ? 1 : 0);
+			weights += genderWeight;
+		}
+		if (shareIdentifier(a, b)) {
+			total += identifierWeight;
+			weights += identifierWeight;
+		}
+		
+		return weights == 0 ? 0 : total / weights;
+	}
+	
+	/**
+	 * @return 1 for the same day, 0.9 if day and month are swapped, 0.8 for the same year, 0.5 for the
+	 *         same day of a year at most ten years apart, otherwise 0
+	 */
+	double birthdateSimilarity(Date a, Date b) {
+		Calendar ca = Calendar.getInstance();
+		ca.setTime(a);
+		Calendar cb = Calendar.getInstance();
+		cb.setTime(b);
+		int yearA = ca.get(Calendar.YEAR);
+		int yearB = cb.get(Calendar.YEAR);
+		int dayA = ca.get(Calendar.DAY_OF_YEAR);
+		int dayB = cb.get(Calendar.DAY_OF_YEAR);
+		if (yearA == yearB && dayA == dayB) {
+			return 1;
+		}
+		if (yearA == yearB) {
+			boolean swapped = ca.get(Calendar.DAY_OF_MONTH) == cb.get(Calendar.MONTH) + 1
+			        && cb.get(Calendar.DAY_OF_MONTH) == ca.get(Calendar.MONTH) + 1;
+			return swapped ? 0.9 : 0.8;
+		}
+		if (dayA == dayB && Math.abs(yearA - yearB) <= 10) {
+			return 0.5;
+		}
+		return 0;
+	}
+	
+	private boolean shareIdentifier(DuplicatePatientRecord a, DuplicatePatientRecord b) {
+		if (a.getIdentifiers().isEmpty() || b.getIdentifiers().isEmpty()) {
+			return false;
+		}
+		Set<String> identifiers = new HashSet<>();
+		for (String identifier : a.getIdentifiers()) {
+			identifiers.add(BlockingKeyGenerator.normalizeIdentifier(identifier));
+		}
+		for (String identifier : b.getIdentifiers()) {
+			if (identifiers.contains(BlockingKeyGenerator.normalizeIdentifier(identifier))) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Jaro-Winkler similarity of two strings, ignoring case
+	 *
+	 * @param s1 the first string
+	 * @param s2 the second string
+	 * @return a value between 0 and 1
+	 */
+	static double jaroWinkler(String s1, String s2) {
+		String a = s1.trim().toLowerCase(Locale.ROOT);
+		String b = s2.trim().toLowerCase(Locale.ROOT);
+		if (a.equals(b)) {
+			return 1;
+		}
+		if (a.isEmpty() || b.isEmpty()) {
+			return 0;
+		}
+		
+		int matchDistance = Math.max(0, Math.max(a.length(), b.length()) / 2 - 1);
+		boolean[] aMatches = new boolean[a.length()];
+		boolean[] bMatches = new boolean[b.length()];
+		int matches = 0;
+		for (int i = 0; i < a.length(); i++) {
+			int start = Math.max(0, i - matchDistance);
+			int end = Math.min(i + matchDistance + 1, b.length());
+			for (int j = start; j < end; j++) {
+				if (!bMatches[j] && a.charAt(i) == b.charAt(j)) {
+					aMatches[i] = true;
+					bMatches[j] = true;
+					matches++;
+					break;
+				}
+			}
+		}
+		if (matches == 0) {
+			return 0;
+		}
+		
+		int transpositions = 0;
+		int k = 0;
+		for (int i = 0; i < a.length(); i++) {
+			if (aMatches[i]) {
+				while (!bMatches[k]) {
+					k++;
+				}
+				if (a.charAt(i) != b.charAt(k)) {
+					transpositions++;
+				}
+				k++;
+			}
+		}
+		
+		double m = matches;
+		double jaro = (m / a.length() + m / b.length() + (m - transpositions / 2.0) / m) / 3;
+		
+		int prefix = 0;
+		for (int i = 0; i < Math.min(4, Math.min(a.length(), b.length())); i++) {
+			if (a.charAt(i) != b.charAt(i)) {
+				break;
+			}
+			prefix++;
+		}
+		return jaro + prefix * 0.1 * (1 - jaro);
+	}
+}
@@ -42,6 +42,11 @@ public class PersonMergeLogData {
 	 */
 	private List<String> createdPrograms;
 	
+	/**
+	 * List of UUIDs of patient programs moved from non-preferred to preferred
+	 */
+	private List<String> movedPrograms;
+	
 	/**
 	 * List of UUIDs of voided relationships
 	 */
@@ -154,6 +159,17 @@ public class PersonMergeLogData {
 		createdPrograms.add(uuid);
 	}
 	
+	public List<String> getMovedPrograms() {
+		return movedPrograms;
+	}
+	
+	public void addMovedProgram(String uuid) {
+		if (movedPrograms == null) {
+			movedPrograms = new ArrayList<>();
+		}
+		movedPrograms.add(uuid);
+	}
+	
 	public List<String> getVoidedRelationships() {
 		return voidedRelationships;
 	}
@@ -326,6 +342,9 @@ public class PersonMergeLogData {
 		if (getCreatedPrograms() != null) {
 			str += getCreatedPrograms().toString();
 		}
+		if (getMovedPrograms() != null) {
+			str += getMovedPrograms().toString();
+		}
 		if (getCreatedRelationships() != null) {
 			str += getCreatedRelationships().toString();
 		}
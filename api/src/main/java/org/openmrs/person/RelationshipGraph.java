@@ -0,0 +1,115 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.person;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.openmrs.Person;
+import org.openmrs.Relationship;
+
+/**
+ * The neighbourhood of a person in the graph of relationships: the persons that can be reached from
+ * the person by following at most a given number of relationships, each with the number of
+ * relationships it takes to reach them, and the relationships that were followed.
+ *
+ * @see org.openmrs.api.PersonService#getRelationshipGraph(Person, int, java.util.Date,
+ *      java.util.Collection)
+ * @since 2.7.0
+ */
+public class RelationshipGraph {
+
+	private final Person person;
+
+	private final Map<Integer, Person> persons = new LinkedHashMap<>();
+
+	private final Map<Integer, Integer> distances = new LinkedHashMap<>();
+
+	private final Set<Relationship> relationships = new LinkedHashSet<>();
+
+	/**
+	 * @param person the person at the centre of the graph
+	 */
+	public RelationshipGraph(Person person) {
+		this.person = person;
+		addPerson(person, 0);
+	}
+
+	/**
+	 * Adds a person to the graph unless it is already in it
+	 *
+	 * @param person the person
+	 * @param distance the number of relationships between the person and the centre of the graph
+	 * @return true if the person was added, false if it was already in the graph
+	 */
+	public boolean addPerson(Person person, int distance) {
+		if (persons.containsKey(person.getPersonId())) {
+			return false;
+		}
+		persons.put(person.getPersonId(), person);
+		distances.put(person.getPersonId(), distance);
+		return true;
+	}
+
+	/**
+	 * @param relationship a relationship between two persons of the graph
+	 */
+	public void addRelationship(Relationship relationship) {
+		relationships.add(relationship);
+	}
+
+	/**
+	 * @return the person at the centre of the graph
+	 */
+	public Person getPerson() {
+		return person;
+	}
+
+	/**
+	 * @return the persons of the graph including its centre, ordered by distance
+	 */
+	public List<Person> getPersons() {
+		return new ArrayList<>(persons.values());
+	}
+
+	/**
+	 * @param distance a number of relationships
+	 * @return the persons at exactly the given distance from the centre of the graph
+	 */
+	public List<Person> getPersons(int distance) {
+		List<Person> result = new ArrayList<>();
+		for (Map.Entry<Integer, Person> entry : persons.entrySet()) {
+			if (distances.get(entry.getKey()) == distance) {
+				result.add(entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param person a person
+	 * @return the number of relationships between the person and the centre of the graph, or null if
+	 *         the person is not in the graph
+	 */
+	public Integer getDistance(Person person) {
+		return distances.get(person.getPersonId());
+	}
+
+	/**
+	 * @return the relationships between the persons of the graph that were followed to reach them
+	 */
+	public List<Relationship> getRelationships() {
+		return new ArrayList<>(relationships);
+	}
+}
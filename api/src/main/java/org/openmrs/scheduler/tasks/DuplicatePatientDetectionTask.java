@@ -0,0 +1,145 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.tasks;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openmrs.api.PatientService;
+import org.openmrs.api.context.Context;
+import org.openmrs.patient.duplicate.DuplicatePatientBlockingKey;
+import org.openmrs.patient.duplicate.DuplicatePatientDetector;
+import org.openmrs.patient.duplicate.DuplicatePatientRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A scheduled task that runs the {@link DuplicatePatientDetector} over all patients and stores the
+ * pairs it finds as {@link org.openmrs.PatientDuplicateCandidate}s for review. The task saves a
+ * checkpoint in its {@link #PROPERTY_CHECKPOINT} property after every chunk of blocks, so a run that
+ * is interrupted, e.g. by a restart, resumes where it stopped with the blocking keys stored by that
+ * run. The checkpoint is cleared once a run completes. <br>
+ * <br>
+ * The optional task properties {@link #PROPERTY_THRESHOLD}, {@link #PROPERTY_MAX_BLOCK_SIZE} and
+ * {@link #PROPERTY_THREADS} override the defaults of the detector.
+ *
+ * @since 2.7.0
+ */
+public class DuplicatePatientDetectionTask extends AbstractTask {
+
+	private static final Logger log = LoggerFactory.getLogger(DuplicatePatientDetectionTask.class);
+
+	public static final String PROPERTY_CHECKPOINT = "checkpoint";
+
+	public static final String PROPERTY_THRESHOLD = "threshold";
+
+	public static final String PROPERTY_MAX_BLOCK_SIZE = "maxBlockSize";
+
+	public static final String PROPERTY_THREADS = "threads";
+
+	/**
+	 * @see org.openmrs.scheduler.tasks.AbstractTask#execute()
+	 */
+	@Override
+	public void execute() {
+		if (!isExecuting) {
+			log.debug("Starting Duplicate Patient Detection Task...");
+
+			startExecuting();
+			try {
+				PatientService patientService = Context.getPatientService();
+				DuplicatePatientDetector detector = createDetector();
+				PatientServiceSource source = new PatientServiceSource(patientService);
+				int found = detector.detect(source, source, taskDefinition.getProperty(PROPERTY_CHECKPOINT),
+				    (matches, checkpoint) -> {
+					    patientService.saveDuplicatePatientMatches(matches);
+					    Context.flushSession();
+					    Context.clearSession();
+					    saveCheckpoint(checkpoint);
+				    });
+				saveCheckpoint(null);
+				log.info("Duplicate patient detection found {} candidate pairs", found);
+			}
+			catch (Exception e) {
+				log.error("Error while detecting duplicate patients:", e);
+			}
+			finally {
+				stopExecuting();
+			}
+		}
+	}
+
+	private DuplicatePatientDetector createDetector() {
+		DuplicatePatientDetector detector = new DuplicatePatientDetector();
+		String threshold = taskDefinition.getProperty(PROPERTY_THRESHOLD);
+		if (StringUtils.isNotBlank(threshold)) {
+			detector.setThreshold(Double.parseDouble(threshold));
+		}
+		String maxBlockSize = taskDefinition.getProperty(PROPERTY_MAX_BLOCK_SIZE);
+		if (StringUtils.isNotBlank(maxBlockSize)) {
+			detector.setMaxBlockSize(Integer.parseInt(maxBlockSize));
+		}
+		String threads = taskDefinition.getProperty(PROPERTY_THREADS);
+		if (StringUtils.isNotBlank(threads)) {
+			detector.setThreads(Integer.parseInt(threads));
+		}
+		return detector;
+	}
+
+	private void saveCheckpoint(String checkpoint) {
+		if (checkpoint == null) {
+			taskDefinition.getProperties().remove(PROPERTY_CHECKPOINT);
+		} else {
+			taskDefinition.setProperty(PROPERTY_CHECKPOINT, checkpoint);
+		}
+		if (taskDefinition.getId() != null) {
+			Context.getSchedulerService().saveTaskDefinition(taskDefinition);
+		}
+	}
+
+	/**
+	 * Reads the patients and keeps the blocking keys through the patient service
+	 */
+	private static class PatientServiceSource implements DuplicatePatientDetector.RecordSource,
+	        DuplicatePatientDetector.BlockingKeyStore {
+
+		private final PatientService patientService;
+
+		PatientServiceSource(PatientService patientService) {
+			this.patientService = patientService;
+		}
+
+		@Override
+		public List<DuplicatePatientRecord> getRecords(Integer afterPatientId, int pageSize) {
+			return patientService.getDuplicatePatientRecords(afterPatientId, pageSize);
+		}
+
+		@Override
+		public List<DuplicatePatientRecord> getRecords(Collection<Integer> patientIds) {
+			return patientService.getDuplicatePatientRecords(patientIds);
+		}
+
+		@Override
+		public void deleteBlockingKeys() {
+			patientService.deleteDuplicatePatientBlockingKeys();
+		}
+
+		@Override
+		public void saveBlockingKeys(List<DuplicatePatientBlockingKey> keys) {
+			patientService.saveDuplicatePatientBlockingKeys(keys);
+		}
+
+		@Override
+		public List<DuplicatePatientBlockingKey> getBlockingKeys(String afterKey, Integer afterPatientId, int pageSize) {
+			return patientService.getDuplicatePatientBlockingKeys(afterKey, afterPatientId, pageSize);
+		}
+	}
+}
@@ -0,0 +1,56 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.tasks;
+
+import org.openmrs.api.context.Context;
+import org.openmrs.notification.MessageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A scheduled task that sends the messages of the outbound message queue that are due, see
+ * {@link MessageService#processMessageQueue()}. Messages are only queued if the
+ * {@link org.openmrs.util.OpenmrsConstants#GLOBAL_PROPERTY_MESSAGE_QUEUE_ENABLED} global property is
+ * true.
+ *
+ * @since 2.7.0
+ */
+public class ProcessMessageQueueTask extends AbstractTask {
+
+	private static final Logger log = LoggerFactory.getLogger(ProcessMessageQueueTask.class);
+
+	/**
+	 * @see org.openmrs.scheduler.tasks.AbstractTask#execute()
+	 */
+	@Override
+	public void execute() {
+		if (!isExecuting) {
+			log.debug("Processing message queue ...");
+
+			startExecuting();
+			try {
+				MessageService messageService = Context.getMessageService();
+				int processed = 0;
+				int count;
+				while ((count = messageService.processMessageQueue()) > 0) {
+					processed += count;
+					Context.clearSession();
+				}
+				log.debug("Processed {} queued messages", processed);
+			}
+			catch (Exception e) {
+				log.error("Error while processing the message queue:", e);
+			}
+			finally {
+				stopExecuting();
+			}
+		}
+	}
+}
@@ -0,0 +1,49 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.tasks;
+
+import org.openmrs.api.context.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A scheduled task that recalculates the unread alert counts of all users and corrects the ones that
+ * drifted from the alerts, see {@link org.openmrs.notification.AlertService#reconcileUnreadAlertCounts()}.
+ *
+ * @since 2.7.0
+ */
+public class ReconcileAlertUnreadCountsTask extends AbstractTask {
+
+	private static final Logger log = LoggerFactory.getLogger(ReconcileAlertUnreadCountsTask.class);
+
+	/**
+	 * @see org.openmrs.scheduler.tasks.AbstractTask#execute()
+	 */
+	@Override
+	public void execute() {
+		if (!isExecuting) {
+			log.debug("Reconciling unread alert counts ...");
+
+			startExecuting();
+			try {
+				int corrected = Context.getAlertService().reconcileUnreadAlertCounts();
+				if (corrected > 0) {
+					log.info("Corrected {} unread alert counts", corrected);
+				}
+			}
+			catch (Exception e) {
+				log.error("Error while reconciling the unread alert counts:", e);
+			}
+			finally {
+				stopExecuting();
+			}
+		}
+	}
+}
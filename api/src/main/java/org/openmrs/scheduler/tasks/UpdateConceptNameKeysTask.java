@@ -0,0 +1,47 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.tasks;
+
+import org.openmrs.api.context.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A scheduled task that rebuilds the concept name keys from the names of the concepts, to be run
+ * after concepts were written to the database without the API, see
+ * {@link org.openmrs.api.ConceptService#updateConceptNameKeys()}.
+ *
+ * @since 2.7.0
+ */
+public class UpdateConceptNameKeysTask extends AbstractTask {
+
+	private static final Logger log = LoggerFactory.getLogger(UpdateConceptNameKeysTask.class);
+
+	/**
+	 * @see org.openmrs.scheduler.tasks.AbstractTask#execute()
+	 */
+	@Override
+	public void execute() {
+		if (!isExecuting) {
+			log.debug("Updating concept name keys ...");
+
+			startExecuting();
+			try {
+				log.info("Rebuilt {} concept name keys", Context.getConceptService().updateConceptNameKeys());
+			}
+			catch (Exception e) {
+				log.error("Error while updating the concept name keys:", e);
+			}
+			finally {
+				stopExecuting();
+			}
+		}
+	}
+}
@@ -0,0 +1,160 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.serialization;
+
+import java.io.IOException;
+import java.util.Base64;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.proxy.HibernateProxy;
+import org.openmrs.api.context.Context;
+
+/**
+ * A serializer that stores objects as Jackson Smile, a binary encoding of JSON, encoded in base64 so
+ * that it fits the text columns serialized data is kept in. It is faster to read and write and
+ * smaller than the XML produced by the {@link SimpleXStreamSerializer}. <br>
+ * <br>
+ * Serialized data starts with a header holding the {@link #FORMAT_VERSION} of the schema it was
+ * written with, data without the header is treated as XML and handed to the
+ * {@link SimpleXStreamSerializer}, so records saved before switching to this serializer can still be
+ * read. <br>
+ * <br>
+ * The fields of an object are written by name, like the XML serializer does, without any type
+ * information: data is only ever read as the class asked for, and the types of its fields. Object
+ * graphs with cycles are not supported. Hibernate proxies are replaced by the entities they stand for
+ * and hibernate collections are written as plain collections, both are initialized if needed, which
+ * requires an open session.
+ *
+ * @since 2.7.0
+ */
+public class CompactSerializer implements OpenmrsSerializer {
+
+	/**
+	 * The version of the schema written by this serializer, stored in the header of the data
+	 */
+	public static final int FORMAT_VERSION = 1;
+
+	private static final String HEADER_PREFIX = "OMRS-SMILE/";
+
+	private static final String HEADER = HEADER_PREFIX + FORMAT_VERSION + ":";
+
+	private final ObjectMapper mapper;
+
+	private OpenmrsSerializer xmlSerializer;
+
+	public CompactSerializer() {
+		SimpleModule hibernateModule = new SimpleModule("hibernate");
+		hibernateModule.addSerializer(HibernateProxy.class, new HibernateProxySerializer());
+
+		mapper = new ObjectMapper(new SmileFactory());
+		mapper.setVisibility(PropertyAccessor.ALL, Visibility.NONE);
+		mapper.setVisibility(PropertyAccessor.FIELD, Visibility.ANY);
+		mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+		mapper.disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
+		mapper.registerModule(hibernateModule);
+	}
+
+	/**
+	 * @see OpenmrsSerializer#serialize(Object)
+	 * <strong>Should</strong> write the format version header
+	 * <strong>Should</strong> write hibernate collections as plain collections
+	 * <strong>Should</strong> fail for objects with cycles
+	 */
+	@Override
+	public String serialize(Object o) throws SerializationException {
+		try {
+			return HEADER + Base64.getEncoder().encodeToString(mapper.writeValueAsBytes(o));
+		}
+		catch (IOException | RuntimeException e) {
+			throw new SerializationException("Unable to serialize " + o, e);
+		}
+	}
+
+	/**
+	 * @see OpenmrsSerializer#deserialize(String, Class)
+	 * <strong>Should</strong> deserialize data written by serialize
+	 * <strong>Should</strong> deserialize xml written by the simple xstream serializer
+	 * <strong>Should</strong> fail for an unsupported format version
+	 * <strong>Should</strong> fail for data that does not match the requested class
+	 */
+	@Override
+	public <T> T deserialize(String serializedObject, Class<? extends T> clazz) throws SerializationException {
+		if (serializedObject == null || !serializedObject.startsWith(HEADER_PREFIX)) {
+			return getXmlSerializer().deserialize(serializedObject, clazz);
+		}
+		if (!serializedObject.startsWith(HEADER)) {
+			String version = serializedObject.substring(HEADER_PREFIX.length(), serializedObject.indexOf(':'));
+			throw new SerializationException("Unable to deserialize class: " + clazz.getName()
+			        + ", unsupported format version " + version);
+		}
+
+		try {
+			return mapper.readValue(Base64.getDecoder().decode(serializedObject.substring(HEADER.length())), clazz);
+		}
+		catch (IOException | RuntimeException e) {
+			throw new SerializationException("Unable to deserialize class: " + clazz.getName(), e);
+		}
+	}
+
+	/**
+	 * @return the serializer used to read XML data, the {@link SimpleXStreamSerializer} registered
+	 *         with the serialization service if there is one, so that modules configuring its xstream
+	 *         instance are taken into account
+	 */
+	private OpenmrsSerializer getXmlSerializer() throws SerializationException {
+		if (xmlSerializer == null) {
+			OpenmrsSerializer registered = null;
+			try {
+				registered = Context.getSerializationService().getSerializer(SimpleXStreamSerializer.class);
+			}
+			catch (RuntimeException e) {
+				// the context is not available, e.g. in unit tests or during startup
+			}
+			xmlSerializer = registered != null ? registered : new SimpleXStreamSerializer();
+		}
+		return xmlSerializer;
+	}
+
+	/**
+	 * Sets the serializer used to read data that was saved as XML
+	 *
+	 * @param xmlSerializer the serializer to use
+	 */
+	public void setXmlSerializer(OpenmrsSerializer xmlSerializer) {
+		this.xmlSerializer = xmlSerializer;
+	}
+
+	/**
+	 * Writes the entity a hibernate proxy stands for instead of the proxy
+	 */
+	private static class HibernateProxySerializer extends StdSerializer<HibernateProxy> {
+
+		private static final long serialVersionUID = 1L;
+
+		HibernateProxySerializer() {
+			super(HibernateProxy.class);
+		}
+
+		@Override
+		public void serialize(HibernateProxy value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+			provider.defaultSerializeValue(Hibernate.unproxy(value), gen);
+		}
+	}
+}
@@ -0,0 +1,158 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.openmrs.Concept;
+import org.openmrs.Form;
+import org.openmrs.FormField;
+
+/**
+ * An immutable summary of the saved form fields of a form, holding only ids so that it can be
+ * shared between sessions. It maps each concept to the form fields asking for it, ordered by form
+ * field id, and each form field to its children, ordered like the sets returned by
+ * {@link FormUtil#getFormStructure(Form)}. Top-level form fields are stored under the parent id
+ * zero. <br>
+ * <br>
+ * A structure is compiled for the date the form was last changed, see {@link #isCurrent(Form)}.
+ *
+ * @see org.openmrs.api.FormService#getFormStructure(Form)
+ * @since 2.7.0
+ */
+public final class CompiledFormStructure {
+
+	private static final Integer TOP_LEVEL = 0;
+
+	private final Integer formId;
+
+	private final Long version;
+
+	private final int formFieldCount;
+
+	private final Map<Integer, List<Integer>> formFieldsByConcept;
+
+	private final Map<Integer, List<Integer>> childrenByParent;
+
+	private CompiledFormStructure(Integer formId, Long version, int formFieldCount,
+	    Map<Integer, List<Integer>> formFieldsByConcept, Map<Integer, List<Integer>> childrenByParent) {
+		this.formId = formId;
+		this.version = version;
+		this.formFieldCount = formFieldCount;
+		this.formFieldsByConcept = formFieldsByConcept;
+		this.childrenByParent = childrenByParent;
+	}
+
+	/**
+	 * Compiles the structure of a form from its saved form fields
+	 *
+	 * @param form the form the fields belong to
+	 * @param formFields all saved form fields of the form
+	 * @return the compiled structure
+	 */
+	public static CompiledFormStructure compile(Form form, Collection<FormField> formFields) {
+		List<FormField> sorted = new ArrayList<>(formFields);
+		sorted.sort(new FormField.DefaultComparator());
+
+		Map<Integer, List<Integer>> childrenByParent = new HashMap<>();
+		childrenByParent.put(TOP_LEVEL, new ArrayList<>());
+		Map<Integer, List<Integer>> formFieldsByConcept = new HashMap<>();
+		for (FormField formField : sorted) {
+			Integer parentId = formField.getParent() == null ? TOP_LEVEL : formField.getParent().getFormFieldId();
+			childrenByParent.computeIfAbsent(parentId, id -> new ArrayList<>()).add(formField.getFormFieldId());
+
+			Concept concept = formField.getField() == null ? null : formField.getField().getConcept();
+			if (concept != null) {
+				formFieldsByConcept.computeIfAbsent(concept.getConceptId(), id -> new ArrayList<>()).add(
+				    formField.getFormFieldId());
+			}
+		}
+		for (List<Integer> ids : formFieldsByConcept.values()) {
+			Collections.sort(ids);
+		}
+
+		return new CompiledFormStructure(form.getFormId(), versionOf(form), sorted.size(), freeze(formFieldsByConcept),
+		        freeze(childrenByParent));
+	}
+
+	private static Map<Integer, List<Integer>> freeze(Map<Integer, List<Integer>> map) {
+		Map<Integer, List<Integer>> frozen = new HashMap<>(map.size() * 2);
+		for (Map.Entry<Integer, List<Integer>> entry : map.entrySet()) {
+			frozen.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<>(entry.getValue())));
+		}
+		return Collections.unmodifiableMap(frozen);
+	}
+
+	private static Long versionOf(Form form) {
+		Date date = form.getDateChanged() != null ? form.getDateChanged() : form.getDateCreated();
+		return date == null ? null : date.getTime();
+	}
+
+	/**
+	 * @return the id of the form
+	 */
+	public Integer getFormId() {
+		return formId;
+	}
+
+	/**
+	 * @return the time in milliseconds the form was last changed, or created if it never was, when
+	 *         this structure was compiled
+	 */
+	public Long getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return the number of form fields of the form
+	 */
+	public int getFormFieldCount() {
+		return formFieldCount;
+	}
+
+	/**
+	 * @param form the form to check
+	 * @return true if this structure was compiled for the given form as it was last changed
+	 */
+	public boolean isCurrent(Form form) {
+		return formId.equals(form.getFormId()) && Objects.equals(version, versionOf(form));
+	}
+
+	/**
+	 * @param conceptId the id of the concept
+	 * @return the ids of the form fields whose field asks for the concept, ordered by id
+	 */
+	public List<Integer> getFormFieldIds(Integer conceptId) {
+		return formFieldsByConcept.getOrDefault(conceptId, Collections.emptyList());
+	}
+
+	/**
+	 * @param parentFormFieldId the id of the parent form field, null or zero for the top level
+	 * @return the ids of the children of the form field, ordered like {@link FormField}s sort
+	 */
+	public List<Integer> getChildIds(Integer parentFormFieldId) {
+		return childrenByParent.getOrDefault(parentFormFieldId == null ? TOP_LEVEL : parentFormFieldId,
+		    Collections.emptyList());
+	}
+
+	/**
+	 * @return the ids of the form fields that have children, and zero for the top level
+	 */
+	public Collection<Integer> getParentIds() {
+		return childrenByParent.keySet();
+	}
+}
@@ -0,0 +1,131 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.util;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * An immutable snapshot of the tags of the unretired locations, holding a bitmap of location ids
+ * per location tag id so that locations having any, all or none of a set of tags are found with
+ * bitmap operations. A snapshot only holds ids so that it can be shared between sessions.
+ *
+ * @see org.openmrs.api.LocationService#getLocationTagIndex()
+ * @since 2.7.0
+ */
+public final class LocationTagIndex {
+
+	private static final BitSet EMPTY = new BitSet();
+
+	private final BitSet locationIds;
+
+	private final Map<Integer, BitSet> locationIdsByTag;
+
+	private LocationTagIndex(BitSet locationIds, Map<Integer, BitSet> locationIdsByTag) {
+		this.locationIds = locationIds;
+		this.locationIdsByTag = locationIdsByTag;
+	}
+
+	/**
+	 * Compiles the index of the given locations
+	 *
+	 * @param tagIdsByLocation the ids of the tags of each unretired location by location id
+	 * @return the compiled index
+	 */
+	public static LocationTagIndex compile(Map<Integer, ? extends Collection<Integer>> tagIdsByLocation) {
+		BitSet locationIds = new BitSet();
+		Map<Integer, BitSet> locationIdsByTag = new HashMap<>();
+		for (Map.Entry<Integer, ? extends Collection<Integer>> entry : tagIdsByLocation.entrySet()) {
+			locationIds.set(entry.getKey());
+			for (Integer tagId : entry.getValue()) {
+				if (tagId != null) {
+					locationIdsByTag.computeIfAbsent(tagId, id -> new BitSet()).set(entry.getKey());
+				}
+			}
+		}
+		return new LocationTagIndex(locationIds, locationIdsByTag);
+	}
+
+	/**
+	 * @return the ids of all unretired locations, ordered by id
+	 */
+	public List<Integer> getLocationIds() {
+		return toList(locationIds);
+	}
+
+	/**
+	 * @param tagId the id of a location tag
+	 * @return the ids of the unretired locations having the tag, ordered by id
+	 */
+	public List<Integer> getLocationIds(Integer tagId) {
+		return toList(get(tagId));
+	}
+
+	/**
+	 * @param locationId the id of a location
+	 * @param tagId the id of a location tag
+	 * @return true if the location is unretired and has the tag
+	 */
+	public boolean hasTag(Integer locationId, Integer tagId) {
+		return locationId != null && get(tagId).get(locationId);
+	}
+
+	/**
+	 * @param tagIds the ids of location tags, a null id stands for a tag no location has
+	 * @return the ids of the unretired locations having any of the tags, ordered by id, none if no
+	 *         tags are given
+	 */
+	public List<Integer> getLocationIdsHavingAnyTag(Collection<Integer> tagIds) {
+		BitSet result = new BitSet();
+		for (Integer tagId : tagIds) {
+			result.or(get(tagId));
+		}
+		return toList(result);
+	}
+
+	/**
+	 * @param tagIds the ids of location tags, a null id stands for a tag no location has
+	 * @return the ids of the unretired locations having all of the tags, ordered by id, all of them
+	 *         if no tags are given
+	 */
+	public List<Integer> getLocationIdsHavingAllTags(Collection<Integer> tagIds) {
+		BitSet result = (BitSet) locationIds.clone();
+		for (Integer tagId : tagIds) {
+			result.and(get(tagId));
+		}
+		return toList(result);
+	}
+
+	/**
+	 * @param tagIds the ids of location tags, a null id stands for a tag no location has
+	 * @return the ids of the unretired locations having none of the tags, ordered by id, all of
+	 *         them if no tags are given
+	 */
+	public List<Integer> getLocationIdsHavingNoneOfTags(Collection<Integer> tagIds) {
+		BitSet result = (BitSet) locationIds.clone();
+		for (Integer tagId : tagIds) {
+			result.andNot(get(tagId));
+		}
+		return toList(result);
+	}
+
+	private BitSet get(Integer tagId) {
+		return tagId == null ? EMPTY : locationIdsByTag.getOrDefault(tagId, EMPTY);
+	}
+
+	private static List<Integer> toList(BitSet bitSet) {
+		return Collections.unmodifiableList(bitSet.stream().boxed().collect(Collectors.toList()));
+	}
+}
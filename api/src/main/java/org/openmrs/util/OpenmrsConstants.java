@@ -371,6 +371,51 @@ public final class OpenmrsConstants {
 	
 	public static final String GLOBAL_PROPERTY_PATIENT_IDENTIFIER_TYPES_LOCKED = "patientIdentifierTypes.locked";
 	
+	/**
+	 * @since 2.7.0
+	 */
+	public static final String GLOBAL_PROPERTY_PATIENT_MERGE_BULK_MODE = "patient.merge.bulkMode";
+	
+	/**
+	 * @since 2.7.0
+	 */
+	public static final String GLOBAL_PROPERTY_SERVICE_METRICS_ENABLED = "service.metrics.enabled";
+	
+	/**
+	 * @since 2.7.0
+	 */
+	public static final String GLOBAL_PROPERTY_SERVICE_METRICS_SLOW_CALL_THRESHOLD = "service.metrics.slowCallThreshold";
+	
+	/**
+	 * @since 2.7.0
+	 */
+	public static final String GLOBAL_PROPERTY_MESSAGE_QUEUE_ENABLED = "notification.queue.enabled";
+	
+	/**
+	 * @since 2.7.0
+	 */
+	public static final String GLOBAL_PROPERTY_MESSAGE_QUEUE_BATCH_SIZE = "notification.queue.batchSize";
+	
+	/**
+	 * @since 2.7.0
+	 */
+	public static final String GLOBAL_PROPERTY_MESSAGE_QUEUE_THREADS = "notification.queue.threads";
+	
+	/**
+	 * @since 2.7.0
+	 */
+	public static final String GLOBAL_PROPERTY_MESSAGE_QUEUE_MAX_ATTEMPTS = "notification.queue.maxAttempts";
+	
+	/**
+	 * @since 2.7.0
+	 */
+	public static final String GLOBAL_PROPERTY_MESSAGE_QUEUE_RETRY_DELAY = "notification.queue.retryDelay";
+	
+	/**
+	 * @since 2.7.0
+	 */
+	public static final String GLOBAL_PROPERTY_SUPER_USER_ALERT_COALESCE_WINDOW = "notification.superUserAlert.coalesceWindow";
+	
 	public static final String GLOBAL_PROPERTY_DRUG_ORDER_REQUIRE_DRUG = "drugOrder.requireDrug";
 
 	public static final String GLOBAL_PROPERTY_DRUG_ORDER_REQUIRE_OUTPATIENT_QUANTITY = "drugOrder.requireOutpatientQuantity";
@@ -609,7 +654,7 @@ public final class OpenmrsConstants {
 	 *
 	 * @since 1.11
 	 */
-	public static final Integer SEARCH_INDEX_VERSION = 7;
+	public static final Integer SEARCH_INDEX_VERSION = 12;
 
 	/**
 	 * @since 1.12
@@ -1041,6 +1086,43 @@ public final class OpenmrsConstants {
 		props.add(new GlobalProperty(GLOBAL_PROPERTY_PATIENT_IDENTIFIER_TYPES_LOCKED, "false",
 		        "Set to a value of true if you do not want allow editing patient identifier types, else set to false."));
 		
+		props.add(new GlobalProperty(GLOBAL_PROPERTY_PATIENT_MERGE_BULK_MODE, "false",
+		        "Set to true to move visits, encounters, obs, orders, diagnoses, conditions, allergies and program enrollments "
+		                + "with bulk database updates when merging patients, which is much faster for patients with a lot of "
+		                + "data but changes obs in place instead of revising them and bypasses save handlers and interceptors",
+		        BooleanDatatype.class, null));
+		
+		props.add(new GlobalProperty(GLOBAL_PROPERTY_SERVICE_METRICS_ENABLED, "false",
+		        "Set to true to record the number of calls, errors and latencies of each service method, the recorded "
+		                + "metrics are available from AdministrationService.getServiceMetrics()",
+		        BooleanDatatype.class, null));
+		
+		props.add(new GlobalProperty(GLOBAL_PROPERTY_SERVICE_METRICS_SLOW_CALL_THRESHOLD, "1000",
+		        "The number of milliseconds after which a service call is logged as slow when service metrics are enabled, "
+		                + "set to 0 to disable logging slow calls"));
+		
+		props.add(new GlobalProperty(GLOBAL_PROPERTY_MESSAGE_QUEUE_ENABLED, "false",
+		        "Set to true to queue outgoing messages in the database instead of sending them while the caller waits, "
+		                + "queued messages are sent by the Process Message Queue task which must be scheduled",
+		        BooleanDatatype.class, null));
+		
+		props.add(new GlobalProperty(GLOBAL_PROPERTY_MESSAGE_QUEUE_BATCH_SIZE, "50",
+		        "The number of queued messages sent over a single connection to the mail server"));
+		
+		props.add(new GlobalProperty(GLOBAL_PROPERTY_MESSAGE_QUEUE_THREADS, "2",
+		        "The number of threads sending batches of queued messages in parallel"));
+		
+		props.add(new GlobalProperty(GLOBAL_PROPERTY_MESSAGE_QUEUE_MAX_ATTEMPTS, "5",
+		        "The number of times sending a queued message is attempted before it is moved to the dead letter messages"));
+		
+		props.add(new GlobalProperty(GLOBAL_PROPERTY_MESSAGE_QUEUE_RETRY_DELAY, "60",
+		        "The number of seconds to wait before sending a queued message again after the first failure, the delay "
+		                + "doubles with every further failure"));
+		
+		props.add(new GlobalProperty(GLOBAL_PROPERTY_SUPER_USER_ALERT_COALESCE_WINDOW, "60",
+		        "The number of minutes during which an alert to the super users is not created again if an unread alert "
+		                + "with the same text exists, set to 0 to always create the alert"));
+		
 		props.add(new GlobalProperty(GP_NEXT_ORDER_NUMBER_SEED, "1", "The next order number available for assignment"));
 		
 		props.add(new GlobalProperty(GP_ORDER_NUMBER_GENERATOR_BEAN_ID, "",
@@ -0,0 +1,169 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.util.databasechange;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openmrs.Concept;
+import org.openmrs.ConceptName;
+import org.openmrs.ConceptNameKey;
+import org.openmrs.api.ConceptNameType;
+import org.openmrs.util.LocaleUtility;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.SetupException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+
+/**
+ * This change set fills the concept_name_key table with the keys of the default names of all non
+ * retired concepts. The names of each concept are read with plain JDBC and the keys are computed by
+ * {@link ConceptNameKey#forConcept(Concept)}, the way they are when a concept is saved.
+ */
+public class ConceptNameKeyChangeSet implements CustomTaskChange {
+
+	private static final Logger log = LoggerFactory.getLogger(ConceptNameKeyChangeSet.class);
+
+	private static final int BATCH_SIZE = 1000;
+
+	private int keyCount = 0;
+
+	private int pendingInserts = 0;
+
+	/**
+	 * @see CustomTaskChange#execute(Database)
+	 */
+	@Override
+	public void execute(Database database) throws CustomChangeException {
+		try {
+			keyCount = updateConceptNameKeys(((JdbcConnection) database.getConnection()).getUnderlyingConnection());
+			log.info("Added {} concept name keys", keyCount);
+		}
+		catch (SQLException e) {
+			throw new CustomChangeException("Unable to fill the concept_name_key table", e);
+		}
+	}
+
+	/**
+	 * Replaces the contents of the concept_name_key table with the keys of the concepts in the
+	 * database
+	 *
+	 * @param connection the connection to use
+	 * @return the number of keys inserted
+	 * @throws SQLException
+	 */
+	public int updateConceptNameKeys(Connection connection) throws SQLException {
+		try (Statement delete = connection.createStatement()) {
+			delete.executeUpdate("delete from concept_name_key");
+		}
+
+		int count = 0;
+		try (PreparedStatement select = connection.prepareStatement(
+		    "select cn.concept_id, cn.concept_name_id, cn.uuid, cn.name, cn.locale, cn.locale_preferred,"
+		            + " cn.concept_name_type from concept_name cn join concept c on cn.concept_id = c.concept_id"
+		            + " where c.retired = ? and cn.voided = ? order by cn.concept_id, cn.concept_name_id");
+		        PreparedStatement insert = connection.prepareStatement(
+		            "insert into concept_name_key (concept_id, locale, name_key, name) values (?, ?, ?, ?)")) {
+			select.setBoolean(1, false);
+			select.setBoolean(2, false);
+
+			Concept concept = null;
+			List<ConceptName> names = new ArrayList<>();
+			try (ResultSet rs = select.executeQuery()) {
+				while (rs.next()) {
+					int conceptId = rs.getInt("concept_id");
+					if (concept == null || concept.getConceptId() != conceptId) {
+						count += addKeys(insert, concept, names);
+						concept = new Concept(conceptId);
+						names = new ArrayList<>();
+					}
+
+					ConceptName name = new ConceptName(rs.getString("name"), LocaleUtility.fromSpecification(rs
+					        .getString("locale")));
+					name.setConceptNameId(rs.getInt("concept_name_id"));
+					name.setUuid(rs.getString("uuid"));
+					name.setLocalePreferred(rs.getBoolean("locale_preferred"));
+					String type = rs.getString("concept_name_type");
+					if (StringUtils.isNotBlank(type)) {
+						name.setConceptNameType(ConceptNameType.valueOf(type));
+					}
+					names.add(name);
+				}
+			}
+			count += addKeys(insert, concept, names);
+			insert.executeBatch();
+			pendingInserts = 0;
+		}
+		return count;
+	}
+
+	private int addKeys(PreparedStatement insert, Concept concept, List<ConceptName> names) throws SQLException {
+		if (concept == null) {
+			return 0;
+		}
+		concept.setNames(names);
+
+		List<ConceptNameKey> keys = ConceptNameKey.forConcept(concept);
+		for (ConceptNameKey key : keys) {
+			insert.setInt(1, key.getConceptId());
+			insert.setString(2, key.getLocale());
+			insert.setString(3, key.getNameKey());
+			insert.setString(4, key.getName());
+			insert.addBatch();
+			if (++pendingInserts == BATCH_SIZE) {
+				insert.executeBatch();
+				pendingInserts = 0;
+			}
+		}
+		return keys.size();
+	}
+
+	/**
+	 * @see liquibase.change.custom.CustomChange#getConfirmationMessage()
+	 */
+	@Override
+	public String getConfirmationMessage() {
+		return "Finished filling the concept_name_key table with " + keyCount + " keys";
+	}
+
+	/**
+	 * @see liquibase.change.custom.CustomChange#setUp()
+	 */
+	@Override
+	public void setUp() throws SetupException {
+	}
+
+	/**
+	 * @see liquibase.change.custom.CustomChange#setFileOpener(ResourceAccessor)
+	 */
+	@Override
+	public void setFileOpener(ResourceAccessor resourceAccessor) {
+	}
+
+	/**
+	 * @see liquibase.change.custom.CustomChange#validate(Database)
+	 */
+	@Override
+	public ValidationErrors validate(Database database) {
+		return null;
+	}
+}
@@ -0,0 +1,100 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.util.databasechange;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+import org.openmrs.Relationship;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.SetupException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+
+/**
+ * This change set fills the effective_start_date and effective_end_date columns of the relationship
+ * table from the start and end dates, substituting {@link Relationship#getOpenStartDate()} and
+ * {@link Relationship#getOpenEndDate()} for missing dates the way
+ * {@link org.openmrs.api.handler.RelationshipSaveHandler} does.
+ */
+public class RelationshipEffectiveDateChangeSet implements CustomTaskChange {
+
+	private static final Logger log = LoggerFactory.getLogger(RelationshipEffectiveDateChangeSet.class);
+
+	private int updateCount = 0;
+
+	/**
+	 * @see CustomTaskChange#execute(Database)
+	 */
+	@Override
+	public void execute(Database database) throws CustomChangeException {
+		try {
+			updateCount = updateEffectiveDates(((JdbcConnection) database.getConnection()).getUnderlyingConnection());
+			log.info("Updated the effective dates of {} relationships", updateCount);
+		}
+		catch (SQLException e) {
+			throw new CustomChangeException("Unable to fill the effective dates of relationships", e);
+		}
+	}
+
+	/**
+	 * Sets the effective dates of all relationships
+	 *
+	 * @param connection the connection to use
+	 * @return the number of relationships updated
+	 * @throws SQLException
+	 */
+	public int updateEffectiveDates(Connection connection) throws SQLException {
+		try (PreparedStatement update = connection.prepareStatement("update relationship set"
+		        + " effective_start_date = coalesce(start_date, ?), effective_end_date = coalesce(end_date, ?)")) {
+			update.setTimestamp(1, new Timestamp(Relationship.getOpenStartDate().getTime()));
+			update.setTimestamp(2, new Timestamp(Relationship.getOpenEndDate().getTime()));
+			return update.executeUpdate();
+		}
+	}
+
+	/**
+	 * @see liquibase.change.custom.CustomChange#getConfirmationMessage()
+	 */
+	@Override
+	public String getConfirmationMessage() {
+		return "Finished filling the effective dates of " + updateCount + " relationships";
+	}
+
+	/**
+	 * @see liquibase.change.custom.CustomChange#setUp()
+	 */
+	@Override
+	public void setUp() throws SetupException {
+	}
+
+	/**
+	 * @see liquibase.change.custom.CustomChange#setFileOpener(ResourceAccessor)
+	 */
+	@Override
+	public void setFileOpener(ResourceAccessor resourceAccessor) {
+	}
+
+	/**
+	 * @see liquibase.change.custom.CustomChange#validate(Database)
+	 */
+	@Override
+	public ValidationErrors validate(Database database) {
+		return null;
+	}
+}
@@ -172,7 +172,7 @@ public class ConceptValidator extends BaseCustomizableValidator implements Valid
 				}
 				
 				//find duplicate names for a non-retired concept
-				if (Context.getConceptService().isConceptNameDuplicate(nameInLocale)) {
+				if (isConceptNameDuplicate(nameInLocale)) {
 					throw new DuplicateConceptNameException("'" + nameInLocale.getName()
 					        + "' is a duplicate name in locale '" + conceptNameLocale.toString() + "'");
 				}
@@ -251,4 +251,17 @@ public class ConceptValidator extends BaseCustomizableValidator implements Valid
 		ValidateUtil.validateFieldLengths(errors, obj.getClass(), "version", "retireReason");
 		super.validateAttributes(conceptToValidate, errors, Context.getConceptService().getAllConceptAttributeTypes());
 	}
+	
+	/**
+	 * Checks if a name of the concept being validated is a duplicate, subclasses validating many
+	 * concepts at once can look the names up in bulk
+	 * 
+	 * @param name the name to check
+	 * @return true if it is a duplicate name
+	 * @see org.openmrs.api.ConceptService#isConceptNameDuplicate(ConceptName)
+	 * @since 2.7.0
+	 */
+	protected boolean isConceptNameDuplicate(ConceptName name) {
+		return Context.getConceptService().isConceptNameDuplicate(name);
+	}
 }
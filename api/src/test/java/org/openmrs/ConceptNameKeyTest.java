@@ -0,0 +1,65 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+import org.openmrs.api.ConceptNameType;
+
+/**
+ * Contains test methods for concept name keys
+ */
+public class ConceptNameKeyTest {
+	
+	/**
+	 * @see ConceptNameKey#forConcept(Concept)
+	 */
+	@Test
+	public void forConcept_shouldReturnAKeyForTheDefaultNameOfEachLocale() {
+		Concept concept = new Concept(1);
+		ConceptName english = new ConceptName("Yellow Fever", Locale.ENGLISH);
+		english.setConceptNameType(ConceptNameType.FULLY_SPECIFIED);
+		english.setLocalePreferred(true);
+		concept.addName(english);
+		concept.addName(new ConceptName("YF", Locale.ENGLISH));
+		ConceptName french = new ConceptName("Fièvre jaune", Locale.FRENCH);
+		french.setConceptNameType(ConceptNameType.FULLY_SPECIFIED);
+		concept.addName(french);
+		
+		List<ConceptNameKey> keys = ConceptNameKey.forConcept(concept);
+		keys.sort(Comparator.comparing(ConceptNameKey::getLocale));
+		
+		assertEquals(2, keys.size());
+		assertEquals(Integer.valueOf(1), keys.get(0).getConceptId());
+		assertEquals("en", keys.get(0).getLocale());
+		assertEquals("yellow fever", keys.get(0).getNameKey());
+		assertEquals("Yellow Fever", keys.get(0).getName());
+		assertEquals("fr", keys.get(1).getLocale());
+		assertEquals("fièvre jaune", keys.get(1).getNameKey());
+	}
+	
+	/**
+	 * @see ConceptNameKey#forConcept(Concept)
+	 */
+	@Test
+	public void forConcept_shouldReturnNoKeysForARetiredConcept() {
+		Concept concept = new Concept(1);
+		concept.addName(new ConceptName("Yellow Fever", Locale.ENGLISH));
+		concept.setRetired(true);
+		
+		assertTrue(ConceptNameKey.forConcept(concept).isEmpty());
+	}
+}
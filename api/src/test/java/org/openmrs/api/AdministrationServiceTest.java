@@ -35,9 +35,11 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.openmrs.GlobalProperty;
 import org.openmrs.ImplementationId;
+import org.openmrs.Patient;
 import org.openmrs.Privilege;
 import org.openmrs.Role;
 import org.openmrs.User;
+import org.openmrs.aop.ServiceMethodMetrics;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.context.Credentials;
 import org.openmrs.api.context.UserContext;
@@ -1114,6 +1116,73 @@ public class AdministrationServiceTest extends BaseContextSensitiveTest {
 		assertThat(getCacheForCurrentUser(), nullValue());
 	}
 
+	/**
+	 * @see AdministrationService#getServiceMetrics()
+	 */
+	@Test
+	public void getServiceMetrics_shouldRecordCallsToServiceMethodsWhenEnabled() {
+		adminService.resetServiceMetrics();
+		adminService.setGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_SERVICE_METRICS_ENABLED, "true");
+		try {
+			Context.getPatientService().getPatient(2);
+			Context.getPatientService().getPatient(7);
+			assertThrows(APIException.class, () -> Context.getPatientService().savePatient(new Patient()));
+		}
+		finally {
+			adminService.setGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_SERVICE_METRICS_ENABLED, "false");
+		}
+		
+		ServiceMethodMetrics getPatient = getServiceMetrics("PatientService", "getPatient(Integer)");
+		assertEquals(2, getPatient.getCallCount());
+		assertEquals(0, getPatient.getErrorCount());
+		assertTrue(getPatient.getMedianTime() <= getPatient.getPercentile99Time());
+		assertTrue(getPatient.getPercentile99Time() <= getPatient.getMaxTime());
+		assertTrue(getPatient.getMaxTime() <= getPatient.getTotalTime());
+		ServiceMethodMetrics savePatient = getServiceMetrics("PatientService", "savePatient(Patient)");
+		assertEquals(1, savePatient.getCallCount());
+		assertEquals(1, savePatient.getErrorCount());
+	}
+	
+	/**
+	 * @see AdministrationService#getServiceMetrics()
+	 */
+	@Test
+	public void getServiceMetrics_shouldNotRecordCallsWhenDisabled() {
+		adminService.resetServiceMetrics();
+		
+		Context.getPatientService().getPatient(2);
+		
+		assertNull(getServiceMetrics("PatientService", "getPatient(Integer)"));
+	}
+	
+	/**
+	 * @see AdministrationService#resetServiceMetrics()
+	 */
+	@Test
+	public void resetServiceMetrics_shouldDiscardRecordedMetrics() {
+		adminService.setGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_SERVICE_METRICS_ENABLED, "true");
+		try {
+			Context.getPatientService().getPatient(2);
+			assertNotNull(getServiceMetrics("PatientService", "getPatient(Integer)"));
+			
+			adminService.resetServiceMetrics();
+		}
+		finally {
+			adminService.setGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_SERVICE_METRICS_ENABLED, "false");
+		}
+		
+		assertNull(getServiceMetrics("PatientService", "getPatient(Integer)"));
+	}
+	
+	private ServiceMethodMetrics getServiceMetrics(String service, String method) {
+		for (ServiceMethodMetrics metrics : adminService.getServiceMetrics()) {
+			if (metrics.getService().equals(service) && metrics.getMethod().equals(method)) {
+				return metrics;
+			}
+		}
+		return null;
+	}
+
 	private Cache.ValueWrapper getCacheForCurrentUser(){
 		Object[] params = { Context.getLocale(), Context.getAuthenticatedUser() };
 		Object key = (new SimpleKeyGenerator()).generate(null, null, params);
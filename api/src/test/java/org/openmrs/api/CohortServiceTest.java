@@ -21,9 +21,13 @@ import static org.junit.jupiter.api.Assertions.fail;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang3.time.DateUtils;
 import org.junit.jupiter.api.BeforeEach;
@@ -824,4 +828,107 @@ public class CohortServiceTest extends BaseContextSensitiveTest {
 
 		assertTrue(foundVoidedCohortMembership, "Expected to find a membership from a voided cohort");
 	}
+	
+	/**
+	 * @see CohortService#getCohortsContainingPatientIds(Collection, Date)
+	 */
+	@Test
+	public void getCohortsContainingPatientIds_shouldReturnTheCohortsContainingEachPatientOnTheGivenDate()
+	        throws Exception {
+		executeDataSet(COHORT_XML);
+		Cohort cohort = service.getCohort(2);
+		
+		Map<Integer, List<Cohort>> cohorts = service.getCohortsContainingPatientIds(Arrays.asList(6, 2), null);
+		assertEquals(Arrays.asList(6, 2), Arrays.asList(cohorts.keySet().toArray()));
+		assertEquals(Collections.singletonList(cohort), cohorts.get(6));
+		
+		Date longAgo = DateUtils.parseDate("2000-06-01", "yyyy-MM-dd");
+		assertEquals(Collections.singletonList(cohort), service.getCohortsContainingPatientIds(
+		    Collections.singletonList(6), longAgo).get(6));
+		
+		Date beforeMemberships = DateUtils.parseDate("1999-12-31", "yyyy-MM-dd");
+		assertTrue(service.getCohortsContainingPatientIds(Collections.singletonList(6), beforeMemberships).get(6)
+		        .isEmpty());
+	}
+	
+	/**
+	 * @see CohortService#getCohortsContainingPatientIds(Collection, Date)
+	 */
+	@Test
+	public void getCohortsContainingPatientIds_shouldNotReturnVoidedCohorts() throws Exception {
+		executeDataSet(COHORT_XML);
+		
+		// patient 2 is only a member of the voided cohort 1
+		assertTrue(service.getCohortsContainingPatientIds(Collections.singletonList(2), null).get(2).isEmpty());
+		
+		service.voidCohort(service.getCohort(2), "voided for the test");
+		assertTrue(service.getCohortsContainingPatientIds(Collections.singletonList(6), null).get(6).isEmpty());
+	}
+	
+	/**
+	 * @see CohortService#getCohortsContainingPatientIds(Collection, Date)
+	 */
+	@Test
+	public void getCohortsContainingPatientIds_shouldReturnAnEmptyListForAPatientInNoCohort() throws Exception {
+		executeDataSet(COHORT_XML);
+		
+		Map<Integer, List<Cohort>> cohorts = service.getCohortsContainingPatientIds(Collections.singletonList(7), null);
+		assertEquals(1, cohorts.size());
+		assertTrue(cohorts.get(7).isEmpty());
+	}
+
+	/**
+	 * @see CohortService#getCohortsContainingPatientIds(Collection, Date)
+	 */
+	@Test
+	public void getCohortsContainingPatientIds_shouldFindTheCohortsOfMorePatientsThanFitOneQuery() throws Exception {
+		executeDataSet(COHORT_XML);
+		Cohort cohort = service.getCohort(2);
+
+		List<Integer> patientIds = new ArrayList<>();
+		for (int patientId = 2500; patientId > 0; patientId--) {
+			patientIds.add(patientId);
+		}
+		Map<Integer, List<Cohort>> cohorts = service.getCohortsContainingPatientIds(patientIds, null);
+		assertEquals(patientIds, new ArrayList<>(cohorts.keySet()));
+		assertEquals(Collections.singletonList(cohort), cohorts.get(6));
+		assertTrue(cohorts.get(7).isEmpty());
+	}
+
+	/**
+	 * @see CohortService#getCohortsContainingPatientIds(Collection, Date)
+	 */
+	@Test
+	public void getCohortsContainingPatientIds_shouldIncludeChangesToCohortsNotSavedYet() throws Exception {
+		executeDataSet(COHORT_XML);
+		assertTrue(service.getCohortsContainingPatientIds(Collections.singletonList(7), null).get(7).isEmpty());
+		
+		Cohort cohort = service.getCohort(2);
+		CohortMembership membership = new CohortMembership(7, DateUtils.parseDate("2017-01-01", "yyyy-MM-dd"));
+		cohort.addMembership(membership);
+		assertEquals(Collections.singletonList(cohort), service.getCohortsContainingPatientIds(
+		    Collections.singletonList(7), null).get(7));
+		
+		membership.setEndDate(DateUtils.parseDate("2017-01-31", "yyyy-MM-dd"));
+		assertTrue(service.getCohortsContainingPatientIds(Collections.singletonList(7), null).get(7).isEmpty());
+		
+		membership.setPatientId(8);
+		membership.setEndDate(null);
+		Map<Integer, List<Cohort>> cohorts = service.getCohortsContainingPatientIds(Arrays.asList(7, 8), null);
+		assertTrue(cohorts.get(7).isEmpty());
+		assertEquals(Collections.singletonList(cohort), cohorts.get(8));
+	}
+	
+	/**
+	 * @see CohortService#getCohortsContainingPatientIds(Collection, Date)
+	 */
+	@Test
+	public void getCohortsContainingPatientIds_shouldNotReturnPurgedCohorts() throws Exception {
+		executeDataSet(COHORT_XML);
+		assertEquals(1, service.getCohortsContainingPatientIds(Collections.singletonList(6), null).get(6).size());
+		
+		service.purgeCohort(service.getCohort(2));
+		assertTrue(service.getCohortsContainingPatientIds(Collections.singletonList(6), null).get(6).isEmpty());
+		assertTrue(service.getCohortMemberships(6, null, true).isEmpty());
+	}
 }
@@ -32,6 +32,8 @@ import static org.openmrs.test.OpenmrsMatchers.hasConcept;
 import static org.openmrs.test.OpenmrsMatchers.hasId;
 import static org.openmrs.test.TestUtil.containsId;
 
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -42,6 +44,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import net.sf.ehcache.Ehcache;
 import org.apache.commons.collections.CollectionUtils;
@@ -1986,6 +1989,39 @@ public class ConceptServiceTest extends BaseContextSensitiveTest {
 		conceptStopWords = conceptService.getConceptStopWords(Locale.US);
 		assertEquals(0, conceptStopWords.size());
 	}
+
+	/**
+	 * @see ConceptService#getConceptStopWords(Locale)
+	 */
+	@Test
+	public void getConceptStopWords_shouldReturnStopWordsSavedAfterTheStopWordsWereRead() {
+		assertEquals(0, conceptService.getConceptStopWords(Locale.FRANCE).size());
+
+		conceptService.saveConceptStopWord(new ConceptStopWord("le", Locale.FRANCE));
+
+		assertThat(conceptService.getConceptStopWords(Locale.FRANCE), contains("LE"));
+	}
+
+	/**
+	 * @see ConceptService#getConcepts(String, List, boolean, List, List, List, List, Concept, Integer, Integer)
+	 */
+	@Test
+	public void getConcepts_shouldSearchWithTheStopWordsSavedOrDeletedAfterTheSameSearch() {
+		executeDataSet("org/openmrs/api/include/ConceptServiceTest-names.xml");
+		List<Locale> locales = Collections.singletonList(Locale.US);
+		assertEquals(0, conceptService.getConcepts("tuberculosis xyzzy knee", locales, false, null, null, null, null,
+		    null, null, null).size());
+
+		ConceptStopWord stopWord = conceptService.saveConceptStopWord(new ConceptStopWord("XYZZY", Locale.US));
+		List<ConceptSearchResult> searchResults = conceptService.getConcepts("tuberculosis xyzzy knee", locales, false,
+		    null, null, null, null, null, null, null);
+		assertEquals(1, searchResults.size());
+		assertEquals("Tuberculosis of Knee", searchResults.get(0).getConceptName().getName());
+
+		conceptService.deleteConceptStopWord(stopWord.getConceptStopWordId());
+		assertEquals(0, conceptService.getConcepts("tuberculosis xyzzy knee", locales, false, null, null, null, null,
+		    null, null, null).size());
+	}
 	
 	/**
 	 * This test fetches all concepts in the xml test dataset and ensures that every locale for a
@@ -3040,6 +3076,69 @@ public class ConceptServiceTest extends BaseContextSensitiveTest {
 		    null, null, null, null, null));
 	}
 	
+	/**
+	 * @see ConceptService#getConceptTypeahead(String, List, boolean, int, boolean)
+	 */
+	@Test
+	public void getConceptTypeahead_shouldReturnConceptsWithANameStartingWithEachTypedWord() {
+		ConceptTypeahead typeahead = conceptService.getConceptTypeahead("fo as", Collections.singletonList(Locale.UK),
+		    false, 10, false);
+		
+		List<Integer> conceptIds = typeahead.getMatches().stream().map(ConceptTypeahead.Match::getConceptId).collect(
+		    Collectors.toList());
+		assertThat(conceptIds, containsInAnyOrder(18, 20, 21));
+		assertEquals("FOOD ASSISTANCE", typeahead.getMatches().get(0).getName());
+		assertNull(typeahead.getApproximateCount());
+	}
+	
+	/**
+	 * @see ConceptService#getConceptTypeahead(String, List, boolean, int, boolean)
+	 */
+	@Test
+	public void getConceptTypeahead_shouldReturnEachConceptOnceWithItsBestMatchingName() {
+		ConceptTypeahead typeahead = conceptService.getConceptTypeahead("cd", Collections.singletonList(Locale.UK),
+		    false, 10, true);
+		
+		assertEquals(1, typeahead.getMatches().size());
+		ConceptTypeahead.Match match = typeahead.getMatches().get(0);
+		assertEquals(5497, match.getConceptId().intValue());
+		assertEquals(conceptService.getConceptName(match.getConceptNameId()).getName(), match.getName());
+		assertEquals(3L, typeahead.getApproximateCount().longValue());
+	}
+	
+	/**
+	 * @see ConceptService#getConceptTypeahead(String, List, boolean, int, boolean)
+	 */
+	@Test
+	public void getConceptTypeahead_shouldReturnAtMostTheLimitAndCountAllMatchingNames() {
+		ConceptTypeahead typeahead = conceptService.getConceptTypeahead("F", Collections.singletonList(Locale.ENGLISH),
+		    false, 2, true);
+		
+		assertEquals(2, typeahead.getMatches().size());
+		assertTrue(typeahead.getApproximateCount() >= 5);
+	}
+	
+	/**
+	 * @see ConceptService#getConceptTypeahead(String, List, boolean, int, boolean)
+	 */
+	@Test
+	public void getConceptTypeahead_shouldNotMatchVoidedNamesOrNamesInOtherLocales() {
+		assertTrue(conceptService.getConceptTypeahead("void", Collections.singletonList(Locale.UK), false, 10, false)
+		        .getMatches().isEmpty());
+		assertTrue(conceptService.getConceptTypeahead("food", Collections.singletonList(Locale.FRENCH), false, 10,
+		    false).getMatches().isEmpty());
+	}
+	
+	/**
+	 * @see ConceptService#getConceptTypeahead(String, List, boolean, int, boolean)
+	 */
+	@Test
+	public void getConceptTypeahead_shouldFailIfTheLimitIsNotPositive() {
+		APIException exception = assertThrows(APIException.class, () -> conceptService.getConceptTypeahead("food", null,
+		    false, 0, false));
+		assertEquals("The limit of a concept typeahead must be positive, it was 0", exception.getMessage());
+	}
+	
 	/**
 	 * @see ConceptService#mapConceptProposalToConcept(ConceptProposal,Concept,Locale)
 	 */
@@ -3352,6 +3451,38 @@ public class ConceptServiceTest extends BaseContextSensitiveTest {
 		        .getDrug(444)));
 	}
 	
+	/**
+	 * @see ConceptService#getDrugs(String, Concept, boolean, boolean, boolean, Integer, Integer)
+	 */
+	@Test
+	public void getDrugs_shouldFindDrugsByTheNamesOfTheirConceptAddedWhenTheConceptIsSaved() {
+		Drug drug = conceptService.getDrug(3);
+		assertThat(conceptService.getDrugs("Acetylsalicylic", null, true, true, false, null, null), is(empty()));
+		
+		Concept concept = drug.getConcept();
+		concept.addName(new ConceptName("Acetylsalicylic acid", Locale.ENGLISH));
+		conceptService.saveConcept(concept);
+		
+		assertThat(conceptService.getDrugs("Acetylsalicylic", null, true, true, false, null, null), contains(hasId(3)));
+		assertThat(conceptService.getDrugs("Acetylsalicylic", null, true, false, false, null, null), is(empty()));
+		assertEquals(1, conceptService.getCountOfDrugs("Acetylsalicylic", null, true, true, false).intValue());
+	}
+	
+	/**
+	 * @see ConceptService#getDrugs(String, Concept, boolean, boolean, boolean, Integer, Integer)
+	 */
+	@Test
+	public void getDrugs_shouldFindDrugsByTheNamesOfTheirConceptIgnoringAccents() {
+		Concept concept = conceptService.getDrug(3).getConcept();
+		concept.addName(new ConceptName("Acide acétylsalicylique", Locale.ENGLISH));
+		conceptService.saveConcept(concept);
+		
+		assertThat(conceptService.getDrugs("acide acetylsalicylique", null, false, true, false, null, null),
+		    contains(hasId(3)));
+		assertThat(conceptService.getDrugs("ACIDE ACÉTYLSALICYLIQUE", null, false, true, false, null, null),
+		    contains(hasId(3)));
+	}
+	
 	/**
 	 * @see ConceptService#getDrugs(String, java.util.Locale, boolean, boolean)
 	 */
@@ -3910,4 +4041,242 @@ public class ConceptServiceTest extends BaseContextSensitiveTest {
 		assertNull(conceptService.getConceptByReference("id, name or map which does not match to any concept"));
 		assertNull(conceptService.getConceptByReference("1000")); //invalid uuid but exists in standardTestDataset
 	}
+	
+	/**
+	 * @see ConceptService#isConceptNameDuplicate(ConceptName)
+	 */
+	@Test
+	public void isConceptNameDuplicate_shouldFindTheDefaultNameOfAConceptSavedInTheSameTransaction() {
+		conceptService.saveConcept(newConceptNamed("Zebra fever", Locale.ENGLISH));
+		
+		assertTrue(conceptService.isConceptNameDuplicate(newConceptNamed("Zebra fever", Locale.UK).getName(Locale.UK)));
+		assertFalse(conceptService.isConceptNameDuplicate(newConceptNamed("Zebra fever", Locale.FRENCH).getName(
+		    Locale.FRENCH)));
+		assertThrows(DuplicateConceptNameException.class, () -> conceptService.saveConcept(newConceptNamed("Zebra fever",
+		    Locale.ENGLISH)));
+	}
+	
+	/**
+	 * @see ConceptService#isConceptNameDuplicate(ConceptName)
+	 */
+	@Test
+	public void isConceptNameDuplicate_shouldOnlyFindNamesInTheSameCaseIfStringComparisonsAreCaseSensitive() {
+		setDatabaseStringComparisonCaseSensitive(true);
+		conceptService.saveConcept(newConceptNamed("Zebra fever", Locale.ENGLISH));
+		
+		assertTrue(conceptService.isConceptNameDuplicate(newConceptNamed("Zebra fever", Locale.UK).getName(Locale.UK)));
+		assertFalse(conceptService.isConceptNameDuplicate(newConceptNamed("ZEBRA FEVER", Locale.UK).getName(Locale.UK)));
+		assertNotNull(conceptService.saveConcept(newConceptNamed("zebra fever", Locale.ENGLISH)));
+	}
+	
+	/**
+	 * @see ConceptService#isConceptNameDuplicate(ConceptName)
+	 */
+	@Test
+	public void isConceptNameDuplicate_shouldFindNamesInAnyCaseIfStringComparisonsAreNotCaseSensitive() {
+		setDatabaseStringComparisonCaseSensitive(false);
+		conceptService.saveConcept(newConceptNamed("Zebra fever", Locale.ENGLISH));
+		
+		assertTrue(conceptService.isConceptNameDuplicate(newConceptNamed("Zebra fever", Locale.UK).getName(Locale.UK)));
+		assertTrue(conceptService.isConceptNameDuplicate(newConceptNamed("ZEBRA FEVER", Locale.UK).getName(Locale.UK)));
+		assertThrows(DuplicateConceptNameException.class, () -> conceptService.saveConcept(newConceptNamed("zebra fever",
+		    Locale.ENGLISH)));
+	}
+	
+	/**
+	 * @see ConceptService#isConceptNameDuplicate(ConceptName)
+	 */
+	@Test
+	public void isConceptNameDuplicate_shouldNotFindTheNamesOfAConceptAfterItIsRetiredOrRenamed() {
+		Concept retired = conceptService.saveConcept(newConceptNamed("Zebra fever", Locale.ENGLISH));
+		Concept renamed = conceptService.saveConcept(newConceptNamed("Okapi fever", Locale.ENGLISH));
+		
+		conceptService.retireConcept(retired, "duplicate");
+		renamed.getFullySpecifiedName(Locale.ENGLISH).setName("Okapi flu");
+		conceptService.saveConcept(renamed);
+		
+		assertFalse(conceptService.isConceptNameDuplicate(newConceptNamed("Zebra fever", Locale.ENGLISH).getName(
+		    Locale.ENGLISH)));
+		assertFalse(conceptService.isConceptNameDuplicate(newConceptNamed("Okapi fever", Locale.ENGLISH).getName(
+		    Locale.ENGLISH)));
+		assertTrue(conceptService.isConceptNameDuplicate(newConceptNamed("Okapi flu", Locale.ENGLISH).getName(
+		    Locale.ENGLISH)));
+	}
+	
+	/**
+	 * @see ConceptService#updateConceptNameKeys()
+	 */
+	@Test
+	public void updateConceptNameKeys_shouldAddTheKeysOfConceptsWrittenWithoutTheAPI() throws SQLException {
+		try (Statement statement = getConnection().createStatement()) {
+			statement.executeUpdate("delete from concept_name_key");
+		}
+		assertFalse(conceptService.isConceptNameDuplicate(newConceptNamed("CD4 COUNT", Locale.UK).getName(Locale.UK)));
+		
+		assertTrue(conceptService.updateConceptNameKeys() > 0);
+		
+		assertTrue(conceptService.isConceptNameDuplicate(newConceptNamed("CD4 COUNT", Locale.UK).getName(Locale.UK)));
+		// a short name is not a default name
+		assertFalse(conceptService.isConceptNameDuplicate(newConceptNamed("CD4", Locale.UK).getName(Locale.UK)));
+	}
+	
+	/**
+	 * @see ConceptService#importConcepts(Iterator, int, ConceptImportProgress)
+	 */
+	@Test
+	public void importConcepts_shouldImportConceptsWithTheirNamesAnswersSetMembersAndMappings() {
+		Concept answer = newConceptNamed("Zebra stripes", Locale.ENGLISH);
+		Concept question = newConceptNamed("Zebra pattern", Locale.ENGLISH);
+		question.addName(new ConceptName("Stripes", Locale.FRENCH));
+		question.addAnswer(new ConceptAnswer(answer));
+		question.addAnswer(new ConceptAnswer(conceptService.getConcept(7)));
+		question.addConceptMapping(new ConceptMap(conceptService.getConceptReferenceTerm(1), conceptService
+		        .getConceptMapType(2)));
+		Concept set = newConceptNamed("Zebra findings", Locale.ENGLISH);
+		set.addSetMember(question);
+		
+		ConceptImportProgress progress = conceptService.importConcepts(Arrays.asList(answer, question, set).iterator(), 10,
+		    new ConceptImportProgress());
+		
+		assertEquals(3, progress.getImported());
+		assertEquals(3, progress.getCheckpoint());
+		Context.clearSession();
+		Concept imported = conceptService.getConceptByUuid(question.getUuid());
+		assertEquals(question.getConceptId(), imported.getConceptId());
+		assertEquals("Zebra pattern", imported.getName(Locale.ENGLISH).getName());
+		assertEquals("Stripes", imported.getName(Locale.FRENCH).getName());
+		assertEquals(2, imported.getAnswers().size());
+		assertEquals(1, imported.getConceptMappings().size());
+		assertEquals(1, imported.getDescriptions().size());
+		Concept importedSet = conceptService.getConceptByUuid(set.getUuid());
+		assertTrue(importedSet.getSet());
+		assertEquals(imported, importedSet.getSetMembers().get(0));
+		assertEquals(imported, conceptService.getConceptByName("Zebra pattern"));
+		assertTrue(conceptService.isConceptNameDuplicate(newConceptNamed("Zebra pattern", Locale.ENGLISH).getName(
+		    Locale.ENGLISH)));
+	}
+	
+	/**
+	 * @see ConceptService#importConcepts(Iterator, int, ConceptImportProgress)
+	 */
+	@Test
+	public void importConcepts_shouldResolveAnswersAndSetMembersWithinTheStream() {
+		Concept answer = newConceptNamed("Zebra stripes", Locale.ENGLISH);
+		Concept question = newConceptNamed("Zebra pattern", Locale.ENGLISH);
+		Concept sameAnswer = new Concept();
+		sameAnswer.setUuid(answer.getUuid());
+		question.addAnswer(new ConceptAnswer(sameAnswer));
+		
+		conceptService.importConcepts(Arrays.asList(answer, question).iterator(), 1, new ConceptImportProgress());
+		
+		Context.clearSession();
+		Concept imported = conceptService.getConceptByUuid(question.getUuid());
+		assertEquals(answer.getConceptId(), imported.getAnswers().iterator().next().getAnswerConcept().getConceptId());
+	}
+	
+	/**
+	 * @see ConceptService#importConcepts(Iterator, int, ConceptImportProgress)
+	 */
+	@Test
+	public void importConcepts_shouldSaveNewReferenceTermsOfConceptMappings() {
+		ConceptReferenceTerm term = new ConceptReferenceTerm(conceptService.getConceptSource(1), "zebra-1", "Zebra");
+		Concept concept = newConceptNamed("Zebra pattern", Locale.ENGLISH);
+		concept.addConceptMapping(new ConceptMap(term, conceptService.getConceptMapType(2)));
+		Concept other = newConceptNamed("Zebra stripes", Locale.ENGLISH);
+		other.addConceptMapping(new ConceptMap(term, conceptService.getConceptMapType(2)));
+		
+		conceptService.importConcepts(Arrays.asList(concept, other).iterator(), 10, new ConceptImportProgress());
+		
+		assertNotNull(term.getConceptReferenceTermId());
+		Context.clearSession();
+		ConceptReferenceTerm saved = conceptService.getConceptReferenceTermByUuid(term.getUuid());
+		assertEquals("zebra-1", saved.getCode());
+		assertNotNull(saved.getCreator());
+		assertEquals(saved, conceptService.getConceptByUuid(concept.getUuid()).getConceptMappings().iterator().next()
+		        .getConceptReferenceTerm());
+		assertEquals(saved, conceptService.getConceptByUuid(other.getUuid()).getConceptMappings().iterator().next()
+		        .getConceptReferenceTerm());
+	}
+	
+	/**
+	 * @see ConceptService#importConcepts(Iterator, int, ConceptImportProgress)
+	 */
+	@Test
+	public void importConcepts_shouldSkipConceptsThatAreAlreadyInTheDatabase() {
+		List<Concept> concepts = Arrays.asList(newConceptNamed("Zebra stripes", Locale.ENGLISH), newConceptNamed(
+		    "Zebra pattern", Locale.ENGLISH));
+		conceptService.importConcepts(concepts.subList(0, 1).iterator(), 10, new ConceptImportProgress());
+		
+		ConceptImportProgress progress = conceptService.importConcepts(concepts.iterator(), 10,
+		    new ConceptImportProgress());
+		
+		assertEquals(1, progress.getImported());
+		assertEquals(1, progress.getSkipped());
+		assertEquals(2, progress.getCheckpoint());
+	}
+	
+	/**
+	 * @see ConceptService#importConcepts(Iterator, int, ConceptImportProgress)
+	 */
+	@Test
+	public void importConcepts_shouldResumeFromTheCheckpointOfTheProgress() {
+		List<Concept> concepts = Arrays.asList(newConceptNamed("Zebra stripes", Locale.ENGLISH), newConceptNamed(
+		    "Zebra pattern", Locale.ENGLISH));
+		
+		ConceptImportProgress progress = conceptService.importConcepts(concepts.iterator(), 10,
+		    new ConceptImportProgress(1));
+		
+		assertEquals(1, progress.getImported());
+		assertEquals(2, progress.getCheckpoint());
+		assertNull(conceptService.getConceptByUuid(concepts.get(0).getUuid()));
+		assertNotNull(conceptService.getConceptByUuid(concepts.get(1).getUuid()));
+	}
+	
+	/**
+	 * @see ConceptService#importConcepts(Iterator, int, ConceptImportProgress)
+	 */
+	@Test
+	public void importConcepts_shouldFailForABatchWithDuplicateNames() {
+		List<Concept> concepts = Arrays.asList(newConceptNamed("Zebra stripes", Locale.ENGLISH), newConceptNamed(
+		    "Zebra pattern", Locale.ENGLISH), newConceptNamed("Zebra stripes", Locale.UK));
+		ConceptImportProgress progress = new ConceptImportProgress();
+		
+		assertThrows(ValidationException.class, () -> conceptService.importConcepts(concepts.iterator(), 2, progress));
+		assertEquals(2, progress.getCheckpoint());
+		assertThrows(ValidationException.class, () -> conceptService.importConcepts(Arrays.asList(newConceptNamed(
+		    "YES", Locale.UK)).iterator(), 2, new ConceptImportProgress()));
+	}
+	
+	/**
+	 * @see ConceptService#importConcepts(Iterator, int, ConceptImportProgress)
+	 */
+	@Test
+	public void importConcepts_shouldCompareNamesInTheCaseOfTheDatabaseStringComparisons() {
+		setDatabaseStringComparisonCaseSensitive(true);
+		ConceptImportProgress progress = conceptService.importConcepts(Arrays.asList(newConceptNamed("Zebra stripes",
+		    Locale.ENGLISH), newConceptNamed("ZEBRA STRIPES", Locale.UK), newConceptNamed("yes", Locale.UK)).iterator(), 2,
+		    new ConceptImportProgress());
+		assertEquals(3, progress.getImported());
+		
+		setDatabaseStringComparisonCaseSensitive(false);
+		assertThrows(ValidationException.class, () -> conceptService.importConcepts(Arrays.asList(newConceptNamed(
+		    "Okapi stripes", Locale.ENGLISH), newConceptNamed("OKAPI STRIPES", Locale.UK)).iterator(), 2,
+		    new ConceptImportProgress()));
+		assertThrows(ValidationException.class, () -> conceptService.importConcepts(Arrays.asList(newConceptNamed(
+		    "zebra STRIPES", Locale.UK)).iterator(), 2, new ConceptImportProgress()));
+	}
+	
+	private void setDatabaseStringComparisonCaseSensitive(boolean caseSensitive) {
+		Context.getAdministrationService().setGlobalProperty(
+		    OpenmrsConstants.GP_CASE_SENSITIVE_DATABASE_STRING_COMPARISON, String.valueOf(caseSensitive));
+	}
+	
+	private Concept newConceptNamed(String name, Locale locale) {
+		Concept concept = new Concept();
+		concept.addName(new ConceptName(name, locale));
+		concept.addDescription(new ConceptDescription("some description", locale));
+		concept.setDatatype(new ConceptDatatype(4));
+		concept.setConceptClass(new ConceptClass(1));
+		return concept;
+	}
 }
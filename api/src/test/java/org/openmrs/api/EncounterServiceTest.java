@@ -39,6 +39,8 @@ import java.util.TreeSet;
 import java.util.HashSet;
 
 import org.apache.commons.lang3.time.DateUtils;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -65,6 +67,7 @@ import org.openmrs.Order;
 import org.openmrs.OrderGroup;
 import org.openmrs.OrderSet;
 import org.openmrs.Patient;
+import org.openmrs.PatientIdentifier;
 import org.openmrs.Person;
 import org.openmrs.PersonName;
 import org.openmrs.Privilege;
@@ -72,11 +75,13 @@ import org.openmrs.Provider;
 import org.openmrs.Role;
 import org.openmrs.TestOrder;
 import org.openmrs.User;
+import org.openmrs.TimelineEntry;
 import org.openmrs.Visit;
 import org.openmrs.VisitType;
 import org.openmrs.api.builder.DrugOrderBuilder;
 import org.openmrs.api.builder.OrderBuilder;
 import org.openmrs.api.context.Context;
+import org.openmrs.api.db.hibernate.SearchIndexUpdater;
 import org.openmrs.api.handler.EncounterVisitHandler;
 import org.openmrs.api.handler.ExistingOrNewVisitAssignmentHandler;
 import org.openmrs.api.handler.ExistingVisitAssignmentHandler;
@@ -87,6 +92,8 @@ import org.openmrs.test.jupiter.BaseContextSensitiveTest;
 import org.openmrs.util.DateUtil;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.PrivilegeConstants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.transaction.TestTransaction;
 
 /**
  * Tests all methods in the {@link EncounterService}
@@ -102,6 +109,9 @@ public class EncounterServiceTest extends BaseContextSensitiveTest {
 	protected static final String ENC_OBS_HIERARCHY_DATA_XML = "org/openmrs/api/include/EncounterServiceTest-saveObsHierarchyTests.xml";
 
 	protected static final String ORDER_SET = "org/openmrs/api/include/OrderSetServiceTest-general.xml";
+	
+	@Autowired
+	private SessionFactory sessionFactory;
 
 
 	/**
@@ -115,6 +125,7 @@ public class EncounterServiceTest extends BaseContextSensitiveTest {
 	@BeforeEach
 	public void runBeforeEachTest() {
 		executeDataSet(ENC_INITIAL_DATA_XML);
+		Context.updateSearchIndexForType(Encounter.class);
 	}
 
 	@Test
@@ -2938,6 +2949,117 @@ public class EncounterServiceTest extends BaseContextSensitiveTest {
 		assertEquals(2, Context.getEncounterService().getEncounters("Basic", 3, null, null, false).size());
 	}
 	
+	/**
+	 * @see EncounterService#getEncounters(String,Integer,Integer,Integer,null)
+	 */
+	@Test
+	public void getEncounters_shouldPageTheMatchingEncounters() {
+		EncounterService encounterService = Context.getEncounterService();
+		List<Encounter> all = encounterService.getEncounters("Test Location", 3, null, null, true);
+		assertEquals(4, all.size());
+		
+		List<Encounter> paged = new ArrayList<>(encounterService.getEncounters("Test Location", 3, 0, 3, true));
+		assertEquals(3, paged.size());
+		paged.addAll(encounterService.getEncounters("Test Location", 3, 3, 3, true));
+		assertEquals(all, paged);
+	}
+	
+	/**
+	 * @see EncounterService#getEncounters(String,Integer,Integer,Integer,null)
+	 */
+	@Test
+	public void getEncounters_shouldFindTheEncountersMovedByABulkPatientMerge() throws Exception {
+		EncounterService encounterService = Context.getEncounterService();
+		PatientService patientService = Context.getPatientService();
+		Encounter encounter = encounterService.saveEncounter(buildEncounter());
+		Context.updateSearchIndexForObject(encounter);
+		String locationName = encounter.getLocation().getName();
+		int moved = encounterService.getEncounters(locationName, 3, null, null, false).size();
+		int kept = encounterService.getEncounters(locationName, 2, null, null, false).size();
+		assertTrue(moved > 0);
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_PATIENT_MERGE_BULK_MODE,
+		    "true");
+		// the moved encounters must not be in the session, where a flush would index them anyway
+		Context.flushSession();
+		Context.clearSession();
+		Patient notPreferred = patientService.getPatient(3);
+		// the identifiers of the dataset do not have valid check digits
+		for (PatientIdentifier identifier : notPreferred.getIdentifiers()) {
+			identifier.getIdentifierType().setValidator(null);
+		}
+		
+		try {
+			patientService.mergePatients(patientService.getPatient(2), notPreferred);
+			commitAndAwaitSearchIndexUpdates();
+			
+			List<Encounter> encounters = encounterService.getEncounters(locationName, 2, null, null, false);
+			assertEquals(moved + kept, encounters.size());
+			assertTrue(encounters.stream().anyMatch(e -> e.getEncounterId().equals(encounter.getEncounterId())));
+			assertEquals(0, encounterService.getEncounters(locationName, 3, null, null, false).size());
+		}
+		finally {
+			deleteAllData();
+		}
+	}
+	
+	/**
+	 * @see EncounterService#getEncounters(String,Integer,Integer,Integer,null)
+	 */
+	@Test
+	public void getEncounters_shouldMatchTheNewNameOfRenamedMetadataOnceCommitted() throws Exception {
+		EncounterService encounterService = Context.getEncounterService();
+		assertEquals(0, encounterService.getEncounters("Zanzibar", 3, null, null, false).size());
+		
+		Location location = Context.getLocationService().getLocation(1);
+		location.setName("Zanzibar Clinic");
+		Context.getLocationService().saveLocation(location);
+		EncounterType encounterType = encounterService.getEncounterType(1);
+		encounterType.setName("Outpatient Visit");
+		encounterService.saveEncounterType(encounterType);
+		Context.flushSession();
+		try {
+			assertEquals(0, encounterService.getEncounters("zanzib", 3, null, null, false).size());
+			commitAndAwaitSearchIndexUpdates();
+			
+			assertEquals(2, encounterService.getEncounters("zanzib", 3, null, null, false).size());
+			assertEquals(2, encounterService.getEncounters("clinic outpatient", 3, null, null, false).size());
+			assertEquals(0, encounterService.getEncounters("Test Location", 3, null, null, false).size());
+		}
+		finally {
+			deleteAllData();
+		}
+	}
+	
+	/**
+	 * @see EncounterService#getEncounters(String,Integer,Integer,Integer,null)
+	 */
+	@Test
+	public void getEncounters_shouldNotMatchTheNewNameOfMetadataRenamedInARolledBackTransaction() throws Exception {
+		EncounterService encounterService = Context.getEncounterService();
+		Location location = Context.getLocationService().getLocation(1);
+		location.setName("Zanzibar Clinic");
+		Context.getLocationService().saveLocation(location);
+		Context.flushSession();
+		
+		TestTransaction.end();
+		SearchIndexUpdater.awaitUpdates();
+		TestTransaction.start();
+		
+		// the encounters of patient 7 are in the standard dataset, which is not rolled back
+		assertEquals(0, encounterService.getEncounters("zanzib", 7, null, null, false).size());
+	}
+	
+	/**
+	 * Commits the test transaction, which is then no longer rolled back, and waits for the search index
+	 * updates it triggered
+	 */
+	private void commitAndAwaitSearchIndexUpdates() throws InterruptedException {
+		TestTransaction.flagForCommit();
+		TestTransaction.end();
+		SearchIndexUpdater.awaitUpdates();
+		TestTransaction.start();
+	}
+	
 	/**
 	 * @see EncounterService#saveEncounterType(EncounterType)
 	 * @see EncounterService#checkIfEncounterTypesAreLocked()
@@ -3235,4 +3357,206 @@ public class EncounterServiceTest extends BaseContextSensitiveTest {
 		assertTrue(allergies.contains(allergy));
 		assertEquals(NAMESPACE + "^" + FORMFIELD_PATH, allergies.iterator().next().getFormNamespaceAndPath());
 	}
+	
+	/**
+	 * Saves an encounter with a top level obs and an obs group holding a nested obs group of two obs
+	 * and one obs of its own, then clears the session
+	 *
+	 * @return the id of the saved encounter
+	 */
+	private Integer saveEncounterWithObsTree() {
+		Concept concept = Context.getConceptService().getConcept(1);
+		Encounter encounter = buildEncounter();
+		
+		Obs group = new Obs();
+		group.setConcept(concept);
+		Obs nestedGroup = new Obs();
+		nestedGroup.setConcept(concept);
+		for (double value = 1; value <= 2; value++) {
+			Obs member = new Obs();
+			member.setConcept(concept);
+			member.setValueNumeric(value);
+			nestedGroup.addGroupMember(member);
+		}
+		group.addGroupMember(nestedGroup);
+		Obs groupMember = new Obs();
+		groupMember.setConcept(concept);
+		groupMember.setValueNumeric(3d);
+		group.addGroupMember(groupMember);
+		encounter.addObs(group);
+		
+		Obs topLevel = new Obs();
+		topLevel.setConcept(concept);
+		topLevel.setValueNumeric(4d);
+		encounter.addObs(topLevel);
+		
+		Context.getEncounterService().saveEncounter(encounter);
+		Context.flushSession();
+		Context.clearSession();
+		return encounter.getEncounterId();
+	}
+	
+	/**
+	 * @see EncounterService#getEncounterWithObs(Integer)
+	 */
+	@Test
+	public void getEncounterWithObs_shouldLoadTheObsTreesOfTheEncounterWithASingleQuery() {
+		Integer encounterId = saveEncounterWithObsTree();
+		Statistics statistics = sessionFactory.getStatistics();
+		statistics.setStatisticsEnabled(true);
+		try {
+			statistics.clear();
+			Encounter encounter = Context.getEncounterService().getEncounterWithObs(encounterId);
+			long withObs = statistics.getPrepareStatementCount();
+			
+			// compare with loading the encounter alone, which issues a varying number of statements
+			Context.clearSession();
+			statistics.clear();
+			Context.getEncounterService().getEncounter(encounterId);
+			assertEquals(statistics.getPrepareStatementCount() + 1, withObs);
+			
+			statistics.clear();
+			assertEquals(4, encounter.getObs().size());
+			assertEquals(6, encounter.getAllFlattenedObs(false).size());
+			assertEquals(2, encounter.getObsAtTopLevel(false).size());
+			assertEquals(0, statistics.getPrepareStatementCount());
+		}
+		finally {
+			statistics.setStatisticsEnabled(false);
+		}
+	}
+	
+	/**
+	 * @see EncounterService#getEncounterWithObs(Integer)
+	 */
+	@Test
+	public void getEncounterWithObs_shouldFailIfUserIsNotAllowedToViewEncounterByGivenId() {
+		Encounter encounter = getEncounterWithViewPrivilege();
+		
+		User user = Context.getUserService().getUserByUsername("test_user");
+		Context.becomeUser(user.getSystemId());
+		Context.addProxyPrivilege(PrivilegeConstants.GET_ENCOUNTERS);
+		
+		assertThrows(APIException.class, () -> Context.getEncounterService().getEncounterWithObs(encounter.getId()));
+	}
+	
+	/**
+	 * @see EncounterService#loadObsTrees(java.util.Collection)
+	 */
+	@Test
+	public void loadObsTrees_shouldLoadTheObsTreesOfManyEncountersWithASingleQuery() {
+		List<Integer> encounterIds = Arrays.asList(saveEncounterWithObsTree(), saveEncounterWithObsTree());
+		List<Encounter> encounters = new ArrayList<>();
+		for (Integer encounterId : encounterIds) {
+			encounters.add(Context.getEncounterService().getEncounter(encounterId));
+		}
+		Statistics statistics = sessionFactory.getStatistics();
+		statistics.setStatisticsEnabled(true);
+		try {
+			statistics.clear();
+			Context.getEncounterService().loadObsTrees(encounters);
+			assertEquals(1, statistics.getPrepareStatementCount());
+			
+			statistics.clear();
+			for (Encounter encounter : encounters) {
+				assertEquals(4, encounter.getObs().size());
+				assertEquals(6, encounter.getAllFlattenedObs(false).size());
+			}
+			assertEquals(0, statistics.getPrepareStatementCount());
+		}
+		finally {
+			statistics.setStatisticsEnabled(false);
+		}
+	}
+	
+	/**
+	 * @see EncounterService#getEncounterTimeline(Patient, boolean, String, TimelineEntry, Integer)
+	 */
+	@Test
+	public void getEncounterTimeline_shouldReturnEncountersAndEmptyVisitsInTimelineOrder() {
+		Patient patient = Context.getPatientService().getPatient(2);
+		Visit emptyVisit = Context.getVisitService().saveVisit(
+		    new Visit(patient, Context.getVisitService().getVisitType(1), new Date()));
+		
+		List<TimelineEntry> entries = Context.getEncounterService().getEncounterTimeline(patient, false, null, null,
+		    null);
+		
+		assertEquals(Context.getEncounterService().getEncountersByVisitsAndPatientCount(patient, false, null).intValue(),
+		    entries.size());
+		assertTrue(entries.get(0).isEmptyVisit());
+		assertEquals(emptyVisit, entries.get(0).getEncounter().getVisit());
+		assertNull(entries.get(0).getEncounter().getEncounterId());
+		for (int i = 1; i < entries.size(); i++) {
+			assertFalse(entries.get(i).getSortDatetime().after(entries.get(i - 1).getSortDatetime()));
+		}
+		for (TimelineEntry entry : entries) {
+			if (!entry.isEmptyVisit()) {
+				assertEquals(entry.getEncounterId(), entry.getEncounter().getEncounterId());
+				assertEquals(patient, entry.getEncounter().getPatient());
+			}
+		}
+	}
+	
+	/**
+	 * @see EncounterService#getEncounterTimeline(Patient, boolean, String, TimelineEntry, Integer)
+	 */
+	@Test
+	public void getEncounterTimeline_shouldReturnTheEntriesAfterTheGivenEntry() {
+		Patient patient = Context.getPatientService().getPatient(2);
+		Context.getVisitService().saveVisit(new Visit(patient, Context.getVisitService().getVisitType(1), new Date()));
+		List<TimelineEntry> all = Context.getEncounterService().getEncounterTimeline(patient, true, null, null, null);
+		
+		List<TimelineEntry> paged = new ArrayList<>();
+		TimelineEntry after = null;
+		List<TimelineEntry> page;
+		do {
+			page = Context.getEncounterService().getEncounterTimeline(patient, true, null, after, 2);
+			assertTrue(page.size() <= 2);
+			paged.addAll(page);
+			after = page.isEmpty() ? null : page.get(page.size() - 1);
+		} while (page.size() == 2);
+		
+		assertEquals(all.size(), paged.size());
+		for (int i = 0; i < all.size(); i++) {
+			assertEquals(all.get(i).getVisitId(), paged.get(i).getVisitId());
+			assertEquals(all.get(i).getEncounterId(), paged.get(i).getEncounterId());
+		}
+	}
+	
+	/**
+	 * @see EncounterService#getEncounterTimeline(Patient, boolean, String, TimelineEntry, Integer)
+	 */
+	@Test
+	public void getEncounterTimeline_shouldReturnTheSameEntriesAsGetEncountersByVisitsAndPatient() {
+		Patient patient = Context.getPatientService().getPatient(2);
+		List<TimelineEntry> entries = Context.getEncounterService().getEncounterTimeline(patient, false, null, null,
+		    null);
+		List<Encounter> page = Context.getEncounterService().getEncountersByVisitsAndPatient(patient, false, null, 1, 2);
+		
+		assertEquals(2, page.size());
+		for (int i = 0; i < page.size(); i++) {
+			assertEquals(entries.get(i + 1).getEncounterId(), page.get(i).getEncounterId());
+			assertEquals(entries.get(i + 1).getEncounter().getVisit(), page.get(i).getVisit());
+		}
+	}
+	
+	/**
+	 * @see EncounterService#getEncountersByVisitsAndPatient(Patient, boolean, String, Integer,
+	 *      Integer)
+	 */
+	@Test
+	public void getEncountersByVisitsAndPatient_shouldFilterByTheQuery() {
+		Patient patient = Context.getPatientService().getPatient(2);
+		String query = Context.getEncounterService().getEncountersByPatient(patient).get(0).getEncounterType().getName()
+		        .toUpperCase();
+		
+		List<Encounter> encounters = Context.getEncounterService().getEncountersByVisitsAndPatient(patient, false,
+		    query, null, null);
+		
+		assertFalse(encounters.isEmpty());
+		assertEquals(encounters.size(), Context.getEncounterService().getEncountersByVisitsAndPatientCount(patient,
+		    false, query).intValue());
+		assertTrue(encounters.size() < Context.getEncounterService().getEncountersByVisitsAndPatientCount(patient, false,
+		    null));
+	}
 }
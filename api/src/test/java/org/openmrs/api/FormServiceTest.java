@@ -14,6 +14,7 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -24,13 +25,19 @@ import java.io.InputStreamReader;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.commons.collections.ListUtils;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.openmrs.Concept;
 import org.openmrs.Field;
@@ -43,8 +50,11 @@ import org.openmrs.Obs;
 import org.openmrs.api.context.Context;
 import org.openmrs.obs.SerializableComplexObsHandler;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+import org.openmrs.util.CompiledFormStructure;
 import org.openmrs.util.DateUtil;
+import org.openmrs.util.FormUtil;
 import org.openmrs.util.OpenmrsConstants;
+import org.springframework.beans.factory.annotation.Autowired;
 
 /**
  * TODO clean up and finish this test for all methods in FormService
@@ -61,6 +71,9 @@ public class FormServiceTest extends BaseContextSensitiveTest {
 
 	protected static final String FORM_SAMPLE_RESOURCE = "org/openmrs/api/include/FormServiceTest-sampleResource.xslt";
 
+	@Autowired
+	private SessionFactory sessionFactory;
+
 	/**
 	 * Creates then updates a form FIXME Break this test case into separate tests
 	 *
@@ -235,6 +248,158 @@ public class FormServiceTest extends BaseContextSensitiveTest {
 		assertNotNull(ff);
 	}
 
+	/**
+	 * @see FormService#getFormField(Form,Concept,Collection,boolean)
+	 */
+	@Test
+	public void getFormField_shouldNotQueryTheDatabaseOnceTheFormStructureIsCompiled() {
+		FormService formService = Context.getFormService();
+		Form form = formService.getForm(1);
+		Concept concept = new Concept(3);
+		formService.getFormStructure(form);
+		
+		Statistics statistics = sessionFactory.getStatistics();
+		statistics.setStatisticsEnabled(true);
+		FormField first;
+		FormField second;
+		FormField third;
+		try {
+			statistics.clear();
+			first = formService.getFormField(form, concept, null, false);
+			second = formService.getFormField(form, concept, Collections.singletonList(first), false);
+			third = formService.getFormField(form, concept, Arrays.asList(first, second), false);
+			
+			assertEquals(0, statistics.getPrepareStatementCount());
+		}
+		finally {
+			statistics.setStatisticsEnabled(false);
+		}
+		assertEquals(2, first.getFormFieldId());
+		assertEquals(3, second.getFormFieldId());
+		assertEquals(5, third.getFormFieldId());
+		assertEquals(3, third.getField().getConcept().getConceptId());
+		assertEquals(first, formService.getFormField(form, concept, Arrays.asList(first, second, third), false));
+		assertNull(formService.getFormField(form, concept, Arrays.asList(first, second, third), true));
+	}
+
+	/**
+	 * @see FormService#getFormField(Form,Concept,Collection,boolean)
+	 */
+	@Test
+	public void getFormField_shouldLoadTheFormFieldsWithOneQueryInASessionThatDidNotCompileTheStructure() {
+		FormService formService = Context.getFormService();
+		Concept concept = new Concept(3);
+		formService.getFormStructure(formService.getForm(1));
+		Context.clearSession();
+		Form form = formService.getForm(1);
+		
+		Statistics statistics = sessionFactory.getStatistics();
+		statistics.setStatisticsEnabled(true);
+		FormField first;
+		FormField second;
+		FormField third;
+		try {
+			statistics.clear();
+			first = formService.getFormField(form, concept, null, false);
+			second = formService.getFormField(form, concept, Collections.singletonList(first), false);
+			third = formService.getFormField(form, concept, Arrays.asList(first, second), false);
+			for (FormField formField : Arrays.asList(first, second, third)) {
+				assertEquals(3, formField.getField().getConcept().getConceptId());
+			}
+			
+			assertEquals(1, statistics.getPrepareStatementCount());
+		}
+		finally {
+			statistics.setStatisticsEnabled(false);
+		}
+		assertEquals(2, first.getFormFieldId());
+		assertEquals(3, second.getFormFieldId());
+		assertEquals(5, third.getFormFieldId());
+	}
+	
+	/**
+	 * @see FormService#getFormField(Form,Concept,Collection,boolean)
+	 */
+	@Test
+	public void getFormField_shouldFindFormFieldsSavedAfterTheFormStructureWasCompiled() {
+		FormService formService = Context.getFormService();
+		Form form = formService.getForm(1);
+		Concept concept = Context.getConceptService().getConcept(5089);
+		assertNull(formService.getFormField(form, concept, null, false));
+		
+		FormField formField = newFormField(form, concept, formService.getFormField(2));
+		formService.saveFormField(formField);
+		
+		assertEquals(formField, formService.getFormField(form, concept, null, false));
+	}
+
+	/**
+	 * @see FormService#getFormField(Form,Concept,Collection,boolean)
+	 */
+	@Test
+	public void getFormField_shouldNotFindFormFieldsPurgedAfterTheFormStructureWasCompiled() {
+		FormService formService = Context.getFormService();
+		Form form = formService.getForm(1);
+		Concept concept = new Concept(3);
+		FormField formField = formService.getFormField(form, concept, null, false);
+		assertEquals(2, formField.getFormFieldId());
+		
+		formService.purgeFormField(formField);
+		
+		assertEquals(3, formService.getFormField(form, concept, null, false).getFormFieldId());
+	}
+
+	/**
+	 * @see FormService#getFormStructure(Form)
+	 */
+	@Test
+	public void getFormStructure_shouldMapConceptsAndParentsToFormFields() {
+		FormService formService = Context.getFormService();
+		Form form = formService.getForm(1);
+		Concept concept = Context.getConceptService().getConcept(5089);
+		FormField child = formService.saveFormField(newFormField(form, concept, formService.getFormField(3)));
+		
+		CompiledFormStructure structure = formService.getFormStructure(form);
+		
+		assertEquals(4, structure.getFormFieldCount());
+		assertEquals(Arrays.asList(2, 3, 5), structure.getFormFieldIds(3));
+		assertEquals(Collections.singletonList(child.getFormFieldId()), structure.getFormFieldIds(5089));
+		assertEquals(Arrays.asList(2, 3, 5), structure.getChildIds(null));
+		assertEquals(Collections.singletonList(child.getFormFieldId()), structure.getChildIds(3));
+		assertTrue(structure.getChildIds(2).isEmpty());
+		Map<Integer, TreeSet<FormField>> formStructure = FormUtil.getFormStructure(form);
+		assertEquals(formStructure.keySet(), new HashSet<>(structure.getParentIds()));
+	}
+
+	/**
+	 * @see FormService#getFormStructure(Form)
+	 */
+	@Test
+	public void getFormStructure_shouldReturnTheCachedStructureUntilTheFormChanges() {
+		FormService formService = Context.getFormService();
+		Form form = formService.getForm(1);
+		CompiledFormStructure structure = formService.getFormStructure(form);
+		assertSame(structure, formService.getFormStructure(new Form(1)));
+		
+		form.setDescription("A changed form");
+		formService.saveForm(form);
+		
+		assertNotSame(structure, formService.getFormStructure(form));
+		assertNull(formService.getFormStructure(new Form(12343)));
+	}
+
+	private FormField newFormField(Form form, Concept concept, FormField parent) {
+		Field field = new Field();
+		field.setName("Weight");
+		field.setFieldType(new FieldType(1));
+		field.setConcept(concept);
+		FormField formField = new FormField();
+		formField.setField(field);
+		formField.setForm(form);
+		formField.setParent(parent);
+		return formField;
+	}
+
 	/**
 	 * Make sure that multiple forms are returned if a field is on a form more than once
 	 *
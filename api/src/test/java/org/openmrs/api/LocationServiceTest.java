@@ -17,11 +17,14 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -34,6 +37,7 @@ import org.openmrs.LocationTag;
 import org.openmrs.api.context.Context;
 import org.openmrs.customdatatype.datatype.FreeTextDatatype;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+import org.openmrs.util.LocationTagIndex;
 import org.openmrs.util.OpenmrsConstants;
 
 /**
@@ -458,6 +462,102 @@ public class LocationServiceTest extends BaseContextSensitiveTest {
 		assertEquals(0, ls.getLocationsHavingAnyTag(new ArrayList<>()).size());
 	}
 	
+	/**
+	 * @see LocationService#getLocationsHavingNoneOfTags(List)
+	 */
+	@Test
+	public void getLocationsHavingNoneOfTags_shouldGetLocationsHavingNoneOfTheTags() {
+		LocationService ls = Context.getLocationService();
+		
+		List<Location> locations = ls.getLocationsHavingNoneOfTags(Arrays.asList(ls.getLocationTag(3), ls
+		        .getLocationTag(4)));
+		
+		assertEquals(Arrays.asList(7, 6), locations.stream().map(Location::getLocationId).collect(Collectors.toList()));
+	}
+	
+	/**
+	 * @see LocationService#getLocationsHavingNoneOfTags(List)
+	 */
+	@Test
+	public void getLocationsHavingNoneOfTags_shouldReturnAllUnretiredLocationsGivenAnEmptyTagList() {
+		LocationService ls = Context.getLocationService();
+		assertEquals(6, ls.getLocationsHavingNoneOfTags(new ArrayList<>()).size());
+	}
+	
+	/**
+	 * @see LocationService#getLocationTagIndex()
+	 */
+	@Test
+	public void getLocationTagIndex_shouldMapTagsToTheUnretiredLocationsHavingThem() {
+		LocationTagIndex index = Context.getLocationService().getLocationTagIndex();
+		
+		assertEquals(Arrays.asList(1, 2, 3, 4, 6, 7), index.getLocationIds());
+		assertEquals(Arrays.asList(1, 2, 3, 4), index.getLocationIds(4));
+		assertEquals(Arrays.asList(2, 3), index.getLocationIdsHavingAllTags(Arrays.asList(3, 4)));
+		assertEquals(Arrays.asList(1, 2, 3), index.getLocationIdsHavingAnyTag(Arrays.asList(1, 3)));
+		assertEquals(Arrays.asList(4, 6, 7), index.getLocationIdsHavingNoneOfTags(Arrays.asList(1, 3)));
+		assertFalse(index.hasTag(5, 4));
+		assertTrue(index.getLocationIds(6).isEmpty());
+	}
+	
+	/**
+	 * @see LocationService#getLocationTagIndex()
+	 */
+	@Test
+	public void getLocationTagIndex_shouldIncludeTheChangesOfTheCurrentTransaction() {
+		LocationService ls = Context.getLocationService();
+		LocationTagIndex before = ls.getLocationTagIndex();
+		
+		Location unknown = ls.getLocation(6);
+		unknown.addTag(ls.getLocationTag(1));
+		ls.saveLocation(unknown);
+		Location location = new Location();
+		location.setName("Tagged Location");
+		location.addTag(ls.getLocationTag(6));
+		ls.saveLocation(location);
+		
+		LocationTagIndex after = ls.getLocationTagIndex();
+		assertEquals(Arrays.asList(1), before.getLocationIds(1));
+		assertEquals(Arrays.asList(1, 6), after.getLocationIds(1));
+		assertEquals(Arrays.asList(location.getLocationId()), after.getLocationIds(6));
+		assertEquals(2, ls.getLocationsByTag(ls.getLocationTag(1)).size());
+		assertEquals(Collections.singletonList(location), ls.getLocationsHavingAllTags(Collections.singletonList(ls
+		        .getLocationTag(6))));
+	}
+	
+	/**
+	 * @see LocationService#getLocationTagIndex()
+	 */
+	@Test
+	public void getLocationTagIndex_shouldRemoveRetiredLocations() {
+		LocationService ls = Context.getLocationService();
+		ls.getLocationTagIndex();
+		
+		ls.retireLocation(ls.getLocation(2), "testing");
+		
+		assertEquals(Arrays.asList(3), ls.getLocationTagIndex().getLocationIds(3));
+		assertEquals(1, ls.getLocationsByTag(ls.getLocationTag(3)).size());
+		assertEquals(Arrays.asList(1, 3, 4), ls.getLocationTagIndex().getLocationIds(4));
+	}
+	
+	/**
+	 * @see LocationService#getLocationsByTag(LocationTag)
+	 */
+	@Test
+	public void getLocationsByTag_shouldFindLocationsTaggedWithoutTheAPI() throws Exception {
+		LocationService ls = Context.getLocationService();
+		assertEquals(0, ls.getLocationsByTag(ls.getLocationTag(6)).size());
+		
+		try (Statement statement = getConnection().createStatement()) {
+			statement.executeUpdate("insert into location_tag_map (location_id, location_tag_id) values (6, 6)");
+		}
+		
+		assertEquals(Collections.singletonList(ls.getLocation(6)), ls.getLocationsByTag(ls.getLocationTag(6)));
+		assertEquals(Arrays.asList(6), ls.getLocationTagIndex().getLocationIds(6));
+		assertFalse(ls.getLocationsHavingNoneOfTags(Collections.singletonList(ls.getLocationTag(6))).contains(
+		    ls.getLocation(6)));
+	}
+	
 	/**
 	 * @see LocationService#retireLocation(Location,String)
 	 */
@@ -1969,4 +1969,65 @@ public class ObsServiceTest extends BaseContextSensitiveTest {
 		assertThat(existing.getVoided(), is(true));
 		assertThat(newObs.getStatus(), is(Obs.Status.FINAL));
 	}
+	
+	/**
+	 * @see ObsService#saveObsBatch(java.util.Collection,String)
+	 */
+	@Test
+	public void saveObsBatch_shouldSaveNewObs() {
+		List<Obs> obs = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			Obs o = new Obs();
+			o.setConcept(Context.getConceptService().getConcept(3));
+			o.setPerson(new Patient(2));
+			o.setEncounter(new Encounter(3));
+			o.setObsDatetime(new Date());
+			o.setLocation(new Location(1));
+			o.setValueNumeric(50d + i);
+			obs.add(o);
+		}
+		
+		List<Obs> saved = obsService.saveObsBatch(obs, null);
+		
+		assertEquals(3, saved.size());
+		for (int i = 0; i < 3; i++) {
+			assertNotNull(saved.get(i).getObsId());
+			Obs reloaded = obsService.getObs(saved.get(i).getObsId());
+			assertEquals(50d + i, reloaded.getValueNumeric());
+			assertNotNull(reloaded.getCreator());
+			assertNotNull(reloaded.getUuid());
+		}
+	}
+	
+	/**
+	 * @see ObsService#saveObsBatch(java.util.Collection,String)
+	 */
+	@Test
+	public void saveObsBatch_shouldCreateANewRevisionForEditedObsAndVoidTheOriginal() {
+		Obs obs = obsService.getObs(7);
+		obs.setComment("A new comment");
+		
+		List<Obs> saved = obsService.saveObsBatch(Collections.singletonList(obs), "Batch edit");
+		
+		Obs revision = obsService.getObs(saved.get(0).getObsId());
+		Obs original = obsService.getObs(7);
+		assertFalse(revision.getObsId().equals(7));
+		assertEquals("A new comment", revision.getComment());
+		assertEquals(original, revision.getPreviousVersion());
+		assertThat(revision.getStatus(), is(Obs.Status.AMENDED));
+		assertTrue(original.getVoided());
+		assertEquals("Batch edit", original.getVoidReason());
+		assertFalse("A new comment".equals(original.getComment()));
+	}
+	
+	/**
+	 * @see ObsService#saveObsBatch(java.util.Collection,String)
+	 */
+	@Test
+	public void saveObsBatch_shouldFailIfAnExistingObsIsPassedWithoutAChangeMessage() {
+		Obs obs = obsService.getObs(7);
+		obs.setComment("A new comment");
+		
+		assertThrows(APIException.class, () -> obsService.saveObsBatch(Collections.singletonList(obs), null));
+	}
 }
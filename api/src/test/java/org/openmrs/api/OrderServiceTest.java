@@ -2661,23 +2661,28 @@ public class OrderServiceTest extends BaseContextSensitiveTest {
 
 		Field field = adminDAO.getClass().getDeclaredField("metadata");
 		field.setAccessible(true);
+		Object originalMetadata = field.get(adminDAO);
 		field.set(adminDAO, metaData);
-
-		Order order = orderService.getOrder(7);
-		assertTrue(OrderUtilTest.isActiveOrder(order, null));
-		Order discontinuationOrder = new SomeTestOrder();
-		discontinuationOrder.setCareSetting(order.getCareSetting());
-		discontinuationOrder.setConcept(order.getConcept());
-		discontinuationOrder.setAction(Action.DISCONTINUE);
-		discontinuationOrder.setPreviousOrder(order);
-		discontinuationOrder.setPatient(order.getPatient());
-		assertTrue(order.getOrderType().getJavaClass().isAssignableFrom(discontinuationOrder.getClass()));
-		discontinuationOrder.setOrderType(order.getOrderType());
-		discontinuationOrder.setOrderer(Context.getProviderService().getProvider(1));
-		discontinuationOrder.setEncounter(Context.getEncounterService().getEncounter(6));
-
-		EditedOrderDoesNotMatchPreviousException exception = assertThrows(EditedOrderDoesNotMatchPreviousException.class, () -> orderService.saveOrder(discontinuationOrder, null));
-		assertThat(exception.getMessage(), is(messageSourceService.getMessage("Order.class.doesnot.match")));
+		try {
+			Order order = orderService.getOrder(7);
+			assertTrue(OrderUtilTest.isActiveOrder(order, null));
+			Order discontinuationOrder = new SomeTestOrder();
+			discontinuationOrder.setCareSetting(order.getCareSetting());
+			discontinuationOrder.setConcept(order.getConcept());
+			discontinuationOrder.setAction(Action.DISCONTINUE);
+			discontinuationOrder.setPreviousOrder(order);
+			discontinuationOrder.setPatient(order.getPatient());
+			assertTrue(order.getOrderType().getJavaClass().isAssignableFrom(discontinuationOrder.getClass()));
+			discontinuationOrder.setOrderType(order.getOrderType());
+			discontinuationOrder.setOrderer(Context.getProviderService().getProvider(1));
+			discontinuationOrder.setEncounter(Context.getEncounterService().getEncounter(6));
+
+			EditedOrderDoesNotMatchPreviousException exception = assertThrows(EditedOrderDoesNotMatchPreviousException.class, () -> orderService.saveOrder(discontinuationOrder, null));
+			assertThat(exception.getMessage(), is(messageSourceService.getMessage("Order.class.doesnot.match")));
+		}
+		finally {
+			field.set(adminDAO, originalMetadata);
+		}
 	}
 
 	/**
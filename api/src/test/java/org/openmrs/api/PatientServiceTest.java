@@ -55,6 +55,7 @@ import org.openmrs.Obs;
 import org.openmrs.Order;
 import org.openmrs.OrderType;
 import org.openmrs.Patient;
+import org.openmrs.PatientDuplicateCandidate;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
 import org.openmrs.PatientIdentifierType.UniquenessBehavior;
@@ -71,7 +72,11 @@ import org.openmrs.api.context.Context;
 import org.openmrs.api.impl.PatientServiceImpl;
 import org.openmrs.api.impl.PatientServiceImplTest;
 import org.openmrs.comparator.PatientIdentifierTypeDefaultComparator;
+import org.openmrs.parameter.EncounterSearchCriteriaBuilder;
 import org.openmrs.patient.IdentifierValidator;
+import org.openmrs.patient.duplicate.DuplicatePatientBlockingKey;
+import org.openmrs.patient.duplicate.DuplicatePatientMatch;
+import org.openmrs.patient.duplicate.DuplicatePatientRecord;
 import org.openmrs.patient.impl.LuhnIdentifierValidator;
 import org.openmrs.person.PersonMergeLog;
 import org.openmrs.person.PersonMergeLogData;
@@ -2640,6 +2645,88 @@ public class PatientServiceTest extends BaseContextSensitiveTest {
 		        .size());
 	}
 	
+	/**
+	 * @see PatientService#mergePatients(Patient,Patient)
+	 */
+	@Test
+	public void mergePatients_shouldMoveVisitsEncountersAndTheirObsInBulkMode() throws Exception {
+		executeDataSet(ENCOUNTERS_FOR_VISITS_XML);
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_PATIENT_MERGE_BULK_MODE,
+		    "true");
+		Patient notPreferred = patientService.getPatient(2);
+		voidOrders(Collections.singleton(notPreferred));
+		Patient preferred = patientService.getPatient(6);
+		List<String> visitUuids = Context.getVisitService().getVisitsByPatient(notPreferred, true, true).stream()
+		        .map(Visit::getUuid).collect(Collectors.toList());
+		List<Integer> encounterIds = Context.getEncounterService().getEncounters(
+		    new EncounterSearchCriteriaBuilder().setPatient(notPreferred).setIncludeVoided(true)
+		            .createEncounterSearchCriteria()).stream().map(Encounter::getEncounterId).collect(Collectors.toList());
+		
+		PersonMergeLog mergeLog = mergeAndRetrieveAudit(preferred, notPreferred);
+		Context.flushSession();
+		Context.clearSession();
+		
+		assertEquals(0, Context.getVisitService().getVisitsByPatient(notPreferred, true, true).size());
+		assertThat(mergeLog.getPersonMergeLogData().getMovedVisits(), containsInAnyOrder(visitUuids.toArray()));
+		assertEquals(encounterIds.size(), mergeLog.getPersonMergeLogData().getMovedEncounters().size());
+		for (Integer encounterId : encounterIds) {
+			Encounter encounter = Context.getEncounterService().getEncounter(encounterId);
+			assertEquals(preferred.getPatientId(), encounter.getPatient().getPatientId());
+			assertEquals(Context.getAuthenticatedUser(), encounter.getChangedBy());
+			for (Obs obs : encounter.getAllObs(true)) {
+				assertEquals(preferred.getPersonId(), obs.getPerson().getPersonId());
+			}
+		}
+	}
+	
+	/**
+	 * @see PatientService#mergePatients(Patient,Patient)
+	 */
+	@Test
+	public void mergePatients_shouldMoveIndependentObsInPlaceInBulkMode() throws Exception {
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_PATIENT_MERGE_BULK_MODE,
+		    "true");
+		Patient preferred = patientService.getPatient(999);
+		Patient notPreferred = patientService.getPatient(7);
+		voidOrders(Collections.singleton(notPreferred));
+		Obs obs = Context.getObsService().getObs(7);
+		obs.setEncounter(null);
+		obs = Context.getObsService().saveObs(obs, "Reason cannot be blank");
+		Integer obsId = obs.getObsId();
+		
+		PersonMergeLog audit = mergeAndRetrieveAudit(preferred, notPreferred);
+		Context.flushSession();
+		Context.clearSession();
+		
+		Obs moved = Context.getObsService().getObs(obsId);
+		assertEquals(preferred.getPersonId(), moved.getPerson().getPersonId());
+		assertFalse(moved.getVoided());
+		assertTrue(isValueInList(moved.getUuid(), audit.getPersonMergeLogData().getMovedIndependentObservations()));
+	}
+	
+	/**
+	 * @see PatientService#mergePatients(Patient,Patient)
+	 */
+	@Test
+	public void mergePatients_shouldMoveNonVoidedProgramEnrollmentsInBulkMode() throws Exception {
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_PATIENT_MERGE_BULK_MODE,
+		    "true");
+		Patient preferred = patientService.getPatient(999);
+		Patient notPreferred = patientService.getPatient(2);
+		voidOrders(Collections.singleton(notPreferred));
+		PatientProgram program = Context.getProgramWorkflowService()
+		        .getPatientPrograms(notPreferred, null, null, null, null, null, false).get(0);
+		
+		PersonMergeLog audit = mergeAndRetrieveAudit(preferred, notPreferred);
+		Context.flushSession();
+		Context.clearSession();
+		
+		PatientProgram moved = Context.getProgramWorkflowService().getPatientProgramByUuid(program.getUuid());
+		assertEquals(preferred.getPatientId(), moved.getPatient().getPatientId());
+		assertTrue(isValueInList(program.getUuid(), audit.getPersonMergeLogData().getMovedPrograms()));
+		assertFalse(isValueInList(program.getUuid(), audit.getPersonMergeLogData().getCreatedPrograms()));
+	}
+	
 	private PersonMergeLog mergeAndRetrieveAudit(Patient preferred, Patient notPreferred) throws SerializationException {
 		patientService.mergePatients(preferred, notPreferred);
 		List<PersonMergeLog> result = personService.getAllPersonMergeLogs(true);
@@ -3293,5 +3380,104 @@ public class PatientServiceTest extends BaseContextSensitiveTest {
 		assertEquals(patientIdentifier.size(), 1);
 		assertEquals(patientIdentifier.iterator().next().getIdentifier(), "XXXCCCAAA11");
 	}
-
+	
+	/**
+	 * @see PatientService#getDuplicatePatientRecords(Integer, int)
+	 */
+	@Test
+	public void getDuplicatePatientRecords_shouldReturnRecordsInPatientIdOrderAfterTheGivenPatientId() {
+		List<DuplicatePatientRecord> records = patientService.getDuplicatePatientRecords(2, 2);
+		
+		assertEquals(2, records.size());
+		assertTrue(records.get(0).getPatientId() > 2);
+		assertTrue(records.get(0).getPatientId() < records.get(1).getPatientId());
+		Patient patient = patientService.getPatient(records.get(0).getPatientId());
+		assertEquals(patient.getGivenName(), records.get(0).getGivenName());
+		assertEquals(patient.getFamilyName(), records.get(0).getFamilyName());
+	}
+	
+	/**
+	 * @see PatientService#getDuplicatePatientRecords(Collection)
+	 */
+	@Test
+	public void getDuplicatePatientRecords_shouldReturnTheRecordsOfTheGivenPatients() {
+		List<DuplicatePatientRecord> records = patientService.getDuplicatePatientRecords(Arrays.asList(7, 2, 9999));
+		
+		assertEquals(2, records.size());
+		assertEquals(2, records.get(0).getPatientId().intValue());
+		assertEquals(7, records.get(1).getPatientId().intValue());
+		assertEquals(patientService.getPatient(7).getFamilyName(), records.get(1).getFamilyName());
+	}
+	
+	/**
+	 * @see PatientService#getDuplicatePatientBlockingKeys(String, Integer, int)
+	 */
+	@Test
+	public void getDuplicatePatientBlockingKeys_shouldReturnTheKeysOrderedByKeyAndPatientIdAfterTheGivenKeyAndPatient() {
+		patientService.saveDuplicatePatientBlockingKeys(Arrays.asList(new DuplicatePatientBlockingKey("N:B", 7),
+		    new DuplicatePatientBlockingKey("N:A", 8), new DuplicatePatientBlockingKey("N:B", 2),
+		    new DuplicatePatientBlockingKey("N:C", 2)));
+		
+		List<DuplicatePatientBlockingKey> keys = patientService.getDuplicatePatientBlockingKeys(null, null, 3);
+		assertEquals(Arrays.asList("N:A", "N:B", "N:B"), keys.stream().map(DuplicatePatientBlockingKey::getBlockingKey)
+		        .collect(Collectors.toList()));
+		assertEquals(Arrays.asList(8, 2, 7), keys.stream().map(DuplicatePatientBlockingKey::getPatientId).collect(
+		    Collectors.toList()));
+		
+		keys = patientService.getDuplicatePatientBlockingKeys("N:B", 2, 3);
+		assertEquals(2, keys.size());
+		assertEquals(7, keys.get(0).getPatientId().intValue());
+		assertEquals("N:C", keys.get(1).getBlockingKey());
+		assertEquals(1, patientService.getDuplicatePatientBlockingKeys("N:B", null, 3).size());
+		
+		patientService.deleteDuplicatePatientBlockingKeys();
+		assertTrue(patientService.getDuplicatePatientBlockingKeys(null, null, 3).isEmpty());
+	}
+	
+	/**
+	 * @see PatientService#saveDuplicatePatientMatches(List)
+	 */
+	@Test
+	public void saveDuplicatePatientMatches_shouldNotStoreAPairTwice() {
+		List<DuplicatePatientMatch> matches = Arrays.asList(new DuplicatePatientMatch(7, 2, 0.9, "N:H500:J500:M"),
+		    new DuplicatePatientMatch(2, 7, 0.95, "B:H500:1975:M"));
+		
+		assertEquals(1, patientService.saveDuplicatePatientMatches(matches));
+		assertEquals(0, patientService.saveDuplicatePatientMatches(matches));
+		
+		List<PatientDuplicateCandidate> candidates = patientService
+		        .getPatientDuplicateCandidates(PatientDuplicateCandidate.Status.PENDING, null, null);
+		assertEquals(1, candidates.size());
+		assertEquals(2, candidates.get(0).getPatient().getPatientId().intValue());
+		assertEquals(7, candidates.get(0).getDuplicatePatient().getPatientId().intValue());
+		assertEquals(0.95, candidates.get(0).getScore(), 0.0001);
+		assertNotNull(patientService.getPatientDuplicateCandidateByUuid(candidates.get(0).getUuid()));
+	}
+	
+	/**
+	 * @see PatientService#mergePatientDuplicateCandidate(PatientDuplicateCandidate, Patient)
+	 */
+	@Test
+	public void mergePatientDuplicateCandidate_shouldMergeThePatientsAndMarkTheCandidateAsMerged() throws Exception {
+		patientService.saveDuplicatePatientMatches(Collections.singletonList(new DuplicatePatientMatch(2, 6, 0.9, "key")));
+		PatientDuplicateCandidate candidate = patientService.getPatientDuplicateCandidates(null, null, null).get(0);
+		voidOrders(Collections.singleton(patientService.getPatient(2)));
+		
+		patientService.mergePatientDuplicateCandidate(candidate, patientService.getPatient(6));
+		
+		assertEquals(PatientDuplicateCandidate.Status.MERGED, candidate.getStatus());
+		assertTrue(patientService.getPatient(2).getVoided());
+	}
+	
+	/**
+	 * @see PatientService#mergePatientDuplicateCandidate(PatientDuplicateCandidate, Patient)
+	 */
+	@Test
+	public void mergePatientDuplicateCandidate_shouldFailIfThePreferredPatientIsNotPartOfTheCandidate() {
+		patientService.saveDuplicatePatientMatches(Collections.singletonList(new DuplicatePatientMatch(2, 6, 0.9, "key")));
+		PatientDuplicateCandidate candidate = patientService.getPatientDuplicateCandidates(null, null, null).get(0);
+		
+		assertThrows(APIException.class,
+		    () -> patientService.mergePatientDuplicateCandidate(candidate, patientService.getPatient(7)));
+	}
 }
@@ -13,6 +13,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -28,11 +29,14 @@ import static org.openmrs.test.TestUtil.containsId;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -53,6 +57,7 @@ import org.openmrs.User;
 import org.openmrs.api.context.Context;
 import org.openmrs.person.PersonMergeLog;
 import org.openmrs.person.PersonMergeLogData;
+import org.openmrs.person.RelationshipGraph;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
 import org.openmrs.test.TestUtil;
 import org.openmrs.util.OpenmrsConstants;
@@ -912,6 +917,144 @@ public class PersonServiceTest extends BaseContextSensitiveTest {
 		assertNull(relationship);
 	}
 	
+	/**
+	 * @see PersonService#getRelationshipGraph(Person,int,Date,Collection)
+	 */
+	@Test
+	public void getRelationshipGraph_shouldReturnThePersonsReachableWithinTheGivenNumberOfHops() throws Exception {
+		executeDataSet(CREATE_RELATIONSHIP_XML);
+		Person person = personService.getPerson(2);
+		
+		RelationshipGraph graph = personService.getRelationshipGraph(person, 1, null, null);
+		assertThat(getPersonIds(graph.getPersons()), containsInAnyOrder(2, 502, 1, 999));
+		assertThat(getPersonIds(graph.getPersons(1)), containsInAnyOrder(502, 1, 999));
+		assertThat(getRelationshipIds(graph.getRelationships()), containsInAnyOrder(1, 3, 4));
+		
+		graph = personService.getRelationshipGraph(person, 2, null, null);
+		assertThat(getPersonIds(graph.getPersons(2)), contains(7));
+		assertEquals(Integer.valueOf(2), graph.getDistance(personService.getPerson(7)));
+		assertEquals(Integer.valueOf(0), graph.getDistance(person));
+		assertNull(graph.getDistance(personService.getPerson(6)));
+		assertThat(getRelationshipIds(graph.getRelationships()), containsInAnyOrder(1, 2, 3, 4, 5, 6, 7));
+		
+		graph = personService.getRelationshipGraph(person, 0, null, null);
+		assertThat(getPersonIds(graph.getPersons()), contains(2));
+		assertThat(graph.getRelationships(), empty());
+	}
+	
+	/**
+	 * @see PersonService#getRelationshipGraph(Person,int,Date,Collection)
+	 */
+	@Test
+	public void getRelationshipGraph_shouldMatchTheRelationshipsFetchedHopByHopPerPerson() throws Exception {
+		executeDataSet(CREATE_RELATIONSHIP_XML);
+		Person person = personService.getPerson(2);
+		
+		Set<Integer> reached = new TreeSet<>();
+		Set<Integer> relationshipIds = new TreeSet<>();
+		reached.add(person.getPersonId());
+		List<Person> frontier = Collections.singletonList(person);
+		for (int hop = 0; hop < 3; hop++) {
+			List<Person> next = new ArrayList<>();
+			for (Person p : frontier) {
+				for (Relationship relationship : personService.getRelationshipsByPerson(p)) {
+					relationshipIds.add(relationship.getRelationshipId());
+					for (Person relative : new Person[] { relationship.getPersonA(), relationship.getPersonB() }) {
+						if (reached.add(relative.getPersonId())) {
+							next.add(relative);
+						}
+					}
+				}
+			}
+			frontier = next;
+		}
+		
+		RelationshipGraph graph = personService.getRelationshipGraph(person, 3, null, null);
+		assertEquals(reached, new TreeSet<>(getPersonIds(graph.getPersons())));
+		assertEquals(relationshipIds, new TreeSet<>(getRelationshipIds(graph.getRelationships())));
+	}
+	
+	/**
+	 * @see PersonService#getRelationshipGraph(Person,int,Date,Collection)
+	 */
+	@Test
+	public void getRelationshipGraph_shouldOnlyFollowRelationshipsThatWereEffectiveOnTheGivenDate() throws Exception {
+		Person person = personService.getPerson(2);
+		Relationship relationship = new Relationship(person, personService.getPerson(6), personService
+		        .getRelationshipType(1));
+		relationship.setStartDate(df.parse("1980-01-01"));
+		relationship.setEndDate(df.parse("1990-01-01"));
+		personService.saveRelationship(relationship);
+		
+		assertThat(getPersonIds(personService.getRelationshipGraph(person, 1, df.parse("1985-01-01"), null)
+		        .getPersons()), containsInAnyOrder(2, 502, 6));
+		assertThat(getPersonIds(personService.getRelationshipGraph(person, 1, df.parse("1990-01-01"), null)
+		        .getPersons()), containsInAnyOrder(2, 502, 6));
+		assertThat(getPersonIds(personService.getRelationshipGraph(person, 1, df.parse("2000-01-01"), null)
+		        .getPersons()), containsInAnyOrder(2, 502));
+		assertThat(getPersonIds(personService.getRelationshipGraph(person, 1, null, null).getPersons()), containsInAnyOrder(2,
+		    502, 6));
+	}
+	
+	/**
+	 * @see PersonService#getRelationshipGraph(Person,int,Date,Collection)
+	 */
+	@Test
+	public void getRelationshipGraph_shouldFollowRelationshipsInsertedWithSQL() throws Exception {
+		Context.getAdministrationService().executeSQL(
+		    "insert into relationship (relationship_id, person_a, relationship, person_b, start_date, end_date,"
+		            + " effective_start_date, effective_end_date, creator, date_created, voided, uuid) values (100, 2, 1,"
+		            + " 6, '1980-01-01', '1990-01-01', '1980-01-01', '1990-01-01', 1, '2008-08-18', false,"
+		            + " '4a4d4d3c-1d29-4f34-9d1f-1c7f6c3a9e21')", false);
+		Person person = personService.getPerson(2);
+		
+		assertThat(getPersonIds(personService.getRelationshipGraph(person, 1, df.parse("1985-01-01"), null)
+		        .getPersons()), containsInAnyOrder(2, 502, 6));
+		assertThat(getPersonIds(personService.getRelationshipGraph(person, 1, df.parse("2000-01-01"), null)
+		        .getPersons()), containsInAnyOrder(2, 502));
+		assertThat(getPersonIds(personService.getRelationshipsByPerson(person, df.parse("1985-01-01")).stream().map(
+		    Relationship::getPersonB).collect(Collectors.toList())), hasItem(6));
+	}
+	
+	/**
+	 * @see PersonService#getRelationshipGraph(Person,int,Date,Collection)
+	 */
+	@Test
+	public void getRelationshipGraph_shouldOnlyFollowRelationshipsOfTheGivenTypes() throws Exception {
+		executeDataSet(CREATE_RELATIONSHIP_XML);
+		
+		RelationshipGraph graph = personService.getRelationshipGraph(personService.getPerson(2), 2, null, Collections
+		        .singletonList(personService.getRelationshipType(1)));
+		
+		assertThat(getPersonIds(graph.getPersons()), containsInAnyOrder(2, 502, 7));
+		assertThat(getRelationshipIds(graph.getRelationships()), containsInAnyOrder(1, 2));
+	}
+	
+	/**
+	 * @see PersonService#getRelationshipGraph(Person,int,Date,Collection)
+	 */
+	@Test
+	public void getRelationshipGraph_shouldFailIfHopsIsNegative() throws Exception {
+		assertThrows(APIException.class, () -> personService.getRelationshipGraph(personService.getPerson(2), -1, null,
+		    null));
+	}
+	
+	private List<Integer> getPersonIds(List<Person> persons) {
+		List<Integer> ids = new ArrayList<>();
+		for (Person person : persons) {
+			ids.add(person.getPersonId());
+		}
+		return ids;
+	}
+	
+	private List<Integer> getRelationshipIds(List<Relationship> relationships) {
+		List<Integer> ids = new ArrayList<>();
+		for (Relationship relationship : relationships) {
+			ids.add(relationship.getRelationshipId());
+		}
+		return ids;
+	}
+	
 	/**
 	 * @see PersonService#getRelationshipMap(RelationshipType)
 	 */
@@ -1455,6 +1598,7 @@ public class PersonServiceTest extends BaseContextSensitiveTest {
 		data.addCreatedName("4");
 		data.addCreatedOrder("5");
 		data.addCreatedProgram("6");
+		data.addMovedProgram("12");
 		data.addCreatedRelationship("7");
 		data.addMovedEncounter("8");
 		data.addMovedIndependentObservation("9");
@@ -1635,6 +1779,31 @@ public class PersonServiceTest extends BaseContextSensitiveTest {
 		assertEquals(personService.getRelationshipType(2), updatedRelationship.getRelationshipType());
 	}
 	
+	/**
+	 * @see PersonService#saveRelationship(Relationship)
+	 */
+	@Test
+	public void saveRelationship_shouldSetTheEffectiveDatesFromTheStartAndEndDates() throws Exception {
+		Relationship relationship = personService.getRelationship(1);
+		relationship.setEndDate(df.parse("2010-01-01"));
+		
+		personService.saveRelationship(relationship);
+		
+		assertEquals(Relationship.getOpenStartDate(), relationship.getEffectiveStartDate());
+		assertEquals(df.parse("2010-01-01"), relationship.getEffectiveEndDate());
+	}
+	
+	/**
+	 * @see PersonService#getRelationship(Integer)
+	 */
+	@Test
+	public void getRelationship_shouldNotChangeARelationshipThatIsOnlyRead() {
+		Relationship relationship = personService.getRelationship(1);
+		Context.flushSession();
+		
+		assertNull(relationship.getDateChanged());
+	}
+	
 	/**
 	 * @see PersonService#saveRelationshipType(RelationshipType)
 	 */
@@ -19,6 +19,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -59,6 +60,7 @@ public class ProviderServiceTest extends BaseContextSensitiveTest {
 		service = Context.getProviderService();
 		executeDataSet(PROVIDERS_INITIAL_XML);
 		executeDataSet(PROVIDER_ATTRIBUTE_TYPES_XML);
+		Context.updateSearchIndexForType(Provider.class);
 	}
 	
 	/**
@@ -207,6 +209,19 @@ public class ProviderServiceTest extends BaseContextSensitiveTest {
 		assertEquals(2, service.getProviders("Che", 0, null, null, true).size());
 	}
 	
+	/**
+	 * @see ProviderService#getProviders(String, Integer, Integer, java.util.Map)
+	 */
+	@Test
+	public void getProviders_shouldMatchASingleCharacterAgainstTheStartOfNames() {
+		List<Provider> providers = service.getProviders("j", 0, null, null);
+		
+		assertTrue(providers.contains(service.getProvider(5)));
+		assertFalse(providers.contains(service.getProvider(1)));
+		assertTrue(service.getProviders("Ro", 0, null, null).containsAll(service.getProviders("R", 0, null, null)));
+		assertEquals(1, service.getProviders("j o", 0, null, null).size());
+	}
+	
 	/**
 	 * @see ProviderService#getProviders(String, Integer, Integer, java.util.Map)
 	 */
@@ -360,6 +375,65 @@ public class ProviderServiceTest extends BaseContextSensitiveTest {
 		assertEquals(Integer.valueOf(1), providers.get(0).getProviderId());
 	}
 	
+	/**
+	 * @see ProviderService#getProviders(String, Integer, Integer, java.util.Map)
+	 */
+	@Test
+	public void getProviders_shouldMatchAttributeValuesBeforePaging() throws ParseException {
+		ProviderAttributeType type = service.getProviderAttributeType(1);
+		Provider provider = new Provider();
+		provider.setIdentifier("attribute-paging");
+		provider.setPerson(Context.getPersonService().getPerson(502));
+		ProviderAttribute attribute = new ProviderAttribute();
+		attribute.setAttributeType(type);
+		attribute.setValue(new SimpleDateFormat("yyyy-MM-dd").parse("2011-04-25"));
+		provider.addAttribute(attribute);
+		service.saveProvider(provider);
+		Map<ProviderAttributeType, Object> attributes = new HashMap<>();
+		attributes.put(type, new SimpleDateFormat("yyyy-MM-dd").parse("2011-04-25"));
+		
+		List<Provider> providers = service.getProviders(null, 2, 1, attributes);
+		
+		assertEquals(1, providers.size());
+		assertEquals(provider, providers.get(0));
+	}
+	
+	/**
+	 * @see ProviderService#getProviders(String, Integer, Integer, java.util.Map, boolean)
+	 */
+	@Test
+	public void getProviders_shouldPageTheProvidersMatchingANameWithTheRetiredOnesLast() {
+		List<Provider> all = service.getProviders("provider", null, null, null, true);
+		assertTrue(all.stream().anyMatch(Provider::getRetired));
+		assertEquals(all.size(), service.getCountOfProviders("provider", true).intValue());
+		
+		List<Provider> paged = new ArrayList<>();
+		for (int start = 0; start < all.size(); start += 2) {
+			paged.addAll(service.getProviders("provider", start, 2, null, true));
+		}
+		
+		assertEquals(all, paged);
+		for (int i = 1; i < all.size(); i++) {
+			Provider previous = all.get(i - 1);
+			Provider provider = all.get(i);
+			assertTrue(previous.getRetired().equals(provider.getRetired()) ? previous.getProviderId() < provider
+			        .getProviderId() : provider.getRetired());
+		}
+	}
+	
+	/**
+	 * @see ProviderService#getCountOfProviders(String)
+	 */
+	@Test
+	public void getCountOfProviders_shouldMatchIdentifiersByTheCurrentMatchMode() {
+		assertEquals(0, service.getCountOfProviders("A76").intValue());
+		
+		Context.getAdministrationService().setGlobalProperty(
+		    OpenmrsConstants.GLOBAL_PROPERTY_PROVIDER_SEARCH_MATCH_MODE, "ANYWHERE");
+		
+		assertEquals(3, service.getCountOfProviders("A76").intValue());
+	}
+	
 	/**
 	 * @throws ParseException
 	 * @see ProviderService#getProviders(String, Integer, Integer, java.util.Map)
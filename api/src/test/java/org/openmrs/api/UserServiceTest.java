@@ -49,6 +49,7 @@ import org.openmrs.api.context.UserContext;
 import org.openmrs.api.db.DAOException;
 import org.openmrs.api.db.LoginCredential;
 import org.openmrs.api.db.UserDAO;
+import org.openmrs.api.db.hibernate.SearchIndexUpdater;
 import org.openmrs.messagesource.MessageSourceService;
 import org.openmrs.notification.MessageException;
 import org.openmrs.patient.impl.LuhnIdentifierValidator;
@@ -57,7 +58,9 @@ import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.PrivilegeConstants;
 import org.openmrs.util.RoleConstants;
 import org.openmrs.util.Security;
+import org.openmrs.util.UserByNameComparator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.transaction.TestTransaction;
 
 /**
  * TODO add more tests to cover the methods in <code>UserService</code>
@@ -527,6 +530,7 @@ public class UserServiceTest extends BaseContextSensitiveTest {
 	@Test
 	public void getUsers_shouldMatchSearchToFamilyName2() {
 		executeDataSet("org/openmrs/api/include/PersonServiceTest-extranames.xml");
+		updateSearchIndex();
 
 		List<User> users = userService.getUsers("Johnson", null, false);
 		assertEquals(3, users.size());
@@ -535,6 +539,108 @@ public class UserServiceTest extends BaseContextSensitiveTest {
 		assertTrue(containsId(users, 5));
 	}
 
+	/**
+	 * @see UserService#getUsers(String,List,boolean,Integer,Integer)
+	 */
+	@Test
+	public void getUsers_shouldSortUsersByNameBeforeTakingTheBatch() {
+		executeDataSet("org/openmrs/api/include/PersonServiceTest-extranames.xml");
+		updateSearchIndex();
+		List<User> sorted = userService.getUsers("Johnson", null, false);
+		sorted.sort(new UserByNameComparator());
+		
+		List<User> users = userService.getUsers("Johnson", null, false, 1, 1);
+		
+		assertEquals(1, users.size());
+		assertEquals(sorted.get(1), users.get(0));
+	}
+	
+	/**
+	 * @see UserService#getUsers(String,List,boolean,Integer,Integer)
+	 */
+	@Test
+	public void getUsers_shouldMatchTheStartOfNamesWithASingleCharacter() {
+		executeDataSet(XML_FILENAME);
+		updateSearchIndex();
+		
+		assertTrue(userService.getUsers("S", null, false).stream().anyMatch(
+		    user -> "Kingman".equals(user.getFamilyName())));
+		assertEquals(1, userService.getCountOfUsers("S K", new ArrayList<>(), false).intValue());
+		assertEquals(1, userService.getUsers("K, Su", null, false).size());
+	}
+	
+	/**
+	 * @see UserService#getUsers(String,List,boolean,Integer,Integer)
+	 */
+	@Test
+	public void getUsers_shouldMatchTheNewNameOfARenamedPersonOnceCommitted() throws Exception {
+		Person person = Context.getPersonService().getPerson(502);
+		person.getPersonName().setGivenName("Zanzibar");
+		Context.getPersonService().savePerson(person);
+		Context.flushSession();
+		try {
+			assertEquals(0, userService.getUsers("Zanzibar", null, false).size());
+			TestTransaction.flagForCommit();
+			TestTransaction.end();
+			SearchIndexUpdater.awaitUpdates();
+			TestTransaction.start();
+			
+			List<User> users = userService.getUsers("Zanzibar", null, false);
+			assertEquals(1, users.size());
+			assertEquals(502, users.get(0).getUserId().intValue());
+		}
+		finally {
+			deleteAllData();
+		}
+	}
+	
+	/**
+	 * @see UserService#getUsers(String,List,boolean,Integer,Integer)
+	 */
+	@Test
+	public void getUsers_shouldFindASavedUserRightAwayAndNotOnceRolledBack() {
+		User user = userService.getUser(502);
+		user.setUsername("zanzibar");
+		userService.saveUser(user);
+		assertEquals(1, userService.getUsers("zanzibar", null, false).size());
+		
+		TestTransaction.end();
+		TestTransaction.start();
+		
+		assertEquals(0, userService.getUsers("zanzibar", null, false).size());
+		assertEquals(1, userService.getUsers("butch", null, false).size());
+	}
+	
+	/**
+	 * @see UserService#getUsers(String,List,boolean,Integer,Integer)
+	 */
+	@Test
+	public void getUsers_shouldReturnUsersWithSeveralPreferredNamesOnce() {
+		Context.getAdministrationService().executeSQL(
+		    "insert into person_name (person_name_id, preferred, person_id, given_name, family_name, creator,"
+		            + " date_created, voided, uuid) values (1000, true, 502, 'First', 'Preferred', 1, '2005-01-01',"
+		            + " false, '0b2f9d1a-4b1e-4c8e-9a57-1f3c2e6d7a10'), (1001, true, 502, 'Second', 'Preferred', 1,"
+		            + " '2005-01-01', false, '5c3e1b7d-2f4a-4d9b-8e61-7a2d9c4f0b32')", false);
+		
+		List<User> users = userService.getUsers(null, null, true, null, null);
+		
+		assertEquals(new HashSet<>(users).size(), users.size());
+		assertEquals(userService.getCountOfUsers(null, new ArrayList<>(), true).intValue(), users.size());
+		assertTrue(containsId(users, 502));
+	}
+	
+	/**
+	 * @see UserService#getCountOfUsers(String,List,boolean)
+	 */
+	@Test
+	public void getCountOfUsers_shouldCountUsersMatchingAllFragmentsOfTheName() {
+		executeDataSet(XML_FILENAME);
+		updateSearchIndex();
+		
+		assertEquals(1, userService.getCountOfUsers("Susy Kingman", new ArrayList<>(), false).intValue());
+		assertEquals(0, userService.getCountOfUsers("Susy Hippocrates", new ArrayList<>(), false).intValue());
+	}
+
 	/**
 	 * @see UserService#changePassword(String,String)
 	 */
@@ -804,6 +910,7 @@ public class UserServiceTest extends BaseContextSensitiveTest {
 	@Test
 	public void getUsers_shouldFetchUsersWithAtLeastOneOfTheGivenRoleObjects() {
 		executeDataSet(XML_FILENAME);
+		updateSearchIndex();
 		
 		List<Role> roles = Collections.singletonList(new Role("Some Role"));
 		assertEquals(1, userService.getUsers("Susy Kingman", roles, false).size());
@@ -848,6 +955,7 @@ public class UserServiceTest extends BaseContextSensitiveTest {
 	@Test
 	public void getUsers_shouldNotFetchDuplicateUsers() {
 		executeDataSet(XML_FILENAME);
+		updateSearchIndex();
 		
 		List<User> users = userService.getUsers("John Doe", null, false);
 		assertEquals(1, users.size());
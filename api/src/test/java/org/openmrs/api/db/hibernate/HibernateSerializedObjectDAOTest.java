@@ -0,0 +1,160 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.hibernate.SessionFactory;
+import org.openmrs.BaseOpenmrsObject;
+import org.openmrs.api.context.Context;
+import org.openmrs.api.db.SerializedObject;
+import org.openmrs.api.db.SerializedObjectCacheStatistics;
+import org.openmrs.api.db.SerializedObjectDAO;
+import org.openmrs.serialization.SimpleXStreamSerializer;
+import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+
+public class HibernateSerializedObjectDAOTest extends BaseContextSensitiveTest {
+
+	public static class Setting extends BaseOpenmrsObject {
+
+		private Integer id;
+
+		private String name;
+
+		private List<String> values = new ArrayList<>();
+
+		@Override
+		public Integer getId() {
+			return id;
+		}
+
+		@Override
+		public void setId(Integer id) {
+			this.id = id;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public List<String> getValues() {
+			return values;
+		}
+	}
+
+	private SerializedObjectDAO dao;
+
+	private SessionFactory sessionFactory;
+
+	private SimpleXStreamSerializer serializer;
+
+	private Integer settingId;
+
+	@BeforeEach
+	public void runBeforeEachTest() throws Exception {
+		dao = (SerializedObjectDAO) applicationContext.getBean("serializedObjectDAO");
+		sessionFactory = (SessionFactory) applicationContext.getBean("sessionFactory");
+		serializer = new SimpleXStreamSerializer();
+
+		Setting setting = new Setting();
+		setting.setName("Serialized setting");
+		setting.getValues().add("a value");
+
+		SerializedObject serializedObject = new SerializedObject();
+		serializedObject.setName(setting.getName());
+		serializedObject.setType(Setting.class.getName());
+		serializedObject.setSubtype(Setting.class.getName());
+		serializedObject.setSerializationClass(SimpleXStreamSerializer.class);
+		serializedObject.setSerializedData(serializer.serialize(setting));
+		serializedObject.setUuid(setting.getUuid());
+		serializedObject.setCreator(Context.getAuthenticatedUser());
+		serializedObject.setDateCreated(new Date());
+		sessionFactory.getCurrentSession().save(serializedObject);
+		settingId = serializedObject.getId();
+	}
+
+	/**
+	 * @see HibernateSerializedObjectDAO#getObject(Class,Integer)
+	 */
+	@Test
+	public void getObject_shouldReturnACopyOfTheCachedObjectOnRepeatedReads() {
+		SerializedObjectCacheStatistics before = dao.getCacheStatistics();
+
+		Setting first = dao.getObject(Setting.class, settingId);
+		Setting second = dao.getObject(Setting.class, settingId);
+
+		assertNotSame(first, second);
+		assertEquals("Serialized setting", second.getName());
+		assertEquals(settingId, second.getId());
+		assertEquals(first.getUuid(), second.getUuid());
+		assertNotSame(first.getValues(), second.getValues());
+		SerializedObjectCacheStatistics after = dao.getCacheStatistics();
+		assertEquals(before.getMissCount() + 1, after.getMissCount());
+		assertEquals(before.getHitCount() + 1, after.getHitCount());
+		assertTrue(after.getXmlSize() > 0);
+		assertTrue(after.getCopySize() > 0);
+	}
+
+	/**
+	 * @see HibernateSerializedObjectDAO#getObject(Class,Integer)
+	 */
+	@Test
+	public void getObject_shouldNotExposeChangesMadeToAPreviouslyReturnedCopy() {
+		dao.getObject(Setting.class, settingId).setName("changed by a caller");
+		dao.getObject(Setting.class, settingId).getValues().clear();
+
+		Setting setting = dao.getObject(Setting.class, settingId);
+		assertEquals("Serialized setting", setting.getName());
+		assertEquals(1, setting.getValues().size());
+	}
+
+	/**
+	 * @see HibernateSerializedObjectDAO#getObject(Class,Integer)
+	 */
+	@Test
+	public void getObject_shouldNotReturnTheCachedObjectIfTheSerializedDataChanged() throws Exception {
+		Setting setting = dao.getObject(Setting.class, settingId);
+		setting.setName("Renamed setting");
+
+		SerializedObject serializedObject = dao.getSerializedObject(settingId);
+		serializedObject.setSerializedData(serializer.serialize(setting));
+		serializedObject.setDateChanged(new Date());
+
+		assertEquals("Renamed setting", dao.getObject(Setting.class, settingId).getName());
+	}
+
+	/**
+	 * @see HibernateSerializedObjectDAO#purgeObject(Integer)
+	 */
+	@Test
+	public void purgeObject_shouldEvictTheCachedObject() {
+		dao.getObject(Setting.class, settingId);
+		long cached = dao.getCacheStatistics().getSize();
+
+		dao.purgeObject(settingId);
+		Context.flushSession();
+
+		assertEquals(cached - 1, dao.getCacheStatistics().getSize());
+		assertNull(dao.getObject(Setting.class, settingId));
+	}
+}
@@ -0,0 +1,97 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.Query;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the cost of constructing the query of a concept name search, for phrases of growing
+ * length: escaping the phrase into a query string and parsing it as concept searches used to, building
+ * it from terms with {@link ConceptNameQuery}, and looking up a query built before for the same
+ * phrase. It is not run as part of the build, after <code>mvn -pl api test-compile</code> run
+ * {@link #main(String[])} or <code>org.openjdk.jmh.Main ConceptNameQueryBenchmark</code> with the
+ * test classpath of the api module.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConceptNameQueryBenchmark {
+
+	private static final Set<String> STOP_WORDS = new LinkedHashSet<>(Arrays.asList("A", "AN", "OF", "THE"));
+
+	@Param({ "cd4", "diabetes mellitus", "tuberculosis of the knee joint, left side" })
+	public String phrase;
+
+	private Analyzer analyzer;
+
+	private List<Locale> locales;
+
+	private Cache<List<Object>, Query> queries;
+
+	@Setup
+	public void setup() throws IOException {
+		analyzer = ConceptNameQueryTest.newConceptNameAnalyzer();
+		locales = Collections.singletonList(Locale.UK);
+		queries = CacheBuilder.newBuilder().maximumSize(1000).build();
+		queries.put(Arrays.asList(phrase, true, locales, false), build());
+	}
+
+	@Benchmark
+	public Query parse() throws ParseException {
+		QueryParser parser = new QueryParser(null, analyzer);
+		parser.setDefaultOperator(QueryParser.Operator.AND);
+		return parser.parse(ConceptNameQueryTest.newQueryString(phrase, true, locales, false, STOP_WORDS));
+	}
+
+	@Benchmark
+	public Query build() {
+		return ConceptNameQuery.build(analyzer, phrase, true, locales, false, STOP_WORDS);
+	}
+
+	@Benchmark
+	public Query cached() {
+		return queries.getIfPresent(Arrays.asList(phrase, true, locales, false));
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(ConceptNameQueryBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,163 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.analysis.core.LowerCaseFilterFactory;
+import org.apache.lucene.analysis.custom.CustomAnalyzer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilterFactory;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.standard.StandardFilterFactory;
+import org.apache.lucene.analysis.standard.StandardTokenizerFactory;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ConceptNameQueryTest {
+
+	private static final Set<String> STOP_WORDS = new LinkedHashSet<>(Arrays.asList("A", "AN", "OF"));
+
+	private Analyzer analyzer;
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		analyzer = newConceptNameAnalyzer();
+	}
+
+	/**
+	 * Analyzes the fields of concept names the way they are indexed
+	 */
+	static Analyzer newConceptNameAnalyzer() throws IOException {
+		Analyzer conceptNameAnalyzer = CustomAnalyzer.builder().withTokenizer(StandardTokenizerFactory.class)
+		        .addTokenFilter(StandardFilterFactory.class).addTokenFilter(LowerCaseFilterFactory.class).addTokenFilter(
+		            ASCIIFoldingFilterFactory.class).build();
+		Map<String, Analyzer> analyzers = new HashMap<>();
+		analyzers.put("locale", new KeywordAnalyzer());
+		analyzers.put(ConceptNameQuery.CODE_FIELD, new KeywordAnalyzer());
+		return new PerFieldAnalyzerWrapper(conceptNameAnalyzer, analyzers);
+	}
+
+	/**
+	 * The query string concept name searches were parsed from before they were built from terms
+	 */
+	static String newQueryString(String name, boolean searchKeywords, Collection<Locale> locales,
+	        boolean searchExactLocale, Set<String> stopWords) {
+		String escapedName = QueryParser.escape(name).replace("AND", "and").replace("OR", "or").replace("NOT", "not");
+		List<String> tokenizedName = new ArrayList<>();
+		for (String word : escapedName.trim().split(" ")) {
+			if (!word.trim().isEmpty() && !stopWords.contains(word.trim().toUpperCase())) {
+				tokenizedName.add(word.trim());
+			}
+		}
+
+		StringBuilder nameQuery = new StringBuilder("(");
+		if (searchKeywords) {
+			nameQuery.append(" name:(\"").append(escapedName).append("\")^0.7");
+			if (!tokenizedName.isEmpty()) {
+				nameQuery.append(" OR (");
+				for (String token : tokenizedName) {
+					nameQuery.append(" (name:(").append(token).append(")^0.6 OR name:(").append(token).append(
+					    "*)^0.3 OR name:(").append(token).append("~0.8)^0.1)");
+				}
+				nameQuery.append(")^0.3");
+			}
+		} else {
+			nameQuery.append(" name:\"").append(escapedName).append("\"");
+		}
+		nameQuery.append(")");
+
+		List<String> localeQueries = new ArrayList<>();
+		for (Locale locale : locales) {
+			if (searchExactLocale) {
+				localeQueries.add(locale.toString());
+			} else {
+				String localeQuery = locale.getLanguage() + "* ";
+				if (!StringUtils.isBlank(locale.getCountry())) {
+					localeQuery += " OR " + locale + "^2 ";
+				}
+				localeQueries.add(localeQuery);
+			}
+		}
+		return "(" + ConceptNameQuery.CODE_FIELD + ":(" + escapedName + ")^0.4 OR (" + nameQuery
+		        + " localePreferred:true)^0.4 OR (" + nameQuery + ")^0.2) locale:(" + StringUtils.join(localeQueries,
+		    " OR ") + ") voided:false";
+	}
+
+	private Query parse(String name, boolean searchKeywords, Collection<Locale> locales, boolean searchExactLocale)
+	        throws ParseException {
+		QueryParser parser = new QueryParser(null, analyzer);
+		parser.setDefaultOperator(QueryParser.Operator.AND);
+		return parser.parse(newQueryString(name, searchKeywords, locales, searchExactLocale, STOP_WORDS));
+	}
+
+	private void assertBuiltAsParsed(String name, boolean searchKeywords, Collection<Locale> locales,
+	        boolean searchExactLocale) throws ParseException {
+		assertEquals(parse(name, searchKeywords, locales, searchExactLocale), ConceptNameQuery.build(analyzer, name,
+		    searchKeywords, locales, searchExactLocale, STOP_WORDS));
+	}
+
+	/**
+	 * @see ConceptNameQuery#build(Analyzer, String, boolean, Collection, boolean, Collection)
+	 */
+	@Test
+	public void build_shouldBuildTheQueryParsedFromTheQueryStringOfAKeywordSearch() throws ParseException {
+		assertBuiltAsParsed("cd4", true, Collections.singletonList(Locale.ENGLISH), false);
+		assertBuiltAsParsed("Diabetes mellitus type 2", true, Collections.singletonList(Locale.UK), false);
+		assertBuiltAsParsed("  hypertension   of the  heart ", true, Arrays.asList(Locale.UK, Locale.FRENCH), false);
+	}
+
+	/**
+	 * @see ConceptNameQuery#build(Analyzer, String, boolean, Collection, boolean, Collection)
+	 */
+	@Test
+	public void build_shouldBuildTheQueryParsedFromTheQueryStringOfAPhraseSearch() throws ParseException {
+		assertBuiltAsParsed("Diabetes mellitus", false, Collections.singletonList(Locale.UK), false);
+		assertBuiltAsParsed("cd4", false, Arrays.asList(Locale.UK, Locale.FRENCH), true);
+	}
+
+	/**
+	 * @see ConceptNameQuery#build(Analyzer, String, boolean, Collection, boolean, Collection)
+	 */
+	@Test
+	public void build_shouldBuildTheQueryParsedFromTheQueryStringOfAPhraseWithSpecialCharacters()
+	        throws ParseException {
+		assertBuiltAsParsed("d4t+3tc (30/150)", true, Collections.singletonList(Locale.UK), false);
+		assertBuiltAsParsed("\"aspirin\" - 100mg*", true, Collections.singletonList(Locale.ENGLISH), true);
+		assertBuiltAsParsed("a of an", true, Collections.singletonList(Locale.ENGLISH), false);
+		assertBuiltAsParsed("tuberculosis and hiv or not", true, Collections.singletonList(Locale.ENGLISH), false);
+	}
+
+	/**
+	 * @see ConceptNameQuery#getKeywords(String, Collection)
+	 */
+	@Test
+	public void getKeywords_shouldSkipStopWordsIgnoringCase() {
+		assertEquals(Arrays.asList("Fever", "unknown", "origin"), ConceptNameQuery.getKeywords(" Fever of  unknown origin ",
+		    STOP_WORDS));
+	}
+}
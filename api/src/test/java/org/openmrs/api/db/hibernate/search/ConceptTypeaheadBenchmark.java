@@ -0,0 +1,192 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.core.LowerCaseFilterFactory;
+import org.apache.lucene.analysis.core.WhitespaceTokenizerFactory;
+import org.apache.lucene.analysis.custom.CustomAnalyzer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilterFactory;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.ngram.EdgeNGramFilterFactory;
+import org.apache.lucene.analysis.standard.ClassicFilterFactory;
+import org.apache.lucene.analysis.standard.StandardFilterFactory;
+import org.apache.lucene.analysis.standard.StandardTokenizerFactory;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.RAMDirectory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the typeahead query of {@link ConceptTypeaheadQuery} with the keyword query concept
+ * searches build, for prefixes of growing length, on an in memory index of generated concept names
+ * analyzed like {@link org.openmrs.ConceptName} and {@link LuceneAnalyzerFactory} do. The keyword
+ * search is measured the way concept searches run it: a pass over all hits to skip repeated
+ * concepts, a pass for the page and a pass for the count. It is not run as part of the build, after
+ * <code>mvn -pl api test-compile</code> run {@link #main(String[])} or
+ * <code>org.openjdk.jmh.Main ConceptTypeaheadBenchmark</code> with the test classpath of the api
+ * module.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConceptTypeaheadBenchmark {
+
+	private static final int CONCEPTS = 20000;
+
+	private static final int LIMIT = 10;
+
+	private static final String WORD = "hypertension";
+
+	private static final String[] SYLLABLES = { "an", "ba", "ce", "di", "fe", "ga", "hy", "in", "ko", "lu", "ma", "ne",
+	        "os", "pe", "ra", "si", "ta", "ur", "vi", "zo", "per", "ten", "sion", "tis", "ol", "mia" };
+
+	@Param({ "1", "2", "3", "5", "8" })
+	public int prefixLength;
+
+	private IndexSearcher searcher;
+
+	private Analyzer exactAnalyzer;
+
+	private Analyzer conceptNameAnalyzer;
+
+	private List<Locale> locales;
+
+	private String prefix;
+
+	@Setup
+	public void setup() throws IOException {
+		exactAnalyzer = CustomAnalyzer.builder().withTokenizer(WhitespaceTokenizerFactory.class).addTokenFilter(
+		    ClassicFilterFactory.class).addTokenFilter(LowerCaseFilterFactory.class).addTokenFilter(
+		    ASCIIFoldingFilterFactory.class).build();
+		Analyzer typeaheadAnalyzer = CustomAnalyzer.builder().withTokenizer(WhitespaceTokenizerFactory.class)
+		        .addTokenFilter(ClassicFilterFactory.class).addTokenFilter(LowerCaseFilterFactory.class).addTokenFilter(
+		            ASCIIFoldingFilterFactory.class).addTokenFilter(EdgeNGramFilterFactory.class, "minGramSize", "1",
+		            "maxGramSize", String.valueOf(ConceptTypeaheadQuery.MAX_PREFIX_LENGTH)).build();
+		conceptNameAnalyzer = CustomAnalyzer.builder().withTokenizer(StandardTokenizerFactory.class).addTokenFilter(
+		    StandardFilterFactory.class).addTokenFilter(LowerCaseFilterFactory.class).addTokenFilter(
+		    ASCIIFoldingFilterFactory.class).build();
+		Map<String, Analyzer> analyzers = new HashMap<>();
+		analyzers.put(ConceptTypeaheadQuery.NAME_FIELD, typeaheadAnalyzer);
+
+		RAMDirectory directory = new RAMDirectory();
+		Random random = new Random(42);
+		try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new PerFieldAnalyzerWrapper(
+		        conceptNameAnalyzer, analyzers)))) {
+			for (int conceptId = 1; conceptId <= CONCEPTS; conceptId++) {
+				int names = 1 + random.nextInt(3);
+				for (int i = 0; i < names; i++) {
+					String name = newName(random, conceptId);
+					Document document = new Document();
+					document.add(new StringField("concept.conceptId", String.valueOf(conceptId), Field.Store.YES));
+					document.add(new TextField("name", name, Field.Store.NO));
+					document.add(new TextField(ConceptTypeaheadQuery.NAME_FIELD, name, Field.Store.YES));
+					document.add(new StringField("locale", random.nextInt(4) == 0 ? "fr" : "en_GB", Field.Store.NO));
+					document.add(new StringField("localePreferred", String.valueOf(i == 0), Field.Store.NO));
+					document.add(new StringField("voided", "false", Field.Store.NO));
+					document.add(new StringField("concept.retired", "false", Field.Store.NO));
+					writer.addDocument(document);
+				}
+			}
+		}
+		searcher = new IndexSearcher(DirectoryReader.open(directory));
+		locales = Collections.singletonList(Locale.UK);
+		prefix = WORD.substring(0, prefixLength);
+	}
+
+	private static String newName(Random random, int conceptId) {
+		StringBuilder name = new StringBuilder();
+		int words = 1 + random.nextInt(4);
+		for (int i = 0; i < words; i++) {
+			if (conceptId % 50 == 0 && i == 0) {
+				name.append(WORD);
+			} else {
+				for (int j = 0, syllables = 2 + random.nextInt(3); j < syllables; j++) {
+					name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+				}
+			}
+			name.append(' ');
+		}
+		return name.toString().trim().toUpperCase();
+	}
+
+	@Benchmark
+	public int typeahead() throws IOException {
+		Query query = ConceptTypeaheadQuery.build(exactAnalyzer, prefix, locales, false);
+		TopDocs topDocs = searcher.search(query, LIMIT * 4);
+		Set<String> conceptIds = new HashSet<>();
+		for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+			if (conceptIds.size() < LIMIT) {
+				conceptIds.add(searcher.doc(scoreDoc.doc).get("concept.conceptId"));
+			}
+		}
+		return conceptIds.size() + topDocs.totalHits;
+	}
+
+	@Benchmark
+	public int keywordSearch() throws IOException, ParseException {
+		String escaped = QueryParser.escape(prefix);
+		String nameQuery = "( name:(\"" + escaped + "\")^0.7 OR ( (name:(" + escaped + ")^0.6 OR name:(" + escaped
+		        + "*)^0.3 OR name:(" + escaped + "~0.8)^0.1))^0.3)";
+		QueryParser parser = new QueryParser(null, conceptNameAnalyzer);
+		parser.setDefaultOperator(QueryParser.Operator.AND);
+		Query query = parser.parse("((" + nameQuery + " localePreferred:true)^0.4 OR (" + nameQuery
+		        + ")^0.2) locale:(en* OR en_GB^2) voided:false concept.retired:false");
+
+		Set<String> conceptIds = new HashSet<>();
+		for (ScoreDoc scoreDoc : searcher.search(query, searcher.getIndexReader().maxDoc()).scoreDocs) {
+			conceptIds.add(searcher.doc(scoreDoc.doc).get("concept.conceptId"));
+		}
+		TopDocs page = searcher.search(query, LIMIT);
+		return conceptIds.size() + page.scoreDocs.length + searcher.count(query);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(ConceptTypeaheadBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,54 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+import org.openmrs.Relationship;
+import org.openmrs.User;
+
+/**
+ * Tests the {@link RelationshipSaveHandler} class.
+ */
+public class RelationshipSaveHandlerTest {
+	
+	/**
+	 * @see RelationshipSaveHandler#handle(Relationship,User,Date,String)
+	 */
+	@Test
+	public void handle_shouldSetTheEffectiveDatesFromTheStartAndEndDates() {
+		Relationship relationship = new Relationship();
+		relationship.setStartDate(new Date(1000L));
+		relationship.setEndDate(new Date(2000L));
+		
+		new RelationshipSaveHandler().handle(relationship, null, null, null);
+		
+		assertEquals(new Date(1000L), relationship.getEffectiveStartDate());
+		assertEquals(new Date(2000L), relationship.getEffectiveEndDate());
+	}
+	
+	/**
+	 * @see RelationshipSaveHandler#handle(Relationship,User,Date,String)
+	 */
+	@Test
+	public void handle_shouldSetOpenEffectiveDatesIfThereAreNoStartAndEndDates() {
+		Relationship relationship = new Relationship();
+		relationship.setEffectiveStartDate(new Date(1000L));
+		relationship.setEffectiveEndDate(new Date(2000L));
+		
+		new RelationshipSaveHandler().handle(relationship, null, null, null);
+		
+		assertEquals(Relationship.getOpenStartDate(), relationship.getEffectiveStartDate());
+		assertEquals(Relationship.getOpenEndDate(), relationship.getEffectiveEndDate());
+	}
+}
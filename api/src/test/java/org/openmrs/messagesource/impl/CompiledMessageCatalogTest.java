@@ -0,0 +1,111 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.messagesource.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link CompiledMessageCatalog}.
+ */
+public class CompiledMessageCatalogTest {
+
+	private AtomicInteger loads;
+
+	private AtomicInteger localeScans;
+
+	private CompiledMessageCatalog catalog;
+
+	@BeforeEach
+	public void setUp() {
+		loads = new AtomicInteger();
+		localeScans = new AtomicInteger();
+		catalog = new CompiledMessageCatalog(locale -> {
+			loads.incrementAndGet();
+			Properties props = new Properties();
+			props.setProperty("general.save", "Save");
+			props.setProperty("general.greeting", "Hello {0}");
+			if (Locale.FRENCH.equals(locale)) {
+				props.setProperty("general.save", "Enregistrer");
+			}
+			return props;
+		}, () -> {
+			localeScans.incrementAndGet();
+			return Arrays.asList(Locale.ENGLISH, Locale.FRENCH);
+		});
+	}
+
+	/**
+	 * @see CompiledMessageCatalog#getMessage(String,Locale)
+	 */
+	@Test
+	public void getMessage_shouldCompileEachLocaleOnlyOnce() {
+		assertEquals("Save", catalog.getMessage("general.save", Locale.ENGLISH));
+		assertEquals("Save", catalog.getMessage("general.save", Locale.ENGLISH));
+		assertEquals("Enregistrer", catalog.getMessage("general.save", Locale.FRENCH));
+		assertEquals("Enregistrer", catalog.getMessage("general.save", Locale.FRENCH));
+
+		assertEquals(2, loads.get());
+		assertEquals(2, catalog.getCompiledLocaleCount());
+	}
+
+	/**
+	 * @see CompiledMessageCatalog#getMessage(String,Locale)
+	 */
+	@Test
+	public void getMessage_shouldReturnNullForAnUnknownCode() {
+		assertNull(catalog.getMessage("no.such.code", Locale.ENGLISH));
+		assertNull(catalog.getMessageFormat("no.such.code", Locale.ENGLISH));
+	}
+
+	/**
+	 * @see CompiledMessageCatalog#getMessageFormat(String,Locale)
+	 */
+	@Test
+	public void getMessageFormat_shouldParseEachPatternOnlyOnce() {
+		MessageFormat messageFormat = catalog.getMessageFormat("general.greeting", Locale.ENGLISH);
+
+		assertSame(messageFormat, catalog.getMessageFormat("general.greeting", Locale.ENGLISH));
+		assertEquals("Hello Alice", messageFormat.format(new Object[] { "Alice" }));
+	}
+
+	/**
+	 * @see CompiledMessageCatalog#getLocales()
+	 */
+	@Test
+	public void getLocales_shouldScanForLocalesOnlyOnce() {
+		Collection<Locale> locales = catalog.getLocales();
+		catalog.getLocales();
+
+		assertEquals(2, locales.size());
+		assertEquals(1, localeScans.get());
+	}
+
+	/**
+	 * @see CompiledMessageCatalog#getMessages(Locale)
+	 */
+	@Test
+	public void getMessages_shouldReturnAnUnmodifiableMap() {
+		assertThrows(UnsupportedOperationException.class,
+		    () -> catalog.getMessages(Locale.ENGLISH).put("general.cancel", "Cancel"));
+	}
+}
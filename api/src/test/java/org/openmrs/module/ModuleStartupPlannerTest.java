@@ -0,0 +1,104 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class ModuleStartupPlannerTest {
+	
+	private Module module(String id, String... requiredIds) {
+		Module module = new Module(id, id, "org.openmrs.module." + id, "author", "description", "1.0");
+		for (String requiredId : requiredIds) {
+			module.setRequiredModules(Collections.singletonList("org.openmrs.module." + requiredId));
+		}
+		return module;
+	}
+	
+	/**
+	 * @see ModuleStartupPlanner#getStartupLayers(List)
+	 */
+	@Test
+	public void getStartupLayers_shouldPutIndependentModulesInTheSameLayer() {
+		Module a = module("a");
+		Module b = module("b");
+		Module c = module("c");
+		
+		List<List<Module>> layers = ModuleStartupPlanner.getStartupLayers(Arrays.asList(a, b, c));
+		
+		assertEquals(Collections.singletonList(Arrays.asList(a, b, c)), layers);
+	}
+	
+	/**
+	 * @see ModuleStartupPlanner#getStartupLayers(List)
+	 */
+	@Test
+	public void getStartupLayers_shouldPutModulesAfterTheModulesTheyRequireOrAreAwareOf() {
+		Module a = module("a");
+		Module b = module("b", "a");
+		Module c = module("c");
+		Module d = module("d", "b");
+		d.setAwareOfModulesMap(Collections.singletonMap("org.openmrs.module.c", "1.0"));
+		Module e = module("e", "a");
+		
+		List<List<Module>> layers = ModuleStartupPlanner.getStartupLayers(Arrays.asList(a, b, c, d, e));
+		
+		assertEquals(Arrays.asList(Arrays.asList(a, c), Arrays.asList(b, e), Collections.singletonList(d)), layers);
+	}
+	
+	/**
+	 * @see ModuleStartupPlanner#runInParallel(java.util.Collection,String,ModuleStartupPlanner.ModuleTask)
+	 */
+	@Test
+	public void runInParallel_shouldRunTheTaskForEachModuleAndRecordItsTime() {
+		Module a = module("a");
+		Module b = module("b");
+		ModuleStartupPlanner planner = new ModuleStartupPlanner(Arrays.asList(a, b));
+		
+		Map<Module, String> results = planner.runInParallel(Arrays.asList(a, b), "prepare", module -> {
+			Thread.sleep(20);
+			return module.getModuleId() + " on " + Thread.currentThread().getName();
+		});
+		
+		assertEquals(2, results.size());
+		assertTrue(results.get(a).startsWith("a on Module startup prepare"));
+		assertTrue(planner.getTimings().get("b").get("prepare") >= 20);
+		assertTrue(planner.getTimingReport().contains("a [layer 0] total="));
+	}
+	
+	/**
+	 * @see ModuleStartupPlanner#runInParallel(java.util.Collection,String,ModuleStartupPlanner.ModuleTask)
+	 */
+	@Test
+	public void runInParallel_shouldLeaveOutModulesWhoseTaskFailed() {
+		Module a = module("a");
+		Module b = module("b");
+		ModuleStartupPlanner planner = new ModuleStartupPlanner(Arrays.asList(a, b));
+		
+		Map<Module, String> results = planner.runInParallel(Arrays.asList(a, b), "prepare", module -> {
+			if (module == a) {
+				throw new ModuleException("broken");
+			}
+			return "ok";
+		});
+		
+		assertEquals(Collections.singletonMap(b, "ok"), results);
+		assertFalse(results.containsKey(a));
+		assertTrue(planner.getTimings().containsKey("a"));
+	}
+}
@@ -12,10 +12,19 @@ package org.openmrs.notification;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
 import org.junit.jupiter.api.Test;
+import org.openmrs.User;
 import org.openmrs.api.context.Context;
 import org.openmrs.notification.impl.AlertServiceImpl;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+import org.openmrs.util.OpenmrsConstants;
 
 public class AlertServiceTest extends BaseContextSensitiveTest {
 	
@@ -63,4 +72,160 @@ public class AlertServiceTest extends BaseContextSensitiveTest {
 		//Test that alert contains the expected content
 		assertTrue(alertOne.getText().equals(Context.getMessageSourceService().getMessage("Module.startupError.notification.message", new Object[] { "test" }, null)));
 	}
+	
+	/**
+	 * @see AlertService#notifySuperUsers(String,Exception,Object...)
+	 */
+	@Test
+	public void notifySuperUsers_shouldNotAddAnAlertIfAnUnreadAlertWithTheSameTextWasRecentlyAdded() {
+		Context.getAdministrationService().setGlobalProperty(
+		    OpenmrsConstants.GLOBAL_PROPERTY_SUPER_USER_ALERT_COALESCE_WINDOW, "60");
+		
+		Context.getAlertService().notifySuperUsers("Module.startupError.notification.message", null, "test");
+		Context.getAlertService().notifySuperUsers("Module.startupError.notification.message", null, "test");
+		assertEquals(1, Context.getAlertService().getAlertsByUser(null).size());
+		
+		Context.getAlertService().notifySuperUsers("Module.startupError.notification.message", null, "other");
+		assertEquals(2, Context.getAlertService().getAlertsByUser(null).size());
+	}
+	
+	/**
+	 * @see AlertService#notifySuperUsers(String,Exception,Object...)
+	 */
+	@Test
+	public void notifySuperUsers_shouldAddAnAlertAgainIfCoalescingIsDisabled() {
+		Context.getAdministrationService().setGlobalProperty(
+		    OpenmrsConstants.GLOBAL_PROPERTY_SUPER_USER_ALERT_COALESCE_WINDOW, "0");
+		
+		Context.getAlertService().notifySuperUsers("Module.startupError.notification.message", null, "test");
+		Context.getAlertService().notifySuperUsers("Module.startupError.notification.message", null, "test");
+		
+		assertEquals(2, Context.getAlertService().getAlertsByUser(null).size());
+	}
+	
+	private Alert saveAlert(String text, Date dateToExpire) {
+		Alert alert = new Alert(text, Context.getAuthenticatedUser());
+		alert.setDateToExpire(dateToExpire);
+		return Context.getAlertService().saveAlert(alert);
+	}
+	
+	/**
+	 * @see AlertService#getUnreadAlertCount(User)
+	 */
+	@Test
+	public void getUnreadAlertCount_shouldReturnTheNumberOfUnreadAlertsOfTheUser() {
+		saveAlert("first", null);
+		saveAlert("second", new Date(System.currentTimeMillis() + 60 * 60 * 1000));
+		
+		assertEquals(2, Context.getAlertService().getUnreadAlertCount(null));
+		assertEquals(2, Context.getAlertService().getUnreadAlertCount(Context.getAuthenticatedUser()));
+		assertEquals(Context.getAlertService().getAlertsByUser(null).size(),
+		    Context.getAlertService().getUnreadAlertCount(null));
+		assertEquals(0, Context.getAlertService().getUnreadAlertCount(new User()));
+	}
+	
+	/**
+	 * @see AlertService#getUnreadAlertCount(User)
+	 */
+	@Test
+	public void getUnreadAlertCount_shouldUpdateTheCountWhenAnAlertIsSavedOrMarkedRead() {
+		Alert alert = saveAlert("first", null);
+		assertEquals(1, Context.getAlertService().getUnreadAlertCount(null));
+		saveAlert("second", null);
+		assertEquals(2, Context.getAlertService().getUnreadAlertCount(null));
+		
+		Context.getAlertService().saveAlert(alert.markAlertRead());
+		
+		assertEquals(1, Context.getAlertService().getUnreadAlertCount(null));
+	}
+	
+	/**
+	 * @see AlertService#getUnreadAlertCount(User)
+	 */
+	@Test
+	public void getUnreadAlertCount_shouldUpdateTheCountWhenAnAlertIsPurged() {
+		Alert alert = saveAlert("first", null);
+		assertEquals(1, Context.getAlertService().getUnreadAlertCount(null));
+		
+		Context.getAlertService().purgeAlert(alert);
+		
+		assertEquals(0, Context.getAlertService().getUnreadAlertCount(null));
+	}
+	
+	/**
+	 * @see AlertService#getUnreadAlertCount(User)
+	 */
+	@Test
+	public void getUnreadAlertCount_shouldNotCountExpiredAlerts() throws InterruptedException {
+		saveAlert("expired", new Date(System.currentTimeMillis() - 1000));
+		saveAlert("expiring", new Date(System.currentTimeMillis() + 1000));
+		assertEquals(1, Context.getAlertService().getUnreadAlertCount(null));
+		
+		Thread.sleep(1100);
+		
+		assertEquals(0, Context.getAlertService().getUnreadAlertCount(null));
+	}
+	
+	/**
+	 * @see AlertService#getUnreadAlertCount(User)
+	 */
+	@Test
+	public void getUnreadAlertCount_shouldCountTheAlertsWithoutStoringTheCountIfThereIsNone() throws SQLException {
+		saveAlert("first", null);
+		Context.flushSession();
+		try (Statement statement = getConnection().createStatement()) {
+			statement.executeUpdate("delete from notification_alert_unread_count");
+		}
+		Context.clearSession();
+		
+		assertEquals(1, Context.getAlertService().getUnreadAlertCount(null));
+		Context.flushSession();
+		try (Statement statement = getConnection().createStatement();
+		        ResultSet counts = statement.executeQuery("select count(*) from notification_alert_unread_count")) {
+			counts.next();
+			assertEquals(0, counts.getInt(1));
+		}
+		
+		saveAlert("second", null);
+		assertEquals(2, Context.getAlertService().getUnreadAlertCount(null));
+		assertEquals(0, Context.getAlertService().reconcileUnreadAlertCounts());
+	}
+	
+	/**
+	 * @see AlertService#getUnreadAlertIds(User,Date)
+	 */
+	@Test
+	public void getUnreadAlertIds_shouldReturnTheIdsOfTheUnreadAlertsCreatedAfterTheGivenDate() {
+		Alert old = saveAlert("old", null);
+		old.setDateCreated(new Date(System.currentTimeMillis() - 60 * 60 * 1000));
+		Alert first = saveAlert("first", null);
+		Alert second = saveAlert("second", null);
+		Context.getAlertService().saveAlert(saveAlert("read", null).markAlertRead());
+		
+		assertEquals(Arrays.asList(second.getAlertId(), first.getAlertId()),
+		    Context.getAlertService().getUnreadAlertIds(null, new Date(System.currentTimeMillis() - 60 * 1000)));
+		assertEquals(Arrays.asList(second.getAlertId(), first.getAlertId(), old.getAlertId()),
+		    Context.getAlertService().getUnreadAlertIds(null, null));
+		assertEquals(Collections.emptyList(), Context.getAlertService().getUnreadAlertIds(new User(), null));
+	}
+	
+	/**
+	 * @see AlertService#reconcileUnreadAlertCounts()
+	 */
+	@Test
+	public void reconcileUnreadAlertCounts_shouldCorrectCountsThatDifferFromTheAlerts() throws SQLException {
+		saveAlert("first", null);
+		assertEquals(1, Context.getAlertService().getUnreadAlertCount(null));
+		assertEquals(0, Context.getAlertService().reconcileUnreadAlertCounts());
+		
+		Context.flushSession();
+		try (Statement statement = getConnection().createStatement()) {
+			statement.executeUpdate("update notification_alert_unread_count set unread_count = 5");
+		}
+		Context.clearSession();
+		assertEquals(5, Context.getAlertService().getUnreadAlertCount(null));
+		
+		assertEquals(1, Context.getAlertService().reconcileUnreadAlertCounts());
+		assertEquals(1, Context.getAlertService().getUnreadAlertCount(null));
+	}
 }
@@ -10,12 +10,25 @@
 package org.openmrs.notification;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openmrs.api.context.Context;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+import org.openmrs.util.OpenmrsConstants;
 
 /**
  * Unit tests for the MessageService.
@@ -26,6 +39,10 @@ public class MessageServiceTest extends BaseContextSensitiveTest {
 	
 	MessageService ms = null;
 	
+	private MessageSender originalSender;
+	
+	private FakeMessageSender fakeSender;
+	
 	/**
 	 * Run this before each unit test in this class. The "@Before" method in
 	 * {@link BaseContextSensitiveTest} is run right before this method.
@@ -37,6 +54,45 @@ public class MessageServiceTest extends BaseContextSensitiveTest {
 		executeDataSet("org/openmrs/notification/include/MessageServiceTest-initial.xml");
 		
 		ms = Context.getMessageService();
+		originalSender = ms.getMessageSender();
+		fakeSender = new FakeMessageSender();
+	}
+	
+	@AfterEach
+	public void restoreMessageSender() {
+		ms.setMessageSender(originalSender);
+	}
+	
+	/**
+	 * Records the batches it is asked to send and fails the messages to recipients containing
+	 * "fail"
+	 */
+	private static class FakeMessageSender implements MessageSender {
+		
+		private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+		
+		@Override
+		public void send(Message message) throws MessageException {
+			sendBatch(Collections.singletonList(message));
+		}
+		
+		@Override
+		public Map<Message, MessageException> sendBatch(List<Message> messages) {
+			Map<Message, MessageException> failures = new HashMap<>();
+			List<String> batch = new ArrayList<>();
+			for (Message message : messages) {
+				batch.add(message.getRecipients());
+				if (message.getRecipients().contains("fail")) {
+					failures.put(message, new MessageException("Could not connect to SMTP host: localhost"));
+				}
+			}
+			batches.add(batch);
+			return failures;
+		}
+	}
+	
+	private QueuedMessage queue(String recipients) throws MessageException {
+		return ms.queueMessage(ms.createMessage(recipients, "sender@example.com", "subject", "content"));
 	}
 	
 	/**
@@ -113,4 +169,164 @@ public class MessageServiceTest extends BaseContextSensitiveTest {
 		}
 	}
 	
+	
+	/**
+	 * @see MessageService#sendMessage(Message)
+	 */
+	@Test
+	public void sendMessage_shouldQueueTheMessageIfTheMessageQueueIsEnabled() throws MessageException {
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_MESSAGE_QUEUE_ENABLED,
+		    "true");
+		ms.setMessageSender(fakeSender);
+		
+		ms.sendMessage(ms.createMessage("recipient@example.com", "sender@example.com", "subject", "content"));
+		
+		assertTrue(fakeSender.batches.isEmpty());
+		List<QueuedMessage> queued = ms.getQueuedMessages();
+		assertEquals(1, queued.size());
+		assertEquals("recipient@example.com", queued.get(0).getRecipients());
+		assertEquals("subject", queued.get(0).getSubject());
+	}
+	
+	/**
+	 * @see MessageService#queueMessage(Message)
+	 */
+	@Test
+	public void queueMessage_shouldSaveTheMessageToTheQueue() throws MessageException {
+		QueuedMessage queued = ms.queueMessage(ms.createMessage("recipient@example.com", "sender@example.com",
+		    "subject", "content", "moo", "text/plain", "moo.txt"));
+		
+		assertNotNull(queued.getQueuedMessageId());
+		assertEquals(0, queued.getAttempts());
+		assertNotNull(queued.getNextAttempt());
+		Message message = queued.toMessage();
+		assertEquals("recipient@example.com", message.getRecipients());
+		assertEquals("sender@example.com", message.getSender());
+		assertEquals("content", message.getContent());
+		assertEquals("moo.txt", message.getAttachmentFileName());
+	}
+	
+	/**
+	 * @see MessageService#queueMessage(Message)
+	 */
+	@Test
+	public void queueMessage_shouldFailIfTheMessageHasNoRecipients() throws MessageException {
+		Message message = ms.createMessage("subject", "content");
+		
+		assertThrows(MessageException.class, () -> ms.queueMessage(message));
+	}
+	
+	/**
+	 * @see MessageService#processMessageQueue()
+	 */
+	@Test
+	public void processMessageQueue_shouldSendDueMessagesInBatchesAndRemoveThemFromTheQueue() throws MessageException {
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_MESSAGE_QUEUE_BATCH_SIZE,
+		    "2");
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_MESSAGE_QUEUE_THREADS, "2");
+		ms.setMessageSender(fakeSender);
+		for (int i = 1; i <= 5; i++) {
+			queue("recipient" + i + "@example.com");
+		}
+		
+		assertEquals(4, ms.processMessageQueue());
+		assertEquals(2, fakeSender.batches.size());
+		assertEquals(2, fakeSender.batches.get(0).size());
+		assertEquals(2, fakeSender.batches.get(1).size());
+		assertEquals(1, ms.getQueuedMessages().size());
+		
+		assertEquals(1, ms.processMessageQueue());
+		assertEquals(0, ms.processMessageQueue());
+		assertEquals(3, fakeSender.batches.size());
+		assertTrue(ms.getQueuedMessages().isEmpty());
+	}
+	
+	/**
+	 * @see MessageService#processMessageQueue()
+	 */
+	@Test
+	public void processMessageQueue_shouldNotSendMessagesThatAreNotDueYet() throws MessageException {
+		ms.setMessageSender(fakeSender);
+		QueuedMessage later = queue("later@example.com");
+		later.setNextAttempt(new Date(System.currentTimeMillis() + 60 * 60 * 1000));
+		queue("now@example.com");
+		
+		assertEquals(1, ms.processMessageQueue());
+		
+		assertEquals(Arrays.asList(Collections.singletonList("now@example.com")), fakeSender.batches);
+		assertEquals(Collections.singletonList(later), ms.getQueuedMessages());
+	}
+	
+	/**
+	 * @see MessageService#processMessageQueue()
+	 */
+	@Test
+	public void processMessageQueue_shouldRetryFailedMessagesWithAnIncreasingDelay() throws MessageException {
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_MESSAGE_QUEUE_RETRY_DELAY,
+		    "60");
+		ms.setMessageSender(fakeSender);
+		QueuedMessage failing = queue("fail@example.com");
+		
+		long start = System.currentTimeMillis();
+		assertEquals(1, ms.processMessageQueue());
+		assertEquals(1, failing.getAttempts());
+		assertTrue(failing.getLastError().contains("Could not connect to SMTP host"));
+		long firstDelay = failing.getNextAttempt().getTime() - start;
+		assertTrue(firstDelay >= 60 * 1000 && firstDelay < 70 * 1000);
+		assertEquals(0, ms.processMessageQueue());
+		
+		failing.setNextAttempt(new Date(start));
+		start = System.currentTimeMillis();
+		assertEquals(1, ms.processMessageQueue());
+		assertEquals(2, failing.getAttempts());
+		long secondDelay = failing.getNextAttempt().getTime() - start;
+		assertTrue(secondDelay >= 120 * 1000 && secondDelay < 130 * 1000);
+		assertEquals(Collections.singletonList(failing), ms.getQueuedMessages());
+	}
+	
+	/**
+	 * @see MessageService#processMessageQueue()
+	 */
+	@Test
+	public void processMessageQueue_shouldMoveMessagesThatFailedTooOftenToTheDeadLetterMessages() throws MessageException {
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_MESSAGE_QUEUE_MAX_ATTEMPTS,
+		    "2");
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_MESSAGE_QUEUE_RETRY_DELAY,
+		    "0");
+		ms.setMessageSender(fakeSender);
+		queue("fail@example.com");
+		queue("recipient@example.com");
+		
+		assertEquals(2, ms.processMessageQueue());
+		assertEquals(1, ms.processMessageQueue());
+		assertEquals(0, ms.processMessageQueue());
+		
+		assertTrue(ms.getQueuedMessages().isEmpty());
+		List<DeadLetterMessage> deadLetters = ms.getDeadLetterMessages();
+		assertEquals(1, deadLetters.size());
+		assertEquals("fail@example.com", deadLetters.get(0).getRecipients());
+		assertEquals(2, deadLetters.get(0).getAttempts());
+		assertNotNull(deadLetters.get(0).getDateFailed());
+		assertTrue(deadLetters.get(0).getLastError().contains("Could not connect to SMTP host"));
+	}
+	
+	/**
+	 * @see MessageService#requeueDeadLetterMessage(DeadLetterMessage)
+	 */
+	@Test
+	public void requeueDeadLetterMessage_shouldMoveTheMessageBackToTheQueue() throws MessageException {
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_MESSAGE_QUEUE_MAX_ATTEMPTS,
+		    "1");
+		ms.setMessageSender(fakeSender);
+		queue("fail@example.com");
+		ms.processMessageQueue();
+		DeadLetterMessage deadLetter = ms.getDeadLetterMessages().get(0);
+		
+		QueuedMessage queued = ms.requeueDeadLetterMessage(deadLetter);
+		
+		assertTrue(ms.getDeadLetterMessages().isEmpty());
+		assertEquals(Collections.singletonList(queued), ms.getQueuedMessages());
+		assertEquals("fail@example.com", queued.getRecipients());
+		assertEquals(0, queued.getAttempts());
+	}
 }
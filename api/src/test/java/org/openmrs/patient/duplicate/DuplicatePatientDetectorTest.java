@@ -0,0 +1,226 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.patient.duplicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link DuplicatePatientDetector}, {@link BlockingKeyGenerator} and
+ * {@link PatientSimilarityScorer}.
+ */
+public class DuplicatePatientDetectorTest {
+
+	private static Date date(int year, int month, int day) {
+		return new GregorianCalendar(year, month - 1, day).getTime();
+	}
+
+	private static DuplicatePatientRecord record(int id, String given, String family, Date birthdate, String gender,
+	        String... identifiers) {
+		return new DuplicatePatientRecord(id, given, family, birthdate, gender, Arrays.asList(identifiers));
+	}
+
+	/**
+	 * Keeps the records and blocking keys in memory and counts the records read by page
+	 */
+	private static class InMemorySource implements DuplicatePatientDetector.RecordSource,
+	        DuplicatePatientDetector.BlockingKeyStore {
+
+		private final List<DuplicatePatientRecord> records;
+
+		private final List<DuplicatePatientBlockingKey> keys = new ArrayList<>();
+
+		private int pagedRecords;
+
+		InMemorySource(List<DuplicatePatientRecord> records) {
+			this.records = records;
+		}
+
+		@Override
+		public List<DuplicatePatientRecord> getRecords(Integer after, int pageSize) {
+			List<DuplicatePatientRecord> page = new ArrayList<>();
+			for (DuplicatePatientRecord record : records) {
+				if ((after == null || record.getPatientId() > after) && page.size() < pageSize) {
+					page.add(record);
+				}
+			}
+			pagedRecords += page.size();
+			return page;
+		}
+
+		@Override
+		public List<DuplicatePatientRecord> getRecords(Collection<Integer> patientIds) {
+			List<DuplicatePatientRecord> found = new ArrayList<>();
+			for (DuplicatePatientRecord record : records) {
+				if (patientIds.contains(record.getPatientId())) {
+					found.add(record);
+				}
+			}
+			return found;
+		}
+
+		@Override
+		public void deleteBlockingKeys() {
+			keys.clear();
+		}
+
+		@Override
+		public void saveBlockingKeys(List<DuplicatePatientBlockingKey> keys) {
+			this.keys.addAll(keys);
+			this.keys.sort(Comparator.comparing(DuplicatePatientBlockingKey::getBlockingKey).thenComparing(
+			    DuplicatePatientBlockingKey::getPatientId));
+		}
+
+		@Override
+		public List<DuplicatePatientBlockingKey> getBlockingKeys(String afterKey, Integer afterPatientId, int pageSize) {
+			List<DuplicatePatientBlockingKey> page = new ArrayList<>();
+			for (DuplicatePatientBlockingKey key : keys) {
+				int compared = afterKey == null ? 1 : key.getBlockingKey().compareTo(afterKey);
+				if ((compared > 0 || compared == 0 && afterPatientId != null && key.getPatientId() > afterPatientId)
+				        && page.size() < pageSize) {
+					page.add(key);
+				}
+			}
+			return page;
+		}
+	}
+
+	private final List<DuplicatePatientRecord> records = Arrays.asList(
+	    record(1, "Jonathan", "Smith", date(1980, 3, 4), "M", "100-ABC-1"),
+	    record(2, "Jonathon", "Smyth", date(1980, 3, 4), "M", "200-XYZ-9"),
+	    record(3, "Mary", "Okello", date(1990, 7, 1), "F", "300-QQQ-2"),
+	    record(4, "Peter", "Mwangi", date(1955, 1, 1), "M", "100-ABC-1"),
+	    record(5, "Mary", "Okelo", date(1990, 1, 7), "F"));
+
+	/**
+	 * @see BlockingKeyGenerator#soundex(String)
+	 */
+	@Test
+	public void soundex_shouldEncodeNamesWithTheAmericanSoundexRules() {
+		assertEquals("R163", BlockingKeyGenerator.soundex("Robert"));
+		assertEquals("R163", BlockingKeyGenerator.soundex("Rupert"));
+		assertEquals("A261", BlockingKeyGenerator.soundex("Ashcraft"));
+		assertEquals("T522", BlockingKeyGenerator.soundex("Tymczak"));
+		assertEquals("P236", BlockingKeyGenerator.soundex("Pfister"));
+		assertEquals(BlockingKeyGenerator.soundex("Smith"), BlockingKeyGenerator.soundex("Smyth"));
+	}
+
+	/**
+	 * @see BlockingKeyGenerator#getBlockingKeys(DuplicatePatientRecord)
+	 */
+	@Test
+	public void getBlockingKeys_shouldGenerateNameBirthYearAndIdentifierKeys() {
+		Set<String> keys = new BlockingKeyGenerator().getBlockingKeys(records.get(0));
+
+		assertEquals(3, keys.size());
+		assertTrue(keys.contains("N:S530:J535:M"));
+		assertTrue(keys.contains("B:S530:1980:M"));
+		assertTrue(keys.contains("I:100ABC1"));
+	}
+
+	/**
+	 * @see PatientSimilarityScorer#score(DuplicatePatientRecord,DuplicatePatientRecord)
+	 */
+	@Test
+	public void score_shouldScoreNearDuplicatesHigherThanUnrelatedPatients() {
+		PatientSimilarityScorer scorer = new PatientSimilarityScorer();
+
+		double nearDuplicate = scorer.score(records.get(0), records.get(1));
+		double unrelated = scorer.score(records.get(0), records.get(3));
+
+		assertTrue(nearDuplicate > 0.85, "score was " + nearDuplicate);
+		assertTrue(unrelated < 0.6, "score was " + unrelated);
+		assertEquals(1.0, scorer.score(records.get(2), records.get(2)), 0.0001);
+	}
+
+	/**
+	 * @see DuplicatePatientDetector#detect(DuplicatePatientDetector.RecordSource,DuplicatePatientDetector.BlockingKeyStore,String,DuplicatePatientDetector.MatchListener)
+	 */
+	@Test
+	public void detect_shouldOnlyReportPairsScoringAtLeastTheThreshold() {
+		DuplicatePatientDetector detector = new DuplicatePatientDetector();
+		detector.setPageSize(2);
+		detector.setThreads(2);
+		List<DuplicatePatientMatch> found = Collections.synchronizedList(new ArrayList<>());
+
+		InMemorySource source = new InMemorySource(records);
+		int count = detector.detect(source, source, null, (matches, checkpoint) -> found.addAll(matches));
+
+		assertEquals(2, count);
+		assertEquals(2, found.size());
+		for (DuplicatePatientMatch match : found) {
+			assertTrue(match.getPatientId() == 1 && match.getDuplicatePatientId() == 2
+			        || match.getPatientId() == 3 && match.getDuplicatePatientId() == 5, match.toString());
+		}
+	}
+
+	/**
+	 * @see DuplicatePatientDetector#detect(DuplicatePatientDetector.RecordSource,DuplicatePatientDetector.BlockingKeyStore,String,DuplicatePatientDetector.MatchListener)
+	 */
+	@Test
+	public void detect_shouldResumeAfterTheCheckpoint() {
+		DuplicatePatientDetector detector = new DuplicatePatientDetector();
+		detector.setBlocksPerChunk(1);
+		InMemorySource source = new InMemorySource(records);
+		List<String> checkpoints = new ArrayList<>();
+		detector.detect(source, source, null, (matches, checkpoint) -> checkpoints.add(checkpoint));
+		assertTrue(checkpoints.size() > 1);
+		assertEquals(records.size(), source.pagedRecords);
+
+		List<String> resumed = new ArrayList<>();
+		detector.detect(source, source, checkpoints.get(0), (matches, checkpoint) -> resumed.add(checkpoint));
+
+		assertEquals(checkpoints.subList(1, checkpoints.size()), resumed);
+		// the resumed run compares the blocks from the stored keys without reading all patients again
+		assertEquals(records.size(), source.pagedRecords);
+	}
+
+	/**
+	 * @see DuplicatePatientDetector#detect(DuplicatePatientDetector.RecordSource,DuplicatePatientDetector.BlockingKeyStore,String,DuplicatePatientDetector.MatchListener)
+	 */
+	@Test
+	public void detect_shouldSkipBlocksLargerThanTheMaximumBlockSize() {
+		DuplicatePatientDetector detector = new DuplicatePatientDetector();
+		detector.setMaxBlockSize(1);
+
+		InMemorySource source = new InMemorySource(records);
+
+		assertEquals(0, detector.detect(source, source, null, (matches, checkpoint) -> {}));
+	}
+
+	/**
+	 * @see DuplicatePatientDetector#detect(DuplicatePatientDetector.RecordSource,DuplicatePatientDetector.BlockingKeyStore,String,DuplicatePatientDetector.MatchListener)
+	 */
+	@Test
+	public void detect_shouldCompareBlocksSpanningSeveralPagesOfKeys() {
+		List<DuplicatePatientRecord> sameName = new ArrayList<>();
+		for (int i = 1; i <= 7; i++) {
+			sameName.add(record(i, "Mary", "Okello", date(1990, 7, 1), "F"));
+		}
+		DuplicatePatientDetector detector = new DuplicatePatientDetector();
+		detector.setPageSize(3);
+		InMemorySource source = new InMemorySource(sameName);
+
+		// all 21 pairs share both the name and the birth year block
+		assertEquals(21, detector.detect(source, source, null, (matches, checkpoint) -> {}));
+	}
+}
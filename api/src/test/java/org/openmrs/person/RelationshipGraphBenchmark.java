@@ -0,0 +1,218 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.person;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openmrs.Relationship;
+
+/**
+ * Compares walking the relationships of a person hop by hop, with the two queries per person that
+ * <code>PersonService#getRelationshipsByPerson(Person, Date)</code> made on the start and end dates
+ * before the effective dates were added, with the queries of
+ * <code>PersonService#getRelationshipGraph</code>: two queries per hop for the whole frontier on the
+ * indexed effective dates. Both run against an in-memory H2 relationship table of households with a
+ * link from each member to another household, with the indexes of the liquibase changeset. <br>
+ * <br>
+ * It is not run as part of the build, after <code>mvn -pl api test-compile</code> run
+ * {@link #main(String[])} or <code>org.openjdk.jmh.Main RelationshipGraphBenchmark</code> with the
+ * test classpath of the api module.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RelationshipGraphBenchmark {
+
+	private static final String PER_PERSON_DATES = " and (start_date is null or start_date <= ?)"
+	        + " and (end_date is null or end_date >= ?)";
+
+	// the condition of HibernatePersonDAO
+	private static final String EFFECTIVE_DATES = " and effective_start_date <= ? and effective_end_date >= ?";
+
+	private static final int HOUSEHOLD_SIZE = 6;
+
+	private static final int IN_CLAUSE_SIZE = 1000;
+
+	/**
+	 * The number of persons in the relationship table
+	 */
+	@Param({ "10000", "100000" })
+	public int persons;
+
+	/**
+	 * The number of relationships followed from the first person
+	 */
+	@Param({ "2", "4" })
+	public int hops;
+
+	private Connection connection;
+
+	private Timestamp effectiveDate;
+
+	@Setup
+	public void setup() throws SQLException {
+		connection = DriverManager.getConnection("jdbc:h2:mem:relationshipGraphBenchmark;DB_CLOSE_DELAY=-1");
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("drop table if exists relationship");
+			statement.execute("create table relationship (relationship_id int primary key, person_a int not null,"
+			        + " person_b int not null, start_date timestamp, end_date timestamp, effective_start_date timestamp not null,"
+			        + " effective_end_date timestamp not null, voided boolean not null)");
+			statement.execute("create index relationship_person_a on relationship (person_a)");
+			statement.execute("create index relationship_person_b on relationship (person_b)");
+			statement.execute("create index relationship_person_a_effective_dates on relationship"
+			        + " (person_a, effective_start_date, effective_end_date)");
+			statement.execute("create index relationship_person_b_effective_dates on relationship"
+			        + " (person_b, effective_start_date, effective_end_date)");
+		}
+
+		Random random = new Random(42);
+		Timestamp openStart = new Timestamp(Relationship.getOpenStartDate().getTime());
+		Timestamp openEnd = new Timestamp(Relationship.getOpenEndDate().getTime());
+		try (PreparedStatement insert = connection.prepareStatement("insert into relationship values"
+		        + " (?, ?, ?, ?, ?, ?, ?, false)")) {
+			int relationshipId = 0;
+			for (int person = 1; person <= persons; person++) {
+				int household = (person - 1) / HOUSEHOLD_SIZE;
+				List<Integer> relatives = new ArrayList<>();
+				// the next member of the household, and someone in another household
+				if ((person - 1) % HOUSEHOLD_SIZE < HOUSEHOLD_SIZE - 1 && person < persons) {
+					relatives.add(person + 1);
+				}
+				int other = 1 + random.nextInt(persons);
+				if ((other - 1) / HOUSEHOLD_SIZE != household) {
+					relatives.add(other);
+				}
+				for (Integer relative : relatives) {
+					Timestamp start = random.nextInt(3) == 0 ? null : new Timestamp(
+					        Timestamp.valueOf("1990-01-01 00:00:00").getTime() + random.nextInt(10000) * 86400000L);
+					Timestamp end = random.nextInt(2) == 0 ? null : new Timestamp(
+					        Timestamp.valueOf("2010-01-01 00:00:00").getTime() + random.nextInt(10000) * 86400000L);
+					insert.setInt(1, ++relationshipId);
+					insert.setInt(2, person);
+					insert.setInt(3, relative);
+					insert.setTimestamp(4, start);
+					insert.setTimestamp(5, end);
+					insert.setTimestamp(6, start != null ? start : openStart);
+					insert.setTimestamp(7, end != null ? end : openEnd);
+					insert.addBatch();
+				}
+			}
+			insert.executeBatch();
+		}
+		effectiveDate = Timestamp.valueOf("2015-06-01 00:00:00");
+	}
+
+	@TearDown
+	public void tearDown() throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("drop table relationship");
+		}
+		connection.close();
+	}
+
+	@Benchmark
+	public Set<Integer> perPersonHopByHop() throws SQLException {
+		Set<Integer> reached = new HashSet<>(Collections.singleton(1));
+		List<Integer> frontier = Collections.singletonList(1);
+		try (PreparedStatement personA = connection.prepareStatement("select person_b from relationship"
+		        + " where person_a = ? and voided = false" + PER_PERSON_DATES);
+		        PreparedStatement personB = connection.prepareStatement("select person_a from relationship"
+		                + " where person_b = ? and voided = false" + PER_PERSON_DATES)) {
+			for (int hop = 0; hop < hops && !frontier.isEmpty(); hop++) {
+				List<Integer> next = new ArrayList<>();
+				for (Integer person : frontier) {
+					for (PreparedStatement side : new PreparedStatement[] { personA, personB }) {
+						side.setInt(1, person);
+						side.setTimestamp(2, effectiveDate);
+						side.setTimestamp(3, effectiveDate);
+						addRelatives(side, reached, next);
+					}
+				}
+				frontier = next;
+			}
+		}
+		return reached;
+	}
+
+	@Benchmark
+	public Set<Integer> graph() throws SQLException {
+		Set<Integer> reached = new HashSet<>(Collections.singleton(1));
+		List<Integer> frontier = Collections.singletonList(1);
+		for (int hop = 0; hop < hops && !frontier.isEmpty(); hop++) {
+			List<Integer> next = new ArrayList<>();
+			for (int start = 0; start < frontier.size(); start += IN_CLAUSE_SIZE) {
+				List<Integer> chunk = frontier.subList(start, Math.min(start + IN_CLAUSE_SIZE, frontier.size()));
+				String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+				for (String[] sides : new String[][] { { "person_b", "person_a" }, { "person_a", "person_b" } }) {
+					try (PreparedStatement side = connection.prepareStatement("select " + sides[0]
+					        + " from relationship where " + sides[1] + " in (" + placeholders + ") and voided = false"
+					        + EFFECTIVE_DATES)) {
+						int index = 1;
+						for (Integer person : chunk) {
+							side.setInt(index++, person);
+						}
+						side.setTimestamp(index++, effectiveDate);
+						side.setTimestamp(index, effectiveDate);
+						addRelatives(side, reached, next);
+					}
+				}
+			}
+			frontier = next;
+		}
+		return reached;
+	}
+
+	private static void addRelatives(PreparedStatement query, Set<Integer> reached, List<Integer> next)
+	        throws SQLException {
+		try (ResultSet relatives = query.executeQuery()) {
+			while (relatives.next()) {
+				int relative = relatives.getInt(1);
+				if (reached.add(relative)) {
+					next.add(relative);
+				}
+			}
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(RelationshipGraphBenchmark.class.getSimpleName()).build()).run();
+	}
+}
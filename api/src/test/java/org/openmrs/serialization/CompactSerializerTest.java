@@ -0,0 +1,127 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.serialization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.hibernate.collection.internal.PersistentSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openmrs.person.PersonMergeLogData;
+
+public class CompactSerializerTest {
+
+	private CompactSerializer serializer;
+
+	@BeforeEach
+	public void before() throws SerializationException {
+		serializer = new CompactSerializer();
+		serializer.setXmlSerializer(new SimpleXStreamSerializer());
+	}
+
+	private PersonMergeLogData mergeLogData() {
+		PersonMergeLogData data = new PersonMergeLogData();
+		data.addMovedEncounter("encounter-uuid-1");
+		data.addMovedEncounter("encounter-uuid-2");
+		data.addCreatedIdentifier("identifier-uuid");
+		data.setPriorGender("F");
+		data.setPriorDateOfBirth(new Date(0));
+		return data;
+	}
+
+	/**
+	 * @see CompactSerializer#serialize(Object)
+	 * @see CompactSerializer#deserialize(String,Class)
+	 */
+	@Test
+	public void deserialize_shouldDeserializeDataWrittenBySerialize() throws SerializationException {
+		String serialized = serializer.serialize(mergeLogData());
+
+		assertTrue(serialized.startsWith("OMRS-SMILE/" + CompactSerializer.FORMAT_VERSION + ":"));
+		PersonMergeLogData data = serializer.deserialize(serialized, PersonMergeLogData.class);
+		assertEquals(Arrays.asList("encounter-uuid-1", "encounter-uuid-2"), data.getMovedEncounters());
+		assertEquals(Arrays.asList("identifier-uuid"), data.getCreatedIdentifiers());
+		assertEquals("F", data.getPriorGender());
+		assertEquals(new Date(0), data.getPriorDateOfBirth());
+	}
+
+	/**
+	 * @see CompactSerializer#deserialize(String,Class)
+	 */
+	@Test
+	public void deserialize_shouldDeserializeXmlWrittenByTheSimpleXStreamSerializer() throws SerializationException {
+		String xml = new SimpleXStreamSerializer().serialize(mergeLogData());
+
+		PersonMergeLogData data = serializer.deserialize(xml, PersonMergeLogData.class);
+
+		assertEquals(Arrays.asList("encounter-uuid-1", "encounter-uuid-2"), data.getMovedEncounters());
+		assertEquals("F", data.getPriorGender());
+	}
+
+	/**
+	 * @see CompactSerializer#deserialize(String,Class)
+	 */
+	@Test
+	public void deserialize_shouldFailForAnUnsupportedFormatVersion() throws SerializationException {
+		String serialized = serializer.serialize(mergeLogData());
+		String future = serialized.replaceFirst("OMRS-SMILE/\\d+:", "OMRS-SMILE/99:");
+
+		SerializationException e = assertThrows(SerializationException.class,
+		    () -> serializer.deserialize(future, PersonMergeLogData.class));
+		assertTrue(e.getMessage().contains("unsupported format version 99"));
+	}
+
+	/**
+	 * @see CompactSerializer#deserialize(String,Class)
+	 */
+	@Test
+	public void deserialize_shouldFailForDataThatDoesNotMatchTheRequestedClass() throws SerializationException {
+		String serialized = serializer.serialize(new Foo("test", 1));
+
+		assertThrows(SerializationException.class, () -> serializer.deserialize(serialized, PersonMergeLogData.class));
+	}
+
+	/**
+	 * @see CompactSerializer#serialize(Object)
+	 */
+	@Test
+	public void serialize_shouldWriteHibernateCollectionsAsPlainCollections() throws SerializationException {
+		Set<String> values = new HashSet<>(Arrays.asList("a", "b"));
+
+		Set<?> copy = serializer.deserialize(serializer.serialize(new PersistentSet(null, values)), Set.class);
+
+		assertEquals(values, copy);
+	}
+
+	/**
+	 * @see CompactSerializer#serialize(Object)
+	 */
+	@Test
+	public void serialize_shouldFailForObjectsWithCycles() {
+		Node first = new Node();
+		Node second = new Node();
+		first.next = second;
+		second.next = first;
+
+		assertThrows(SerializationException.class, () -> serializer.serialize(first));
+	}
+
+	private static class Node {
+
+		private Node next;
+	}
+}
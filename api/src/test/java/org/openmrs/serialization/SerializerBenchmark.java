@@ -0,0 +1,114 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.serialization;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openmrs.person.PersonMergeLogData;
+
+/**
+ * Compares the {@link SimpleXStreamSerializer} with the {@link CompactSerializer} on the merge log
+ * data written when merging patients, with a small and a large patient record. It is not run as part
+ * of the build, after <code>mvn -pl api test-compile</code> run {@link #main(String[])} or
+ * <code>org.openjdk.jmh.Main SerializerBenchmark</code> with the test classpath of the api module.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerBenchmark {
+
+	/**
+	 * The number of encounters moved by the merge, the other lists are sized relative to it
+	 */
+	@Param({ "10", "500" })
+	public int encounters;
+
+	private SimpleXStreamSerializer xstream;
+
+	private CompactSerializer compact;
+
+	private PersonMergeLogData data;
+
+	private String xml;
+
+	private String binary;
+
+	@Setup
+	public void setup() throws SerializationException {
+		xstream = new SimpleXStreamSerializer();
+		compact = new CompactSerializer();
+		compact.setXmlSerializer(xstream);
+
+		data = new PersonMergeLogData();
+		for (int i = 0; i < encounters; i++) {
+			data.addMovedEncounter(UUID.randomUUID().toString());
+			data.addMovedIndependentObservation(UUID.randomUUID().toString());
+			data.addMovedIndependentObservation(UUID.randomUUID().toString());
+		}
+		for (int i = 0; i < Math.max(1, encounters / 5); i++) {
+			data.addMovedVisit(UUID.randomUUID().toString());
+			data.addCreatedOrder(UUID.randomUUID().toString());
+		}
+		data.addCreatedIdentifier(UUID.randomUUID().toString());
+		data.addCreatedName(UUID.randomUUID().toString());
+		data.addCreatedAddress(UUID.randomUUID().toString());
+		data.addCreatedProgram(UUID.randomUUID().toString());
+		data.addVoidedRelationship(UUID.randomUUID().toString());
+		data.addCreatedRelationship(UUID.randomUUID().toString());
+		data.setPriorGender("M");
+		data.setPriorDateOfBirth(new Date());
+
+		xml = xstream.serialize(data);
+		binary = compact.serialize(data);
+	}
+
+	@Benchmark
+	public String serializeXStream() throws SerializationException {
+		return xstream.serialize(data);
+	}
+
+	@Benchmark
+	public String serializeCompact() throws SerializationException {
+		return compact.serialize(data);
+	}
+
+	@Benchmark
+	public PersonMergeLogData deserializeXStream() throws SerializationException {
+		return xstream.deserialize(xml, PersonMergeLogData.class);
+	}
+
+	@Benchmark
+	public PersonMergeLogData deserializeCompact() throws SerializationException {
+		return compact.deserialize(binary, PersonMergeLogData.class);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(SerializerBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -74,9 +74,11 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.openmrs.ConceptName;
 import org.openmrs.Drug;
+import org.openmrs.Encounter;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PersonAttribute;
 import org.openmrs.PersonName;
+import org.openmrs.Provider;
 import org.openmrs.User;
 import org.openmrs.module.OpenmrsProfileExcludeFilter;
 import org.openmrs.api.context.Context;
@@ -89,6 +91,7 @@ import org.openmrs.util.DatabaseUtil;
 import org.openmrs.util.OpenmrsClassLoader;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
+import org.openmrs.util.databasechange.ConceptNameKeyChangeSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.test.annotation.Rollback;
@@ -836,12 +839,37 @@ public abstract class BaseContextSensitiveTest extends AbstractJUnit4SpringConte
 			//Do the actual update/insert:
 			//insert new rows, update existing rows, and leave others alone
 			DatabaseOperation.REFRESH.execute(dbUnitConn, dataset);
+			
+			if (containsTable(dataset, "concept", "concept_name")) {
+				new ConceptNameKeyChangeSet().updateConceptNameKeys(connection);
+			}
 		}
 		catch (DatabaseUnitException | SQLException e) {
 			throw new DatabaseUnitRuntimeException(e);
 		}
 	}
 	
+	/**
+	 * The concept name keys are maintained when saving concepts through the API, they need to be
+	 * rebuilt when the rows are inserted by a dataset
+	 */
+	private boolean containsTable(IDataSet dataset, String... tableNames) throws DataSetException {
+		try {
+			for (String datasetTableName : dataset.getTableNames()) {
+				for (String tableName : tableNames) {
+					if (tableName.equalsIgnoreCase(datasetTableName)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+		catch (UnsupportedOperationException e) {
+			// streamed datasets cannot list their tables
+			return true;
+		}
+	}
+	
 	protected IDatabaseConnection setupDatabaseConnection(Connection connection) throws DatabaseUnitException {
 		IDatabaseConnection dbUnitConn = new DatabaseConnection(connection);
 		DatabaseConfig config = dbUnitConn.getConfig();
@@ -967,7 +995,7 @@ public abstract class BaseContextSensitiveTest extends AbstractJUnit4SpringConte
 	
 	public Class<?>[] getIndexedTypes() {
 		return new Class<?>[] { ConceptName.class, Drug.class, PersonName.class, PersonAttribute.class,
-				PatientIdentifier.class};
+				PatientIdentifier.class, Provider.class, User.class, Encounter.class };
 	}
 	
 	/**
@@ -64,9 +64,11 @@ import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.openmrs.ConceptName;
 import org.openmrs.Drug;
+import org.openmrs.Encounter;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PersonAttribute;
 import org.openmrs.PersonName;
+import org.openmrs.Provider;
 import org.openmrs.User;
 import org.openmrs.module.OpenmrsProfileExcludeFilter;
 import org.openmrs.api.context.Context;
@@ -84,6 +86,7 @@ import org.openmrs.util.DatabaseUtil;
 import org.openmrs.util.OpenmrsClassLoader;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
+import org.openmrs.util.databasechange.ConceptNameKeyChangeSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -827,6 +830,10 @@ public abstract class BaseContextSensitiveTest {
 			//insert new rows, update existing rows, and leave others alone
 			DatabaseOperation.REFRESH.execute(dbUnitConn, dataset);
 			
+			if (containsTable(dataset, "concept", "concept_name")) {
+				new ConceptNameKeyChangeSet().updateConceptNameKeys(connection);
+			}
+			
 			if (isPostgreSQL()) {
 				Context.getAdministrationService().updatePostgresSequence();
 			}
@@ -840,6 +847,27 @@ public abstract class BaseContextSensitiveTest {
 		return "postgres".equals(System.getProperty("database"));
 	}
 	
+	/**
+	 * The concept name keys are maintained when saving concepts through the API, they need to be
+	 * rebuilt when the rows are inserted by a dataset
+	 */
+	private boolean containsTable(IDataSet dataset, String... tableNames) throws DataSetException {
+		try {
+			for (String datasetTableName : dataset.getTableNames()) {
+				for (String tableName : tableNames) {
+					if (tableName.equalsIgnoreCase(datasetTableName)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+		catch (UnsupportedOperationException e) {
+			// streamed datasets cannot list their tables
+			return true;
+		}
+	}
+	
 	protected IDatabaseConnection setupDatabaseConnection(Connection connection) throws DatabaseUnitException {
 		IDatabaseConnection dbUnitConn = new DatabaseConnection(connection);
 		DatabaseConfig config = dbUnitConn.getConfig();
@@ -976,7 +1004,7 @@ public abstract class BaseContextSensitiveTest {
 	
 	public Class<?>[] getIndexedTypes() {
 		return new Class<?>[] { ConceptName.class, Drug.class, PersonName.class, PersonAttribute.class,
-				PatientIdentifier.class};
+				PatientIdentifier.class, Provider.class, User.class, Encounter.class };
 	}
 	
 	/**
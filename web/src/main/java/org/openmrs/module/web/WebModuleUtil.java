@@ -99,6 +99,127 @@ public class WebModuleUtil {
 	
 	private static StaticDispatcherServlet staticDispatcherServlet = null;
 	
+	/**
+	 * Copies the web files of the given module (from /web/module/ in the module) into the webapp.
+	 * Every module has its own directories, so this can be done for several modules at once.
+	 *
+	 * @param mod the module to extract the web files of
+	 * @param servletContext the current ServletContext
+	 * @return true if the module has a spring context file that requires a refresh of the web
+	 *         application context
+	 * @since 2.7.0
+	 */
+	public static boolean extractModuleResources(Module mod, ServletContext servletContext) {
+		String realPath = getRealPath(servletContext);
+		
+		if (realPath == null) {
+			realPath = System.getProperty("user.dir");
+		}
+		
+		File webInf = new File(realPath + "/WEB-INF".replace("/", File.separator));
+		if (!webInf.exists()) {
+			webInf.mkdir();
+		}
+		
+		// flag to tell whether the module has spring configuration that necessitates a refresh
+		// of the web application context
+		boolean moduleNeedsContextRefresh = false;
+		
+		// copy the html files into the webapp (from /web/module/ in the module)
+		// also looks for a spring context file. If found, schedules spring to be restarted
+		JarFile jarFile = null;
+		OutputStream outStream = null;
+		InputStream inStream = null;
+		try {
+			File modFile = mod.getFile();
+			jarFile = new JarFile(modFile);
+			Enumeration<JarEntry> entries = jarFile.entries();
+			
+			while (entries.hasMoreElements()) {
+				JarEntry entry = entries.nextElement();
+				String name = entry.getName();
+				log.debug("Entry name: " + name);
+				if (name.startsWith("web/module/")) {
+					// trim out the starting path of "web/module/"
+					String filepath = name.substring(11);
+					
+					StringBuilder absPath = new StringBuilder(realPath + "/WEB-INF");
+					
+					// If this is within the tag file directory, copy it into /WEB-INF/tags/module/moduleId/...
+					if (filepath.startsWith("tags/")) {
+						filepath = filepath.substring(5);
+						absPath.append("/tags/module/");
+					}
+					// Otherwise, copy it into /WEB-INF/view/module/moduleId/...
+					else {
+						absPath.append("/view/module/");
+					}
+					
+					// if a module id has a . in it, we should treat that as a /, i.e. files in the module
+					// ui.springmvc should go in folder names like .../ui/springmvc/...
+					absPath.append(mod.getModuleIdAsPath()).append("/").append(filepath);
+					log.debug("Moving file from: {} to {}", name, absPath);
+					
+					// get the output file
+					File outFile = new File(absPath.toString().replace("/", File.separator));
+					if (entry.isDirectory()) {
+						if (!outFile.exists()) {
+							outFile.mkdirs();
+						}
+					} else {
+						// make the parent directories in case it doesn't exist
+						File parentDir = outFile.getParentFile();
+						if (!parentDir.exists()) {
+							parentDir.mkdirs();
+						}
+						
+						// copy the contents over to the webapp for non directories
+						outStream = new FileOutputStream(outFile, false);
+						inStream = jarFile.getInputStream(entry);
+						OpenmrsUtil.copyFile(inStream, outStream);
+					}
+				} else if ("moduleApplicationContext.xml".equals(name) || "webModuleApplicationContext.xml".equals(name)) {
+					moduleNeedsContextRefresh = true;
+				} else if (name.equals(mod.getModuleId() + "Context.xml")) {
+					String msg = "DEPRECATED: '" + name
+					        + "' should be named 'moduleApplicationContext.xml' now. Please update/upgrade. ";
+					throw new ModuleException(msg, mod.getModuleId());
+				}
+			}
+		}
+		catch (IOException io) {
+			log.warn("Unable to copy files from module " + mod.getModuleId() + " to the web layer", io);
+		}
+		finally {
+			if (jarFile != null) {
+				try {
+					jarFile.close();
+				}
+				catch (IOException io) {
+					log.warn("Couldn't close jar file: " + jarFile.getName(), io);
+				}
+			}
+			if (inStream != null) {
+				try {
+					inStream.close();
+				}
+				catch (IOException io) {
+					log.warn("Couldn't close InputStream: " + io);
+				}
+			}
+			if (outStream != null) {
+				try {
+					outStream.close();
+				}
+				catch (IOException io) {
+					log.warn("Couldn't close OutputStream: " + io);
+				}
+			}
+		}
+		
+		return moduleNeedsContextRefresh;
+	}
+	
 	/**
 	 * Performs the webapp specific startup needs for modules Normal startup is done in
 	 * {@link ModuleFactory#startModule(Module)} If delayContextRefresh is true, the spring context
@@ -116,6 +237,24 @@ public class WebModuleUtil {
 	 * @return boolean whether or not the spring context need to be refreshed
 	 */
 	public static boolean startModule(Module mod, ServletContext servletContext, boolean delayContextRefresh) {
+		return startModule(mod, servletContext, delayContextRefresh, null);
+	}
+	
+	/**
+	 * Performs the webapp specific startup needs for modules like
+	 * {@link #startModule(Module, ServletContext, boolean)}, the web files of the module may have
+	 * been extracted already with {@link #extractModuleResources(Module, ServletContext)}.
+	 *
+	 * @param mod Module to start
+	 * @param servletContext the current ServletContext
+	 * @param delayContextRefresh true/false whether or not to do the context refresh
+	 * @param resourcesNeedContextRefresh the value returned by extracting the web files of the
+	 *            module, null if they were not extracted yet
+	 * @return boolean whether or not the spring context need to be refreshed
+	 * @since 2.7.0
+	 */
+	public static boolean startModule(Module mod, ServletContext servletContext, boolean delayContextRefresh,
+	        Boolean resourcesNeedContextRefresh) {
 		
 		log.debug("trying to start module {}", mod);
 		
@@ -129,106 +268,10 @@ public class WebModuleUtil {
 				realPath = System.getProperty("user.dir");
 			}
 			
-			File webInf = new File(realPath + "/WEB-INF".replace("/", File.separator));
-			if (!webInf.exists()) {
-				webInf.mkdir();
-			}
-			
 			// flag to tell whether we added any xml/dwr/etc changes that necessitate a refresh
 			// of the web application context
-			boolean moduleNeedsContextRefresh = false;
-			
-			// copy the html files into the webapp (from /web/module/ in the module)
-			// also looks for a spring context file. If found, schedules spring to be restarted
-			JarFile jarFile = null;
-			OutputStream outStream = null;
-			InputStream inStream = null;
-			try {
-				File modFile = mod.getFile();
-				jarFile = new JarFile(modFile);
-				Enumeration<JarEntry> entries = jarFile.entries();
-				
-				while (entries.hasMoreElements()) {
-					JarEntry entry = entries.nextElement();
-					String name = entry.getName();
-					log.debug("Entry name: " + name);
-					if (name.startsWith("web/module/")) {
-						// trim out the starting path of "web/module/"
-						String filepath = name.substring(11);
-						
-						StringBuilder absPath = new StringBuilder(realPath + "/WEB-INF");
-						
-						// If this is within the tag file directory, copy it into /WEB-INF/tags/module/moduleId/...
-						if (filepath.startsWith("tags/")) {
-							filepath = filepath.substring(5);
-							absPath.append("/tags/module/");
-						}
-						// Otherwise, copy it into /WEB-INF/view/module/moduleId/...
-						else {
-							absPath.append("/view/module/");
-						}
-						
-						// if a module id has a . in it, we should treat that as a /, i.e. files in the module
-						// ui.springmvc should go in folder names like .../ui/springmvc/...
-						absPath.append(mod.getModuleIdAsPath()).append("/").append(filepath);
-						log.debug("Moving file from: {} to {}", name, absPath);
-						
-						// get the output file
-						File outFile = new File(absPath.toString().replace("/", File.separator));
-						if (entry.isDirectory()) {
-							if (!outFile.exists()) {
-								outFile.mkdirs();
-							}
-						} else {
-							// make the parent directories in case it doesn't exist
-							File parentDir = outFile.getParentFile();
-							if (!parentDir.exists()) {
-								parentDir.mkdirs();
-							}
-							
-							// copy the contents over to the webapp for non directories
-							outStream = new FileOutputStream(outFile, false);
-							inStream = jarFile.getInputStream(entry);
-							OpenmrsUtil.copyFile(inStream, outStream);
-						}
-					} else if ("moduleApplicationContext.xml".equals(name) || "webModuleApplicationContext.xml".equals(name)) {
-						moduleNeedsContextRefresh = true;
-					} else if (name.equals(mod.getModuleId() + "Context.xml")) {
-						String msg = "DEPRECATED: '" + name
-						        + "' should be named 'moduleApplicationContext.xml' now. Please update/upgrade. ";
-						throw new ModuleException(msg, mod.getModuleId());
-					}
-				}
-			}
-			catch (IOException io) {
-				log.warn("Unable to copy files from module " + mod.getModuleId() + " to the web layer", io);
-			}
-			finally {
-				if (jarFile != null) {
-					try {
-						jarFile.close();
-					}
-					catch (IOException io) {
-						log.warn("Couldn't close jar file: " + jarFile.getName(), io);
-					}
-				}
-				if (inStream != null) {
-					try {
-						inStream.close();
-					}
-					catch (IOException io) {
-						log.warn("Couldn't close InputStream: " + io);
-					}
-				}
-				if (outStream != null) {
-					try {
-						outStream.close();
-					}
-					catch (IOException io) {
-						log.warn("Couldn't close OutputStream: " + io);
-					}
-				}
-			}
+			boolean moduleNeedsContextRefresh = resourcesNeedContextRefresh != null ? resourcesNeedContextRefresh
+			        : extractModuleResources(mod, servletContext);
 			
 			// find and add the dwr code to the dwr-modules.xml file (if defined)
 			InputStream inputStream = null;
@@ -704,20 +704,44 @@ public final class Listener extends ContextLoader implements ServletContextListe
 	public static void performWebStartOfModules(Collection<Module> startedModules, ServletContext servletContext)
 	        throws ModuleMustStartException, Exception {
 		
+		ModuleStartupPlanner planner = ModuleFactory.getStartupPlanner();
+		List<Module> modulesInStartupOrder = new ArrayList<>();
+		for (Module mod : ModuleFactory.getStartedModulesInOrder()) {
+			if (startedModules.contains(mod)) {
+				modulesInStartupOrder.add(mod);
+			}
+		}
+		if (planner == null) {
+			planner = new ModuleStartupPlanner(modulesInStartupOrder);
+		}
+		
 		boolean someModuleNeedsARefresh = false;
-		for (Module mod : startedModules) {
-			try {
-				boolean thisModuleCausesRefresh = WebModuleUtil.startModule(mod, servletContext,
-				    /* delayContextRefresh */true);
-				someModuleNeedsARefresh = someModuleNeedsARefresh || thisModuleCausesRefresh;
+		for (List<Module> layer : ModuleStartupPlanner.getStartupLayers(modulesInStartupOrder)) {
+			// modules extract their web files into their own directories, do it for the whole layer at once
+			List<Module> toExtract = new ArrayList<>();
+			for (Module mod : layer) {
+				if (ModuleFactory.isModuleStarted(mod) && !mod.hasStartupError()) {
+					toExtract.add(mod);
+				}
 			}
-			catch (Exception e) {
-				mod.setStartupErrorMessage("Unable to start module", e);
+			Map<Module, Boolean> extracted = planner.runInParallel(toExtract, "web resources",
+			    mod -> WebModuleUtil.extractModuleResources(mod, servletContext));
+			
+			for (Module mod : layer) {
+				try {
+					boolean thisModuleCausesRefresh = planner.time(mod, "web start", m -> WebModuleUtil.startModule(m,
+					    servletContext, /* delayContextRefresh */true, extracted.get(m)));
+					someModuleNeedsARefresh = someModuleNeedsARefresh || thisModuleCausesRefresh;
+				}
+				catch (Exception e) {
+					mod.setStartupErrorMessage("Unable to start module", e);
+				}
 			}
 		}
 		
 		if (someModuleNeedsARefresh) {
 			try {
+				// the context is refreshed once for all modules, rather than once per module
 				WebModuleUtil.refreshWAC(servletContext, true, null);
 			}
 			catch (ModuleMustStartException | BeanCreationException ex) {
@@ -767,10 +791,14 @@ public final class Listener extends ContextLoader implements ServletContextListe
 		// because we delayed the refresh, we need to load+start all servlets and filters now
 		// (this is to protect servlets/filters that depend on their module's spring xml config being available)
 		for (Module mod : ModuleFactory.getStartedModulesInOrder()) {
-			WebModuleUtil.loadServlets(mod, servletContext);
-			WebModuleUtil.loadFilters(mod, servletContext);
+			planner.time(mod, "servlets and filters", m -> {
+				WebModuleUtil.loadServlets(m, servletContext);
+				WebModuleUtil.loadFilters(m, servletContext);
+				return null;
+			});
 		}
 		servletContext.setAttribute(OpenmrsJspServlet.OPENMRS_TLD_SCAN_NEEDED, true);
+		log.info(planner.getTimingReport());
 	}
 	
 	/**
@@ -10,6 +10,14 @@
 package org.openmrs.web.filter;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -17,7 +25,9 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
+import org.apache.commons.lang3.StringUtils;
 import org.openmrs.User;
+import org.openmrs.api.context.AuthenticationScheme;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.context.UserContext;
 import org.openmrs.util.OpenmrsClassLoader;
@@ -32,12 +42,41 @@ import org.springframework.web.filter.OncePerRequestFilter;
  * userContext (which holds the user's authenticated info). This is needed because the OpenMRS API
  * keeps authentication information on the current Thread. Web applications use a different thread
  * per request, so before each request this filter will make sure that the UserContext (the
- * authentication information) is on the Thread.
+ * authentication information) is on the Thread. <br>
+ * <br>
+ * When the {@link #SESSIONLESS_ENABLED_PROPERTY} runtime property is true, requests for the paths
+ * listed in the {@link #SESSIONLESS_PATHS_PROPERTY} runtime property, static resources by default,
+ * are handled without creating a session. They get a user context from a pool for the duration of
+ * the request instead. Stateless API clients authenticated by their own Authorization header can be
+ * handled the same way by adding the paths they call to the runtime property.
  */
 public class OpenmrsFilter extends OncePerRequestFilter {
 	
 	private static final Logger log = LoggerFactory.getLogger(OpenmrsFilter.class);
 	
+	/**
+	 * The runtime property enabling the sessionless handling of requests, see
+	 * {@link #isSessionless(HttpServletRequest)}
+	 */
+	public static final String SESSIONLESS_ENABLED_PROPERTY = "openmrsFilter.sessionless.enabled";
+	
+	/**
+	 * The runtime property holding the comma separated paths, relative to the context path, that are
+	 * always handled without a session when the sessionless mode is enabled
+	 */
+	public static final String SESSIONLESS_PATHS_PROPERTY = "openmrsFilter.sessionless.paths";
+	
+	/**
+	 * The sessionless paths used when the {@link #SESSIONLESS_PATHS_PROPERTY} is not set
+	 */
+	public static final String DEFAULT_SESSIONLESS_PATHS = "/moduleResources/*,/scripts/*,/images/*,/style/*,/favicon.ico";
+	
+	private static final int MAX_POOLED_USER_CONTEXTS = 64;
+	
+	private volatile SessionlessSettings sessionlessSettings;
+	
+	private volatile UserContextPool userContextPool;
+	
 	/**
 	 * @see javax.servlet.Filter#destroy()
 	 */
@@ -58,6 +97,11 @@ public class OpenmrsFilter extends OncePerRequestFilter {
 	protected void doFilterInternal(HttpServletRequest httpRequest, HttpServletResponse httpResponse, FilterChain chain)
 	        throws ServletException, IOException {
 		
+		if (isSessionless(httpRequest)) {
+			doFilterSessionless(httpRequest, httpResponse, chain);
+			return;
+		}
+		
 		HttpSession httpSession = httpRequest.getSession();
 		
 		// used by htmlInclude tag
@@ -94,14 +138,7 @@ public class OpenmrsFilter extends OncePerRequestFilter {
 		// set the locale on the session (for the servlet container as well)
 		httpSession.setAttribute("locale", userContext.getLocale());
 		
-		//TODO We do not cache the csrfguard javascript file because it contains the
-		//csrf token that is dynamically embedded in forms. For this to work,
-		//the OpenmrsFilter should be before the CSRFGuard filter in web.xml
-		if (httpRequest.getRequestURI().endsWith("csrfguard")) {
-			httpResponse.setHeader("Cache-Control", "no-cache, no-store, must-revalidate"); // HTTP 1.1.
-			httpResponse.setHeader("Pragma", "no-cache"); // HTTP 1.0.
-			httpResponse.setHeader("Expires", "0"); // Proxies.
-		}
+		setNoCacheHeaders(httpRequest, httpResponse);
 		
 		// Add the user context to the current thread 
 		Context.setUserContext(userContext);
@@ -121,4 +158,221 @@ public class OpenmrsFilter extends OncePerRequestFilter {
 		
 	}
 	
+	//TODO We do not cache the csrfguard javascript file because it contains the
+	//csrf token that is dynamically embedded in forms. For this to work,
+	//the OpenmrsFilter should be before the CSRFGuard filter in web.xml
+	private void setNoCacheHeaders(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
+		if (httpRequest.getRequestURI().endsWith("csrfguard")) {
+			httpResponse.setHeader("Cache-Control", "no-cache, no-store, must-revalidate"); // HTTP 1.1.
+			httpResponse.setHeader("Pragma", "no-cache"); // HTTP 1.0.
+			httpResponse.setHeader("Expires", "0"); // Proxies.
+		}
+	}
+	
+	/**
+	 * Handles a request without creating a session or writing to an existing one. The user context
+	 * of the existing session is used if there is one, otherwise a context is taken from a pool and
+	 * reset when the request completes. If the request created a session after all, e.g. because it
+	 * logged in, the pooled context is bound to that session instead so that the later requests of
+	 * the session keep what the request did.
+	 */
+	private void doFilterSessionless(HttpServletRequest httpRequest, HttpServletResponse httpResponse,
+	        FilterChain chain) throws ServletException, IOException {
+		log.debug("handling request {} without a session", httpRequest.getRequestURI());
+		
+		HttpSession httpSession = httpRequest.getSession(false);
+		UserContext userContext = httpSession == null ? null
+		        : (UserContext) httpSession.getAttribute(WebConstants.OPENMRS_USER_CONTEXT_HTTPSESSION_ATTR);
+		UserContextPool pool = null;
+		if (userContext == null) {
+			pool = getUserContextPool();
+			userContext = pool.borrow();
+		}
+		
+		httpRequest.setAttribute(WebConstants.INIT_REQ_UNIQUE_ID, String.valueOf(System.currentTimeMillis()));
+		setNoCacheHeaders(httpRequest, httpResponse);
+		Context.setUserContext(userContext);
+		Thread.currentThread().setContextClassLoader(OpenmrsClassLoader.getInstance());
+		try {
+			chain.doFilter(httpRequest, httpResponse);
+		}
+		finally {
+			Context.clearUserContext();
+			if (pool != null && !bindToCreatedSession(httpRequest, userContext)) {
+				pool.release(userContext);
+			}
+		}
+	}
+	
+	/**
+	 * Sets a pooled user context onto the session the request created, unless the session already
+	 * holds a context of its own
+	 *
+	 * @return true if the context was bound to the session and must not go back to the pool
+	 */
+	private boolean bindToCreatedSession(HttpServletRequest httpRequest, UserContext userContext) {
+		HttpSession httpSession;
+		try {
+			httpSession = httpRequest.getSession(false);
+			if (httpSession == null
+			        || httpSession.getAttribute(WebConstants.OPENMRS_USER_CONTEXT_HTTPSESSION_ATTR) != null) {
+				return false;
+			}
+			httpSession.setAttribute(WebConstants.OPENMRS_USER_CONTEXT_HTTPSESSION_ATTR, userContext);
+		}
+		catch (IllegalStateException e) {
+			// the session was invalidated by the request
+			return false;
+		}
+		
+		User user = userContext.getAuthenticatedUser();
+		httpSession.setAttribute("username", user != null ? user.getUsername() : "-anonymous user-");
+		httpSession.setAttribute("locale", userContext.getLocale());
+		log.debug("Bound user context {} to the session created by request {}", userContext,
+		    httpRequest.getRequestURI());
+		return true;
+	}
+	
+	/**
+	 * A request is handled without a session if the sessionless mode is enabled and its path is one of
+	 * the configured sessionless paths. Other requests, including requests authenticated by their own
+	 * Authorization header, get a session as usual so that clients logging in with the header can go
+	 * on with the session cookie.
+	 *
+	 * @param httpRequest the request to check
+	 * @return true if the request should not create a session
+	 */
+	boolean isSessionless(HttpServletRequest httpRequest) {
+		SessionlessSettings settings = getSessionlessSettings();
+		if (!settings.enabled) {
+			return false;
+		}
+		String path = httpRequest.getRequestURI();
+		String contextPath = httpRequest.getContextPath();
+		if (path != null && contextPath != null && path.startsWith(contextPath)) {
+			path = path.substring(contextPath.length());
+		}
+		return settings.matches(path);
+	}
+	
+	/**
+	 * The settings are read once the runtime properties are loaded, they are empty while the
+	 * initialization wizard runs.
+	 */
+	private SessionlessSettings getSessionlessSettings() {
+		SessionlessSettings settings = sessionlessSettings;
+		if (settings == null) {
+			Properties properties = Context.getRuntimeProperties();
+			settings = new SessionlessSettings(properties.getProperty(SESSIONLESS_ENABLED_PROPERTY), properties
+			        .getProperty(SESSIONLESS_PATHS_PROPERTY, DEFAULT_SESSIONLESS_PATHS));
+			if (!properties.isEmpty()) {
+				sessionlessSettings = settings;
+			}
+		}
+		return settings;
+	}
+	
+	/**
+	 * @return the pool of user contexts for the current authentication scheme
+	 */
+	UserContextPool getUserContextPool() {
+		UserContextPool pool = userContextPool;
+		AuthenticationScheme scheme = Context.getAuthenticationScheme();
+		if (pool == null || pool.authenticationScheme != scheme) {
+			pool = new UserContextPool(scheme);
+			userContextPool = pool;
+		}
+		return pool;
+	}
+	
+	/**
+	 * The parsed values of the sessionless runtime properties. Paths ending with <tt>/*</tt> match
+	 * every path below them, paths starting with <tt>*.</tt> every path with that extension, other
+	 * paths only themselves.
+	 */
+	private static class SessionlessSettings {
+		
+		private final boolean enabled;
+		
+		private final List<String> prefixes = new ArrayList<>();
+		
+		private final List<String> suffixes = new ArrayList<>();
+		
+		private final Set<String> exactPaths = new HashSet<>();
+		
+		SessionlessSettings(String enabled, String paths) {
+			this.enabled = Boolean.parseBoolean(StringUtils.trim(enabled));
+			if (StringUtils.isNotBlank(paths)) {
+				for (String path : paths.split(",")) {
+					path = path.trim();
+					if (path.endsWith("/*")) {
+						prefixes.add(path.substring(0, path.length() - 1));
+					} else if (path.startsWith("*.")) {
+						suffixes.add(path.substring(1));
+					} else if (!path.isEmpty()) {
+						exactPaths.add(path);
+					}
+				}
+			}
+		}
+		
+		boolean matches(String path) {
+			if (path == null) {
+				return false;
+			}
+			if (exactPaths.contains(path)) {
+				return true;
+			}
+			for (String prefix : prefixes) {
+				if (path.startsWith(prefix)) {
+					return true;
+				}
+			}
+			for (String suffix : suffixes) {
+				if (path.endsWith(suffix)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+	
+	/**
+	 * A bounded pool of user contexts for requests without a session. Contexts are reset when they
+	 * are released, so nothing a request did to its context is seen by the next one.
+	 */
+	static class UserContextPool {
+		
+		private final AuthenticationScheme authenticationScheme;
+		
+		private final BlockingQueue<UserContext> contexts = new ArrayBlockingQueue<>(MAX_POOLED_USER_CONTEXTS);
+		
+		private final LongAdder created = new LongAdder();
+		
+		UserContextPool(AuthenticationScheme authenticationScheme) {
+			this.authenticationScheme = authenticationScheme;
+		}
+		
+		UserContext borrow() {
+			UserContext userContext = contexts.poll();
+			if (userContext == null) {
+				created.increment();
+				userContext = new UserContext(authenticationScheme);
+			}
+			return userContext;
+		}
+		
+		void release(UserContext userContext) {
+			userContext.reset();
+			contexts.offer(userContext);
+		}
+		
+		/**
+		 * @return the number of user contexts this pool has created
+		 */
+		long getCreatedCount() {
+			return created.sum();
+		}
+	}
+	
 }
@@ -0,0 +1,201 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.web.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openmrs.api.context.Context;
+import org.openmrs.api.context.UserContext;
+import org.openmrs.test.TestUtil;
+import org.openmrs.web.WebConstants;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+
+class OpenmrsFilterTest {
+	
+	Properties runtimeProperties;
+	
+	OpenmrsFilter filter;
+	
+	List<UserContext> userContexts;
+	
+	FilterChain chain;
+	
+	@BeforeEach
+	void setupRuntimeProperties() {
+		runtimeProperties = TestUtil.getRuntimeProperties(WebConstants.WEBAPP_NAME);
+		Context.setRuntimeProperties(runtimeProperties);
+	}
+	
+	@BeforeEach
+	void setup() {
+		filter = new OpenmrsFilter();
+		userContexts = new ArrayList<>();
+		chain = (request, response) -> userContexts.add(Context.getUserContext());
+	}
+	
+	@Test
+	void shouldCreateASessionWhenTheSessionlessModeIsDisabled() throws Exception {
+		MockHttpServletRequest request = request("/moduleResources/module/script.js");
+		
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+		
+		assertNotNull(request.getSession(false));
+		assertSame(userContexts.get(0),
+		    request.getSession(false).getAttribute(WebConstants.OPENMRS_USER_CONTEXT_HTTPSESSION_ATTR));
+	}
+	
+	@Test
+	void shouldNotCreateASessionForSessionlessPaths() throws Exception {
+		enableSessionlessMode();
+		
+		for (String path : new String[] { "/moduleResources/module/script.js", "/images/logo.png", "/favicon.ico" }) {
+			MockHttpServletRequest request = request(path);
+			filter.doFilter(request, new MockHttpServletResponse(), chain);
+			assertNull(request.getSession(false), path);
+		}
+		
+		assertEquals(3, userContexts.size());
+		assertNotNull(userContexts.get(0));
+	}
+	
+	@Test
+	void shouldUseTheConfiguredSessionlessPaths() throws Exception {
+		enableSessionlessMode();
+		runtimeProperties.setProperty(OpenmrsFilter.SESSIONLESS_PATHS_PROPERTY, "/health, *.css");
+		
+		MockHttpServletRequest health = request("/health");
+		MockHttpServletRequest css = request("/style/openmrs.css");
+		MockHttpServletRequest image = request("/images/logo.png");
+		filter.doFilter(health, new MockHttpServletResponse(), chain);
+		filter.doFilter(css, new MockHttpServletResponse(), chain);
+		filter.doFilter(image, new MockHttpServletResponse(), chain);
+		
+		assertNull(health.getSession(false));
+		assertNull(css.getSession(false));
+		assertNotNull(image.getSession(false));
+	}
+	
+	@Test
+	void shouldReuseResetUserContextsForSessionlessRequestsAuthenticatedByTheirHeader() throws Exception {
+		enableSessionlessMode();
+		runtimeProperties.setProperty(OpenmrsFilter.SESSIONLESS_PATHS_PROPERTY, "/ws/fhir2/*");
+		FilterChain changingChain = (request, response) -> {
+			userContexts.add(Context.getUserContext());
+			Context.getUserContext().setLocale(Locale.FRENCH);
+		};
+		
+		int requests = 100;
+		for (int i = 0; i < requests; i++) {
+			MockHttpServletRequest request = request("/ws/fhir2/R4/Patient");
+			request.addHeader("Authorization", "Basic YWRtaW46dGVzdA==");
+			filter.doFilter(request, new MockHttpServletResponse(), i == 0 ? changingChain : chain);
+			assertNull(request.getSession(false));
+		}
+		
+		assertEquals(requests, userContexts.size());
+		assertEquals(1, filter.getUserContextPool().getCreatedCount());
+		assertSame(userContexts.get(0), userContexts.get(requests - 1));
+		assertEquals(Locale.ENGLISH.getLanguage(), userContexts.get(1).getLocale().getLanguage());
+	}
+	
+	@Test
+	void shouldKeepTheUserContextOfAHeaderLoginForTheLaterRequestsOfTheSession() throws Exception {
+		enableSessionlessMode();
+		FilterChain loginChain = (request, response) -> {
+			userContexts.add(Context.getUserContext());
+			Context.getUserContext().setLocale(Locale.FRENCH);
+		};
+		MockHttpServletRequest login = request("/ws/rest/v1/session");
+		login.addHeader("Authorization", "Basic YWRtaW46dGVzdA==");
+		
+		filter.doFilter(login, new MockHttpServletResponse(), loginChain);
+		MockHttpServletRequest next = request("/ws/rest/v1/patient");
+		next.setSession(login.getSession(false));
+		filter.doFilter(next, new MockHttpServletResponse(), chain);
+		
+		assertNotNull(login.getSession(false));
+		assertSame(userContexts.get(0), userContexts.get(1));
+		assertEquals(Locale.FRENCH, userContexts.get(1).getLocale());
+	}
+	
+	@Test
+	void shouldBindTheUserContextOfASessionlessRequestToTheSessionItCreated() throws Exception {
+		enableSessionlessMode();
+		runtimeProperties.setProperty(OpenmrsFilter.SESSIONLESS_PATHS_PROPERTY, "/ws/rest/*");
+		FilterChain loginChain = (request, response) -> {
+			userContexts.add(Context.getUserContext());
+			Context.getUserContext().setLocale(Locale.FRENCH);
+			((HttpServletRequest) request).getSession();
+		};
+		MockHttpServletRequest login = request("/ws/rest/v1/session");
+		login.addHeader("Authorization", "Basic YWRtaW46dGVzdA==");
+		
+		filter.doFilter(login, new MockHttpServletResponse(), loginChain);
+		MockHttpServletRequest next = request("/ws/rest/v1/patient");
+		next.setSession(login.getSession(false));
+		filter.doFilter(next, new MockHttpServletResponse(), chain);
+		
+		assertSame(userContexts.get(0),
+		    login.getSession(false).getAttribute(WebConstants.OPENMRS_USER_CONTEXT_HTTPSESSION_ATTR));
+		assertSame(userContexts.get(0), userContexts.get(1));
+		assertEquals(Locale.FRENCH, userContexts.get(1).getLocale());
+		assertNotSame(userContexts.get(0), filter.getUserContextPool().borrow());
+	}
+	
+	@Test
+	void shouldNotCacheTheCsrfguardScriptOfSessionlessRequests() throws Exception {
+		enableSessionlessMode();
+		runtimeProperties.setProperty(OpenmrsFilter.SESSIONLESS_PATHS_PROPERTY, "/csrfguard");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		
+		filter.doFilter(request("/csrfguard"), response, chain);
+		
+		assertEquals("no-cache, no-store, must-revalidate", response.getHeader("Cache-Control"));
+	}
+	
+	@Test
+	void shouldUseTheSessionOfRequestsAuthenticatedByTheirHeaderThatArePartOfOne() throws Exception {
+		enableSessionlessMode();
+		MockHttpSession session = new MockHttpSession();
+		MockHttpServletRequest request = request("/ws/rest/v1/patient");
+		request.addHeader("Authorization", "Basic YWRtaW46dGVzdA==");
+		request.setSession(session);
+		
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+		
+		assertSame(userContexts.get(0), session.getAttribute(WebConstants.OPENMRS_USER_CONTEXT_HTTPSESSION_ATTR));
+		assertEquals("-anonymous user-", session.getAttribute("username"));
+	}
+	
+	private void enableSessionlessMode() {
+		runtimeProperties.setProperty(OpenmrsFilter.SESSIONLESS_ENABLED_PROPERTY, "true");
+	}
+	
+	private MockHttpServletRequest request(String path) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/openmrs" + path);
+		request.setContextPath("/openmrs");
+		return request;
+	}
+}